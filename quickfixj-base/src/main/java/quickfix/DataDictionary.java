@@ -27,26 +27,28 @@ import org.w3c.dom.NodeList;
 import quickfix.field.BeginString;
 import quickfix.field.MsgType;
 import quickfix.field.SessionRejectReason;
-import quickfix.field.converter.BooleanConverter;
 import quickfix.field.converter.CharArrayConverter;
-import quickfix.field.converter.CharConverter;
-import quickfix.field.converter.DoubleConverter;
-import quickfix.field.converter.IntConverter;
 import quickfix.field.converter.UtcDateOnlyConverter;
 import quickfix.field.converter.UtcTimeOnlyConverter;
 import quickfix.field.converter.UtcTimestampConverter;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 import javax.xml.XMLConstants;
 
@@ -108,6 +110,9 @@ public class DataDictionary {
     private final StringIntegerMap<GroupInfo> groups = new StringIntegerMap<>();
     private final Map<String, Node> components = new HashMap<>();
     private int[] orderedFieldsArray;
+    // compiled on first use, the dictionary does not change after it has been loaded
+    private final Map<String, MessagePlan> messagePlans = new ConcurrentHashMap<>();
+    private volatile FieldTable fieldTable;
 
     private DataDictionary() {
     }
@@ -275,7 +280,7 @@ public class DataDictionary {
      * @return true if the field is defined, false otherwise
      */
     public boolean isField(int field) {
-        return fields.contains(field);
+        return getFieldTable().fields.contains(field);
     }
 
     /**
@@ -285,7 +290,7 @@ public class DataDictionary {
      * @return the field type
      */
     public FieldType getFieldType(int field) {
-        return fieldTypes.get(field);
+        return getFieldTable().types.get(field);
     }
 
     private void addMsgType(String msgType, String msgName) {
@@ -352,8 +357,7 @@ public class DataDictionary {
      * @return true if field is defined for message, false otherwise.
      */
     public boolean isMsgField(String msgType, int field) {
-        final Set<Integer> fields = messageFields.get(msgType);
-        return fields != null && fields.contains(field);
+        return getMessagePlan(msgType).isField(field);
     }
 
     /**
@@ -403,8 +407,7 @@ public class DataDictionary {
      * @return true if field is required, false otherwise
      */
     public boolean isRequiredField(String msgType, int field) {
-        final Set<Integer> fields = requiredFields.get(msgType);
-        return fields != null && fields.contains(field);
+        return getMessagePlan(msgType).isRequiredField(field);
     }
 
     /**
@@ -438,8 +441,7 @@ public class DataDictionary {
      * @return true if field is enumerated, false otherwise
      */
     public boolean hasFieldValue(int field) {
-        final Set<String> values = fieldValues.get(field);
-        return values != null && !values.isEmpty();
+        return getFieldTable().values.get(field) != null;
     }
 
     /**
@@ -450,28 +452,8 @@ public class DataDictionary {
      * @return true if field value is valid, false otherwise
      */
     public boolean isFieldValue(int field, String value) {
-        final Set<String> validValues = fieldValues.get(field);
-
-        if (validValues == null || validValues.isEmpty()) {
-            return false;
-        }
-
-        if (validValues.contains(ANY_VALUE)) {
-            return true;
-        }
-
-        if (!isMultipleValueStringField(field)) {
-            return validValues.contains(value);
-        }
-
-        // MultipleValueString
-        for (String val : value.split(" ")) {
-            if (!validValues.contains(val)) {
-                return false;
-            }
-        }
-
-        return true;
+        final FieldValues validValues = getFieldTable().values.get(field);
+        return validValues != null && validValues.contains(value);
     }
 
     private void addGroup(String msg, int field, int delim, DataDictionary dataDictionary) {
@@ -487,7 +469,7 @@ public class DataDictionary {
      * @return true if field starts a repeating group, false otherwise
      */
     public boolean isGroup(String msg, int field) {
-        return groups.contains(msg, field);
+        return getMessagePlan(msg).isGroup(field);
     }
 
     /**
@@ -497,7 +479,7 @@ public class DataDictionary {
      * @return true if field starts a repeating group, false otherwise
      */
     public boolean isHeaderGroup(int field) {
-        return groups.contains(HEADER_ID, field);
+        return isGroup(HEADER_ID, field);
     }
 
     /**
@@ -508,7 +490,7 @@ public class DataDictionary {
      * @return an object containing group-related metadata
      */
     public GroupInfo getGroup(String msg, int field) {
-        return groups.get(msg, field);
+        return getMessagePlan(msg).getGroup(field);
     }
 
     /**
@@ -518,15 +500,44 @@ public class DataDictionary {
      * @return true if field is a raw data field, false otherwise
      */
     public boolean isDataField(int field) {
-        return fieldTypes.get(field) == FieldType.DATA;
+        return getFieldType(field) == FieldType.DATA;
     }
 
-    private boolean isMultipleValueStringField(int field) {
-        final FieldType fieldType = fieldTypes.get(field);
+    private static boolean isMultipleValueStringField(FieldType fieldType) {
         return fieldType == FieldType.MULTIPLEVALUESTRING || fieldType == FieldType.MULTIPLESTRINGVALUE ||
                fieldType == FieldType.MULTIPLECHARVALUE;
     }
 
+    /**
+     * Returns the validation plan of a message type, the header or the trailer.
+     * Plans are compiled on first use. Undefined message types get an empty plan
+     * which is not cached.
+     *
+     * @param msgType the message type, {@link #HEADER_ID} or {@link #TRAILER_ID}
+     * @return the validation plan
+     */
+    MessagePlan getMessagePlan(String msgType) {
+        final MessagePlan plan = messagePlans.get(msgType);
+        if (plan != null) {
+            return plan;
+        }
+        if (!messageFields.containsKey(msgType) && !requiredFields.containsKey(msgType)
+                && !groups.containsKey(msgType)) {
+            return MessagePlan.EMPTY;
+        }
+        return messagePlans.computeIfAbsent(msgType, k -> new MessagePlan(messageFields.get(k),
+                requiredFields.get(k), groups.get(k)));
+    }
+
+    private FieldTable getFieldTable() {
+        FieldTable table = fieldTable;
+        if (table == null) {
+            table = new FieldTable(fields, fieldTypes, fieldValues);
+            fieldTable = table;
+        }
+        return table;
+    }
+
     private void copyFrom(DataDictionary rhs) {
         hasVersion = rhs.hasVersion;
         beginString = rhs.beginString;
@@ -663,26 +674,28 @@ public class DataDictionary {
 
     private void iterate(ValidationSettings settings, FieldMap map, String msgType, DataDictionary dd) throws IncorrectTagValue,
             IncorrectDataFormat {
+        final FieldTable table = getFieldTable();
+        final MessagePlan plan = dd.getMessagePlan(msgType);
+        final boolean message = map instanceof Message;
         for (final Field<?> f : map) {
             final StringField field = (StringField) f;
 
             checkHasValue(settings, field);
 
             if (hasVersion) {
-                checkValidFormat(settings, field);
-                checkValue(field);
+                checkValidFormat(settings, field, table);
+                checkValue(field, table);
             }
 
             if (beginString != null) {
-                dd.checkField(settings, field, msgType, map instanceof Message);
-                dd.checkGroupCount(field, map, msgType);
+                dd.checkField(settings, field, plan, message);
+                checkGroupCount(field, map, plan);
             }
         }
 
         for (final List<Group> groups : map.getGroups().values()) {
             for (final Group group : groups) {
-                iterate(settings, group, msgType, dd.getGroup(msgType, group.getFieldTag())
-                        .getDataDictionary());
+                iterate(settings, group, msgType, plan.getGroup(group.getFieldTag()).getDataDictionary());
             }
         }
     }
@@ -696,19 +709,24 @@ public class DataDictionary {
 
     /** Check if field tag number is defined in spec. **/
     void checkValidTagNumber(Field<?> field) {
-        if (!fields.contains(field.getTag())) {
+        if (!isField(field.getTag())) {
             throw new FieldException(SessionRejectReason.INVALID_TAG_NUMBER, field.getField());
         }
     }
 
     /** Check if field tag is defined for message or group **/
     void checkField(ValidationSettings settings, Field<?> field, String msgType, boolean message) {
+        checkField(settings, field, getMessagePlan(msgType), message);
+    }
+
+    private void checkField(ValidationSettings settings, Field<?> field, MessagePlan plan, boolean message) {
         // use different validation for groups and messages
-        boolean messageField = message ? isMsgField(msgType, field.getField()) : fields.contains(field.getField());
+        final TagSet definedFields = getFieldTable().fields;
+        boolean messageField = message ? plan.isField(field.getField()) : definedFields.contains(field.getField());
         boolean fail = checkFieldFailure(settings, field.getField(), messageField);
 
         if (fail) {
-            if (fields.contains(field.getField())) {
+            if (definedFields.contains(field.getField())) {
                 throw new FieldException(SessionRejectReason.TAG_NOT_DEFINED_FOR_THIS_MESSAGE_TYPE, field.getField());
             } else {
                 throw new FieldException(SessionRejectReason.INVALID_TAG_NUMBER, field.getField());
@@ -726,8 +744,9 @@ public class DataDictionary {
         return fail;
     }
 
-    private void checkValidFormat(ValidationSettings settings, StringField field) throws IncorrectDataFormat {
-        FieldType fieldType = getFieldType(field.getTag());
+    private void checkValidFormat(ValidationSettings settings, StringField field, FieldTable table)
+            throws IncorrectDataFormat {
+        FieldType fieldType = table.types.get(field.getTag());
         if (fieldType == null) {
             return;
         }
@@ -754,7 +773,7 @@ public class DataDictionary {
                 case NUMINGROUP:
                 case SEQNUM:
                 case LENGTH:
-                    IntConverter.convert(field.getValue());
+                    field.intValue();
                     break;
                 case PRICE:
                 case AMT:
@@ -762,10 +781,10 @@ public class DataDictionary {
                 case FLOAT:
                 case PRICEOFFSET:
                 case PERCENTAGE:
-                    DoubleConverter.convert(field.getValue());
+                    field.doubleValue();
                     break;
                 case BOOLEAN:
-                    BooleanConverter.convert(field.getValue());
+                    field.booleanValue();
                     break;
                 case UTCDATE:
                     UtcDateOnlyConverter.convert(field.getValue());
@@ -779,7 +798,7 @@ public class DataDictionary {
                     break;
                 case CHAR:
                     if (beginString.compareTo(FixVersions.BEGINSTRING_FIX41) > 0) {
-                        CharConverter.convert(field.getValue());
+                        field.charValue();
                     } // otherwise it's a String, for older FIX versions
                     break;
             }
@@ -788,9 +807,10 @@ public class DataDictionary {
         }
     }
 
-    private void checkValue(StringField field) throws IncorrectTagValue {
+    private void checkValue(StringField field, FieldTable table) throws IncorrectTagValue {
         int tag = field.getField();
-        if (hasFieldValue(tag) && !isFieldValue(tag, field.getValue())) {
+        final FieldValues validValues = table.values.get(tag);
+        if (validValues != null && !validValues.contains(field.getValue())) {
             throw new IncorrectTagValue(tag);
         }
     }
@@ -804,9 +824,9 @@ public class DataDictionary {
     }
 
     /** Check if group count matches number of groups in **/
-    private void checkGroupCount(StringField field, FieldMap fieldMap, String msgType) {
+    private static void checkGroupCount(StringField field, FieldMap fieldMap, MessagePlan plan) {
         final int fieldNum = field.getField();
-        if (isGroup(msgType, fieldNum)) {
+        if (plan.isGroup(fieldNum)) {
             if (fieldMap.getGroupCount(fieldNum) != Integer.parseInt(field.getValue())) {
                 throw new FieldException(
                         SessionRejectReason.INCORRECT_NUMINGROUP_COUNT_FOR_REPEATING_GROUP,
@@ -827,12 +847,13 @@ public class DataDictionary {
     }
 
     private void checkHasRequired(String msgType, FieldMap fields, boolean bodyOnly) {
-        final Set<Integer> requiredFieldsForMessage = requiredFields.get(msgType);
-        if (requiredFieldsForMessage == null || requiredFieldsForMessage.isEmpty()) {
+        final MessagePlan plan = getMessagePlan(msgType);
+        final int[] requiredTags = plan.requiredTags;
+        if (requiredTags.length == 0) {
             return;
         }
 
-        for (int field : requiredFieldsForMessage) {
+        for (int field : requiredTags) {
             if (!fields.isSetField(field)) {
                 throw new FieldException(SessionRejectReason.REQUIRED_TAG_MISSING, field);
             }
@@ -841,7 +862,7 @@ public class DataDictionary {
         final Map<Integer, List<Group>> groups = fields.getGroups();
         if (!groups.isEmpty()) {
             for (Map.Entry<Integer, List<Group>> entry : groups.entrySet()) {
-                final GroupInfo p = getGroup(msgType, entry.getKey());
+                final GroupInfo p = plan.getGroup(entry.getKey());
                 if (p != null) {
                     for (Group groupInstance : entry.getValue()) {
                         p.getDataDictionary().checkHasRequired(groupInstance, groupInstance,
@@ -852,6 +873,197 @@ public class DataDictionary {
         }
     }
 
+    /**
+     * Writes the dictionary in the binary format read by {@link #readSnapshot(DataInput)}.
+     * Entries are written in sorted order, so equal dictionaries yield equal snapshots.
+     *
+     * @param out the output
+     * @throws IOException if the dictionary cannot be written
+     * @see DataDictionarySnapshot
+     */
+    void writeSnapshot(DataOutput out) throws IOException {
+        out.writeBoolean(hasVersion);
+        writeNullableString(out, beginString);
+        writeNullableString(out, fullVersion);
+        writeNullableString(out, majorVersion);
+        out.writeInt(minorVersion);
+        out.writeInt(extensionPack);
+        out.writeInt(servicePack);
+        writeTagSets(out, messageFields);
+        writeTagSets(out, requiredFields);
+        writeStrings(out, messages);
+        writeStringMap(out, messageCategory);
+        writeStringMap(out, messageTypeForName);
+        out.writeInt(fields.size());
+        for (int field : fields) {
+            out.writeInt(field);
+        }
+        out.writeInt(fieldTypes.size());
+        for (Map.Entry<Integer, FieldType> entry : new TreeMap<>(fieldTypes).entrySet()) {
+            out.writeInt(entry.getKey());
+            out.writeUTF(entry.getValue().name());
+        }
+        out.writeInt(fieldValues.size());
+        for (Map.Entry<Integer, Set<String>> entry : new TreeMap<>(fieldValues).entrySet()) {
+            out.writeInt(entry.getKey());
+            writeStrings(out, entry.getValue());
+        }
+        out.writeInt(fieldNames.size());
+        for (Map.Entry<Integer, String> entry : new TreeMap<>(fieldNames).entrySet()) {
+            out.writeInt(entry.getKey());
+            out.writeUTF(entry.getValue());
+        }
+        out.writeInt(names.size());
+        for (Map.Entry<String, Integer> entry : new TreeMap<>(names).entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+        out.writeInt(valueNames.size());
+        for (Map.Entry<Integer, Map<String, String>> entry : new TreeMap<>(valueNames).entrySet()) {
+            out.writeInt(entry.getKey());
+            writeStringMap(out, entry.getValue());
+        }
+        out.writeInt(groups.size());
+        for (Map.Entry<String, Map<Integer, GroupInfo>> outer : new TreeMap<>(groups).entrySet()) {
+            out.writeUTF(outer.getKey());
+            out.writeInt(outer.getValue().size());
+            for (Map.Entry<Integer, GroupInfo> entry : new TreeMap<>(outer.getValue()).entrySet()) {
+                out.writeInt(entry.getKey());
+                out.writeInt(entry.getValue().getDelimiterField());
+                entry.getValue().getDataDictionary().writeSnapshot(out);
+            }
+        }
+    }
+
+    /**
+     * Reads a dictionary written by {@link #writeSnapshot(DataOutput)}.
+     *
+     * @param in the input
+     * @return the dictionary
+     * @throws IOException if the dictionary cannot be read
+     */
+    static DataDictionary readSnapshot(DataInput in) throws IOException {
+        final DataDictionary dd = readSnapshotContent(in);
+        dd.calculateOrderedFields();
+        return dd;
+    }
+
+    private static DataDictionary readSnapshotContent(DataInput in) throws IOException {
+        final DataDictionary dd = new DataDictionary();
+        dd.hasVersion = in.readBoolean();
+        dd.beginString = readNullableString(in);
+        dd.fullVersion = readNullableString(in);
+        dd.majorVersion = readNullableString(in);
+        dd.minorVersion = in.readInt();
+        dd.extensionPack = in.readInt();
+        dd.servicePack = in.readInt();
+        readTagSets(in, dd.messageFields);
+        readTagSets(in, dd.requiredFields);
+        dd.messages.addAll(readStrings(in));
+        readStringMap(in, dd.messageCategory);
+        readStringMap(in, dd.messageTypeForName);
+        for (int i = in.readInt(); i > 0; i--) {
+            dd.fields.add(in.readInt());
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+            final int field = in.readInt();
+            final String type = in.readUTF();
+            try {
+                dd.fieldTypes.put(field, FieldType.valueOf(type));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Unknown field type " + type + " of field " + field, e);
+            }
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+            final int field = in.readInt();
+            dd.fieldValues.put(field, readStrings(in));
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+            final int field = in.readInt();
+            dd.fieldNames.put(field, in.readUTF());
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+            final String name = in.readUTF();
+            dd.names.put(name, in.readInt());
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+            final int field = in.readInt();
+            readStringMap(in, dd.valueNames.computeIfAbsent(field, k -> new HashMap<>()));
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+            final String msgType = in.readUTF();
+            for (int j = in.readInt(); j > 0; j--) {
+                final int field = in.readInt();
+                final int delimiterField = in.readInt();
+                dd.groups.put(msgType, field, new GroupInfo(delimiterField, readSnapshotContent(in)));
+            }
+        }
+        return dd;
+    }
+
+    private static void writeNullableString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeStrings(DataOutput out, Collection<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : new TreeSet<>(values)) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static Set<String> readStrings(DataInput in) throws IOException {
+        final Set<String> values = new HashSet<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            values.add(in.readUTF());
+        }
+        return values;
+    }
+
+    private static void writeStringMap(DataOutput out, Map<String, String> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, String> entry : new TreeMap<>(map).entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeUTF(entry.getValue());
+        }
+    }
+
+    private static void readStringMap(DataInput in, Map<String, String> map) throws IOException {
+        for (int i = in.readInt(); i > 0; i--) {
+            final String key = in.readUTF();
+            map.put(key, in.readUTF());
+        }
+    }
+
+    private static void writeTagSets(DataOutput out, Map<String, Set<Integer>> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, Set<Integer>> entry : new TreeMap<>(map).entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (int tag : new TreeSet<>(entry.getValue())) {
+                out.writeInt(tag);
+            }
+        }
+    }
+
+    private static void readTagSets(DataInput in, Map<String, Set<Integer>> map) throws IOException {
+        for (int i = in.readInt(); i > 0; i--) {
+            final String key = in.readUTF();
+            final Set<Integer> tags = new HashSet<>();
+            for (int j = in.readInt(); j > 0; j--) {
+                tags.add(in.readInt());
+            }
+            map.put(key, tags);
+        }
+    }
+
     private int countElementNodes(NodeList nodes) {
         int elementNodesCount = 0;
 
@@ -1320,6 +1532,183 @@ public class DataDictionary {
 
     }
 
+    /**
+     * The validation metadata of a single message type, compiled from the
+     * dictionary maps so that per-field checks do not need to look up the message
+     * type and box the tag.
+     */
+    static final class MessagePlan {
+        static final MessagePlan EMPTY = new MessagePlan(null, null, null);
+
+        private final TagSet fields;
+        private final TagSet requiredFields;
+        private final int[] requiredTags;
+        private final IntMap<GroupInfo> groups = new IntMap<>();
+
+        private MessagePlan(Set<Integer> fields, Set<Integer> requiredFields, Map<Integer, GroupInfo> groups) {
+            this.fields = new TagSet(fields);
+            this.requiredFields = new TagSet(requiredFields);
+            // keep the order of the set, it determines which missing field is reported first
+            this.requiredTags = requiredFields != null
+                    ? requiredFields.stream().mapToInt(Integer::intValue).toArray()
+                    : new int[0];
+            if (groups != null) {
+                this.groups.putAll(groups);
+            }
+        }
+
+        boolean isField(int tag) {
+            return fields.contains(tag);
+        }
+
+        boolean isRequiredField(int tag) {
+            return requiredFields.contains(tag);
+        }
+
+        boolean isGroup(int tag) {
+            return groups.containsKey(tag);
+        }
+
+        GroupInfo getGroup(int tag) {
+            return groups.get(tag);
+        }
+    }
+
+    /**
+     * The dictionary-wide field metadata, indexed by tag.
+     */
+    private static final class FieldTable {
+        private final TagSet fields;
+        private final TagTable<FieldType> types;
+        private final TagTable<FieldValues> values;
+
+        FieldTable(Set<Integer> fields, Map<Integer, FieldType> fieldTypes, Map<Integer, Set<String>> fieldValues) {
+            this.fields = new TagSet(fields);
+            this.types = new TagTable<>(fieldTypes);
+            final Map<Integer, FieldValues> values = new HashMap<>();
+            for (Map.Entry<Integer, Set<String>> entry : fieldValues.entrySet()) {
+                if (!entry.getValue().isEmpty()) {
+                    values.put(entry.getKey(), new FieldValues(entry.getValue(),
+                            isMultipleValueStringField(fieldTypes.get(entry.getKey()))));
+                }
+            }
+            this.values = new TagTable<>(values);
+        }
+    }
+
+    /**
+     * The enumerated values of a field.
+     */
+    private static final class FieldValues {
+        private final Set<String> values;
+        private final boolean anyValue;
+        private final boolean multipleValues;
+
+        FieldValues(Set<String> values, boolean multipleValues) {
+            this.values = new HashSet<>(values);
+            this.anyValue = values.contains(ANY_VALUE);
+            this.multipleValues = multipleValues;
+        }
+
+        boolean contains(String value) {
+            if (anyValue) {
+                return true;
+            }
+            if (!multipleValues) {
+                return values.contains(value);
+            }
+            for (String val : value.split(" ")) {
+                if (!values.contains(val)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A set of tags backed by a bitset. Tags beyond {@link #MAX_DENSE_TAG} are kept in a hash set.
+     */
+    private static final class TagSet {
+        private static final int MAX_DENSE_TAG = 1 << 16;
+
+        private final long[] bits;
+        private final Set<Integer> sparseTags;
+
+        TagSet(Collection<Integer> tags) {
+            if (tags == null) {
+                tags = Collections.emptySet();
+            }
+            int maxTag = -1;
+            for (int tag : tags) {
+                if (tag >= 0 && tag < MAX_DENSE_TAG) {
+                    maxTag = Math.max(maxTag, tag);
+                }
+            }
+            bits = new long[(maxTag >> 6) + 1];
+            Set<Integer> sparseTags = null;
+            for (int tag : tags) {
+                if (tag >= 0 && tag < MAX_DENSE_TAG) {
+                    bits[tag >>> 6] |= 1L << tag;
+                } else {
+                    if (sparseTags == null) {
+                        sparseTags = new HashSet<>();
+                    }
+                    sparseTags.add(tag);
+                }
+            }
+            this.sparseTags = sparseTags;
+        }
+
+        boolean contains(int tag) {
+            final int index = tag >>> 6;
+            if (index < bits.length) {
+                return (bits[index] & 1L << tag) != 0;
+            }
+            return sparseTags != null && sparseTags.contains(tag);
+        }
+    }
+
+    /**
+     * A map from tag to value backed by an array. Tags beyond {@link TagSet#MAX_DENSE_TAG}
+     * are kept in a hash map.
+     */
+    private static final class TagTable<V> {
+        private final Object[] denseValues;
+        private final Map<Integer, V> sparseValues;
+
+        TagTable(Map<Integer, V> values) {
+            int maxTag = -1;
+            for (int tag : values.keySet()) {
+                if (tag >= 0 && tag < TagSet.MAX_DENSE_TAG) {
+                    maxTag = Math.max(maxTag, tag);
+                }
+            }
+            denseValues = new Object[maxTag + 1];
+            Map<Integer, V> sparseValues = null;
+            for (Map.Entry<Integer, V> entry : values.entrySet()) {
+                final int tag = entry.getKey();
+                if (tag >= 0 && tag < TagSet.MAX_DENSE_TAG) {
+                    denseValues[tag] = entry.getValue();
+                } else {
+                    if (sparseValues == null) {
+                        sparseValues = new HashMap<>();
+                    }
+                    sparseValues.put(tag, entry.getValue());
+                }
+            }
+            this.sparseValues = sparseValues;
+        }
+
+        @SuppressWarnings("unchecked")
+        V get(int tag) {
+            if (tag >= 0 && tag < denseValues.length) {
+                return (V) denseValues[tag];
+            }
+            return sparseValues != null ? sparseValues.get(tag) : null;
+        }
+    }
+
     /**
      * Contains meta-data for FIX repeating groups
      */
@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+package quickfix;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+import static quickfix.FileUtil.Location.CLASSLOADER_RESOURCE;
+import static quickfix.FileUtil.Location.CONTEXT_RESOURCE;
+import static quickfix.FileUtil.Location.FILESYSTEM;
+import static quickfix.FileUtil.Location.URL;
+
+/**
+ * Reads and writes binary snapshots of data dictionaries. Loading a snapshot
+ * avoids parsing the XML dictionary and takes a fraction of the time.
+ * <p>
+ * A snapshot records a checksum of the XML it was compiled from.
+ * {@link #load(String, File)} uses a snapshot only while that checksum matches
+ * and otherwise compiles the XML again, so snapshots kept in a directory are
+ * created on first load and are refreshed when the dictionary changes.
+ * <p>
+ * Snapshots can also be compiled ahead of time, for example during the build:
+ * <pre>
+ * java -cp quickfixj-base.jar quickfix.DataDictionarySnapshot FIX50SP2.xml FIX50SP2.dds
+ * </pre>
+ * A session whose data dictionary setting names a file ending with
+ * {@link #FILE_EXTENSION} loads it as a snapshot.
+ */
+public final class DataDictionarySnapshot {
+
+    /**
+     * The file name extension of data dictionary snapshots.
+     */
+    public static final String FILE_EXTENSION = ".dds";
+
+    private static final int MAGIC = 0x51464444; // "QFDD"
+    private static final int FORMAT_VERSION = 1;
+
+    private DataDictionarySnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of a data dictionary.
+     *
+     * @param dictionary the dictionary
+     * @param sourceChecksum the checksum of the XML the dictionary was loaded from
+     * @param out the stream to write to, it is flushed but not closed
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static void write(DataDictionary dictionary, long sourceChecksum, OutputStream out) throws IOException {
+        final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeLong(sourceChecksum);
+        dictionary.writeSnapshot(data);
+        data.flush();
+    }
+
+    /**
+     * Reads a data dictionary snapshot.
+     *
+     * @param in the stream to read from
+     * @return the data dictionary
+     * @throws IOException if the stream does not contain a snapshot or it cannot be read
+     */
+    public static DataDictionary read(InputStream in) throws IOException {
+        final DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        readChecksum(data);
+        return DataDictionary.readSnapshot(data);
+    }
+
+    /**
+     * Loads a data dictionary snapshot from a URL, a file or a class path resource.
+     *
+     * @param location the location of the snapshot
+     * @return the data dictionary
+     * @throws ConfigError if the snapshot cannot be found or read
+     */
+    public static DataDictionary load(String location) throws ConfigError {
+        try (InputStream in = open(location)) {
+            return read(in);
+        } catch (IOException e) {
+            throw new ConfigError(location + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Loads an XML data dictionary using a snapshot kept in a directory. The
+     * snapshot is used if it was compiled from the current XML, otherwise the XML
+     * is loaded and the snapshot is written.
+     *
+     * @param location the location of the XML data dictionary
+     * @param snapshotDirectory the directory containing the snapshots
+     * @return the data dictionary
+     * @throws ConfigError if the dictionary cannot be loaded or the snapshot cannot be written
+     */
+    public static DataDictionary load(String location, File snapshotDirectory) throws ConfigError {
+        final byte[] xml = readXml(location);
+        final long checksum = checksum(xml);
+        final File snapshot = new File(snapshotDirectory, location.replaceAll("[^a-zA-Z0-9.-]", "_") + FILE_EXTENSION);
+        if (snapshot.isFile()) {
+            try (DataInputStream data = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshot)))) {
+                if (readChecksum(data) == checksum) {
+                    return DataDictionary.readSnapshot(data);
+                }
+            } catch (IOException e) {
+                // unreadable or written by an incompatible version, compile it again
+            }
+        }
+
+        final DataDictionary dictionary;
+        try {
+            dictionary = new DataDictionary(new ByteArrayInputStream(xml));
+        } catch (ConfigError e) {
+            throw new ConfigError(location + ": " + e.getMessage(), e);
+        }
+        try {
+            Files.createDirectories(snapshotDirectory.toPath());
+            // write to a temporary file first, concurrent readers never see a partial snapshot
+            final File temporary = File.createTempFile(snapshot.getName(), ".tmp", snapshotDirectory);
+            try (OutputStream out = new FileOutputStream(temporary)) {
+                write(dictionary, checksum, out);
+            }
+            Files.move(temporary.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ConfigError("Could not write data dictionary snapshot " + snapshot + ": " + e.getMessage(), e);
+        }
+        return dictionary;
+    }
+
+    /**
+     * Compiles an XML data dictionary into a snapshot file.
+     *
+     * @param args the location of the XML data dictionary and the snapshot file
+     * @throws Exception if the dictionary cannot be compiled
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("usage: " + DataDictionarySnapshot.class.getName() + " dictionary.xml snapshot"
+                    + FILE_EXTENSION);
+            System.exit(1);
+        }
+        final byte[] xml = readXml(args[0]);
+        final DataDictionary dictionary = new DataDictionary(new ByteArrayInputStream(xml));
+        try (OutputStream out = new FileOutputStream(args[1])) {
+            write(dictionary, checksum(xml), out);
+        }
+    }
+
+    private static long readChecksum(DataInputStream data) throws IOException {
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a data dictionary snapshot");
+        }
+        final int version = data.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported data dictionary snapshot version " + version);
+        }
+        return data.readLong();
+    }
+
+    private static long checksum(byte[] xml) {
+        final CRC32 crc = new CRC32();
+        crc.update(xml, 0, xml.length);
+        return crc.getValue();
+    }
+
+    private static byte[] readXml(String location) throws ConfigError {
+        try (InputStream in = open(location)) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int length;
+            while ((length = in.read(buffer)) != -1) {
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new ConfigError(location + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static InputStream open(String location) throws ConfigError {
+        final InputStream in = FileUtil.open(DataDictionary.class, location, URL, FILESYSTEM, CONTEXT_RESOURCE,
+                CLASSLOADER_RESOURCE);
+        if (in == null) {
+            throw new ConfigError("Could not find data dictionary: " + location);
+        }
+        return in;
+    }
+}
@@ -136,6 +136,15 @@ public /*abstract*/ class Field<T> implements Serializable {
                 : MessageUtils.checksum(CharsetSupport.getCharsetInstance(), data, false)) + 1) & 0xFF;
     }
 
+    /**
+     * Writes the value of this field without converting it to a String first.
+     *
+     * @return false if the value has to be written from its String
+     */
+    /*package*/ boolean writeValueTo(MessageWriter writer) {
+        return false;
+    }
+
     private void calculate() {
         if (isCalculated) {
             return;
@@ -28,7 +28,6 @@ import quickfix.field.converter.CharArrayConverter;
 import quickfix.field.converter.CharConverter;
 import quickfix.field.converter.DecimalConverter;
 import quickfix.field.converter.DoubleConverter;
-import quickfix.field.converter.IntConverter;
 import quickfix.field.converter.UtcDateOnlyConverter;
 import quickfix.field.converter.UtcTimeOnlyConverter;
 import quickfix.field.converter.UtcTimestampConverter;
@@ -40,7 +39,6 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.Map.Entry;
 
 /**
  * Field container used by messages, groups, and composites.
@@ -51,9 +49,11 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
 
     private final int[] fieldOrder;
 
-    protected final TreeMap<Integer, Field<?>> fields;
+    private final IntMap<Field<?>> fields;
 
-    protected final TreeMap<Integer, List<Group>> groups = new TreeMap<>();
+    private final IntMap<List<Group>> groups = new IntMap<>();
+
+    private boolean modified;
 
     /**
      * Constructs a FieldMap with the given field order.
@@ -63,7 +63,7 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
      */
     protected FieldMap(int[] fieldOrder) {
         this.fieldOrder = fieldOrder;
-        fields = new TreeMap<>(fieldOrder != null ? new FieldOrderComparator() : null);
+        fields = new IntMap<>(fieldOrder);
     }
 
     protected FieldMap() {
@@ -81,14 +81,16 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
     }
 
     public void clear() {
+        modified = true;
         fields.clear();
         groups.clear();
     }
 
     public void reset() {
+        modified = true;
         fields.clear();
-        for(List<Group> groupList : groups.values()) {
-            for(Group group : groupList)
+        for (final int groupCountTag : groups.keys()) {
+            for (Group group : groups.get(groupCountTag))
                 group.reset();
         }
         groups.clear();
@@ -113,25 +115,8 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
         return indexOf(field, fieldOrder) > -1;
     }
 
-    private class FieldOrderComparator implements Comparator<Integer>, Serializable {
-        static final long serialVersionUID = 3416006398018829270L;
-
-        private int rank(int field, int[] fieldOrder) {
-            int index = indexOf(field, fieldOrder);
-            return index > -1 ? index : Integer.MAX_VALUE; // unspecified fields are last
-        }
-
-        public int compare(Integer tag1, Integer tag2) {
-            int rank1 = rank(tag1, getFieldOrder());
-            int rank2 = rank(tag2, getFieldOrder());
-
-            return rank1 != Integer.MAX_VALUE || rank2 != Integer.MAX_VALUE
-                    ? rank1 - rank2 // order by rank if it is specified for either tag
-                    : tag1 - tag2; // order by tag if both tags have unspecified ordering
-        }
-    }
-
     public void setFields(FieldMap fieldMap) {
+        modified = true;
         fields.clear();
         fields.putAll(fieldMap.fields);
     }
@@ -146,12 +131,14 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
     }
 
     public void setGroups(FieldMap fieldMap) {
+        modified = true;
         groups.clear();
         groups.putAll(fieldMap.groups);
     }
 
     protected void setGroups(int key, List<Group> groupList) {
-        groups.put(key, groupList);
+        modified = true;
+        groups.put(key, groupList instanceof GroupList ? ((GroupList) groupList).groupList : groupList);
     }
 
     public void setString(int field, String value) {
@@ -175,13 +162,21 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
     }
 
     public void setInt(int field, int value) {
-        setField(new StringField(field, IntConverter.convert(value)));
+        setField(field, new NumericStringField(field, value));
+    }
+
+    public void setLong(int field, long value) {
+        setField(field, new NumericStringField(field, value));
     }
 
     public void setDouble(int field, double value) {
         setDouble(field, value, 0);
     }
 
+    public void setFixedDecimal(int field, FixedDecimal value) {
+        setField(field, new NumericStringField(field, value.getUnscaledValue(), value.getScale()));
+    }
+
     public void setDouble(int field, double value, int padding) {
         setField(new StringField(field, DoubleConverter.convert(value, padding)));
     }
@@ -206,6 +201,17 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
         setField(new StringField(field, UtcTimestampConverter.convert(value, precision)));
     }
 
+    /**
+     * Sets a UTCTimestamp field from the number of nanoseconds since the epoch.
+     *
+     * @param field the tag
+     * @param epochNanos the number of nanoseconds since 1970-01-01T00:00:00Z
+     * @param precision the precision of the formatted timestamp
+     */
+    public void setUtcTimeStampNanos(int field, long epochNanos, UtcTimestampPrecision precision) {
+        setField(new StringField(field, UtcTimestampConverter.convert(epochNanos, precision)));
+    }
+
     public void setUtcTimeOnly(int field, LocalTime value) {
         setUtcTimeOnly(field, value, false);
     }
@@ -253,7 +259,7 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
 
     public boolean getBoolean(int field) throws FieldNotFound {
         try {
-            return BooleanConverter.convert(getString(field));
+            return getField(field).booleanValue();
         } catch (final FieldConvertError e) {
             throw newIncorrectDataException(e, field);
         }
@@ -261,7 +267,7 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
 
     public char getChar(int field) throws FieldNotFound {
         try {
-            return CharConverter.convert(getString(field));
+            return getField(field).charValue();
         } catch (final FieldConvertError e) {
             throw newIncorrectDataException(e, field);
         }
@@ -277,7 +283,15 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
 
     public int getInt(int field) throws FieldNotFound {
         try {
-            return IntConverter.convert(getString(field));
+            return getField(field).intValue();
+        } catch (final FieldConvertError e) {
+            throw newIncorrectDataException(e, field);
+        }
+    }
+
+    public long getLong(int field) throws FieldNotFound {
+        try {
+            return getField(field).longValue();
         } catch (final FieldConvertError e) {
             throw newIncorrectDataException(e, field);
         }
@@ -285,7 +299,15 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
 
     public double getDouble(int field) throws FieldNotFound {
         try {
-            return DoubleConverter.convert(getString(field));
+            return getField(field).doubleValue();
+        } catch (final FieldConvertError e) {
+            throw newIncorrectDataException(e, field);
+        }
+    }
+
+    public FixedDecimal getFixedDecimal(int field) throws FieldNotFound {
+        try {
+            return getField(field).fixedDecimalValue();
         } catch (final FieldConvertError e) {
             throw newIncorrectDataException(e, field);
         }
@@ -315,6 +337,22 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
         }
     }
 
+    /**
+     * Returns a UTCTimestamp field as the number of nanoseconds since the epoch.
+     * Picoseconds are truncated.
+     *
+     * @param field the tag
+     * @return the number of nanoseconds since 1970-01-01T00:00:00Z
+     * @throws FieldNotFound if the field is not set
+     */
+    public long getUtcTimeStampNanos(int field) throws FieldNotFound {
+        try {
+            return UtcTimestampConverter.convertToEpochNanos(getString(field));
+        } catch (final FieldConvertError e) {
+            throw newIncorrectDataException(e, field);
+        }
+    }
+
     public LocalTime getUtcTimeOnly(int field) throws FieldNotFound {
         try {
             return UtcTimeOnlyConverter.convertToLocalTime(getString(field));
@@ -332,6 +370,7 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
     }
 
     public void setField(int key, Field<?> field) {
+        modified = true;
         fields.put(key, field);
     }
 
@@ -339,6 +378,7 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
         if (field.getValue() == null) {
             throw new FieldException(SessionRejectReason.TAG_SPECIFIED_WITHOUT_A_VALUE, field.getField());
         }
+        modified = true;
         fields.put(field.getField(), field);
     }
 
@@ -362,6 +402,10 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
         setDecimal(field.getField(), field.getValue());
     }
 
+    public void setField(FixedDecimalField field) {
+        setFixedDecimal(field.getField(), field.getValue());
+    }
+
     public void setField(UtcTimeStampField field) {
         setUtcTimeStamp(field.getField(), field.getValue(), field.getPrecision());
     }
@@ -419,6 +463,10 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
         return updateValue(field, getDecimal(field.getField()));
     }
 
+    public FixedDecimalField getField(FixedDecimalField field) throws FieldNotFound {
+        return updateValue(field, getFixedDecimal(field.getField()));
+    }
+
     public UtcTimeStampField getField(UtcTimeStampField field) throws FieldNotFound {
         return updateValue(field, getUtcTimeStamp(field.getField()));
     }
@@ -445,26 +493,49 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
     }
 
     public void removeField(int field) {
+        modified = true;
         fields.remove(field);
     }
 
+    /**
+     * Returns an iterator over the fields. Removing a field through the iterator
+     * marks this map as modified.
+     */
     @Override
     public Iterator<Field<?>> iterator() {
-        return fields.values().iterator();
+        final Iterator<Field<?>> iterator = fields.values().iterator();
+        return new Iterator<Field<?>>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Field<?> next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                modified = true;
+                iterator.remove();
+            }
+        };
     }
 
     protected void initializeFrom(FieldMap source) {
+        modified = true;
         fields.clear();
         fields.putAll(source.fields);
-        for (Entry<Integer, List<Group>> entry : source.groups.entrySet()) {
+        for (final int groupCountTag : source.groups.keys()) {
             final List<Group> clones = new ArrayList<>();
-            for (final Group group : entry.getValue()) {
+            for (final Group group : source.groups.get(groupCountTag)) {
                 final Group clone = new Group(group.getFieldTag(),
                         group.delim(), group.getFieldOrder());
                 clone.initializeFrom(group);
                 clones.add(clone);
             }
-            groups.put(entry.getKey(), clones);
+            groups.put(groupCountTag, clones);
         }
     }
 
@@ -486,7 +557,8 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
             }
         }
 
-        for (final Field<?> field : fields.values()) {
+        for (final int key : fields.keys()) {
+            final Field<?> field = fields.get(key);
             final int tag = field.getField();
             if (!isOrderedField(tag, preFields) && !isOrderedField(tag, postFields)
                     && !isGroupField(tag)) {
@@ -494,17 +566,16 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
             } else if (isGroupField(tag) && isOrderedField(tag, fieldOrder)
                     && getGroupCount(tag) > 0) {
                 appendField(buffer, field);
-                List<Group> groups = getGroups(tag);
+                List<Group> groups = getGroupList(tag);
                 for (int i = 0; i < groups.size(); i++) {
                     groups.get(i).calculateString(buffer, preFields, postFields);
                 }
             }
         }
 
-        for (final Entry<Integer, List<Group>> entry : groups.entrySet()) {
-            final Integer groupCountTag = entry.getKey();
+        for (final int groupCountTag : groups.keys()) {
             if (!isOrderedField(groupCountTag, fieldOrder)) {
-                final List<Group> groups = entry.getValue();
+                final List<Group> groups = this.groups.get(groupCountTag);
                 int groupCount = groups.size();
                 if (groupCount > 0) {
                     buffer.append(NumbersCache.get(groupCountTag)).append('=');
@@ -523,11 +594,45 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
         }
     }
 
+    /**
+     * Writes the fields and groups in the same order as {@link #calculateString},
+     * leaving out the given fields.
+     */
+    void writeFields(MessageWriter writer, int[] excludedFields) {
+        for (final int key : fields.keys()) {
+            final Field<?> field = fields.get(key);
+            final int tag = field.getField();
+            if (!isOrderedField(tag, excludedFields) && !isGroupField(tag)) {
+                writer.writeField(field);
+            } else if (isGroupField(tag) && isOrderedField(tag, fieldOrder)
+                    && getGroupCount(tag) > 0) {
+                writer.writeField(field);
+                final List<Group> groups = getGroupList(tag);
+                for (int i = 0; i < groups.size(); i++) {
+                    groups.get(i).writeFields(writer, excludedFields);
+                }
+            }
+        }
+
+        for (final int groupCountTag : groups.keys()) {
+            if (!isOrderedField(groupCountTag, fieldOrder)) {
+                final List<Group> groups = this.groups.get(groupCountTag);
+                if (!groups.isEmpty()) {
+                    writer.writeField(groupCountTag, groups.size());
+                    for (int i = 0; i < groups.size(); i++) {
+                        groups.get(i).writeFields(writer, excludedFields);
+                    }
+                }
+            }
+        }
+    }
+
     private static final boolean IS_STRING_EQUIVALENT = CharsetSupport.isStringEquivalent(CharsetSupport.getCharsetInstance());
 
     int calculateLength() {
         int result = 0;
-        for (final Field<?> field : fields.values()) {
+        for (final int key : fields.keys()) {
+            final Field<?> field = fields.get(key);
             int tag = field.getField();
             if (tag != BeginString.FIELD && tag != BodyLength.FIELD
                     && tag != CheckSum.FIELD && !isGroupField(tag)) {
@@ -535,13 +640,13 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
             }
         }
 
-        for (Entry<Integer, List<Group>> entry : groups.entrySet()) {
-            final List<Group> groupList = entry.getValue();
+        for (final int groupCountTag : groups.keys()) {
+            final List<Group> groupList = groups.get(groupCountTag);
             if (!groupList.isEmpty()) {
                 if(IS_STRING_EQUIVALENT) {
-                    result += getStringLength(entry.getKey()) + getStringLength(groupList.size()) + 2;
+                    result += getStringLength(groupCountTag) + getStringLength(groupList.size()) + 2;
                 } else {
-                    result += MessageUtils.length(CharsetSupport.getCharsetInstance(), NumbersCache.get(entry.getKey()));
+                    result += MessageUtils.length(CharsetSupport.getCharsetInstance(), NumbersCache.get(groupCountTag));
                     result += MessageUtils.length(CharsetSupport.getCharsetInstance(), NumbersCache.get(groupList.size()));
                     result += 2;
                 }
@@ -561,17 +666,18 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
 
     int calculateChecksum() {
         int result = 0;
-        for (final Field<?> field : fields.values()) {
+        for (final int key : fields.keys()) {
+            final Field<?> field = fields.get(key);
             if (field.getField() != CheckSum.FIELD && !isGroupField(field.getField())) {
                 result += field.getChecksum();
             }
         }
 
-        for (Entry<Integer, List<Group>> entry : groups.entrySet()) {
-            final List<Group> groupList = entry.getValue();
+        for (final int groupCountTag : groups.keys()) {
+            final List<Group> groupList = groups.get(groupCountTag);
             if (!groupList.isEmpty()) {
                 if(IS_STRING_EQUIVALENT) {
-                    String value = NumbersCache.get(entry.getKey());
+                    String value = NumbersCache.get(groupCountTag);
                     for (int i = value.length(); i-- != 0;)
                         result += value.charAt(i);
                     value = NumbersCache.get(groupList.size());
@@ -579,7 +685,7 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
                         result += value.charAt(i);
                     result += '=' + 1;
                 } else {
-                    final IntField groupField = new IntField(entry.getKey());
+                    final IntField groupField = new IntField(groupCountTag);
                     groupField.setValue(groupList.size());
                     result += groupField.getChecksum();
                 }
@@ -592,6 +698,51 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
         return result & 0xFF;
     }
 
+    /**
+     * Marks this map and all of its groups as unmodified, e.g. after it was
+     * populated from raw message data.
+     */
+    void setUnmodified() {
+        modified = false;
+        for (final int key : fields.keys()) {
+            final Field<?> field = fields.get(key);
+            if (field instanceof LazyStringField) {
+                ((LazyStringField) field).setUnmodified();
+            }
+        }
+        for (final int groupCountTag : groups.keys()) {
+            final List<Group> groupList = groups.get(groupCountTag);
+            for (int i = 0; i < groupList.size(); i++) {
+                groupList.get(i).setUnmodified();
+            }
+        }
+    }
+
+    /**
+     * Returns true if this map, one of its fields or one of its groups was
+     * changed since {@link #setUnmodified()} was called.
+     */
+    boolean isModified() {
+        if (modified) {
+            return true;
+        }
+        for (final int key : fields.keys()) {
+            final Field<?> field = fields.get(key);
+            if (field instanceof LazyStringField && ((LazyStringField) field).isModified()) {
+                return true;
+            }
+        }
+        for (final int groupCountTag : groups.keys()) {
+            final List<Group> groupList = groups.get(groupCountTag);
+            for (int i = 0; i < groupList.size(); i++) {
+                if (groupList.get(i).isModified()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Returns the number of groups associated with the specified count tag.
      *
@@ -599,7 +750,7 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
      * @return the number of times the group repeats
      */
     public int getGroupCount(int tag) {
-        return getGroups(tag).size();
+        return getGroupList(tag).size();
     }
 
     /**
@@ -628,8 +779,9 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
     }
 
     public void addGroupRef(Group group) {
+        modified = true;
         int countTag = group.getFieldTag();
-        List<Group> currentGroups = getGroups(countTag);
+        List<Group> currentGroups = getGroupList(countTag);
         currentGroups.add(group);
         setGroupCount(countTag, currentGroups.size());
     }
@@ -650,12 +802,28 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
         }
     }
 
+    /**
+     * Returns the groups with the given count tag. Changing the returned list
+     * marks this map as modified.
+     *
+     * @param field the count tag number
+     * @return the groups, an empty list if there are none
+     */
     public List<Group> getGroups(int field) {
-        return groups.computeIfAbsent(field, k -> new ArrayList<>());
+        return new GroupList(getGroupList(field));
+    }
+
+    private List<Group> getGroupList(int field) {
+        List<Group> groupList = groups.get(field);
+        if (groupList == null) {
+            groupList = new ArrayList<>();
+            groups.put(field, groupList);
+        }
+        return groupList;
     }
 
     public Group getGroup(int num, Group group) throws FieldNotFound {
-        final List<Group> groupList = getGroups(group.getFieldTag());
+        final List<Group> groupList = getGroupList(group.getFieldTag());
         if (num > groupList.size()) {
             throw new FieldNotFound(group.getFieldTag() + ", index=" + num);
         }
@@ -666,7 +834,7 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
     }
 
     public Group getGroup(int num, int groupTag) throws FieldNotFound {
-        List<Group> groupList = getGroups(groupTag);
+        List<Group> groupList = getGroupList(groupTag);
         if (num > groupList.size()) {
             throw new FieldNotFound(groupTag + ", index=" + num);
         }
@@ -675,21 +843,24 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
 
     public void replaceGroup(int num, Group group) {
         final int offset = num - 1;
-        final List<Group> groupList = getGroups(group.getFieldTag());
+        final List<Group> groupList = getGroupList(group.getFieldTag());
         if (offset < 0 || offset >= groupList.size()) {
             return;
         }
+        modified = true;
         groupList.set(offset, new Group(group));
     }
 
     public void removeGroup(int field) {
+        modified = true;
         getGroups().remove(field);
         removeField(field);
     }
 
     public void removeGroup(int num, int field) {
-        final List<Group> groupList = getGroups(field);
+        final List<Group> groupList = getGroupList(field);
         if (num <= groupList.size()) {
+            modified = true;
             groupList.remove(num - 1);
         }
         if (!groupList.isEmpty()) {
@@ -710,7 +881,7 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
     }
 
     public boolean hasGroup(int num, int field) {
-        return hasGroup(field) && num <= getGroups(field).size();
+        return hasGroup(field) && num <= getGroupList(field).size();
     }
 
     public boolean hasGroup(int num, Group group) {
@@ -721,5 +892,48 @@ public abstract class FieldMap implements Serializable, Iterable<Field<?>> {
         return hasGroup(group.getFieldTag());
     }
 
+    /**
+     * A view of the groups of a count tag which marks the map as modified when
+     * the groups are changed.
+     */
+    private final class GroupList extends AbstractList<Group> implements RandomAccess {
+
+        private final List<Group> groupList;
+
+        GroupList(List<Group> groupList) {
+            this.groupList = groupList;
+        }
+
+        @Override
+        public Group get(int index) {
+            return groupList.get(index);
+        }
+
+        @Override
+        public int size() {
+            return groupList.size();
+        }
+
+        @Override
+        public Group set(int index, Group group) {
+            modified = true;
+            return groupList.set(index, group);
+        }
+
+        @Override
+        public void add(int index, Group group) {
+            modified = true;
+            modCount++;
+            groupList.add(index, group);
+        }
+
+        @Override
+        public Group remove(int index) {
+            modified = true;
+            modCount++;
+            return groupList.remove(index);
+        }
+    }
+
 
 }
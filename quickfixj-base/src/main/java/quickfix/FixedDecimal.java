@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+package quickfix;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * An immutable fixed-point decimal number consisting of a <code>long</code> unscaled
+ * value and a scale, i.e. the value is <code>unscaledValue &times; 10<sup>-scale</sup></code>.
+ * <p>
+ * This is a lightweight alternative to {@link BigDecimal} for price and quantity
+ * fields. Conversion from and to FIX field values and {@link BigDecimal} is lossless,
+ * trailing zeros are kept in the scale just like {@link BigDecimal#toPlainString()} does.
+ * <p>
+ * Unlike {@link BigDecimal#equals(Object)}, two values are equal if they represent
+ * the same number regardless of their scale, consistent with {@link #compareTo}.
+ */
+public final class FixedDecimal extends Number implements Comparable<FixedDecimal>, Serializable {
+
+    static final long serialVersionUID = 2750934719340871402L;
+
+    /**
+     * The maximum supported scale.
+     */
+    public static final int MAX_SCALE = 18;
+
+    public static final FixedDecimal ZERO = new FixedDecimal(0, 0);
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_SCALE + 1];
+
+    static {
+        long power = 1;
+        for (int i = 0; i <= MAX_SCALE; i++) {
+            POWERS_OF_TEN[i] = power;
+            power *= 10;
+        }
+    }
+
+    private final long unscaledValue;
+    private final int scale;
+
+    private FixedDecimal(long unscaledValue, int scale) {
+        this.unscaledValue = unscaledValue;
+        this.scale = scale;
+    }
+
+    /**
+     * Returns a decimal with the given unscaled value and scale.
+     *
+     * @param unscaledValue the unscaled value
+     * @param scale the number of digits after the decimal point, between 0 and {@link #MAX_SCALE}
+     * @return the decimal <code>unscaledValue &times; 10<sup>-scale</sup></code>
+     * @throws IllegalArgumentException if the scale is out of range
+     */
+    public static FixedDecimal valueOf(long unscaledValue, int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("scale must be between 0 and " + MAX_SCALE + ": " + scale);
+        }
+        return unscaledValue == 0 && scale == 0 ? ZERO : new FixedDecimal(unscaledValue, scale);
+    }
+
+    /**
+     * Converts a {@link BigDecimal} without losing precision. A negative scale is
+     * converted to scale zero and trailing zeros beyond {@link #MAX_SCALE} are dropped.
+     *
+     * @param value the value to convert
+     * @return the fixed-point representation of the value
+     * @throws ArithmeticException if the value cannot be represented exactly
+     */
+    public static FixedDecimal valueOf(BigDecimal value) {
+        if (value.scale() < 0) {
+            value = value.setScale(0);
+        } else if (value.scale() > MAX_SCALE) {
+            // throws ArithmeticException if digits would be lost
+            value = value.setScale(MAX_SCALE);
+        }
+        return valueOf(value.unscaledValue().longValueExact(), value.scale());
+    }
+
+    public long getUnscaledValue() {
+        return unscaledValue;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public int signum() {
+        return Long.signum(unscaledValue);
+    }
+
+    /**
+     * Converts this value to a {@link BigDecimal} with the same unscaled value and scale.
+     *
+     * @return the value as BigDecimal
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(unscaledValue, scale);
+    }
+
+    @Override
+    public int intValue() {
+        return (int) longValue();
+    }
+
+    @Override
+    public long longValue() {
+        return unscaledValue / POWERS_OF_TEN[scale];
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) doubleValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        // exact operands yield a correctly rounded quotient
+        if (Math.abs(unscaledValue) < 1L << 53 && scale <= 15) {
+            return unscaledValue / (double) POWERS_OF_TEN[scale];
+        }
+        return toBigDecimal().doubleValue();
+    }
+
+    @Override
+    public int compareTo(FixedDecimal other) {
+        if (scale == other.scale) {
+            return Long.compare(unscaledValue, other.unscaledValue);
+        }
+        final int signum = signum();
+        if (signum != other.signum()) {
+            return signum > other.signum() ? 1 : -1;
+        }
+        final long thisValue;
+        final long otherValue;
+        try {
+            if (scale < other.scale) {
+                thisValue = Math.multiplyExact(unscaledValue, POWERS_OF_TEN[other.scale - scale]);
+                otherValue = other.unscaledValue;
+            } else {
+                thisValue = unscaledValue;
+                otherValue = Math.multiplyExact(other.unscaledValue, POWERS_OF_TEN[scale - other.scale]);
+            }
+        } catch (ArithmeticException e) {
+            return toBigDecimal().compareTo(other.toBigDecimal());
+        }
+        return Long.compare(thisValue, otherValue);
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        return object == this || object instanceof FixedDecimal && compareTo((FixedDecimal) object) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        // hash the value without trailing zeros, so that equal values have equal hash codes
+        long value = unscaledValue;
+        int s = scale;
+        while (s > 0 && value % 10 == 0) {
+            value /= 10;
+            s--;
+        }
+        return 31 * Long.hashCode(value) + s;
+    }
+
+    /**
+     * Returns the plain decimal representation, without an exponent.
+     *
+     * @return the value formatted like {@link BigDecimal#toPlainString()}
+     */
+    @Override
+    public String toString() {
+        return toString(unscaledValue, scale);
+    }
+
+    static String toString(long unscaledValue, int scale) {
+        if (scale == 0) {
+            return Long.toString(unscaledValue);
+        }
+        if (unscaledValue == Long.MIN_VALUE) {
+            return new BigDecimal(BigInteger.valueOf(unscaledValue), scale).toPlainString();
+        }
+        final StringBuilder buffer = new StringBuilder(22);
+        if (unscaledValue < 0) {
+            buffer.append('-');
+        }
+        final String digits = Long.toString(Math.abs(unscaledValue));
+        final int integerDigits = digits.length() - scale;
+        if (integerDigits > 0) {
+            buffer.append(digits, 0, integerDigits).append('.').append(digits, integerDigits, digits.length());
+        } else {
+            buffer.append("0.");
+            for (int i = integerDigits; i < 0; i++) {
+                buffer.append('0');
+            }
+            buffer.append(digits);
+        }
+        return buffer.toString();
+    }
+}
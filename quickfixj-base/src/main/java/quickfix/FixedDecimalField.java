@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+package quickfix;
+
+/**
+ * A fixed-point decimal message field.
+ *
+ * @see FixedDecimal
+ */
+public class FixedDecimalField extends Field<FixedDecimal> {
+
+    public FixedDecimalField(int field) {
+        super(field, FixedDecimal.ZERO);
+    }
+
+    public FixedDecimalField(int field, FixedDecimal data) {
+        super(field, data);
+    }
+
+    public FixedDecimalField(int field, long unscaledValue, int scale) {
+        super(field, FixedDecimal.valueOf(unscaledValue, scale));
+    }
+
+    public void setValue(FixedDecimal value) {
+        setObject(value);
+    }
+
+    public void setValue(long unscaledValue, int scale) {
+        setObject(FixedDecimal.valueOf(unscaledValue, scale));
+    }
+
+    public FixedDecimal getValue() {
+        return getObject();
+    }
+
+    public boolean valueEquals(FixedDecimal value) {
+        return getValue().compareTo(value) == 0;
+    }
+}
@@ -0,0 +1,377 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+package quickfix;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Map with primitive int keys used as the field and group storage of a {@link FieldMap}.
+ * <p>
+ * Lookups use an open-addressing hash table, so getting or setting a tag neither boxes
+ * the tag nor walks a tree. Iteration returns the keys in the order given to the
+ * constructor: keys contained in the order come first, in that order, followed by all
+ * other keys in ascending order. The iteration order is only computed when the set of
+ * keys has changed since the last iteration.
+ * <p>
+ * Null values are not permitted. This class is not thread-safe.
+ *
+ * @param <V> the type of the mapped values
+ */
+class IntMap<V> extends AbstractMap<Integer, V> implements Serializable {
+
+    static final long serialVersionUID = -2638117367937096426L;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int[] NO_KEYS = new int[0];
+    private static final Object[] NO_VALUES = new Object[0];
+
+    private final int[] order;
+    private int[] keys = NO_KEYS;
+    private Object[] values = NO_VALUES;
+    private int size;
+    private transient int modCount;
+    private transient int[] orderedKeys;
+
+    /**
+     * Creates a map which iterates its keys in ascending order.
+     */
+    public IntMap() {
+        this(null);
+    }
+
+    /**
+     * Creates a map which iterates its keys in the given order.
+     * The given array must not be modified.
+     *
+     * @param order the key order, or null to iterate the keys in ascending order
+     */
+    public IntMap(int[] order) {
+        this.order = order;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public V get(int key) {
+        if (size == 0) {
+            return null;
+        }
+        final int mask = keys.length - 1;
+        for (int i = hash(key) & mask; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                @SuppressWarnings("unchecked")
+                final V value = (V) values[i];
+                return value;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Integer ? get((int) (Integer) key) : null;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("null values are not permitted");
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length == 0 ? INITIAL_CAPACITY : keys.length * 2);
+        }
+        final int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                @SuppressWarnings("unchecked")
+                final V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        keysChanged();
+        return null;
+    }
+
+    @Override
+    public V put(Integer key, V value) {
+        return put((int) key, value);
+    }
+
+    public V remove(int key) {
+        if (size == 0) {
+            return null;
+        }
+        final int mask = keys.length - 1;
+        for (int i = hash(key) & mask; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                @SuppressWarnings("unchecked")
+                final V previous = (V) values[i];
+                removeSlot(i);
+                return previous;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Integer ? remove((int) (Integer) key) : null;
+    }
+
+    @Override
+    public void putAll(Map<? extends Integer, ? extends V> map) {
+        if (map instanceof IntMap) {
+            final IntMap<? extends V> source = (IntMap<? extends V>) map;
+            for (int i = 0; i < source.values.length; i++) {
+                if (source.values[i] != null) {
+                    @SuppressWarnings("unchecked")
+                    final V value = (V) source.values[i];
+                    put(source.keys[i], value);
+                }
+            }
+        } else {
+            super.putAll(map);
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(values, null);
+            size = 0;
+            keysChanged();
+        }
+    }
+
+    /**
+     * Returns the keys of this map in iteration order.
+     * The returned array must not be modified.
+     *
+     * @return the keys in iteration order
+     */
+    int[] keys() {
+        int[] result = orderedKeys;
+        if (result == null) {
+            result = size == 0 ? NO_KEYS : sortKeys();
+            orderedKeys = result;
+        }
+        return result;
+    }
+
+    @Override
+    public Set<Integer> keySet() {
+        return new AbstractSet<Integer>() {
+            @Override
+            public Iterator<Integer> iterator() {
+                return new OrderedIterator<Integer>() {
+                    @Override
+                    Integer next(int key) {
+                        return key;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object key) {
+                return containsKey(key);
+            }
+        };
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new OrderedIterator<V>() {
+                    @Override
+                    V next(int key) {
+                        return get(key);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<Integer, V>> entrySet() {
+        return new AbstractSet<Entry<Integer, V>>() {
+            @Override
+            public Iterator<Entry<Integer, V>> iterator() {
+                return new OrderedIterator<Entry<Integer, V>>() {
+                    @Override
+                    Entry<Integer, V> next(int key) {
+                        return new SimpleImmutableEntry<>(key, get(key));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private abstract class OrderedIterator<T> implements Iterator<T> {
+        private final int[] orderedKeys = keys();
+        private int expectedModCount = modCount;
+        private int index;
+        private boolean canRemove;
+
+        @Override
+        public boolean hasNext() {
+            return index < orderedKeys.length;
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (index >= orderedKeys.length) {
+                throw new NoSuchElementException();
+            }
+            canRemove = true;
+            return next(orderedKeys[index++]);
+        }
+
+        abstract T next(int key);
+
+        @Override
+        public void remove() {
+            if (!canRemove) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            IntMap.this.remove(orderedKeys[index - 1]);
+            expectedModCount = modCount;
+            canRemove = false;
+        }
+    }
+
+    private int[] sortKeys() {
+        // sort on rank (position in the key order, or MAX_VALUE if not contained)
+        // in the upper half and on the key itself in the lower half of a long
+        final long[] sortKeys = new long[size];
+        int n = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                final int index = FieldMap.indexOf(keys[i], order);
+                final long rank = index > -1 ? index : Integer.MAX_VALUE;
+                sortKeys[n++] = (rank << 32) | ((long) keys[i] - Integer.MIN_VALUE);
+            }
+        }
+        Arrays.sort(sortKeys);
+        final int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = (int) (sortKeys[i] + Integer.MIN_VALUE);
+        }
+        return result;
+    }
+
+    private void removeSlot(int slot) {
+        final int mask = keys.length - 1;
+        // shift back the following entries of the probe sequence to fill the gap
+        int gap = slot;
+        for (int i = (slot + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+            final int home = hash(keys[i]) & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        values[gap] = null;
+        size--;
+        keysChanged();
+    }
+
+    private void resize(int capacity) {
+        final int[] oldKeys = keys;
+        final Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        final int mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int j = hash(oldKeys[i]) & mask;
+                while (values[j] != null) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private void keysChanged() {
+        modCount++;
+        orderedKeys = null;
+    }
+
+    private static int hash(int key) {
+        final int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
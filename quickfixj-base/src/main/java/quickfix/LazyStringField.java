@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+package quickfix;
+
+import org.quickfixj.CharsetSupport;
+import quickfix.field.converter.BooleanConverter;
+import quickfix.field.converter.CharConverter;
+import quickfix.field.converter.DoubleConverter;
+import quickfix.field.converter.FixedDecimalConverter;
+import quickfix.field.converter.IntConverter;
+import quickfix.field.converter.LongConverter;
+
+/**
+ * A string field created while parsing raw message bytes. The field only
+ * keeps the offset and length of its value within the message buffer and
+ * decodes the value the first time it is read.
+ */
+final class LazyStringField extends StringField {
+
+    static final long serialVersionUID = 2467314585723906153L;
+
+    private byte[] data;
+    private int offset;
+    private int length;
+    private boolean modified;
+
+    LazyStringField(int field, byte[] data, int offset, int length) {
+        super(field, null);
+        this.data = data;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public String getObject() {
+        if (data != null) {
+            super.setObject(new String(data, offset, length, CharsetSupport.getCharsetInstance()));
+            data = null;
+        }
+        return super.getObject();
+    }
+
+    @Override
+    protected void setObject(String object) {
+        data = null;
+        modified = true;
+        super.setObject(object);
+    }
+
+    @Override
+    public void setTag(int tag) {
+        modified = true;
+        super.setTag(tag);
+    }
+
+    @Override
+    protected String objectAsString() {
+        return getObject();
+    }
+
+    @Override
+    public int hashCode() {
+        return getObject().hashCode();
+    }
+
+    @Override
+    int getLength() {
+        if (data == null) {
+            return super.getLength();
+        }
+        int tagLength = 1;
+        for (int tag = getTag(); tag >= 10; tag /= 10) {
+            tagLength++;
+        }
+        return tagLength + 1 + length + 1;
+    }
+
+    @Override
+    int getChecksum() {
+        if (data == null) {
+            return super.getChecksum();
+        }
+        int sum = '=' + '\001';
+        for (int tag = getTag(); tag > 0; tag /= 10) {
+            sum += '0' + tag % 10;
+        }
+        return (sum + MessageUtils.checksum(data, offset, length, false)) & 0xFF;
+    }
+
+    // the primitive values are parsed from the raw bytes as long as the value was not decoded
+
+    @Override
+    int intValue() throws FieldConvertError {
+        return data != null ? IntConverter.convert(data, offset, length) : super.intValue();
+    }
+
+    @Override
+    long longValue() throws FieldConvertError {
+        return data != null ? LongConverter.convert(data, offset, length) : super.longValue();
+    }
+
+    @Override
+    double doubleValue() throws FieldConvertError {
+        return data != null ? DoubleConverter.convert(data, offset, length) : super.doubleValue();
+    }
+
+    @Override
+    FixedDecimal fixedDecimalValue() throws FieldConvertError {
+        return data != null ? FixedDecimalConverter.convert(data, offset, length) : super.fixedDecimalValue();
+    }
+
+    @Override
+    char charValue() throws FieldConvertError {
+        return data != null ? CharConverter.convert(data, offset, length) : super.charValue();
+    }
+
+    @Override
+    boolean booleanValue() throws FieldConvertError {
+        return data != null ? BooleanConverter.convert(data, offset, length) : super.booleanValue();
+    }
+
+    /**
+     * Writes the raw value bytes if the value was not decoded yet.
+     *
+     * @return false if the value has to be written from its String
+     */
+    @Override
+    boolean writeValueTo(MessageWriter writer) {
+        if (data == null) {
+            return false;
+        }
+        writer.writeBytes(data, offset, length);
+        return true;
+    }
+
+    /**
+     * Returns true if the value or tag of this field was changed after parsing.
+     */
+    boolean isModified() {
+        return modified;
+    }
+
+    void setUnmodified() {
+        modified = false;
+    }
+}
@@ -65,7 +65,9 @@ import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
 import java.text.DecimalFormat;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -152,6 +154,7 @@ public class Message extends FieldMap {
         private final BodyLength bodyLength = new BodyLength(100);
         private final CheckSum checkSum = new CheckSum("000");
         private final StringBuilder stringBuilder = new StringBuilder(1024);
+        private final MessageWriter messageWriter = new MessageWriter();
     }
 
     private static final ThreadLocal<Context> stringContexts = new ThreadLocal<Context>() {
@@ -164,14 +167,20 @@ public class Message extends FieldMap {
     /**
      * Do not call this method concurrently while modifying the contents of the message.
      * This is likely to produce unexpected results or will fail with a ConcurrentModificationException
-     * since FieldMap.calculateString() is iterating over the TreeMap of fields.
+     * since FieldMap.calculateString() is iterating over the fields.
      * 
      * Use toRawString() to get the raw message data.
      * 
+     * If the message was parsed via Message.fromBytes() with checksum validation and has not
+     * been modified since, the raw message data is returned without rebuilding the message.
+     * 
      * @return Message as String with calculated body length and checksum.
      */
     @Override
     public String toString() {
+        if (isRawDataCurrent()) {
+            return toRawString();
+        }
         Context context = stringContexts.get();
         if (CharsetSupport.isStringEquivalent()) { // length & checksum can easily be calculated after message is built
             header.setField(context.bodyLength);
@@ -221,8 +230,8 @@ public class Message extends FieldMap {
     /**
      * Return the raw message data as it was passed to the Message class.
      * 
-     * This is only available after Message has been parsed via constructor or Message.fromString().
-     * Otherwise this method will return NULL.
+     * This is only available after Message has been parsed via constructor, Message.fromString()
+     * or Message.fromBytes(). Otherwise this method will return NULL.
      * 
      * This method neither does change fields nor calculate body length or checksum.
      * Use toString() for that purpose.
@@ -230,9 +239,59 @@ public class Message extends FieldMap {
      * @return Message as String without recalculating body length and checksum.
      */
     public String toRawString() {
+        if (messageData == null && messageBytes != null) {
+            messageData = new String(messageBytes, messageOffset, messageEnd - messageOffset,
+                    CharsetSupport.getCharsetInstance());
+        }
         return messageData;
     }
 
+    /**
+     * Writes the message to the given buffer, starting at its current position.
+     * 
+     * The fields are serialized directly into bytes, and body length and checksum are calculated
+     * while writing. Unlike toString(), this does not set the BodyLength and CheckSum fields
+     * of the message.
+     * 
+     * Do not call this method concurrently while modifying the contents of the message.
+     * 
+     * @param buffer the buffer to write the message to
+     * @return the number of bytes written
+     * @throws java.nio.BufferOverflowException if the remaining space in the buffer is not sufficient;
+     *         the buffer is not modified in this case
+     */
+    public int writeTo(ByteBuffer buffer) {
+        if (isRawDataCurrent()) {
+            final int length = messageEnd - messageOffset;
+            buffer.put(messageBytes, messageOffset, length);
+            return length;
+        }
+        final MessageWriter writer = stringContexts.get().messageWriter;
+        writer.write(header, this, trailer);
+        buffer.put(writer.getBuffer(), writer.getOffset(), writer.getLength());
+        return writer.getLength();
+    }
+
+    /**
+     * Returns the message as bytes encoded with the {@link CharsetSupport#setCharset global charset}.
+     * 
+     * See writeTo(ByteBuffer) for how the bytes are created.
+     * 
+     * @return the encoded message
+     */
+    public byte[] toBytes() {
+        if (isRawDataCurrent()) {
+            return Arrays.copyOfRange(messageBytes, messageOffset, messageEnd);
+        }
+        final MessageWriter writer = stringContexts.get().messageWriter;
+        writer.write(header, this, trailer);
+        return Arrays.copyOfRange(writer.getBuffer(), writer.getOffset(), writer.getOffset() + writer.getLength());
+    }
+
+    private boolean isRawDataCurrent() {
+        return rawDataValid && !header.isModified() && !isModified() && !trailer.isModified();
+    }
+
     public int bodyLength() {
         return header.calculateLength() + calculateLength() + trailer.calculateLength();
     }
@@ -466,6 +525,12 @@ public class Message extends FieldMap {
         header.clear();
         trailer.clear();
         position = 0;
+        messageData = null;
+        messageBytes = null;
+        rawDataValid = false;
+        pushedBackField = null;
+        isGarbled = false;
+        exception = null;
     }
 
     @Override
@@ -605,34 +670,98 @@ public class Message extends FieldMap {
         parse(messageData, sessionDictionary, applicationDictionary, validationSettings, doValidation, validateChecksum);
     }
 
+    /**
+     * Parses a message directly from a byte buffer (e.g. a frame received from the network)
+     * without decoding it into a String first. Tags are parsed in place and the fields only
+     * keep the position of their values within the buffer; a value is decoded using the
+     * {@link CharsetSupport#setCharset global charset} the first time it is read.
+     * The raw message String is only created on demand by {@link #toRawString()}.
+     * <p>
+     * The buffer is referenced by the message and must not be modified afterwards.
+     *
+     * @param data the buffer containing the message
+     * @param offset the offset of the message within the buffer
+     * @param length the length of the message in bytes
+     * @param sessionDictionary the session (transport) data dictionary
+     * @param applicationDictionary the application data dictionary
+     * @param validationSettings the validation settings, or null to use the defaults
+     * @param doValidation whether the message should be validated
+     * @param validateChecksum whether the checksum should be validated
+     * @throws InvalidMessage if the message cannot be parsed
+     */
+    public void fromBytes(byte[] data, int offset, int length, DataDictionary sessionDictionary,
+                          DataDictionary applicationDictionary, ValidationSettings validationSettings, boolean doValidation,
+                          boolean validateChecksum) throws InvalidMessage {
+        if (sessionDictionary != null && sessionDictionary.isAdminMessage(MessageUtils.getMessageType(data, offset, length))) {
+            applicationDictionary = sessionDictionary;
+        }
+        if (validationSettings == null) {
+            validationSettings = new ValidationSettings();
+        }
+        parse(data, offset, length, sessionDictionary, applicationDictionary, validationSettings, doValidation, validateChecksum);
+    }
+
+    public void fromBytes(byte[] data, int offset, int length, DataDictionary dd, ValidationSettings validationSettings,
+                          boolean doValidation) throws InvalidMessage {
+        fromBytes(data, offset, length, dd, dd, validationSettings, doValidation, true);
+    }
+
     void parse(String messageData, DataDictionary sessionDataDictionary,
                DataDictionary applicationDataDictionary, ValidationSettings validationSettings, boolean doValidation,
                boolean validateChecksum) throws InvalidMessage {
         this.messageData = messageData;
+        this.messageBytes = null;
+        this.rawDataValid = false;
+        parse(sessionDataDictionary, applicationDataDictionary, validationSettings, doValidation, validateChecksum);
+    }
+
+    void parse(byte[] data, int offset, int length, DataDictionary sessionDataDictionary,
+               DataDictionary applicationDataDictionary, ValidationSettings validationSettings, boolean doValidation,
+               boolean validateChecksum) throws InvalidMessage {
+        this.messageData = null;
+        this.messageBytes = data;
+        this.rawDataValid = false;
+        this.messageOffset = offset;
+        this.messageEnd = offset + length;
+        this.position = offset;
+        parse(sessionDataDictionary, applicationDataDictionary, validationSettings, doValidation, validateChecksum);
+    }
 
+    private void parse(DataDictionary sessionDataDictionary, DataDictionary applicationDataDictionary,
+                       ValidationSettings validationSettings, boolean doValidation, boolean validateChecksum)
+            throws InvalidMessage {
         try {
             parseHeader(sessionDataDictionary, validationSettings, doValidation);
             parseBody(sessionDataDictionary, applicationDataDictionary, validationSettings, doValidation);
             parseTrailer(sessionDataDictionary);
             if (doValidation && validateChecksum) {
-                validateCheckSum(messageData);
+                validateCheckSum();
+                if (messageBytes != null) {
+                    header.setUnmodified();
+                    setUnmodified();
+                    trailer.setUnmodified();
+                    rawDataValid = true;
+                }
             }
         } catch (final FieldException e) {
             exception = e;
         }
     }
 
-    private void validateCheckSum(String messageData) throws InvalidMessage {
+    private void validateCheckSum() throws InvalidMessage {
         try {
             // Body length is checked at the protocol layer
             final int checksum = trailer.getInt(CheckSum.FIELD);
-            if (checksum != MessageUtils.checksum(messageData)) {
+            final int expectedChecksum = messageBytes != null
+                    ? MessageUtils.checksum(messageBytes, messageOffset, messageEnd - messageOffset, true)
+                    : MessageUtils.checksum(messageData);
+            if (checksum != expectedChecksum) {
                 // message will be ignored if checksum is wrong or missing
-                throw MessageUtils.newInvalidMessageException("Expected CheckSum=" + MessageUtils.checksum(messageData)
-                        + ", Received CheckSum=" + checksum + " in " + messageData, this);
+                throw MessageUtils.newInvalidMessageException("Expected CheckSum=" + expectedChecksum
+                        + ", Received CheckSum=" + checksum + " in " + toRawString(), this);
             }
         } catch (final FieldNotFound e) {
-            throw MessageUtils.newInvalidMessageException("Field not found: " + e.field + " in " + messageData, this);
+            throw MessageUtils.newInvalidMessageException("Field not found: " + e.field + " in " + toRawString(), this);
         }
     }
 
@@ -644,7 +773,7 @@ public class Message extends FieldMap {
             if (!validHeaderFieldOrder) {
                 // Invalid message preamble (first three fields) is a serious
                 // condition and is handled differently from other message parsing errors.
-                throw MessageUtils.newInvalidMessageException("Header fields out of order in " + messageData, MessageUtils.getMinimalMessage(messageData));
+                throw MessageUtils.newInvalidMessageException("Header fields out of order in " + toRawString(), MessageUtils.getMinimalMessage(toRawString()));
             }
         }
 
@@ -674,11 +803,13 @@ public class Message extends FieldMap {
         try {
             return header.getString(MsgType.FIELD);
         } catch (final FieldNotFound e) {
-            throw MessageUtils.newInvalidMessageException(e.getMessage() + " in " + messageData, this);
+            throw MessageUtils.newInvalidMessageException(e.getMessage() + " in " + toRawString(), this);
         }
     }
 
     private void parseBody(DataDictionary sessionDataDictionary, DataDictionary applicationDataDictionary, ValidationSettings dds, boolean doValidation) throws InvalidMessage {
+        // resolved with the first body field, the MsgType is only required if there is a body
+        String msgType = null;
         StringField field = extractField(applicationDataDictionary, this);
         while (field != null) {
             if (isTrailerField(field.getField())) {
@@ -701,8 +832,13 @@ public class Message extends FieldMap {
             } else {
                 setField(this, field);
                 // Group case
-                if (applicationDataDictionary != null && applicationDataDictionary.isGroup(getMsgType(), field.getField())) {
-                    parseGroup(getMsgType(), field, applicationDataDictionary, applicationDataDictionary, dds, this, doValidation);
+                if (applicationDataDictionary != null) {
+                    if (msgType == null) {
+                        msgType = getMsgType();
+                    }
+                    if (applicationDataDictionary.isGroup(msgType, field.getField())) {
+                        parseGroup(msgType, field, applicationDataDictionary, applicationDataDictionary, dds, this, doValidation);
+                    }
                 }
             }
 
@@ -729,7 +865,7 @@ public class Message extends FieldMap {
         try {
             declaredGroupCount = Integer.parseInt(field.getValue());
         } catch (final NumberFormatException e) {
-            throw MessageUtils.newInvalidMessageException("Repeating group count requires an Integer but found '" + field.getValue() + "' in " + messageData, this);
+            throw MessageUtils.newInvalidMessageException("Repeating group count requires an Integer but found '" + field.getValue() + "' in " + toRawString(), this);
         }
         parent.setField(groupCountTag, field);
         final int firstField = rg.getDelimiterField();
@@ -900,9 +1036,14 @@ public class Message extends FieldMap {
     // Extract field
     //
     private String messageData;
+    private byte[] messageBytes;
+    private int messageOffset;
+    private int messageEnd;
+    private boolean rawDataValid;
     private int position;
     private StringField pushedBackField;
     private boolean isGarbled = false;
+    private transient boolean retained;
 
     public void pushBack(StringField field) {
         pushedBackField = field;
@@ -916,6 +1057,10 @@ public class Message extends FieldMap {
             return f;
         }
 
+        if (messageBytes != null) {
+            return extractFieldFromBytes(dataDictionary, fields);
+        }
+
         if (position >= messageData.length()) {
             return null;
         }
@@ -969,6 +1114,79 @@ public class Message extends FieldMap {
         return new StringField(tag, messageData.substring(equalsOffset + 1, sohOffset));
     }
 
+    private StringField extractFieldFromBytes(DataDictionary dataDictionary, FieldMap fields)
+            throws InvalidMessage {
+        final byte[] data = messageBytes;
+        if (position >= messageEnd) {
+            return null;
+        }
+
+        final int equalsOffset = MessageUtils.indexOf(data, position, messageEnd, '=');
+        if (equalsOffset == -1) {
+            throw MessageUtils.newInvalidMessageException("Equal sign not found in field in " + toRawString(), this);
+        }
+
+        final int tag = parseTag(data, position, equalsOffset);
+
+        int sohOffset = MessageUtils.indexOf(data, equalsOffset + 1, messageEnd, '\001');
+        if (sohOffset == -1) {
+            throw MessageUtils.newInvalidMessageException("SOH not found at end of field: " + tag + " in " + toRawString(), this);
+        }
+
+        if (dataDictionary != null && dataDictionary.isDataField(tag)) {
+            /* Assume length field is 1 less. */
+            int lengthField = tag - 1;
+            /* Special case for Signature which violates above assumption. */
+            if (tag == 89) {
+                lengthField = 93;
+            }
+            int fieldLength;
+            try {
+                fieldLength = fields.getInt(lengthField);
+            } catch (final FieldNotFound e) {
+                throw MessageUtils.newInvalidMessageException("Did not find length field " + e.field + " required to parse data field " + tag + " in " + toRawString(), this);
+            }
+
+            // length is in bytes, so the data may contain an SOH and the field ends
+            // at the first SOH following the declared number of bytes
+            final int dataEnd = equalsOffset + 1 + fieldLength;
+            if (sohOffset < dataEnd) {
+                sohOffset = dataEnd < messageEnd ? MessageUtils.indexOf(data, dataEnd, messageEnd, '\001') : -1;
+                if (sohOffset == -1) {
+                    throw MessageUtils.newInvalidMessageException("SOH not found at end of field: " + tag + " in " + toRawString(), this);
+                }
+            }
+        }
+
+        position = sohOffset + 1;
+        return new LazyStringField(tag, data, equalsOffset + 1, sohOffset - equalsOffset - 1);
+    }
+
+    private int parseTag(byte[] data, int start, int end) throws InvalidMessage {
+        int tag = 0;
+        if (end > start && end - start < 10) {
+            for (int i = start; i < end; i++) {
+                final byte b = data[i];
+                if (b < '0' || b > '9') {
+                    tag = -1;
+                    break;
+                }
+                tag = tag * 10 + (b - '0');
+            }
+            if (tag >= 0) {
+                return tag;
+            }
+        }
+        // uncommon tag formats are left to Integer.parseInt() to keep the String parser semantics
+        try {
+            return Integer.parseInt(new String(data, start, end - start, CharsetSupport.getCharsetInstance()));
+        } catch (final NumberFormatException e) {
+            final int sohOffset = MessageUtils.indexOf(data, start + 1, messageEnd, '\001');
+            position = sohOffset == -1 ? messageOffset : sohOffset + 1;
+            throw MessageUtils.newInvalidMessageException("Bad tag format: " + e.getMessage() + " in " + toRawString(), this);
+        }
+    }
+
     /**
      * Queries message structural validity.
      *
@@ -1015,4 +1233,27 @@ public class Message extends FieldMap {
         this.isGarbled = isGarbled;
     }
 
+    /**
+     * Marks this message as retained, so that it is not handed back to the
+     * {@link MessageFactory} after it has been processed by the session.
+     * <p>
+     * Applications using a recycling message factory must call this method
+     * from within <code>fromApp</code> or <code>fromAdmin</code> if they keep
+     * a reference to the message after the callback has returned.
+     *
+     * @see MessageFactory#release(Message)
+     */
+    public void retain() {
+        retained = true;
+    }
+
+    /**
+     * Queries whether this message has been retained.
+     *
+     * @return true if {@link #retain()} has been called on this message
+     */
+    public boolean isRetained() {
+        return retained;
+    }
+
 }
@@ -49,10 +49,10 @@ public abstract class MessageComponent extends FieldMap {
      */
     public void copyTo(FieldMap fields) {
         try {
-            for (int componentField : this.fields.keySet()) {
-                fields.setField(componentField, getField(componentField));
+            for (Field<?> componentField : this) {
+                fields.setField(componentField.getTag(), getField(componentField.getTag()));
             }
-            for (int groupField : this.groups.keySet()) {
+            for (int groupField : groupKeys()) {
                 fields.setField(groupField, getField(groupField));
                 fields.setGroups(groupField, getGroups(groupField));
             }
@@ -65,4 +65,18 @@ public interface MessageFactory {
      * @return group, or null if the group can't be created.
      */
     Group create(String beginString, String msgType, int correspondingFieldID);
+
+    /**
+     * Hands back a received message after the session has finished processing it,
+     * that is after <code>fromAdmin</code> or <code>fromApp</code> has returned.
+     * Messages which were {@link Message#retain() retained} by the application or
+     * queued by the session are not released.
+     * <p>
+     * A factory may clear and reuse the released message for a later call to
+     * {@link #create(String, ApplVerID, String)}. The default implementation does nothing.
+     *
+     * @param message the processed message
+     */
+    default void release(Message message) {
+    }
 }
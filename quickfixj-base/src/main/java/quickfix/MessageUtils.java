@@ -76,6 +76,48 @@ public class MessageUtils {
                         SenderLocationID.FIELD), null);
     }
 
+    private static final int[] REVERSE_SESSION_ID_TAGS = { BeginString.FIELD, TargetCompID.FIELD,
+            TargetSubID.FIELD, TargetLocationID.FIELD, SenderCompID.FIELD, SenderSubID.FIELD,
+            SenderLocationID.FIELD };
+
+    /**
+     * Returns the reverse session ID of a FIX message held in a byte array without
+     * decoding the whole message. The fields are collected in a single pass.
+     *
+     * @param data the buffer containing the FIX message
+     * @param offset the offset of the message within the buffer
+     * @param length the length of the message in bytes
+     * @return the reverse session ID
+     * @see #getReverseSessionID(String)
+     */
+    public static SessionID getReverseSessionID(byte[] data, int offset, int length) {
+        final String[] values = new String[REVERSE_SESSION_ID_TAGS.length];
+        final int end = offset + length;
+        int fieldStart = offset;
+        while (fieldStart < end) {
+            int fieldTag = 0;
+            int index = fieldStart;
+            while (index < end && index - fieldStart < 10 && data[index] >= '0' && data[index] <= '9') {
+                fieldTag = fieldTag * 10 + (data[index++] - '0');
+            }
+            final int valueEnd = indexOf(data, index, end, FIELD_SEPARATOR);
+            if (valueEnd == -1) {
+                break;
+            }
+            if (index > fieldStart && data[index] == '=') {
+                for (int i = 0; i < values.length; i++) {
+                    if (REVERSE_SESSION_ID_TAGS[i] == fieldTag && values[i] == null) {
+                        values[i] = new String(data, index + 1, valueEnd - index - 1,
+                                CharsetSupport.getCharsetInstance());
+                    }
+                }
+            }
+            fieldStart = valueEnd + 1;
+        }
+        return new SessionID(values[0], values[1], values[2], values[3], values[4], values[5], values[6],
+                null);
+    }
+
     private static String getFieldOrDefault(FieldMap fields, int tag, String defaultValue) {
         if (fields.isSetField(tag)) {
             try {
@@ -197,6 +239,67 @@ public class MessageUtils {
         return value;
     }
 
+    /**
+     * Returns the message type of a FIX message held in a byte array.
+     *
+     * @param data the buffer containing the FIX message
+     * @param offset the offset of the message within the buffer
+     * @param length the length of the message in bytes
+     * @return the message type
+     * @throws InvalidMessage if the message type is missing or garbled
+     * @see #getMessageType(String)
+     */
+    public static String getMessageType(byte[] data, int offset, int length) throws InvalidMessage {
+        final String value = getStringField(data, offset, length, MsgType.FIELD);
+        if (value == null) {
+            final String messageString = new String(data, offset, length, CharsetSupport.getCharsetInstance());
+            throw newInvalidMessageException("Missing or garbled message type in " + messageString, getMinimalMessage(messageString));
+        }
+        return value;
+    }
+
+    /**
+     * Extracts a field value from a FIX message held in a byte array without
+     * decoding the whole message. The field value is decoded using the
+     * {@link CharsetSupport#setCharset global charset}.
+     *
+     * @param data the buffer containing the FIX message
+     * @param offset the offset of the message within the buffer
+     * @param length the length of the message in bytes
+     * @param tag the tag of the field to extract
+     * @return the first value of the field, or null if it is not present
+     * @see #getStringField(String, int)
+     */
+    public static String getStringField(byte[] data, int offset, int length, int tag) {
+        final int end = offset + length;
+        int fieldStart = offset;
+        while (fieldStart < end) {
+            int fieldTag = 0;
+            int index = fieldStart;
+            while (index < end && index - fieldStart < 10 && data[index] >= '0' && data[index] <= '9') {
+                fieldTag = fieldTag * 10 + (data[index++] - '0');
+            }
+            final int valueEnd = indexOf(data, index, end, FIELD_SEPARATOR);
+            if (valueEnd == -1) {
+                return null;
+            }
+            if (fieldTag == tag && index > fieldStart && data[index] == '=') {
+                return new String(data, index + 1, valueEnd - index - 1, CharsetSupport.getCharsetInstance());
+            }
+            fieldStart = valueEnd + 1;
+        }
+        return null;
+    }
+
+    static int indexOf(byte[] data, int from, int to, char value) {
+        for (int i = from; i < to; i++) {
+            if (data[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     private static final Map<String, String> applVerIDtoBeginString = new HashMap<String, String>() {
         {
             // No support for earlier versions of FIX
@@ -269,12 +372,27 @@ public class MessageUtils {
      * @return the calculated checksum
      */
     public static int checksum(byte[] data, boolean isEntireMessage) {
+        return checksum(data, 0, data.length, isEntireMessage);
+    }
+
+    /**
+     * Calculates the checksum for a range of the given data.
+     *
+     * @param data the buffer containing the data to calculate the checksum on
+     * @param offset the offset of the data within the buffer
+     * @param length the length of the data in bytes
+     * @param isEntireMessage specifies whether the data is an entire message;
+     *        if true, and it ends with a checksum field, that checksum
+     *        field is excluded from the current checksum calculation
+     * @return the calculated checksum
+     */
+    public static int checksum(byte[] data, int offset, int length, boolean isEntireMessage) {
         int sum = 0;
-        int len = data.length;
-        if (isEntireMessage && data[len - 8] == '\001' && data[len - 7] == '1'
-                && data[len - 6] == '0' && data[len - 5] == '=')
-            len = len - 7;
-        for (int i = 0; i < len; i++) {
+        int end = offset + length;
+        if (isEntireMessage && length >= 8 && data[end - 8] == '\001' && data[end - 7] == '1'
+                && data[end - 6] == '0' && data[end - 5] == '=')
+            end = end - 7;
+        for (int i = offset; i < end; i++) {
             sum += (data[i] & 0xFF);
         }
         return sum & 0xFF; // better than sum % 256 since it avoids overflow issues
@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+package quickfix;
+
+import org.quickfixj.CharsetSupport;
+import quickfix.field.BeginString;
+import quickfix.field.BodyLength;
+import quickfix.field.CheckSum;
+import quickfix.field.MsgType;
+
+import java.util.Arrays;
+
+/**
+ * Serializes a message into a reusable byte array in a single pass.
+ * <p>
+ * The body is written first, leaving room for the BeginString and BodyLength
+ * fields in front of it, and the checksum is summed up while the bytes are written.
+ * Once the body is complete the BeginString and BodyLength fields are written
+ * directly in front of the body and the CheckSum field is appended.
+ */
+final class MessageWriter {
+
+    private static final int PREFIX_SPACE = 32;
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+    private static final int[] HEADER_EXCLUDED_FIELDS = { BeginString.FIELD, BodyLength.FIELD, MsgType.FIELD };
+    private static final int[] TRAILER_EXCLUDED_FIELDS = { CheckSum.FIELD };
+
+    private byte[] buffer = new byte[1024];
+    private int start;
+    private int position;
+    private int checksum;
+
+    /**
+     * Serializes the given message. The result is available via {@link #getBuffer()},
+     * {@link #getOffset()} and {@link #getLength()} until the next call.
+     *
+     * @param header the message header
+     * @param body the message body
+     * @param trailer the message trailer
+     */
+    void write(FieldMap header, FieldMap body, FieldMap trailer) {
+        if (buffer.length > MAX_RETAINED_CAPACITY) {
+            buffer = new byte[1024];
+        }
+        position = PREFIX_SPACE;
+        checksum = 0;
+        final Field<?> msgType = header.getField(MsgType.FIELD, null);
+        if (msgType != null) {
+            writeField(msgType);
+        }
+        header.writeFields(this, HEADER_EXCLUDED_FIELDS);
+        body.writeFields(this, null);
+        trailer.writeFields(this, TRAILER_EXCLUDED_FIELDS);
+        final int bodyLength = position - PREFIX_SPACE;
+        final int bodyChecksum = checksum;
+        final int end = position;
+
+        // prefix: 8=BeginString<SOH>9=BodyLength<SOH>, written behind the body and then moved
+        final Field<?> beginString = header.getField(BeginString.FIELD, null);
+        checksum = 0;
+        if (beginString != null) {
+            writeField(beginString);
+        }
+        writeTag(BodyLength.FIELD);
+        writeNumber(bodyLength);
+        writeByte('\001');
+        final int prefixLength = position - end;
+        if (prefixLength <= PREFIX_SPACE) {
+            start = PREFIX_SPACE - prefixLength;
+            System.arraycopy(buffer, end, buffer, start, prefixLength);
+        } else {
+            // unusually long BeginString, move the body behind the prefix
+            final byte[] prefix = Arrays.copyOfRange(buffer, end, position);
+            System.arraycopy(buffer, PREFIX_SPACE, buffer, prefixLength, bodyLength);
+            System.arraycopy(prefix, 0, buffer, 0, prefixLength);
+            start = 0;
+        }
+        position = start + prefixLength + bodyLength;
+
+        // suffix: 10=CheckSum<SOH>
+        final int value = (bodyChecksum + checksum) & 0xFF;
+        writeTag(CheckSum.FIELD);
+        writeByte('0' + value / 100);
+        writeByte('0' + value / 10 % 10);
+        writeByte('0' + value % 10);
+        writeByte('\001');
+    }
+
+    byte[] getBuffer() {
+        return buffer;
+    }
+
+    int getOffset() {
+        return start;
+    }
+
+    int getLength() {
+        return position - start;
+    }
+
+    void writeField(Field<?> field) {
+        writeTag(field.getTag());
+        if (!field.writeValueTo(this)) {
+            writeString(field.objectAsString());
+        }
+        writeByte('\001');
+    }
+
+    void writeField(int tag, int value) {
+        writeTag(tag);
+        writeNumber(value);
+        writeByte('\001');
+    }
+
+    void writeBytes(byte[] data, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(data, offset, buffer, position, length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            checksum += data[i] & 0xFF;
+        }
+        position += length;
+    }
+
+    private void writeTag(int tag) {
+        writeNumber(tag);
+        writeByte('=');
+    }
+
+    private void writeString(String value) {
+        if (CharsetSupport.isStringEquivalent()) {
+            final int length = value.length();
+            ensureCapacity(length);
+            final byte[] buffer = this.buffer;
+            int position = this.position;
+            int checksum = this.checksum;
+            for (int i = 0; i < length; i++) {
+                final char c = value.charAt(i);
+                buffer[position++] = (byte) c;
+                checksum += c & 0xFF;
+            }
+            this.position = position;
+            this.checksum = checksum;
+        } else {
+            final byte[] bytes = value.getBytes(CharsetSupport.getCharsetInstance());
+            writeBytes(bytes, 0, bytes.length);
+        }
+    }
+
+    void writeNumber(long value) {
+        if (value < 0) {
+            writeByte('-');
+            if (value == Long.MIN_VALUE) {
+                writeString("9223372036854775808");
+                return;
+            }
+            value = -value;
+        }
+        final int digits = NumericStringField.digits(value);
+        ensureCapacity(digits);
+        for (int i = position + digits - 1; i >= position; i--) {
+            final int digit = (int) ('0' + value % 10);
+            buffer[i] = (byte) digit;
+            checksum += digit;
+            value /= 10;
+        }
+        position += digits;
+    }
+
+    void writeDecimal(long unscaledValue, int scale) {
+        if (scale == 0) {
+            writeNumber(unscaledValue);
+            return;
+        }
+        if (unscaledValue == Long.MIN_VALUE) {
+            writeString(FixedDecimal.toString(unscaledValue, scale));
+            return;
+        }
+        if (unscaledValue < 0) {
+            writeByte('-');
+            unscaledValue = -unscaledValue;
+        }
+        // at least one digit in front of the decimal point
+        final int digits = Math.max(NumericStringField.digits(unscaledValue), scale + 1);
+        ensureCapacity(digits + 1);
+        final int end = position + digits;
+        for (int i = end, fraction = scale; i >= position; i--) {
+            final int digit;
+            if (fraction-- == 0) {
+                digit = '.';
+            } else {
+                digit = (int) ('0' + unscaledValue % 10);
+                unscaledValue /= 10;
+            }
+            buffer[i] = (byte) digit;
+            checksum += digit;
+        }
+        position = end + 1;
+    }
+
+    private void writeByte(int b) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) b;
+        checksum += b;
+    }
+
+    private void ensureCapacity(int length) {
+        if (position + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+package quickfix;
+
+import quickfix.field.converter.LongConverter;
+
+/**
+ * A string field set from an integral or fixed-point decimal value. The value is
+ * only converted to a String when it is read as a String; the numeric getters
+ * return it directly and the message writer writes its digits without creating
+ * a String.
+ */
+final class NumericStringField extends StringField {
+
+    static final long serialVersionUID = -3418936570213045687L;
+
+    private final long unscaledValue;
+    private final int scale;
+    private boolean numeric = true;
+
+    NumericStringField(int field, long value) {
+        this(field, value, 0);
+    }
+
+    NumericStringField(int field, long unscaledValue, int scale) {
+        super(field, null);
+        this.unscaledValue = unscaledValue;
+        this.scale = scale;
+    }
+
+    @Override
+    public String getObject() {
+        String object = super.getObject();
+        if (object == null && numeric) {
+            object = scale == 0
+                    ? LongConverter.convert(unscaledValue)
+                    : FixedDecimal.toString(unscaledValue, scale);
+            super.setObject(object);
+        }
+        return object;
+    }
+
+    @Override
+    protected void setObject(String object) {
+        numeric = false;
+        super.setObject(object);
+    }
+
+    @Override
+    protected String objectAsString() {
+        return getObject();
+    }
+
+    @Override
+    public int hashCode() {
+        return getObject().hashCode();
+    }
+
+    @Override
+    void toString(StringBuilder buffer) {
+        if (numeric && scale == 0) {
+            buffer.append(getTag()).append('=').append(unscaledValue);
+        } else {
+            super.toString(buffer);
+        }
+    }
+
+    @Override
+    int getLength() {
+        if (!numeric || scale != 0) {
+            return super.getLength();
+        }
+        return digits(getTag()) + 1 + digits(unscaledValue) + 1;
+    }
+
+    @Override
+    int getChecksum() {
+        if (!numeric || scale != 0) {
+            return super.getChecksum();
+        }
+        return (checksum(getTag()) + '=' + checksum(unscaledValue) + '\001') & 0xFF;
+    }
+
+    @Override
+    int intValue() throws FieldConvertError {
+        return numeric && scale == 0 && unscaledValue == (int) unscaledValue
+                ? (int) unscaledValue
+                : super.intValue();
+    }
+
+    @Override
+    long longValue() throws FieldConvertError {
+        return numeric && scale == 0 ? unscaledValue : super.longValue();
+    }
+
+    @Override
+    double doubleValue() throws FieldConvertError {
+        return numeric ? FixedDecimal.valueOf(unscaledValue, scale).doubleValue() : super.doubleValue();
+    }
+
+    @Override
+    FixedDecimal fixedDecimalValue() throws FieldConvertError {
+        return numeric ? FixedDecimal.valueOf(unscaledValue, scale) : super.fixedDecimalValue();
+    }
+
+    @Override
+    boolean writeValueTo(MessageWriter writer) {
+        if (!numeric) {
+            return false;
+        }
+        writer.writeDecimal(unscaledValue, scale);
+        return true;
+    }
+
+    /**
+     * Returns the number of characters of the decimal representation of the given value.
+     */
+    static int digits(long value) {
+        int digits = 1;
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                return 20;
+            }
+            value = -value;
+            digits++;
+        }
+        for (; value >= 10; value /= 10) {
+            digits++;
+        }
+        return digits;
+    }
+
+    private static int checksum(long value) {
+        if (value == Long.MIN_VALUE) {
+            return MessageUtils.checksum(Long.toString(value));
+        }
+        int sum = 0;
+        if (value < 0) {
+            sum += '-';
+            value = -value;
+        }
+        do {
+            sum += '0' + (int) (value % 10);
+            value /= 10;
+        } while (value > 0);
+        return sum;
+    }
+}
@@ -19,6 +19,13 @@
 
 package quickfix;
 
+import quickfix.field.converter.BooleanConverter;
+import quickfix.field.converter.CharConverter;
+import quickfix.field.converter.DoubleConverter;
+import quickfix.field.converter.FixedDecimalConverter;
+import quickfix.field.converter.IntConverter;
+import quickfix.field.converter.LongConverter;
+
 /**
  * A string-valued message field.
  */
@@ -43,4 +50,28 @@ public class StringField extends Field<String> {
     public boolean valueEquals(String value) {
         return getValue().equals(value);
     }
+
+    /*package*/ int intValue() throws FieldConvertError {
+        return IntConverter.convert(getValue());
+    }
+
+    /*package*/ long longValue() throws FieldConvertError {
+        return LongConverter.convert(getValue());
+    }
+
+    /*package*/ double doubleValue() throws FieldConvertError {
+        return DoubleConverter.convert(getValue());
+    }
+
+    /*package*/ FixedDecimal fixedDecimalValue() throws FieldConvertError {
+        return FixedDecimalConverter.convert(getValue());
+    }
+
+    /*package*/ char charValue() throws FieldConvertError {
+        return CharConverter.convert(getValue());
+    }
+
+    /*package*/ boolean booleanValue() throws FieldConvertError {
+        return BooleanConverter.convert(getValue());
+    }
 }
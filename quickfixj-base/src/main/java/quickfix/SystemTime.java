@@ -19,6 +19,8 @@
 
 package quickfix;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.Calendar;
@@ -41,6 +43,12 @@ public class SystemTime {
         public LocalDateTime getNow() {
             return LocalDateTime.now(ZoneOffset.UTC);
         }
+
+        @Override
+        public long getEpochNanos() {
+            final Instant now = Clock.systemUTC().instant();
+            return now.getEpochSecond() * 1000000000L + now.getNano();
+        }
     };
 
     private static volatile SystemTimeSource systemTimeSource = DEFAULT_TIME_SOURCE;
@@ -53,6 +61,13 @@ public class SystemTime {
         return systemTimeSource.getNow();
     }
 
+    /**
+     * @return the current time as nanoseconds since 1970-01-01T00:00:00Z
+     */
+    public static long currentEpochNanos() {
+        return systemTimeSource.getEpochNanos();
+    }
+
     public static Date getDate() {
         return new Date(currentTimeMillis());
     }
@@ -19,6 +19,7 @@
 
 package quickfix.field.converter;
 
+import org.quickfixj.CharsetSupport;
 import quickfix.FieldConvertError;
 
 /**
@@ -54,4 +55,25 @@ public class BooleanConverter {
             throw new FieldConvertError("invalid boolean value: " + value);
         }
     }
+
+    /**
+     * Converts the encoded bytes of a field value to a boolean without
+     * creating a String for the value.
+     *
+     * @param data the buffer containing the value
+     * @param offset the offset of the value within the buffer
+     * @param length the length of the value in bytes
+     * @return true if "Y" and false if "N"
+     * @throws FieldConvertError raised for any value other than "Y" or "N".
+     */
+    public static boolean convert(byte[] data, int offset, int length) throws FieldConvertError {
+        if (length == 1) {
+            if (data[offset] == 'Y') {
+                return true;
+            } else if (data[offset] == 'N') {
+                return false;
+            }
+        }
+        return convert(new String(data, offset, length, CharsetSupport.getCharsetInstance()));
+    }
 }
@@ -19,6 +19,7 @@
 
 package quickfix.field.converter;
 
+import org.quickfixj.CharsetSupport;
 import quickfix.FieldConvertError;
 
 /**
@@ -50,4 +51,21 @@ public class CharConverter {
         }
         return value.charAt(0);
     }
+
+    /**
+     * Convert the encoded bytes of a field value to a character without
+     * creating a String for the value.
+     *
+     * @param data the buffer containing the value
+     * @param offset the offset of the value within the buffer
+     * @param length the length of the value in bytes
+     * @return the converted character
+     * @throws FieldConvertError if the value is not a single character
+     */
+    public static char convert(byte[] data, int offset, int length) throws FieldConvertError {
+        if (length == 1 && data[offset] >= 0) {
+            return (char) data[offset];
+        }
+        return convert(new String(data, offset, length, CharsetSupport.getCharsetInstance()));
+    }
 }
@@ -19,6 +19,7 @@
 
 package quickfix.field.converter;
 
+import org.quickfixj.CharsetSupport;
 import quickfix.FieldConvertError;
 import quickfix.RuntimeError;
 
@@ -31,6 +32,11 @@ import java.util.Locale;
  */
 public class DoubleConverter {
     private static final ThreadLocal<DecimalFormat[]> THREAD_DECIMAL_FORMATS = new ThreadLocal<>();
+    // Values with up to 15 digits are exactly representable as a long mantissa and a power of ten,
+    // so dividing them yields the same correctly rounded result as Double.parseDouble().
+    private static final int MAX_FAST_PATH_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15 };
 
     /**
      * Converts a double to a string with no padding.
@@ -95,6 +101,46 @@ public class DoubleConverter {
         }
     }
 
+    /**
+     * Convert the encoded bytes of a field value to a double without
+     * creating a String for the value.
+     *
+     * @param data the buffer containing the value
+     * @param offset the offset of the value within the buffer
+     * @param length the length of the value in bytes
+     * @return the parsed double
+     * @throws FieldConvertError if the value is not a valid double pattern.
+     * @see #convert(String)
+     */
+    public static double convert(byte[] data, int offset, int length) throws FieldConvertError {
+        final int end = offset + length;
+        final boolean negative = length > 0 && data[offset] == '-';
+        boolean dot = false;
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        for (int i = negative ? offset + 1 : offset; i < end; i++) {
+            final byte c = data[i];
+            if (!dot && c == '.') {
+                dot = true;
+            } else if (c >= '0' && c <= '9' && digits < MAX_FAST_PATH_DIGITS) {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (dot) {
+                    fractionDigits++;
+                }
+            } else {
+                // invalid or long values are left to convert(String)
+                digits = 0;
+                break;
+            }
+        }
+        if (digits > 0) {
+            return toDouble(negative, mantissa, fractionDigits);
+        }
+        return convert(new String(data, offset, length, CharsetSupport.getCharsetInstance()));
+    }
+
     private static double parseDouble(String value) {
         if(value.length() == 0) throw new NumberFormatException(value);
         boolean dot = false; int i = 0;
@@ -103,11 +149,26 @@ public class DoubleConverter {
             case '-': i++; break;
             case '+': throw new NumberFormatException(value);
         }
+        final boolean negative = i > 0;
+        long mantissa = 0; int digits = 0; int fractionDigits = 0;
         for (; i < value.length(); i++) {
             c = value.charAt(i);
             if (!dot && c == '.') dot = true;
             else if (c < '0' || c > '9') throw new NumberFormatException(value);
+            else {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (dot) fractionDigits++;
+            }
+        }
+        if (digits > 0 && digits <= MAX_FAST_PATH_DIGITS) {
+            return toDouble(negative, mantissa, fractionDigits);
         }
         return Double.parseDouble(value);
     }
+
+    private static double toDouble(boolean negative, long mantissa, int fractionDigits) {
+        final double d = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -d : d;
+    }
 }
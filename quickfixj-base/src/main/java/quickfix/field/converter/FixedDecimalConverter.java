@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+package quickfix.field.converter;
+
+import org.quickfixj.CharsetSupport;
+import quickfix.FieldConvertError;
+import quickfix.FixedDecimal;
+
+/**
+ * Converts between a {@link FixedDecimal} and a String.
+ */
+public final class FixedDecimalConverter {
+
+    /**
+     * Converts a fixed-point decimal to a String.
+     *
+     * @param d the decimal to convert
+     * @return the plain String representation, keeping trailing zeros
+     */
+    public static String convert(FixedDecimal d) {
+        return d.toString();
+    }
+
+    /**
+     * Convert a String value to a fixed-point decimal.
+     *
+     * @param value the String value to convert
+     * @return the parsed decimal, with a scale equal to the number of fraction digits
+     * @throws FieldConvertError if the String is not a valid decimal pattern or
+     * cannot be represented without losing precision.
+     */
+    public static FixedDecimal convert(String value) throws FieldConvertError {
+        final int length = value.length();
+        final boolean negative = length > 0 && value.charAt(0) == '-';
+        boolean dot = false;
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        for (int i = negative ? 1 : 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (!dot && c == '.') {
+                dot = true;
+            } else if (c >= '0' && c <= '9' && mantissa <= (Long.MAX_VALUE - (c - '0')) / 10) {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (dot) {
+                    scale++;
+                }
+            } else {
+                throw new FieldConvertError("invalid fixed decimal value: " + value);
+            }
+        }
+        return toFixedDecimal(value, negative, mantissa, digits, scale);
+    }
+
+    /**
+     * Convert the encoded bytes of a field value to a fixed-point decimal without
+     * creating a String for the value.
+     *
+     * @param data the buffer containing the value
+     * @param offset the offset of the value within the buffer
+     * @param length the length of the value in bytes
+     * @return the parsed decimal, with a scale equal to the number of fraction digits
+     * @throws FieldConvertError if the value is not a valid decimal pattern or
+     * cannot be represented without losing precision.
+     * @see #convert(String)
+     */
+    public static FixedDecimal convert(byte[] data, int offset, int length) throws FieldConvertError {
+        final int end = offset + length;
+        final boolean negative = length > 0 && data[offset] == '-';
+        boolean dot = false;
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        for (int i = negative ? offset + 1 : offset; i < end; i++) {
+            final byte c = data[i];
+            if (!dot && c == '.') {
+                dot = true;
+            } else if (c >= '0' && c <= '9' && mantissa <= (Long.MAX_VALUE - (c - '0')) / 10) {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (dot) {
+                    scale++;
+                }
+            } else {
+                // invalid values are left to convert(String) to report the error
+                return convert(new String(data, offset, length, CharsetSupport.getCharsetInstance()));
+            }
+        }
+        if (digits == 0 || scale > FixedDecimal.MAX_SCALE) {
+            return convert(new String(data, offset, length, CharsetSupport.getCharsetInstance()));
+        }
+        return FixedDecimal.valueOf(negative ? -mantissa : mantissa, scale);
+    }
+
+    private static FixedDecimal toFixedDecimal(String value, boolean negative, long mantissa, int digits, int scale)
+            throws FieldConvertError {
+        if (digits == 0 || scale > FixedDecimal.MAX_SCALE) {
+            throw new FieldConvertError("invalid fixed decimal value: " + value);
+        }
+        return FixedDecimal.valueOf(negative ? -mantissa : mantissa, scale);
+    }
+}
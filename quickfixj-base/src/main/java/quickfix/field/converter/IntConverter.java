@@ -19,6 +19,7 @@
 
 package quickfix.field.converter;
 
+import org.quickfixj.CharsetSupport;
 import quickfix.FieldConvertError;
 import quickfix.NumbersCache;
 
@@ -82,6 +83,36 @@ public final class IntConverter {
         }
     }
 
+    /**
+     * Convert the encoded bytes of a field value to an integer without
+     * creating a String for the value.
+     *
+     * @param data the buffer containing the value
+     * @param offset the offset of the value within the buffer
+     * @param length the length of the value in bytes
+     * @return the converted integer
+     * @throws FieldConvertError raised if the value does not represent a valid
+     * FIX integer
+     * @see #convert(String)
+     */
+    public static int convert(byte[] data, int offset, int length) throws FieldConvertError {
+        final boolean isNegative = length > 0 && data[offset] == '-';
+        final int maxLength = (isNegative ? INT_MAX_STRING.length() : INT_MAX_STRING.length() - 1);
+        if (length > (isNegative ? 1 : 0) && length <= maxLength) {
+            int num = 0;
+            int i = isNegative ? offset + 1 : offset;
+            final int end = offset + length;
+            while (i < end && data[i] >= '0' && data[i] <= '9') {
+                num = (num * 10) + (data[i++] - '0');
+            }
+            if (i == end) {
+                return isNegative ? -num : num;
+            }
+        }
+        // invalid or long values are left to convert(String)
+        return convert(new String(data, offset, length, CharsetSupport.getCharsetInstance()));
+    }
+
     /**
      * Please note that input needs to be validated first, otherwise unexpected
      * results may occur. Please also note that this method has no range or
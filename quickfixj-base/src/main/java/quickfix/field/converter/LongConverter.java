@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+package quickfix.field.converter;
+
+import org.quickfixj.CharsetSupport;
+import quickfix.FieldConvertError;
+import quickfix.NumbersCache;
+
+/**
+ * Convert between a long and a String
+ */
+public final class LongConverter {
+
+    private static final String LONG_MAX_STRING = String.valueOf(Long.MAX_VALUE);
+
+    /**
+     * Convert a long to a String
+     *
+     * @param l the long to convert
+     * @return the String representing the long
+     * @see NumbersCache#get(int)
+     */
+    public static String convert(long l) {
+        return l >= 0 && l <= Integer.MAX_VALUE ? NumbersCache.get((int) l) : Long.toString(l);
+    }
+
+    /**
+     * Convert a String to a long.
+     *
+     * @param value the String to convert
+     * @return the converted long
+     * @throws FieldConvertError raised if the String does not represent a valid
+     * FIX integer, i.e. optional negative sign and rest are digits.
+     * @see java.lang.Long#parseLong(String)
+     */
+    public static long convert(String value) throws FieldConvertError {
+        final boolean isNegative = !value.isEmpty() && value.charAt(0) == '-';
+        // see IntConverter: only values shorter than Long.MAX_VALUE are parsed without range check
+        final int maxLength = (isNegative ? LONG_MAX_STRING.length() : LONG_MAX_STRING.length() - 1);
+        if (value.length() > (isNegative ? 1 : 0) && value.length() <= maxLength) {
+            long num = 0;
+            for (int i = isNegative ? 1 : 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                if (!IntConverter.isDigit(c)) {
+                    throw new FieldConvertError("invalid integral value: " + value);
+                }
+                num = (num * 10) + (c - '0');
+            }
+            return isNegative ? -num : num;
+        }
+        if (value.isEmpty()) {
+            throw new FieldConvertError("invalid integral value: empty string");
+        }
+        if (value.charAt(0) == '+') {
+            throw new FieldConvertError("invalid integral value: " + value);
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new FieldConvertError("invalid integral value: " + value + ": " + e);
+        }
+    }
+
+    /**
+     * Convert the encoded bytes of a field value to a long without
+     * creating a String for the value.
+     *
+     * @param data the buffer containing the value
+     * @param offset the offset of the value within the buffer
+     * @param length the length of the value in bytes
+     * @return the converted long
+     * @throws FieldConvertError raised if the value does not represent a valid
+     * FIX integer
+     * @see #convert(String)
+     */
+    public static long convert(byte[] data, int offset, int length) throws FieldConvertError {
+        final boolean isNegative = length > 0 && data[offset] == '-';
+        final int maxLength = (isNegative ? LONG_MAX_STRING.length() : LONG_MAX_STRING.length() - 1);
+        if (length > (isNegative ? 1 : 0) && length <= maxLength) {
+            long num = 0;
+            int i = isNegative ? offset + 1 : offset;
+            final int end = offset + length;
+            while (i < end && data[i] >= '0' && data[i] <= '9') {
+                num = (num * 10) + (data[i++] - '0');
+            }
+            if (i == end) {
+                return isNegative ? -num : num;
+            }
+        }
+        // invalid or long values are left to convert(String)
+        return convert(new String(data, offset, length, CharsetSupport.getCharsetInstance()));
+    }
+}
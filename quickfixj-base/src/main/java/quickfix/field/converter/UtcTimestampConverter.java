@@ -25,7 +25,10 @@ import quickfix.SystemTime;
 
 import java.text.DateFormat;
 import java.time.DateTimeException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.Calendar;
@@ -45,6 +48,10 @@ public class UtcTimestampConverter extends AbstractDateTimeConverter {
     static final int LENGTH_INCL_NANOS = 27;
     static final int LENGTH_INCL_PICOS = 30;
 
+    private static final long NANOS_PER_SECOND = 1000000000L;
+    private static final long NANOS_PER_DAY = 86400L * NANOS_PER_SECOND;
+    private static final int DATE_PREFIX_LENGTH = 9;
+
     private static final ThreadLocal<UtcTimestampConverter> UTC_TIMESTAMP_CONVERTER = new ThreadLocal<>();
     private static final SimpleCache<String, Long> DATE_CACHE = new SimpleCache<>(dateString -> {
         final Calendar c = new GregorianCalendar(1970, 0, 1, 0, 0, 0);
@@ -56,6 +63,9 @@ public class UtcTimestampConverter extends AbstractDateTimeConverter {
         return c.getTimeInMillis();
     });
 
+    // Performance optimization: the formatted date of the most recently formatted timestamp is cached.
+    private static volatile DatePrefix datePrefix = new DatePrefix(0);
+
     private final DateFormat utcTimestampFormat = createDateFormat("yyyyMMdd-HH:mm:ss");
     private final DateFormat utcTimestampFormatMillis = createDateFormat("yyyyMMdd-HH:mm:ss.SSS");
     private static final DateTimeFormatter FORMATTER_SECONDS = createDateTimeFormat("yyyyMMdd-HH:mm:ss");
@@ -84,6 +94,10 @@ public class UtcTimestampConverter extends AbstractDateTimeConverter {
      * @return the formatted timestamp
      */
     public static String convert(LocalDateTime d, UtcTimestampPrecision precision) {
+        final LocalDate date = d.toLocalDate();
+        if (date.getYear() > 0 && date.getYear() <= 9999) {
+            return format(date.toEpochDay(), d.toLocalTime().toNanoOfDay(), precision);
+        }
         switch (precision) {
             case SECONDS:
                 return d.format(FORMATTER_SECONDS);
@@ -98,6 +112,65 @@ public class UtcTimestampConverter extends AbstractDateTimeConverter {
         }
     }
 
+    /**
+     * Convert a timestamp (represented as nanoseconds since the epoch) to a String.
+     *
+     * @param epochNanos the number of nanoseconds since 1970-01-01T00:00:00Z
+     * @param precision controls whether seconds, milliseconds, microseconds or
+     * nanoseconds are included in the result
+     * @return the formatted timestamp
+     */
+    public static String convert(long epochNanos, UtcTimestampPrecision precision) {
+        return format(Math.floorDiv(epochNanos, NANOS_PER_DAY), Math.floorMod(epochNanos, NANOS_PER_DAY), precision);
+    }
+
+    private static String format(long epochDay, long nanoOfDay, UtcTimestampPrecision precision) {
+        DatePrefix prefix = datePrefix;
+        if (prefix.epochDay != epochDay) {
+            prefix = new DatePrefix(epochDay);
+            datePrefix = prefix;
+        }
+        final int fractionDigits;
+        switch (precision) {
+            case SECONDS:
+                fractionDigits = 0;
+                break;
+            case MICROS:
+                fractionDigits = 6;
+                break;
+            case NANOS:
+                fractionDigits = 9;
+                break;
+            default:
+                fractionDigits = 3;
+                break;
+        }
+        final char[] chars = new char[fractionDigits == 0 ? LENGTH_INCL_SECONDS : LENGTH_INCL_SECONDS + 1 + fractionDigits];
+        System.arraycopy(prefix.chars, 0, chars, 0, DATE_PREFIX_LENGTH);
+        final int secondOfDay = (int) (nanoOfDay / NANOS_PER_SECOND);
+        appendDigits(chars, 9, 2, secondOfDay / 3600);
+        chars[11] = ':';
+        appendDigits(chars, 12, 2, secondOfDay / 60 % 60);
+        chars[14] = ':';
+        appendDigits(chars, 15, 2, secondOfDay % 60);
+        if (fractionDigits > 0) {
+            int fraction = (int) (nanoOfDay % NANOS_PER_SECOND);
+            for (int i = fractionDigits; i < 9; i++) {
+                fraction /= 10;
+            }
+            chars[LENGTH_INCL_SECONDS] = '.';
+            appendDigits(chars, LENGTH_INCL_SECONDS + 1, fractionDigits, fraction);
+        }
+        return new String(chars);
+    }
+
+    private static void appendDigits(char[] chars, int offset, int length, int value) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
     private static DateFormat getFormatter(boolean includeMillis) {
         UtcTimestampConverter converter = UTC_TIMESTAMP_CONVERTER.get();
         if (converter == null) {
@@ -159,6 +232,43 @@ public class UtcTimestampConverter extends AbstractDateTimeConverter {
         return null;
     }
     
+    /**
+     * Convert a timestamp string into the number of nanoseconds since the epoch.
+     * Picoseconds are truncated.
+     *
+     * @param value the timestamp String
+     * @return the parsed timestamp as nanoseconds since 1970-01-01T00:00:00Z
+     * @exception FieldConvertError raised if timestamp is an incorrect format.
+     */
+    public static long convertToEpochNanos(String value) throws FieldConvertError {
+        verifyFormat(value);
+        final int length = value.length();
+        long ns = 0;
+        if (length >= LENGTH_INCL_NANOS) {
+            ns = parseInt(value, 18, 9);
+        } else if (length == LENGTH_INCL_MICROS) {
+            ns = parseInt(value, 18, 6) * 1000L;
+        } else if (length == LENGTH_INCL_MILLIS) {
+            ns = parseInt(value, 18, 3) * 1000000L;
+        }
+        final int mm = parseInt(value, 4, 2);
+        final int dd = parseInt(value, 6, 2);
+        final int h = parseInt(value, 9, 2);
+        final int m = parseInt(value, 12, 2);
+        final int s = parseInt(value, 15, 2);
+        if (mm < 1 || mm > 12 || dd < 1 || h > 23 || m > 59 || s > 59
+                || dd > Month.of(mm).length(Year.isLeap(parseInt(value, 0, 4)))) {
+            throwFieldConvertError(value, TYPE);
+        }
+        try {
+            return Math.addExact(Math.multiplyExact(getMillisForDay(value), 1000000L),
+                    (h * 3600L + m * 60L + s) * NANOS_PER_SECOND + ns);
+        } catch (ArithmeticException e) {
+            throwFieldConvertError(value, TYPE);
+        }
+        return 0;
+    }
+
     private static int parseInt(String value, int off, int len) {
         return IntConverter.parseInt(value, off, len);
     }
@@ -200,6 +310,21 @@ public class UtcTimestampConverter extends AbstractDateTimeConverter {
         }
     }
 
+    private static final class DatePrefix {
+        private final long epochDay;
+        private final char[] chars;
+
+        DatePrefix(long epochDay) {
+            final LocalDate date = LocalDate.ofEpochDay(epochDay);
+            this.epochDay = epochDay;
+            this.chars = new char[DATE_PREFIX_LENGTH];
+            appendDigits(chars, 0, 4, date.getYear());
+            appendDigits(chars, 4, 2, date.getMonthValue());
+            appendDigits(chars, 6, 2, date.getDayOfMonth());
+            chars[8] = '-';
+        }
+    }
+
      /**
      * @param localDateTime
      * @return a java.util.Date filled from LocalDateTime (truncated to milliseconds).
@@ -0,0 +1,117 @@
+package quickfix;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the {@link DataDictionarySnapshot} class.
+ */
+public class DataDictionarySnapshotTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSnapshotRoundTrip() throws Exception {
+        for (String name : new String[] { "FIX40.xml", "FIX44.xml", "FIX50.xml", "FIXT11.xml" }) {
+            DataDictionary dictionary = DataDictionaryTest.getDictionary(name);
+            byte[] snapshot = toSnapshot(dictionary);
+            DataDictionary restored = DataDictionarySnapshot.read(new ByteArrayInputStream(snapshot));
+            // writing the restored dictionary again yields the same snapshot
+            assertArrayEquals(name, snapshot, toSnapshot(restored));
+
+            assertEquals(dictionary.getVersion(), restored.getVersion());
+            assertEquals(dictionary.getFullVersion(), restored.getFullVersion());
+            assertArrayEquals(dictionary.getOrderedFields(), restored.getOrderedFields());
+            assertEquals(dictionary.getNumMessageCategories(), restored.getNumMessageCategories());
+        }
+
+        DataDictionary dictionary = DataDictionarySnapshot.read(
+                new ByteArrayInputStream(toSnapshot(DataDictionaryTest.getDictionary())));
+        assertEquals("D", dictionary.getMsgType("NewOrderSingle"));
+        assertTrue(dictionary.isAppMessage("D"));
+        assertTrue(dictionary.isRequiredField("D", 11));
+        assertEquals("ClOrdID", dictionary.getFieldName(11));
+        assertEquals(11, dictionary.getFieldTag("ClOrdID"));
+        assertEquals(FieldType.CHAR, dictionary.getFieldType(54));
+        assertEquals("BUY", dictionary.getValueName(54, "1"));
+        assertTrue(dictionary.isFieldValue(54, "1"));
+        assertTrue(dictionary.isGroup("D", 453));
+        DataDictionary.GroupInfo parties = dictionary.getGroup("D", 453);
+        assertEquals(448, parties.getDelimiterField());
+        assertEquals(DataDictionaryTest.getDictionary().getGroup("D", 453).getDataDictionary().getOrderedFields()[0],
+                parties.getDataDictionary().getOrderedFields()[0]);
+        assertTrue(parties.getDataDictionary().isGroup("D", 802));
+    }
+
+    @Test
+    public void testInvalidSnapshot() {
+        assertThrows(IOException.class,
+                () -> DataDictionarySnapshot.read(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5 })));
+        assertThrows(ConfigError.class, () -> DataDictionarySnapshot.load("missing.dds"));
+    }
+
+    @Test
+    public void testLoadWritesAndReusesSnapshot() throws Exception {
+        File directory = new File(folder.getRoot(), "snapshots");
+        File xml = folder.newFile("FIX44.xml");
+        copyResource("FIX44.xml", xml);
+
+        DataDictionary first = DataDictionarySnapshot.load(xml.getPath(), directory);
+        File[] snapshots = directory.listFiles();
+        assertEquals(1, snapshots.length);
+        assertTrue(snapshots[0].getName().endsWith(DataDictionarySnapshot.FILE_EXTENSION));
+        byte[] snapshot = Files.readAllBytes(snapshots[0].toPath());
+
+        DataDictionary second = DataDictionarySnapshot.load(xml.getPath(), directory);
+        assertArrayEquals(toSnapshot(first), toSnapshot(second));
+        assertArrayEquals(snapshot, Files.readAllBytes(snapshots[0].toPath()));
+        assertTrue(second.isMsgType("D"));
+
+        // a changed dictionary replaces the snapshot
+        copyResource("FIX40.xml", xml);
+        DataDictionary changed = DataDictionarySnapshot.load(xml.getPath(), directory);
+        assertEquals(FixVersions.BEGINSTRING_FIX40, changed.getVersion());
+        assertEquals(1, directory.listFiles().length);
+        assertNotEquals(snapshot.length, Files.readAllBytes(snapshots[0].toPath()).length);
+
+        // a corrupt snapshot is compiled again
+        Files.write(snapshots[0].toPath(), new byte[] { 0 });
+        assertFalse(DataDictionarySnapshot.load(xml.getPath(), directory).isMsgType("AE"));
+        assertArrayEquals(toSnapshot(changed), toSnapshot(DataDictionarySnapshot.load(snapshots[0].getPath())));
+    }
+
+    private static byte[] toSnapshot(DataDictionary dictionary) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DataDictionarySnapshot.write(dictionary, 0, out);
+        return out.toByteArray();
+    }
+
+    private static void copyResource(String name, File file) throws IOException {
+        try (InputStream in = DataDictionarySnapshotTest.class.getClassLoader().getResourceAsStream(name);
+                OutputStream out = new FileOutputStream(file)) {
+            byte[] buffer = new byte[8192];
+            int length;
+            while ((length = in.read(buffer)) != -1) {
+                out.write(buffer, 0, length);
+            }
+        }
+    }
+}
@@ -37,6 +37,7 @@ import org.junit.rules.ExpectedException;
 
 import quickfix.field.MsgType;
 import quickfix.field.NoHops;
+import quickfix.field.SessionRejectReason;
 
 /**
  * NOTE: There are two DataDictionaryTests.
@@ -212,6 +213,98 @@ public class DataDictionaryTest {
         assertFalse("Unknown trailer field shows up as required", dd.isRequiredTrailerField(666));
     }
 
+    @Test
+    public void testValidationPlans() throws Exception {
+        String data = "";
+        data += "<fix major=\"4\" minor=\"4\">";
+        data += "  <header>";
+        data += "    <field name=\"BeginString\" required=\"Y\"/>";
+        data += "    <field name=\"MsgType\" required=\"Y\"/>";
+        data += "  </header>";
+        data += "  <trailer>";
+        data += "    <field name=\"CheckSum\" required=\"Y\"/>";
+        data += "  </trailer>";
+        data += "  <fields>";
+        data += "    <field number=\"8\" name=\"BeginString\" type=\"STRING\"/>";
+        data += "    <field number=\"35\" name=\"MsgType\" type=\"STRING\"/>";
+        data += "    <field number=\"10\" name=\"CheckSum\" type=\"STRING\"/>";
+        data += "    <field number=\"11\" name=\"ClOrdID\" type=\"STRING\"/>";
+        data += "    <field number=\"54\" name=\"Side\" type=\"CHAR\">";
+        data += "      <value enum=\"1\" description=\"BUY\"/>";
+        data += "      <value enum=\"2\" description=\"SELL\"/>";
+        data += "    </field>";
+        data += "    <field number=\"448\" name=\"PartyID\" type=\"STRING\"/>";
+        data += "    <field number=\"453\" name=\"NoPartyIDs\" type=\"NUMINGROUP\"/>";
+        data += "    <field number=\"100000\" name=\"LargeTag\" type=\"INT\"/>";
+        data += "  </fields>";
+        data += "  <messages>";
+        data += "    <message name=\"NewOrderSingle\" msgtype=\"D\" msgcat=\"app\">";
+        data += "      <field name=\"ClOrdID\" required=\"Y\"/>";
+        data += "      <field name=\"Side\" required=\"N\"/>";
+        data += "      <field name=\"LargeTag\" required=\"N\"/>";
+        data += "      <group name=\"NoPartyIDs\" required=\"N\">";
+        data += "        <field name=\"PartyID\" required=\"Y\"/>";
+        data += "      </group>";
+        data += "    </message>";
+        data += "  </messages>";
+        data += "</fix>";
+
+        DataDictionary dd = new DataDictionary(new ByteArrayInputStream(data.getBytes()));
+        assertTrue(dd.isMsgField("D", 100000));
+        assertFalse(dd.isMsgField("D", 99999));
+        assertTrue(dd.isField(100000));
+        assertEquals(FieldType.INT, dd.getFieldType(100000));
+        assertTrue(dd.isRequiredField("D", 11));
+        assertFalse(dd.isRequiredField("D", 54));
+        assertTrue(dd.isGroup("D", 453));
+        assertEquals(448, dd.getGroup("D", 453).getDelimiterField());
+        assertTrue(dd.isFieldValue(54, "1"));
+        assertFalse(dd.isFieldValue(54, "3"));
+        assertFalse(dd.isFieldValue(11, "A"));
+        // plans are not compiled for undefined message types
+        assertFalse(dd.isMsgField("X", 11));
+        assertTrue(dd.getMessagePlan("X") == DataDictionary.MessagePlan.EMPTY);
+        assertTrue(dd.getMessagePlan("D") == dd.getMessagePlan("D"));
+
+        Message message = new Message();
+        message.getHeader().setString(8, "FIX.4.4");
+        message.getHeader().setString(35, "D");
+        message.setString(11, "A");
+        message.setString(54, "1");
+        message.setInt(100000, 5);
+        Group party = new Group(453, 448);
+        party.setString(448, "P");
+        message.addGroup(party);
+        ValidationSettings settings = new ValidationSettings();
+        dd.validate(message, true, settings);
+        new DataDictionary(dd).validate(message, true, settings);
+
+        message.setString(54, "3");
+        try {
+            dd.validate(message, true, settings);
+            fail("invalid enum value");
+        } catch (IncorrectTagValue e) {
+            assertEquals(54, e.getField());
+        }
+        message.setString(54, "2");
+        message.setString(100000, "x");
+        try {
+            dd.validate(message, true, settings);
+            fail("invalid int value");
+        } catch (IncorrectDataFormat e) {
+            assertEquals(100000, e.getField());
+        }
+        message.setInt(100000, 5);
+        message.removeField(11);
+        try {
+            dd.validate(message, true, settings);
+            fail("missing required field");
+        } catch (FieldException e) {
+            assertEquals(SessionRejectReason.REQUIRED_TAG_MISSING, e.getSessionRejectReason());
+            assertEquals(11, e.getField());
+        }
+    }
+
     @Test
     public void testMessagesWithNoChildren40() throws Exception {
         String data = "";
@@ -19,13 +19,18 @@
 
 package quickfix;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoField;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.Random;
 import java.util.TimeZone;
 
 import org.junit.Rule;
@@ -35,7 +40,9 @@ import quickfix.field.converter.BooleanConverter;
 import quickfix.field.converter.CharArrayConverter;
 import quickfix.field.converter.CharConverter;
 import quickfix.field.converter.DoubleConverter;
+import quickfix.field.converter.FixedDecimalConverter;
 import quickfix.field.converter.IntConverter;
+import quickfix.field.converter.LongConverter;
 import quickfix.field.converter.UtcDateOnlyConverter;
 import quickfix.field.converter.UtcTimeOnlyConverter;
 import quickfix.field.converter.UtcTimestampConverter;
@@ -180,6 +187,143 @@ public class FieldConvertersTest {
         assertEquals("0.0", DoubleConverter.convert(0, 1));
     }
 
+    @Test
+    public void testLongConversion() throws Exception {
+        assertEquals("123", LongConverter.convert(123L));
+        assertEquals("-1", LongConverter.convert(-1L));
+        assertEquals("9223372036854775807", LongConverter.convert(Long.MAX_VALUE));
+        assertEquals(123L, LongConverter.convert("123"));
+        assertEquals(-123L, LongConverter.convert("-123"));
+        assertEquals(4294967296L, LongConverter.convert("4294967296"));
+        assertEquals(Long.MAX_VALUE, LongConverter.convert("9223372036854775807"));
+        assertEquals(Long.MIN_VALUE, LongConverter.convert("-9223372036854775808"));
+        assertEquals(5L, LongConverter.convert("000000000000000000005"));
+        for (String value : new String[] { "", "-", "+1", "abc", "1.5", "9223372036854775808",
+                "+000000000000000000001" }) {
+            try {
+                LongConverter.convert(value);
+                fail(value);
+            } catch (FieldConvertError e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testFixedDecimalConversion() throws Exception {
+        assertEquals(FixedDecimal.valueOf(1500, 3), FixedDecimalConverter.convert("1.500"));
+        assertEquals(3, FixedDecimalConverter.convert("1.500").getScale());
+        assertEquals("1.500", FixedDecimalConverter.convert(FixedDecimalConverter.convert("1.500")));
+        assertEquals("-0.05", FixedDecimalConverter.convert("-.05").toString());
+        assertEquals("12", FixedDecimalConverter.convert("12.").toString());
+        assertEquals(FixedDecimal.valueOf(Long.MAX_VALUE, 18),
+                FixedDecimalConverter.convert("9.223372036854775807"));
+        assertEquals(FixedDecimalConverter.convert("1.5"), FixedDecimalConverter.convert(bytes("1.5"), 1, 3));
+        assertEquals(FixedDecimal.valueOf(-125, 2), FixedDecimalConverter.convert(bytes("-1.25"), 1, 5));
+        for (String value : new String[] { "", "-", ".", "+1", "1e5", "1.2.3", "abc",
+                "9223372036854775808", "0.0000000000000000001" }) {
+            try {
+                FixedDecimalConverter.convert(value);
+                fail(value);
+            } catch (FieldConvertError e) {
+                // expected
+            }
+            try {
+                FixedDecimalConverter.convert(bytes(value), 1, value.length());
+                fail(value);
+            } catch (FieldConvertError e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testFixedDecimal() {
+        FixedDecimal value = FixedDecimal.valueOf(new BigDecimal("1565.10"));
+        assertEquals(156510L, value.getUnscaledValue());
+        assertEquals(2, value.getScale());
+        assertEquals(new BigDecimal("1565.10"), value.toBigDecimal());
+        assertEquals(1565.1, value.doubleValue(), 0);
+        assertEquals(1565L, value.longValue());
+        assertEquals(FixedDecimal.valueOf(15651, 1), value);
+        assertEquals(FixedDecimal.valueOf(15651, 1).hashCode(), value.hashCode());
+        assertEquals(0, FixedDecimal.valueOf(15651, 1).compareTo(value));
+        assertTrue(FixedDecimal.valueOf(-1, 18).compareTo(FixedDecimal.ZERO) < 0);
+        assertTrue(FixedDecimal.valueOf(Long.MAX_VALUE, 0).compareTo(FixedDecimal.valueOf(1, 18)) > 0);
+        assertEquals("0.000001", FixedDecimal.valueOf(1, 6).toString());
+        assertEquals("-92233720368.54775808", FixedDecimal.valueOf(Long.MIN_VALUE, 8).toString());
+        assertEquals(FixedDecimal.valueOf(12, 0), FixedDecimal.valueOf(new BigDecimal("1.2E+1")));
+        try {
+            FixedDecimal.valueOf(new BigDecimal("1.0000000000000000001"));
+            fail();
+        } catch (ArithmeticException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testConversionFromBytes() throws Exception {
+        assertEquals(123, IntConverter.convert(bytes("123"), 1, 3));
+        assertEquals(-123, IntConverter.convert(bytes("-123"), 1, 4));
+        assertEquals(Integer.MAX_VALUE, IntConverter.convert(bytes("2147483647"), 1, 10));
+        assertEquals(Long.MIN_VALUE, LongConverter.convert(bytes("-9223372036854775808"), 1, 20));
+        assertEquals(45.32, DoubleConverter.convert(bytes("45.32"), 1, 5), 0);
+        assertEquals(-0.06, DoubleConverter.convert(bytes("-000.06"), 1, 7), 0);
+        assertEquals(12.0000000000001, DoubleConverter.convert(bytes("12.0000000000001"), 1, 16), 0);
+        assertEquals(123456789.123456789, DoubleConverter.convert(bytes("123456789.123456789"), 1, 19), 0);
+        assertEquals('X', CharConverter.convert(bytes("X"), 1, 1));
+        assertTrue(BooleanConverter.convert(bytes("Y"), 1, 1));
+        assertFalse(BooleanConverter.convert(bytes("N"), 1, 1));
+
+        for (String value : new String[] { "", "-", "+1", "1a", "2147483648" }) {
+            try {
+                IntConverter.convert(bytes(value), 1, value.length());
+                fail(value);
+            } catch (FieldConvertError e) {
+                // expected
+            }
+        }
+        for (String value : new String[] { "", "-", ".", "+1", "1E6", "1.2.3" }) {
+            try {
+                DoubleConverter.convert(bytes(value), 1, value.length());
+                fail(value);
+            } catch (FieldConvertError e) {
+                // expected
+            }
+        }
+        try {
+            CharConverter.convert(bytes("XY"), 1, 2);
+            fail();
+        } catch (FieldConvertError e) {
+            // expected
+        }
+        try {
+            BooleanConverter.convert(bytes("y"), 1, 1);
+            fail();
+        } catch (FieldConvertError e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testDoubleConversionMatchesParseDouble() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            String digits = Long.toString(Math.abs(random.nextLong() % 10000000000000000L));
+            int scale = random.nextInt(digits.length() + 1);
+            String value = (random.nextBoolean() ? "-" : "") + digits.substring(0, digits.length() - scale) + "."
+                    + digits.substring(digits.length() - scale);
+            double expected = Double.parseDouble(value);
+            assertEquals(value, expected, DoubleConverter.convert(value), 0);
+            assertEquals(value, expected, DoubleConverter.convert(bytes(value), 1, value.length()), 0);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        // surround the value to verify that offset and length are respected
+        return ("|" + value + "|").getBytes(StandardCharsets.US_ASCII);
+    }
+
     @Test
     public void testCharConversion() throws Exception {
         assertEquals("a", CharConverter.convert('a'));
@@ -386,6 +530,51 @@ public class FieldConvertersTest {
 
     }
 
+    @Test
+    public void testUtcTimeStampEpochNanosConversion() throws Exception {
+        long epochNanos = LocalDateTime.of(2012, 9, 22, 12, 34, 56, 123456789).toEpochSecond(ZoneOffset.UTC)
+                * 1000000000L + 123456789;
+        assertEquals("20120922-12:34:56", UtcTimestampConverter.convert(epochNanos, UtcTimestampPrecision.SECONDS));
+        assertEquals("20120922-12:34:56.123", UtcTimestampConverter.convert(epochNanos, UtcTimestampPrecision.MILLIS));
+        assertEquals("20120922-12:34:56.123456", UtcTimestampConverter.convert(epochNanos, UtcTimestampPrecision.MICROS));
+        assertEquals("20120922-12:34:56.123456789", UtcTimestampConverter.convert(epochNanos, UtcTimestampPrecision.NANOS));
+        // the cached date prefix is replaced when the day changes
+        assertEquals("20120923-00:00:00.000", UtcTimestampConverter.convert(
+                epochNanos + (11 * 3600 + 25 * 60 + 3) * 1000000000L + 876543211, UtcTimestampPrecision.MILLIS));
+        assertEquals("19691231-23:59:59.999999999", UtcTimestampConverter.convert(-1, UtcTimestampPrecision.NANOS));
+
+        assertEquals(epochNanos, UtcTimestampConverter.convertToEpochNanos("20120922-12:34:56.123456789"));
+        assertEquals(epochNanos, UtcTimestampConverter.convertToEpochNanos("20120922-12:34:56.123456789111"));
+        assertEquals(epochNanos - 789, UtcTimestampConverter.convertToEpochNanos("20120922-12:34:56.123456"));
+        assertEquals(epochNanos - 456789, UtcTimestampConverter.convertToEpochNanos("20120922-12:34:56.123"));
+        assertEquals(0, UtcTimestampConverter.convertToEpochNanos("19700101-00:00:00"));
+        assertEquals(LocalDateTime.of(2024, 2, 29, 0, 0).toEpochSecond(ZoneOffset.UTC) * 1000000000L,
+                UtcTimestampConverter.convertToEpochNanos("20240229-00:00:00"));
+        assertEquals(LocalDateTime.of(2000, 2, 29, 0, 0).toEpochSecond(ZoneOffset.UTC) * 1000000000L,
+                UtcTimestampConverter.convertToEpochNanos("20000229-00:00:00"));
+
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            LocalDateTime dateTime = LocalDateTime.ofEpochSecond(random.nextInt(Integer.MAX_VALUE),
+                    random.nextInt(1000000000), ZoneOffset.UTC);
+            String value = UtcTimestampConverter.convert(dateTime, UtcTimestampPrecision.NANOS);
+            assertEquals(value, dateTime.format(DateTimeFormatter.ofPattern("yyyyMMdd-HH:mm:ss.SSSSSSSSS")));
+            long nanos = UtcTimestampConverter.convertToEpochNanos(value);
+            assertEquals(value, UtcTimestampConverter.convert(nanos, UtcTimestampPrecision.NANOS));
+        }
+
+        for (String value : new String[] { "20120922-24:00:00", "20121322-12:34:56", "20120922-12:60:56",
+                "2012092-12:34:56.123", "99991231-23:59:59", "20230231-12:34:56", "20230229-12:34:56",
+                "21000229-12:34:56", "20120431-12:34:56", "20120900-12:34:56" }) {
+            try {
+                UtcTimestampConverter.convertToEpochNanos(value);
+                fail(value);
+            } catch (FieldConvertError e) {
+                // expected
+            }
+        }
+    }
+
     @Test
     public void testUtcTimeOnlyConversion() throws Exception {
         Calendar c = new GregorianCalendar(0, 0, 0, 12, 5, 6);
@@ -1,11 +1,13 @@
 package quickfix;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.Iterator;
@@ -44,6 +46,104 @@ public class FieldMapTest {
         testOrdering(new int[]{3, 2, 1}, new int[]{3, 1}, new int[]{3, 1, 2});
     }
 
+    @Test
+    public void testIntegralValues() throws Exception {
+        Message message = new Message();
+        message.getHeader().setString(8, "FIX.4.4");
+        message.getHeader().setString(35, "D");
+        message.setInt(38, 1000000);
+        message.setInt(110, -5);
+        message.setLong(9999, 12345678901234L);
+        message.setLong(9998, Long.MIN_VALUE);
+
+        assertEquals(1000000, message.getInt(38));
+        assertEquals(1000000L, message.getLong(38));
+        assertEquals(1000000.0, message.getDouble(38), 0);
+        assertEquals(-5, message.getInt(110));
+        assertEquals(12345678901234L, message.getLong(9999));
+        assertThrows(FieldException.class, () -> message.getInt(9999));
+        assertEquals("12345678901234", message.getString(9999));
+        assertEquals("-9223372036854775808", message.getString(9998));
+
+        Message expected = new Message();
+        expected.getHeader().setString(8, "FIX.4.4");
+        expected.getHeader().setString(35, "D");
+        expected.setString(38, "1000000");
+        expected.setString(110, "-5");
+        expected.setString(9999, "12345678901234");
+        expected.setString(9998, "-9223372036854775808");
+        assertEquals(expected.toString(), message.toString());
+        assertArrayEquals(expected.toString().getBytes(StandardCharsets.US_ASCII), message.toBytes());
+
+        message.setInt(38, 7);
+        message.getField(38).setValue("8");
+        assertEquals(8, message.getInt(38));
+        assertEquals("8", message.getString(38));
+    }
+
+    @Test
+    public void testPrimitiveValuesFromBytes() throws Exception {
+        String data = "8=FIX.4.4\0019=43\00135=D\00138=100\00144=12.5\00154=1\001"
+                + "1000=4294967296\00143=Y\00110=000\001";
+        byte[] bytes = data.getBytes(StandardCharsets.US_ASCII);
+        Message message = new Message();
+        message.fromBytes(bytes, 0, bytes.length, null, new ValidationSettings(), false);
+        assertEquals(100, message.getInt(38));
+        assertEquals(12.5, message.getDouble(44), 0);
+        assertEquals('1', message.getChar(54));
+        assertEquals(4294967296L, message.getLong(1000));
+        assertTrue(message.getHeader().getBoolean(43));
+        assertThrows(FieldException.class, () -> message.getInt(1000));
+        assertThrows(FieldException.class, () -> message.getInt(44));
+    }
+
+    @Test
+    public void testFixedDecimalValues() throws Exception {
+        Message message = new Message();
+        message.getHeader().setString(8, "FIX.4.4");
+        message.getHeader().setString(35, "D");
+        message.setFixedDecimal(44, FixedDecimal.valueOf(1500, 3));
+        message.setFixedDecimal(99, FixedDecimal.valueOf(-5, 4));
+        message.setField(new FixedDecimalField(6, 12, 0));
+
+        assertEquals(FixedDecimal.valueOf(15, 1), message.getFixedDecimal(44));
+        assertEquals(1.5, message.getDouble(44), 0);
+        assertEquals(new BigDecimal("1.500"), message.getDecimal(44));
+        assertEquals("-0.0005", message.getString(99));
+        assertEquals(12, message.getInt(6));
+        assertThrows(FieldException.class, () -> message.getInt(44));
+        assertEquals(FixedDecimal.valueOf(-5, 4), message.getField(new FixedDecimalField(99)).getValue());
+
+        Message expected = new Message();
+        expected.getHeader().setString(8, "FIX.4.4");
+        expected.getHeader().setString(35, "D");
+        expected.setString(44, "1.500");
+        expected.setString(99, "-0.0005");
+        expected.setString(6, "12");
+        assertEquals(expected.toString(), message.toString());
+        assertArrayEquals(expected.toString().getBytes(StandardCharsets.US_ASCII), message.toBytes());
+
+        byte[] bytes = expected.toBytes();
+        Message parsed = new Message();
+        parsed.fromBytes(bytes, 0, bytes.length, null, new ValidationSettings(), false);
+        assertEquals(FixedDecimal.valueOf(1500, 3), parsed.getFixedDecimal(44));
+        assertEquals(3, parsed.getFixedDecimal(44).getScale());
+        parsed.setString(45, "1e5");
+        assertThrows(FieldException.class, () -> parsed.getFixedDecimal(45));
+    }
+
+    @Test
+    public void testUtcTimeStampNanos() throws Exception {
+        FieldMap map = new Message();
+        long epochNanos = 1348317296123456789L;
+        map.setUtcTimeStampNanos(60, epochNanos, UtcTimestampPrecision.MICROS);
+        assertEquals("20120922-12:34:56.123456", map.getString(60));
+        assertEquals(epochNanos - 789, map.getUtcTimeStampNanos(60));
+        assertEquals(LocalDateTime.of(2012, 9, 22, 12, 34, 56, 123456000), map.getUtcTimeStamp(60));
+        map.setString(52, "not a timestamp");
+        assertThrows(FieldException.class, () -> map.getUtcTimeStampNanos(52));
+    }
+
     @Test
     public void testOptionalString() {
         FieldMap map = new Message();
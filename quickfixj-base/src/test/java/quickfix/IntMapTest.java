@@ -0,0 +1,112 @@
+package quickfix;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link IntMap} class.
+ */
+public class IntMapTest {
+
+    @Test
+    public void testPutGetRemove() {
+        IntMap<String> map = new IntMap<>();
+        assertNull(map.get(1));
+        assertNull(map.put(1, "a"));
+        assertEquals("a", map.put(1, "b"));
+        assertEquals("b", map.get(1));
+        assertEquals("b", map.get(Integer.valueOf(1)));
+        assertTrue(map.containsKey(1));
+        assertEquals(1, map.size());
+        assertEquals("b", map.remove(1));
+        assertFalse(map.containsKey(1));
+        assertTrue(map.isEmpty());
+        assertThrows(NullPointerException.class, () -> map.put(1, null));
+    }
+
+    @Test
+    public void testBehavesLikeTreeMap() {
+        IntMap<Integer> map = new IntMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        // tags which are multiples of the table size collide and exercise removal from probe sequences
+        for (int i = 0; i < 1000; i++) {
+            int key = (i * 7919) % 600 * (i % 3 == 0 ? 64 : 1);
+            if (i % 4 == 3) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, Integer.valueOf(i)));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        assertEquals(expected, map);
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(map.keySet()));
+        for (int key = -1; key < 40000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    public void testOrder() {
+        IntMap<String> map = new IntMap<>(new int[] { 35, 8, 9 });
+        for (int key : new int[] { 49, 9, 8, 0, 56, 35 }) {
+            map.put(key, String.valueOf(key));
+        }
+        assertArrayEquals(new int[] { 35, 8, 9, 0, 49, 56 }, map.keys());
+        List<String> values = new ArrayList<>(map.values());
+        assertEquals("35", values.get(0));
+        assertEquals("56", values.get(5));
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        IntMap<String> map = new IntMap<>();
+        for (int key = 1; key <= 20; key++) {
+            map.put(key, String.valueOf(key));
+        }
+        for (Iterator<Integer> it = map.keySet().iterator(); it.hasNext();) {
+            if (it.next() % 2 == 0) {
+                it.remove();
+            }
+        }
+        assertEquals(10, map.size());
+        assertFalse(map.containsKey(2));
+        assertTrue(map.containsKey(19));
+    }
+
+    @Test
+    public void testConcurrentModification() {
+        IntMap<String> map = new IntMap<>();
+        map.put(1, "a");
+        map.put(2, "b");
+        Iterator<String> it = map.values().iterator();
+        it.next();
+        map.put(3, "c");
+        assertThrows(ConcurrentModificationException.class, it::next);
+    }
+
+    @Test
+    public void testPutAllAndClear() {
+        IntMap<String> source = new IntMap<>();
+        source.put(2, "b");
+        source.put(1, "a");
+        IntMap<String> map = new IntMap<>(new int[] { 2 });
+        map.putAll(source);
+        assertArrayEquals(new int[] { 2, 1 }, map.keys());
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(2));
+        assertEquals(0, map.keys().length);
+    }
+}
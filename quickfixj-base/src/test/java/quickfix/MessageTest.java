@@ -5,18 +5,26 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Iterator;
+import java.util.List;
 import java.util.TimeZone;
 
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.quickfixj.CharsetSupport;
 
 import quickfix.field.ApplExtID;
 import quickfix.field.ApplVerID;
@@ -746,4 +754,214 @@ public class MessageTest {
                 DataDictionaryTest.getDictionary());
         assertEquals("ABCD", m.getHeader().getString(SecureData.FIELD));
     }
+
+    @Test
+    public void testMessageFromBytes() throws Exception {
+        final String data = "8=FIX.4.4\0019=222\00135=D\00149=SenderCompId\00156=TargetCompId\00134=37\001" +
+                "52=20070223-22:28:33\00111=183339\00122=8\00138=1\00140=2\00144=12\00148=BHP\00154=2\001" +
+                "55=BHP\00159=1\00160=20060223-22:38:33\001526=3620\00178=0\00179=AllocACC1\00180=1010.1\001" +
+                "79=AllocACC2\00180=2020.2\001453=2\001448=8\001447=D\001452=4\001448=AAA35354\001447=D\001452=3\00110=079\001";
+        final byte[] frame = ("garbage" + data + "garbage").getBytes(CharsetSupport.getCharsetInstance());
+        final DataDictionary dd = DataDictionaryTest.getDictionary();
+
+        final Message fromBytes = new Message();
+        fromBytes.fromBytes(frame, 7, data.length(), dd, new ValidationSettings(), true);
+
+        assertTrue(fromBytes.hasValidStructure());
+        assertEquals("183339", fromBytes.getString(11));
+        assertEquals(2, fromBytes.getGroupCount(453));
+        assertEquals("AAA35354", fromBytes.getGroup(2, 453).getString(448));
+        assertEquals(37, fromBytes.getHeader().getInt(MsgSeqNum.FIELD));
+        assertEquals(data, fromBytes.toRawString());
+
+        final Message fromString = new Message();
+        fromString.fromString(data, dd, new ValidationSettings(), true);
+        assertFieldMapEquals(fromString.getHeader(), fromBytes.getHeader());
+        assertFieldMapEquals(fromString, fromBytes);
+        assertFieldMapEquals(fromString.getTrailer(), fromBytes.getTrailer());
+        // both are serialized from their fields instead of the raw data
+        fromString.getHeader().setInt(MsgSeqNum.FIELD, 37);
+        fromBytes.getHeader().setInt(MsgSeqNum.FIELD, 37);
+        assertEquals(fromString.toString(), fromBytes.toString());
+    }
+
+    private static void assertFieldMapEquals(FieldMap expected, FieldMap actual) throws FieldNotFound {
+        final List<Integer> expectedTags = new ArrayList<>();
+        for (Field<?> field : expected) {
+            expectedTags.add(field.getField());
+            assertEquals(expected.getString(field.getField()), actual.getString(field.getField()));
+        }
+        final List<Integer> actualTags = new ArrayList<>();
+        for (Field<?> field : actual) {
+            actualTags.add(field.getField());
+        }
+        assertEquals(expectedTags, actualTags);
+        for (int groupTag : expected.groupKeys()) {
+            assertEquals(expected.getGroupCount(groupTag), actual.getGroupCount(groupTag));
+            for (int i = 1; i <= expected.getGroupCount(groupTag); i++) {
+                assertFieldMapEquals(expected.getGroup(i, groupTag), actual.getGroup(i, groupTag));
+            }
+        }
+    }
+
+    @Test
+    public void testMessageFromBytesToStringReturnsRawDataUntilModified() throws Exception {
+        final String data = "8=FIX.4.4\0019=222\00135=D\00149=SenderCompId\00156=TargetCompId\00134=37\001" +
+                "52=20070223-22:28:33\00111=183339\00122=8\00138=1\00140=2\00144=12\00148=BHP\00154=2\001" +
+                "55=BHP\00159=1\00160=20060223-22:38:33\001526=3620\00178=0\00179=AllocACC1\00180=1010.1\001" +
+                "79=AllocACC2\00180=2020.2\001453=2\001448=8\001447=D\001452=4\001448=AAA35354\001447=D\001452=3\00110=079\001";
+        final byte[] frame = data.getBytes(CharsetSupport.getCharsetInstance());
+        final DataDictionary dd = DataDictionaryTest.getDictionary();
+
+        final Message fromString = new Message();
+        fromString.fromString(data, dd, new ValidationSettings(), true);
+        final Message fromBytes = new Message();
+        fromBytes.fromBytes(frame, 0, frame.length, dd, new ValidationSettings(), true);
+
+        assertSame(fromBytes.toRawString(), fromBytes.toString());
+        assertEquals("AllocACC2", fromBytes.getGroup(2, 78).getString(79));
+        assertSame(fromBytes.toRawString(), fromBytes.toString());
+
+        fromString.getGroup(2, 453).setString(448, "BBB");
+        fromBytes.getGroup(2, 453).setString(448, "BBB");
+        assertEquals(fromString.toString(), fromBytes.toString());
+        assertTrue(fromBytes.toString().contains("\001448=BBB\001"));
+
+        fromString.getHeader().removeField(MsgSeqNum.FIELD);
+        fromBytes.getHeader().removeField(MsgSeqNum.FIELD);
+        assertEquals(fromString.toString(), fromBytes.toString());
+    }
+
+    @Test
+    public void testMessageFromBytesIsRebuiltAfterGroupListOrIteratorChanges() throws Exception {
+        final String data = "8=FIX.4.4\0019=156\00135=D\00149=SenderCompId\00156=TargetCompId\00134=37\001" +
+                "52=20070223-22:28:33\00111=183339\00122=8\00138=1\00140=2\00144=12\00148=BHP\00154=2\001" +
+                "453=2\001448=8\001447=D\001452=4\001448=AAA35354\001447=D\001452=3\00110=182\001";
+        final byte[] frame = data.getBytes(CharsetSupport.getCharsetInstance());
+        final DataDictionary dd = DataDictionaryTest.getDictionary();
+
+        final Message groupsRemoved = new Message();
+        groupsRemoved.fromBytes(frame, 0, frame.length, dd, new ValidationSettings(), true);
+        assertEquals(data, groupsRemoved.toString());
+        groupsRemoved.getGroups(453).remove(1);
+        assertFalse(groupsRemoved.toString().contains("448=AAA35354"));
+
+        final Message groupsCleared = new Message();
+        groupsCleared.fromBytes(frame, 0, frame.length, dd, new ValidationSettings(), true);
+        groupsCleared.getGroups(453).clear();
+        assertFalse(groupsCleared.toString().contains("448="));
+        assertFalse(new String(groupsCleared.toBytes(), CharsetSupport.getCharsetInstance()).contains("448="));
+
+        final Message fieldRemoved = new Message();
+        fieldRemoved.fromBytes(frame, 0, frame.length, dd, new ValidationSettings(), true);
+        for (Iterator<Field<?>> fields = fieldRemoved.iterator(); fields.hasNext();) {
+            if (fields.next().getField() == 44) {
+                fields.remove();
+            }
+        }
+        assertFalse(fieldRemoved.toString().contains("\00144=12\001"));
+    }
+
+    @Test
+    public void testToBytesMatchesToString() throws Exception {
+        final Message message = newMessageWithGroups("ORDER1");
+        final byte[] bytes = message.toBytes();
+        assertEquals(message.toString(), new String(bytes, CharsetSupport.getCharsetInstance()));
+        // BodyLength and CheckSum set by toString() must not be written twice
+        assertArrayEquals(bytes, message.toBytes());
+
+        final ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 2);
+        buffer.put((byte) 'X');
+        assertEquals(bytes.length, message.writeTo(buffer));
+        assertEquals(bytes.length + 1, buffer.position());
+        assertArrayEquals(bytes, Arrays.copyOfRange(buffer.array(), 1, bytes.length + 1));
+    }
+
+    @Test
+    public void testToBytesWithMultiByteCharset() throws Exception {
+        CharsetSupport.setCharset("UTF-8");
+        try {
+            final Message message = newMessageWithGroups("\u6D4B\u9A8C\u6570\u636E");
+            assertArrayEquals(message.toString().getBytes(CharsetSupport.getCharsetInstance()), message.toBytes());
+        } finally {
+            CharsetSupport.setDefaultCharset();
+        }
+    }
+
+    @Test
+    public void testWriteToWithInsufficientSpace() {
+        final Message message = newMessageWithGroups("ORDER1");
+        final ByteBuffer buffer = ByteBuffer.allocate(16);
+        try {
+            message.writeTo(buffer);
+            fail("expected BufferOverflowException");
+        } catch (BufferOverflowException e) {
+            assertEquals(0, buffer.position());
+        }
+    }
+
+    @Test
+    public void testToBytesOfMessageFromBytes() throws Exception {
+        final String data = "8=FIX.4.4\0019=98\00135=D\00149=SENDER\00156=TARGET\00134=12345\001" +
+                "52=20070223-22:28:33\00111=183339\00122=8\00138=1\00140=2\00144=12\00148=BHP\00154=2\00110=070\001";
+        final byte[] frame = data.getBytes(CharsetSupport.getCharsetInstance());
+        final Message message = new Message();
+        message.fromBytes(frame, 0, frame.length, DataDictionaryTest.getDictionary(), new ValidationSettings(), true);
+        assertArrayEquals(frame, message.toBytes());
+
+        message.setString(11, "183340");
+        final byte[] bytes = message.toBytes();
+        assertEquals(message.toString(), new String(bytes, CharsetSupport.getCharsetInstance()));
+    }
+
+    private static Message newMessageWithGroups(String clOrdID) {
+        final Message message = new Message();
+        message.getHeader().setString(BeginString.FIELD, FixVersions.BEGINSTRING_FIX44);
+        message.getHeader().setString(MsgType.FIELD, "D");
+        message.getHeader().setString(SenderCompID.FIELD, "SENDER");
+        message.getHeader().setString(TargetCompID.FIELD, "TARGET");
+        message.getHeader().setInt(MsgSeqNum.FIELD, 12345);
+        message.setString(11, clOrdID);
+        message.setDouble(44, 12.5);
+        final Group party = new Group(453, 448, new int[] { 448, 447, 452 });
+        party.setString(448, "PARTY1");
+        party.setChar(447, 'D');
+        party.setInt(452, 3);
+        message.addGroup(party);
+        party.setString(448, "PARTY2");
+        message.addGroup(party);
+        message.getTrailer().setString(Signature.FIELD, "SIG");
+        return message;
+    }
+
+    @Test
+    public void testMessageFromBytesWithoutChecksumValidationIsRebuilt() throws Exception {
+        final String data = "8=FIX.4.2\0019=12\00135=A\001108=30\00110=027\001";
+        final byte[] frame = data.getBytes(CharsetSupport.getCharsetInstance());
+        final Message message = new Message();
+        message.fromBytes(frame, 0, frame.length, DataDictionaryTest.getDictionary(), DataDictionaryTest.getDictionary(),
+                new ValidationSettings(), true, false);
+        assertEquals(data, message.toRawString());
+        assertEquals("8=FIX.4.2\0019=12\00135=A\001108=30\00110=026\001", message.toString());
+    }
+
+    @Test
+    public void testMessageFromBytesWithDataField() throws Exception {
+        final String data = "8=FIX.4.2\0019=53\00135=A\00190=4\00191=A\001CD\001"
+                + "98=0\001384=2\001372=D\001385=R\001372=8\001385=S\00110=241\001";
+        final byte[] frame = data.getBytes(CharsetSupport.getCharsetInstance());
+        final Message message = new Message();
+        message.fromBytes(frame, 0, frame.length, DataDictionaryTest.getDictionary(), new ValidationSettings(), false);
+        assertEquals("A\001CD", message.getHeader().getString(SecureData.FIELD));
+        assertEquals(2, message.getGroupCount(384));
+    }
+
+    @Test
+    public void testMessageFromBytesWithInvalidChecksum() throws Exception {
+        final byte[] frame = "8=FIX.4.2\0019=12\00135=A\001108=30\00110=027\001".getBytes(CharsetSupport.getCharsetInstance());
+        final Message message = new Message();
+        expectedException.expect(InvalidMessage.class);
+        expectedException.expectMessage("Expected CheckSum=26");
+        message.fromBytes(frame, 0, frame.length, DataDictionaryTest.getDictionary(), new ValidationSettings(), true);
+    }
 }
@@ -19,6 +19,7 @@
 
 package quickfix;
 
+import org.quickfixj.CharsetSupport;
 import quickfix.field.BeginString;
 import quickfix.field.MsgType;
 import quickfix.field.SenderCompID;
@@ -68,6 +69,20 @@ public class MessageUtilsTest {
         assertEquals("TWL", sessionID.getTargetLocationID());
     }
 
+    @Test
+    public void testReverseSessionIdFromBytes() throws Exception {
+        String messageString = "8=FIX.4.0\0019=56\00135=A\00134=1\00149=TW\00150=TWS\001" +
+            "142=TWL\00152=20060118-16:34:19\00156=ISLD\00198=0\001108=2\00110=223\001";
+        byte[] data = ("xx" + messageString).getBytes(CharsetSupport.getCharsetInstance());
+        SessionID sessionID = MessageUtils.getReverseSessionID(data, 2, data.length - 2);
+        assertEquals(MessageUtils.getReverseSessionID(messageString), sessionID);
+        assertEquals("FIX.4.0", sessionID.getBeginString());
+        assertEquals("ISLD", sessionID.getSenderCompID());
+        assertEquals("TW", sessionID.getTargetCompID());
+        assertEquals("TWS", sessionID.getTargetSubID());
+        assertEquals("TWL", sessionID.getTargetLocationID());
+    }
+
     @Test
     public void testMessageType() throws Exception {
         String messageString = "8=FIX.4.0\0019=56\00135=A\00134=1\00149=TW\001" +
@@ -63,6 +63,12 @@ public class GenerateMojo extends AbstractMojo {
     @Parameter(defaultValue="false")
     private boolean decimal;
 
+    /**
+     * Enable fixed-point decimal representation. Takes precedence over <code>decimal</code>.
+     */
+    @Parameter(defaultValue="false")
+    private boolean fixedDecimal;
+
     /**
      * Enable orderedFields.
      */
@@ -144,6 +150,7 @@ public class GenerateMojo extends AbstractMojo {
             task.setOverwrite(overwrite);
             task.setOrderedFields(orderedFields);
             task.setDecimalGenerated(decimal);
+            task.setFixedDecimalGenerated(fixedDecimal);
             generator.generate(task);
         } catch (Throwable t) {
             throw new MojoExecutionException("QuickFIX code generator execution failed", t);
@@ -271,6 +278,24 @@ public class GenerateMojo extends AbstractMojo {
         this.decimal = decimal;
     }
 
+    /**
+     * Returns if fixed-point decimals have been enabled.
+     *
+     * @return true if quickfix.FixedDecimal has been enabled
+     */
+    public boolean isFixedDecimal() {
+        return fixedDecimal;
+    }
+
+    /**
+     * Enables quickfix.FixedDecimal usage for price, quantity and amount fields during code generation.
+     *
+     * @param fixedDecimal if true, then enables fixed-point decimal generation
+     */
+    public void setFixedDecimal(boolean fixedDecimal) {
+        this.fixedDecimal = fixedDecimal;
+    }
+
     /**
      * Returns if ordered fields have been enabled.
      *
@@ -59,6 +59,7 @@ import javax.xml.XMLConstants;
 public class MessageCodeGenerator {
 
     private static final String BIGDECIMAL_TYPE_OPTION = "generator.decimal";
+    private static final String FIXED_DECIMAL_TYPE_OPTION = "generator.fixedDecimal";
     private static final String ORDERED_FIELDS_OPTION = "generator.orderedFields";
     private static final String OVERWRITE_OPTION = "generator.overwrite";
     private static final String UTC_TIMESTAMP_PRECISION_OPTION = "generator.utcTimestampPrecision";
@@ -156,7 +157,10 @@ public class MessageCodeGenerator {
                         }
                         parameters.put(utcTimestampPrecisionParameterName, utcTimestampPrecision);
                     }
-                    if (task.isDecimalGenerated()) {
+                    if (task.isFixedDecimalGenerated()) {
+                        parameters.put("decimalType", "quickfix.FixedDecimal");
+                        parameters.put("decimalConverter", "FixedDecimal");
+                    } else if (task.isDecimalGenerated()) {
                         parameters.put("decimalType", "java.math.BigDecimal");
                         parameters.put("decimalConverter", "Decimal");
                     }
@@ -351,6 +355,7 @@ public class MessageCodeGenerator {
         private File transformDirectory;
         private boolean orderedFields;
         private boolean useDecimal;
+        private boolean useFixedDecimal;
         private long specificationLastModified;
 
         public long getSpecificationLastModified() {
@@ -445,6 +450,14 @@ public class MessageCodeGenerator {
         public boolean isDecimalGenerated() {
             return useDecimal;
         }
+
+        public void setFixedDecimalGenerated(boolean useFixedDecimal) {
+            this.useFixedDecimal = useFixedDecimal;
+        }
+
+        public boolean isFixedDecimalGenerated() {
+            return useFixedDecimal;
+        }
     }
 
     public static void main(String[] args) {
@@ -460,6 +473,7 @@ public class MessageCodeGenerator {
             boolean overwrite = getOption(OVERWRITE_OPTION, true);
             boolean orderedFields = getOption(ORDERED_FIELDS_OPTION, false);
             boolean useDecimal = getOption(BIGDECIMAL_TYPE_OPTION, false);
+            boolean useFixedDecimal = getOption(FIXED_DECIMAL_TYPE_OPTION, false);
 
             long start = System.currentTimeMillis();
             final String[] versions = { "FIXT 1.1", "FIX 5.0", "FIX 4.4", "FIX 4.3", "FIX 4.2",
@@ -477,6 +491,7 @@ public class MessageCodeGenerator {
                 task.setOverwrite(overwrite);
                 task.setOrderedFields(orderedFields);
                 task.setDecimalGenerated(useDecimal);
+                task.setFixedDecimalGenerated(useFixedDecimal);
                 codeGenerator.generate(task);
             }
             double duration = System.currentTimeMillis() - start;
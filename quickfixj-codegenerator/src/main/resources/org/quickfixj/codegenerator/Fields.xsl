@@ -89,6 +89,10 @@ public class <xsl:value-of select="@name"/> extends <xsl:call-template name="get
 
     public <xsl:value-of select="@name"/>(double data) {
         super(<xsl:value-of select="@number"/>, new <xsl:value-of select="$dataType"/>(data));
+    }</xsl:if><xsl:if test="$dataType = 'quickfix.FixedDecimal'">
+
+    public <xsl:value-of select="@name"/>(long unscaledValue, int scale) {
+        super(<xsl:value-of select="@number"/>, unscaledValue, scale);
     }</xsl:if><xsl:if test="@type='UTCTIMESTAMP' or @type='UTCTIME' or @type='UTCTIMEONLY'">
     <xsl:choose><xsl:when test="$utcTimestampPrecision">
 
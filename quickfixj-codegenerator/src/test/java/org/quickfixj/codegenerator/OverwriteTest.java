@@ -21,6 +21,7 @@ public class OverwriteTest  {
     private String utcTimestampPrecision = null;
     private boolean orderedFields = true;
     private boolean decimal = true;
+    private boolean fixedDecimal = false;
     private MessageCodeGenerator generator;
 
     @Before
@@ -92,6 +93,20 @@ public class OverwriteTest  {
         assertFalse(isAllocSharesDecimal);
     }
     
+    @Test
+    public void testFixedDecimalFieldsGenerated() throws Exception {
+        fixedDecimal = true;
+        MessageCodeGenerator.Task task = new MessageCodeGenerator.Task();
+        generate(generator, task, new File(dictDirectory, "FIX42.xml"), "quickfix.fix42", true);
+
+        String allocShares = FileUtils.readFileToString(new File(outputDirectory, "quickfix/field/AllocShares.java"),
+                "UTF-8");
+        assertTrue(allocShares.contains("import quickfix.FixedDecimalField;"));
+        assertTrue(allocShares.contains("AllocShares extends FixedDecimalField"));
+        assertTrue(allocShares.contains("public AllocShares(quickfix.FixedDecimal data)"));
+        assertTrue(allocShares.contains("public AllocShares(long unscaledValue, int scale)"));
+    }
+
     private void generate(MessageCodeGenerator generator, MessageCodeGenerator.Task task, File dictfile,
             String packaging, boolean overwrite) throws MojoExecutionException {
         if (dictfile != null && dictfile.exists()) {
@@ -111,6 +126,7 @@ public class OverwriteTest  {
         task.setOverwrite(overwrite);
         task.setOrderedFields(orderedFields);
         task.setDecimalGenerated(decimal);
+        task.setFixedDecimalGenerated(fixedDecimal);
         generator.generate(task);
     }
 
@@ -1,5 +1,7 @@
 package quickfix;
 
+import quickfix.mina.RingBufferQueue;
+
 public abstract class AbstractSessionConnectorBuilder<Derived, Product> {
     private final Class<Derived> derived;
     Application application;
@@ -11,6 +13,8 @@ public abstract class AbstractSessionConnectorBuilder<Derived, Product> {
     int queueCapacity = -1;
     int queueLowerWatermark = -1;
     int queueUpperWatermark = -1;
+    RingBufferQueue.WaitStrategy queueWaitStrategy;
+    boolean virtualThreads;
 
     AbstractSessionConnectorBuilder(Class<Derived> derived) {
         this.derived = derived;
@@ -62,6 +66,29 @@ public abstract class AbstractSessionConnectorBuilder<Derived, Product> {
         return derived.cast(this);
     }
 
+    /**
+     * Hands received messages to the processing threads through a preallocated
+     * {@link RingBufferQueue} instead of a linked queue.
+     *
+     * @param val how the processing threads wait for messages
+     */
+    public Derived withRingBufferQueue(RingBufferQueue.WaitStrategy val) throws ConfigError {
+        queueWaitStrategy = val;
+        return derived.cast(this);
+    }
+
+    /**
+     * Processes the messages of each session on a virtual thread. Only used by the
+     * threaded acceptor and initiator, and ignored with a warning if the Java runtime
+     * does not support virtual threads.
+     *
+     * @param val true to use virtual threads
+     */
+    public Derived withVirtualThreads(boolean val) {
+        virtualThreads = val;
+        return derived.cast(this);
+    }
+
     public final Product build() throws ConfigError {
         if (logFactory == null) {
             logFactory = new ScreenLogFactory(settings);
@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+
+package quickfix;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import quickfix.mina.RingBufferQueue;
+
+/**
+ * A bounded queue of log entries which are written in batches by a background
+ * thread. A batch is written when it is full, when the flush interval has passed
+ * or when {@link #flush()} is called. The entries are queued in a preallocated
+ * ring buffer, so queueing an entry neither allocates nor takes a lock.
+ *
+ * @param <E> the log entry type
+ */
+final class AsyncLogQueue<E> implements Flushable, Closeable {
+
+    /**
+     * What happens to a log entry when the queue is full.
+     */
+    enum OverflowPolicy {
+        /** The logging thread waits until the entry can be queued. */
+        BLOCK,
+        /** The entry is discarded and counted as dropped. */
+        DROP
+    }
+
+    /**
+     * Writes a batch of log entries. Entries of a failed batch are not retried.
+     */
+    @FunctionalInterface
+    interface BatchWriter<E> {
+        void write(List<E> entries) throws Exception;
+    }
+
+    private final BlockingQueue<E> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final OverflowPolicy overflowPolicy;
+    private final BatchWriter<E> batchWriter;
+    private final Thread thread;
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final Object lock = new Object();
+    private volatile boolean stopped;
+    // @GuardedBy(lock)
+    private long flushRequests;
+    private long completedFlushRequests;
+    private boolean closed;
+
+    AsyncLogQueue(String threadName, int capacity, int batchSize, long flushIntervalMillis,
+            OverflowPolicy overflowPolicy, BatchWriter<E> batchWriter) {
+        if (capacity < 1 || batchSize < 1 || flushIntervalMillis < 1) {
+            throw new IllegalArgumentException("capacity, batch size and flush interval must be positive");
+        }
+        // the writer thread is the only consumer
+        this.queue = new RingBufferQueue<>(capacity, RingBufferQueue.WaitStrategy.BLOCKING);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.overflowPolicy = overflowPolicy;
+        this.batchWriter = batchWriter;
+        thread = new Thread(this::run, threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues a log entry according to the overflow policy. Entries logged by the
+     * writer thread itself, e.g. errors of the batch writer, are never waited for.
+     */
+    void add(E entry) {
+        final boolean queued;
+        if (stopped) {
+            queued = false;
+        } else if (overflowPolicy == OverflowPolicy.DROP || Thread.currentThread() == thread) {
+            queued = queue.offer(entry);
+        } else {
+            queued = put(entry);
+        }
+        if (!queued) {
+            droppedCount.incrementAndGet();
+            return;
+        }
+        if (queue.size() >= batchSize) {
+            synchronized (lock) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private boolean put(E entry) {
+        try {
+            queue.put(entry);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Waits until the entries queued before this call have been written.
+     */
+    @Override
+    public void flush() {
+        synchronized (lock) {
+            final long request = ++flushRequests;
+            lock.notifyAll();
+            while (completedFlushRequests < request && thread.isAlive()) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the queued entries and stops the writer thread. Entries added
+     * afterwards are dropped.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return the number of entries which were discarded because the queue was full
+     *         or the batch could not be written
+     */
+    long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * @return the number of entries waiting to be written
+     */
+    int getQueuedCount() {
+        return queue.size();
+    }
+
+    private void run() {
+        final List<E> batch = new ArrayList<>(batchSize);
+        // the number of entries taken from the queue, this thread is the only consumer
+        long drainedCount = 0;
+        while (true) {
+            final boolean stop;
+            final long flushRequest;
+            synchronized (lock) {
+                if (completedFlushRequests == flushRequests && !closed && queue.size() < batchSize) {
+                    try {
+                        lock.wait(flushIntervalMillis);
+                    } catch (InterruptedException e) {
+                        closed = true;
+                    }
+                }
+                flushRequest = flushRequests;
+                stop = closed;
+            }
+            // the size includes slots which are claimed but not published yet, the
+            // entries are taken in the order of the slots
+            final long target = drainedCount + queue.size();
+            while (drainedCount < target) {
+                final int drained = queue.drainTo(batch, batchSize);
+                if (drained == 0) {
+                    // the producer of the next slot is about to publish its entry
+                    Thread.yield();
+                    continue;
+                }
+                drainedCount += drained;
+                try {
+                    batchWriter.write(batch);
+                } catch (Exception e) {
+                    droppedCount.addAndGet(batch.size());
+                }
+                batch.clear();
+            }
+            synchronized (lock) {
+                completedFlushRequests = flushRequest;
+                lock.notifyAll();
+            }
+            if (stop) {
+                stopped = true;
+                final int remaining = queue.size();
+                queue.clear();
+                droppedCount.addAndGet(remaining);
+                return;
+            }
+        }
+    }
+}
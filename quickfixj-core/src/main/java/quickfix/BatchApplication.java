@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+
+package quickfix;
+
+import java.util.List;
+
+/**
+ * An application which receives the application messages taken from the queue
+ * of a session at once in a single callback, for example to update a book or to
+ * write to a database once per batch instead of once per message.
+ * <p>
+ * The messages of a batch are consecutive in-sequence messages which passed the
+ * same checks as messages delivered to {@link #fromApp(Message, SessionID)}.
+ * The incoming sequence number is incremented for each message before the batch
+ * is delivered. If {@link #fromAppBatch(List, SessionID)} throws an exception,
+ * the incoming sequence number is set back to the first message of the batch, so
+ * the messages are requested again by the next resend request.
+ * <p>
+ * Messages received one at a time are delivered as batches of one message.
+ * {@link #fromApp(Message, SessionID)} is not called for application messages.
+ */
+public interface BatchApplication extends Application {
+
+    /**
+     * Receives a batch of application messages.
+     *
+     * @param messages the messages in the order of their sequence numbers, only valid
+     *            during the callback
+     * @param sessionId the session
+     */
+    void fromAppBatch(List<Message> messages, SessionID sessionId);
+}
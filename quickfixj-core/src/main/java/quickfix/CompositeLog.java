@@ -73,6 +73,24 @@ class CompositeLog implements Log {
         }
     }
 
+    public boolean isIncomingEnabled() {
+        for (Log log : logs) {
+            if (log.isIncomingEnabled()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isOutgoingEnabled() {
+        for (Log log : logs) {
+            if (log.isOutgoingEnabled()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public void onEvent(String text) {
         for (Log log : logs) {
             try {
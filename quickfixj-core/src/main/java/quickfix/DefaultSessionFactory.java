@@ -24,6 +24,7 @@ import org.quickfixj.SimpleCache;
 import quickfix.field.ApplVerID;
 import quickfix.field.DefaultApplVerID;
 
+import java.io.File;
 import java.net.InetAddress;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -31,6 +32,7 @@ import java.util.Enumeration;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import java.util.function.Function;
 
 /**
  * Factory for creating sessions. Used by the communications code (acceptors,
@@ -39,7 +41,9 @@ import java.util.Set;
 public class DefaultSessionFactory implements SessionFactory {
     private static final SimpleCache<String, DataDictionary> dictionaryCache = new SimpleCache<>(path -> {
         try {
-            return new DataDictionary(path);
+            return path.endsWith(DataDictionarySnapshot.FILE_EXTENSION)
+                    ? DataDictionarySnapshot.load(path)
+                    : new DataDictionary(path);
         } catch (ConfigError e) {
             throw new QFJException(e);
         }
@@ -256,6 +260,9 @@ public class DefaultSessionFactory implements SessionFactory {
             final int maxScheduledWriteRequests = getSetting(settings, sessionID, Session.SETTING_MAX_SCHEDULED_WRITE_REQUESTS, 0);
             session.setMaxScheduledWriteRequests(maxScheduledWriteRequests);
 
+            session.setResendWithoutParsing(getSetting(settings, sessionID,
+                    Session.SETTING_RESEND_WITHOUT_PARSING, false));
+
             //
             // Session registration and creation callback is done here instead of in
             // session constructor to eliminate the possibility of other threads
@@ -283,6 +290,18 @@ public class DefaultSessionFactory implements SessionFactory {
     private DataDictionary createDataDictionary(SessionID sessionID, SessionSettings settings,
             String settingsKey, String beginString) throws ConfigError, FieldConvertError {
         final String path = getDictionaryPath(sessionID, settings, settingsKey, beginString);
+        if (settings.isSetting(sessionID, Session.SETTING_DATA_DICTIONARY_SNAPSHOT_DIRECTORY)
+                && !path.endsWith(DataDictionarySnapshot.FILE_EXTENSION)) {
+            final File snapshotDirectory = new File(settings.getString(sessionID,
+                    Session.SETTING_DATA_DICTIONARY_SNAPSHOT_DIRECTORY));
+            return getDataDictionary(path, p -> {
+                try {
+                    return DataDictionarySnapshot.load(p, snapshotDirectory);
+                } catch (ConfigError e) {
+                    throw new QFJException(e);
+                }
+            });
+        }
         return getDataDictionary(path);
     }
 
@@ -383,7 +402,17 @@ public class DefaultSessionFactory implements SessionFactory {
     }
 
     private DataDictionary getDataDictionary(String path) throws ConfigError {
+        return getDataDictionary(path, null);
+    }
+
+    private DataDictionary getDataDictionary(String path, Function<String, DataDictionary> loader)
+            throws ConfigError {
         try {
+            if (loader != null) {
+                // snapshots only change how the dictionary is loaded, the cached dictionary is the same
+                final DataDictionary dictionary = dictionaryCache.get(path);
+                return dictionary != null ? dictionary : dictionaryCache.computeIfAbsent(path, loader);
+            }
             return dictionaryCache.computeIfAbsent(path);
         } catch (QFJException e) {
             final Throwable cause = e.getCause();
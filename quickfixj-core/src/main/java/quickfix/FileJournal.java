@@ -0,0 +1,416 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+
+package quickfix;
+
+import org.quickfixj.CharsetSupport;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A single append-only journal file which is both the message store and the
+ * message log of a session.
+ * <p>
+ * Every stored outgoing message, incoming message and event is appended once as
+ * a binary record holding the record type, the sequence number, a timestamp and
+ * the message bytes. When the session logs an outgoing message it has just
+ * stored, nothing more is written, so each outgoing message hits the disk once
+ * instead of once for the store and once for the log. Changes of the sequence
+ * numbers and resets are journaled as small records of their own.
+ * <p>
+ * The journal is scanned on startup to rebuild the sequence numbers and the
+ * index of stored messages. An incomplete record at the end of the file, left
+ * by a crash, is discarded. {@link #clear()} rewrites the journal keeping only
+ * the state of the message store.
+ * <p>
+ * Use {@link FileJournalReader} to read the journal or to convert it into text
+ * log files. The journal should only be created using a factory.
+ *
+ * @see quickfix.FileJournalFactory
+ */
+public class FileJournal extends AbstractLog implements MessageStore, Closeable {
+    static final String FILE_SUFFIX = ".journal";
+
+    private static final String MSG_SEQ_NUM_PREFIX = "\00134=";
+
+    private final MemoryStore cache = new MemoryStore();
+    // sequence number -> record position
+    private final TreeMap<Integer, Long> messageIndex = new TreeMap<>();
+    private final File file;
+    private final boolean syncWrites;
+
+    private FileChannel channel;
+    private long writePosition;
+    private ByteBuffer buffer = ByteBuffer.allocate(4096);
+    // the message most recently stored, which does not need to be logged again
+    private String lastStoredMessage;
+
+    FileJournal(String path, SessionID sessionID, boolean syncWrites, boolean logHeartbeats) throws IOException {
+        this.file = new File(FileUtil.fileAppendPath(path, FileUtil.sessionIdFileName(sessionID) + FILE_SUFFIX));
+        this.syncWrites = syncWrites;
+        setLogHeartbeats(logHeartbeats);
+
+        final File directory = file.getParentFile();
+        if (directory != null && !directory.exists()) {
+            directory.mkdirs();
+        }
+        initialize(false);
+    }
+
+    void initialize(boolean deleteFile) throws IOException {
+        closeChannel();
+        if (deleteFile) {
+            Files.deleteIfExists(file.toPath());
+        }
+        messageIndex.clear();
+        lastStoredMessage = null;
+        cache.reset();
+
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (channel.size() < FileJournalReader.FILE_HEADER_SIZE) {
+            channel.truncate(0);
+            writePosition = writeHeader(channel);
+            writeReset();
+            return;
+        }
+
+        try (FileJournalReader reader = new FileJournalReader(file)) {
+            while (reader.next()) {
+                switch (reader.getType()) {
+                case FileJournalReader.RECORD_OUTGOING:
+                    messageIndex.put(reader.getSequence(), reader.getRecordPosition());
+                    break;
+                case FileJournalReader.RECORD_SEQUENCE_NUMBERS:
+                    cache.setNextSenderMsgSeqNum(reader.getSequence());
+                    cache.setNextTargetMsgSeqNum(ByteBuffer.wrap(reader.getData(), 0, 4).getInt());
+                    break;
+                case FileJournalReader.RECORD_RESET:
+                    messageIndex.clear();
+                    cache.reset();
+                    cache.setCreationTime(SystemTime.getUtcCalendar(new Date(reader.getTime())));
+                    break;
+                default:
+                    break;
+                }
+            }
+            writePosition = reader.getPosition();
+        }
+        if (writePosition < channel.size()) {
+            // incomplete record of an interrupted write
+            channel.truncate(writePosition);
+        }
+    }
+
+    private static long writeHeader(FileChannel channel) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(FileJournalReader.FILE_HEADER_SIZE);
+        header.putInt(FileJournalReader.FILE_MAGIC).putInt(FileJournalReader.FILE_VERSION).flip();
+        write(channel, header, 0);
+        return header.limit();
+    }
+
+    private void writeReset() throws IOException {
+        append(FileJournalReader.RECORD_RESET, 0, cache.getCreationTime().getTime(), null, 0);
+        writeSequenceNumbers();
+    }
+
+    private void writeSequenceNumbers() throws IOException {
+        final byte[] target = ByteBuffer.allocate(4).putInt(cache.getNextTargetMsgSeqNum()).array();
+        append(FileJournalReader.RECORD_SEQUENCE_NUMBERS, cache.getNextSenderMsgSeqNum(),
+                SystemTime.currentTimeMillis(), target, target.length);
+        if (syncWrites) {
+            channel.force(false);
+        }
+    }
+
+    private long append(int type, int sequence, long time, byte[] data, int length) throws IOException {
+        final long position = writePosition;
+        writePosition += writeRecord(channel, position, type, sequence, time, data, length);
+        return position;
+    }
+
+    private int writeRecord(FileChannel target, long position, int type, int sequence, long time, byte[] data,
+            int length) throws IOException {
+        final int recordLength = FileJournalReader.RECORD_HEADER_SIZE + length;
+        if (buffer.capacity() < recordLength) {
+            buffer = ByteBuffer.allocate(Math.max(recordLength, buffer.capacity() * 2));
+        }
+        buffer.clear();
+        buffer.putInt(length).put((byte) type).putInt(sequence).putLong(time);
+        if (length > 0) {
+            buffer.put(data, 0, length);
+        }
+        buffer.flip();
+        write(target, buffer, position);
+        return recordLength;
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Closes the journal. Closing the journal more than once has no effect.
+     *
+     * @throws IOException
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        closeChannel();
+    }
+
+    /**
+     * Closes and deletes the journal file.
+     *
+     * @throws IOException
+     */
+    public synchronized void closeAndDeleteFiles() throws IOException {
+        closeChannel();
+        Files.deleteIfExists(file.toPath());
+    }
+
+    synchronized boolean isClosed() {
+        return channel == null;
+    }
+
+    String getFileName() {
+        return file.getPath();
+    }
+
+    /*
+     * Message store
+     */
+
+    @Override
+    public synchronized boolean set(int sequence, String message) throws IOException {
+        final byte[] data = message.getBytes(CharsetSupport.getCharsetInstance());
+        final long position = append(FileJournalReader.RECORD_OUTGOING, sequence,
+                SystemTime.currentTimeMillis(), data, data.length);
+        if (syncWrites) {
+            channel.force(false);
+        }
+        messageIndex.put(sequence, position);
+        lastStoredMessage = message;
+        return true;
+    }
+
+    @Override
+    public synchronized void get(int startSequence, int endSequence, Collection<String> messages)
+            throws IOException {
+        if (startSequence > endSequence) {
+            return;
+        }
+        final ByteBuffer header = ByteBuffer.allocate(FileJournalReader.RECORD_HEADER_SIZE);
+        for (long position : messageIndex.subMap(startSequence, true, endSequence, true).values()) {
+            header.clear();
+            read(header, position);
+            final byte[] data = new byte[header.getInt(0)];
+            read(ByteBuffer.wrap(data), position + FileJournalReader.RECORD_HEADER_SIZE);
+            messages.add(new String(data, CharsetSupport.getCharsetInstance()));
+        }
+    }
+
+    private void read(ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            final int read = channel.read(target, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of journal " + file);
+            }
+            position += read;
+        }
+    }
+
+    @Override
+    public synchronized Date getCreationTime() throws IOException {
+        return cache.getCreationTime();
+    }
+
+    @Override
+    public synchronized Calendar getCreationTimeCalendar() throws IOException {
+        return cache.getCreationTimeCalendar();
+    }
+
+    @Override
+    public synchronized int getNextSenderMsgSeqNum() throws IOException {
+        return cache.getNextSenderMsgSeqNum();
+    }
+
+    @Override
+    public synchronized int getNextTargetMsgSeqNum() throws IOException {
+        return cache.getNextTargetMsgSeqNum();
+    }
+
+    @Override
+    public synchronized void setNextSenderMsgSeqNum(int next) throws IOException {
+        cache.setNextSenderMsgSeqNum(next);
+        writeSequenceNumbers();
+    }
+
+    @Override
+    public synchronized void setNextTargetMsgSeqNum(int next) throws IOException {
+        cache.setNextTargetMsgSeqNum(next);
+        writeSequenceNumbers();
+    }
+
+    @Override
+    public synchronized void incrNextSenderMsgSeqNum() throws IOException {
+        cache.incrNextSenderMsgSeqNum();
+        writeSequenceNumbers();
+    }
+
+    @Override
+    public synchronized void incrNextTargetMsgSeqNum() throws IOException {
+        cache.incrNextTargetMsgSeqNum();
+        writeSequenceNumbers();
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        cache.reset();
+        messageIndex.clear();
+        lastStoredMessage = null;
+        writeReset();
+    }
+
+    @Override
+    public synchronized void refresh() throws IOException {
+        initialize(false);
+    }
+
+    /*
+     * Log
+     */
+
+    @Override
+    protected void logIncoming(String message) {
+        appendLogRecord(FileJournalReader.RECORD_INCOMING, getMsgSeqNum(message), message);
+    }
+
+    @Override
+    protected synchronized void logOutgoing(String message) {
+        if (message == lastStoredMessage) {
+            // already journaled by set()
+            lastStoredMessage = null;
+            return;
+        }
+        appendLogRecord(FileJournalReader.RECORD_OUTGOING_NOT_STORED, getMsgSeqNum(message), message);
+    }
+
+    @Override
+    public void onEvent(String text) {
+        appendLogRecord(FileJournalReader.RECORD_EVENT, 0, text);
+    }
+
+    @Override
+    public void onErrorEvent(String text) {
+        appendLogRecord(FileJournalReader.RECORD_EVENT, 0, text);
+    }
+
+    private synchronized void appendLogRecord(int type, int sequence, String text) {
+        if (channel == null) {
+            System.err.println("journal is closed, cannot log: " + text);
+            return;
+        }
+        try {
+            final byte[] data = text.getBytes(CharsetSupport.getCharsetInstance());
+            append(type, sequence, SystemTime.currentTimeMillis(), data, data.length);
+        } catch (IOException e) {
+            // QFJ-459: no point trying to log the error in the journal
+            System.err.println("error writing to journal : " + text);
+            e.printStackTrace(System.err);
+        }
+    }
+
+    private static int getMsgSeqNum(String message) {
+        final int start = message.indexOf(MSG_SEQ_NUM_PREFIX);
+        if (start < 0) {
+            return 0;
+        }
+        int sequence = 0;
+        for (int i = start + MSG_SEQ_NUM_PREFIX.length(); i < message.length(); i++) {
+            final char c = message.charAt(i);
+            if (c < '0' || c > '9' || sequence > (Integer.MAX_VALUE - 9) / 10) {
+                break;
+            }
+            sequence = sequence * 10 + c - '0';
+        }
+        return sequence;
+    }
+
+    /**
+     * Removes the logged messages and events from the journal. The journal is
+     * rewritten with only the sequence numbers and the stored messages.
+     */
+    @Override
+    public synchronized void clear() {
+        try {
+            compact();
+        } catch (IOException e) {
+            System.err.println("Could not clear journal " + file + ": " + e.getMessage());
+        }
+    }
+
+    private void compact() throws IOException {
+        final File compacted = new File(file.getPath() + ".tmp");
+        try (FileChannel target = FileChannel.open(compacted.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long position = writeHeader(target);
+            position += writeRecord(target, position, FileJournalReader.RECORD_RESET, 0,
+                    cache.getCreationTime().getTime(), null, 0);
+            final byte[] sequenceNumbers = ByteBuffer.allocate(4).putInt(cache.getNextTargetMsgSeqNum()).array();
+            position += writeRecord(target, position, FileJournalReader.RECORD_SEQUENCE_NUMBERS,
+                    cache.getNextSenderMsgSeqNum(), SystemTime.currentTimeMillis(), sequenceNumbers, 4);
+            final ByteBuffer header = ByteBuffer.allocate(FileJournalReader.RECORD_HEADER_SIZE);
+            for (Map.Entry<Integer, Long> entry : messageIndex.entrySet()) {
+                header.clear();
+                read(header, entry.getValue());
+                final byte[] data = new byte[header.getInt(0)];
+                read(ByteBuffer.wrap(data), entry.getValue() + FileJournalReader.RECORD_HEADER_SIZE);
+                position += writeRecord(target, position, FileJournalReader.RECORD_OUTGOING, entry.getKey(),
+                        header.getLong(9), data, data.length);
+            }
+            target.force(false);
+        }
+        closeChannel();
+        Files.move(compacted.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        initialize(false);
+    }
+}
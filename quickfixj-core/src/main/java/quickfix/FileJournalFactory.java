@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+
+package quickfix;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Creates {@link FileJournal}s, which are both the message store and the log of
+ * a session. The factory must be used as the session's message store factory
+ * and as its log factory: the log and the message store created for a session
+ * are backed by the same journal.
+ *
+ * @see quickfix.SessionSettings
+ */
+public class FileJournalFactory implements MessageStoreFactory, LogFactory {
+
+    /**
+     * File path for writing the journals.
+     */
+    public static final String SETTING_FILE_JOURNAL_PATH = "FileJournalPath";
+
+    /**
+     * Boolean option for controlling whether the journal is synced to the hard
+     * drive after every change of the message store. Off, by default.
+     */
+    public static final String SETTING_FILE_JOURNAL_SYNC = "FileJournalSync";
+
+    /**
+     * Boolean option for controlling whether heartbeats are logged. On, by default.
+     */
+    public static final String SETTING_FILE_JOURNAL_LOG_HEARTBEATS = "FileJournalLogHeartbeats";
+
+    private final SessionSettings settings;
+    private final Map<SessionID, FileJournal> journals = new HashMap<>();
+
+    /**
+     * Create the factory with configuration in session settings.
+     *
+     * @param settings
+     */
+    public FileJournalFactory(SessionSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Returns the open journal of a session, creating it if the session has no
+     * journal yet or its journal has been closed. The log and the message store
+     * of a session therefore get the same journal, whichever is created first.
+     *
+     * @param sessionID session ID for the journal
+     */
+    @Override
+    public synchronized FileJournal create(SessionID sessionID) {
+        final FileJournal journal = journals.get(sessionID);
+        if (journal != null && !journal.isClosed()) {
+            return journal;
+        }
+        try {
+            boolean syncWrites = false;
+            if (settings.isSetting(sessionID, SETTING_FILE_JOURNAL_SYNC)) {
+                syncWrites = settings.getBool(sessionID, SETTING_FILE_JOURNAL_SYNC);
+            }
+            boolean logHeartbeats = true;
+            if (settings.isSetting(sessionID, SETTING_FILE_JOURNAL_LOG_HEARTBEATS)) {
+                logHeartbeats = settings.getBool(sessionID, SETTING_FILE_JOURNAL_LOG_HEARTBEATS);
+            }
+            final FileJournal created = new FileJournal(settings.getString(sessionID, SETTING_FILE_JOURNAL_PATH),
+                    sessionID, syncWrites, logHeartbeats);
+            journals.put(sessionID, created);
+            return created;
+        } catch (ConfigError | FieldConvertError | IOException e) {
+            throw new RuntimeError(e);
+        }
+    }
+}
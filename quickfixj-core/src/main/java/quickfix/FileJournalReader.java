@@ -0,0 +1,273 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+
+package quickfix;
+
+import org.quickfixj.CharsetSupport;
+import quickfix.field.converter.UtcTimestampConverter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Date;
+
+/**
+ * Reads the records of a {@link FileJournal} in the order they were written.
+ * <p>
+ * The journal can be converted to the text log files written by {@link FileLog},
+ * either with {@link #writeTextLogs(OutputStream, OutputStream, boolean, boolean)}
+ * or from the command line:
+ *
+ * <pre>
+ * java quickfix.FileJournalReader &lt;journal file&gt; [output directory] [-timestamps] [-millis]
+ * </pre>
+ *
+ * Outgoing messages are written to the messages log when they are stored, which
+ * also includes messages stored while the session was disconnected.
+ */
+public class FileJournalReader implements Closeable {
+
+    /** An incoming message. */
+    public static final int RECORD_INCOMING = 1;
+    /** An outgoing message which is part of the message store. */
+    public static final int RECORD_OUTGOING = 2;
+    /** An outgoing message which was logged but not stored, e.g. a resent message. */
+    public static final int RECORD_OUTGOING_NOT_STORED = 3;
+    /** A log event. */
+    public static final int RECORD_EVENT = 4;
+    /** The next sender (sequence number field) and target (message) sequence numbers. */
+    public static final int RECORD_SEQUENCE_NUMBERS = 5;
+    /** A reset of the message store, the timestamp is the new creation time. */
+    public static final int RECORD_RESET = 6;
+
+    static final int FILE_MAGIC = 0x51464A4A;
+    static final int FILE_VERSION = 1;
+    static final int FILE_HEADER_SIZE = 8;
+    // payload length, record type, sequence number, timestamp
+    static final int RECORD_HEADER_SIZE = 17;
+
+    private static final byte[] TIME_STAMP_DELIMITER = ": ".getBytes(CharsetSupport.getCharsetInstance());
+
+    private final DataInputStream in;
+    private final long length;
+    private long position = FILE_HEADER_SIZE;
+    private long recordPosition;
+    private int type;
+    private int sequence;
+    private long time;
+    private byte[] data = new byte[1024];
+    private int dataLength;
+
+    /**
+     * Opens a journal file.
+     *
+     * @param file the journal file
+     * @throws IOException if the file cannot be read or is not a journal
+     */
+    public FileJournalReader(File file) throws IOException {
+        length = file.length();
+        in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 65536));
+        try {
+            if (length < FILE_HEADER_SIZE || in.readInt() != FILE_MAGIC) {
+                throw new IOException("Not a message journal: " + file);
+            }
+            final int version = in.readInt();
+            if (version != FILE_VERSION) {
+                throw new IOException("Unsupported journal version " + version + ": " + file);
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return false at the end of the journal, including an incomplete record at
+     *         the end of the file
+     * @throws IOException if the file cannot be read
+     */
+    public boolean next() throws IOException {
+        if (position + RECORD_HEADER_SIZE > length) {
+            return false;
+        }
+        try {
+            final int payloadLength = in.readInt();
+            if (payloadLength < 0 || position + RECORD_HEADER_SIZE + payloadLength > length) {
+                return false;
+            }
+            type = in.readUnsignedByte();
+            sequence = in.readInt();
+            time = in.readLong();
+            if (data.length < payloadLength) {
+                data = new byte[Math.max(payloadLength, data.length * 2)];
+            }
+            in.readFully(data, 0, payloadLength);
+            dataLength = payloadLength;
+        } catch (EOFException e) {
+            return false;
+        }
+        recordPosition = position;
+        position += RECORD_HEADER_SIZE + dataLength;
+        return true;
+    }
+
+    /**
+     * @return the type of the current record, one of the <code>RECORD_</code> constants
+     */
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * @return the sequence number of the current record, 0 if unknown
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return the time the current record was written in milliseconds since the epoch
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return the current record's message or event text
+     */
+    public String getText() {
+        return new String(data, 0, dataLength, CharsetSupport.getCharsetInstance());
+    }
+
+    byte[] getData() {
+        return data;
+    }
+
+    int getDataLength() {
+        return dataLength;
+    }
+
+    /**
+     * @return the file position of the current record
+     */
+    long getRecordPosition() {
+        return recordPosition;
+    }
+
+    /**
+     * @return the file position after the last complete record read
+     */
+    long getPosition() {
+        return position;
+    }
+
+    /**
+     * Writes the remaining records in the format of {@link FileLog}. Events are
+     * always written with a time stamp.
+     *
+     * @param messages receives the incoming and outgoing messages
+     * @param events receives the events
+     * @param includeTimestampForMessages whether messages are written with a time stamp
+     * @param includeMillis whether time stamps include milliseconds
+     * @throws IOException if the journal cannot be read or the logs cannot be written
+     */
+    public void writeTextLogs(OutputStream messages, OutputStream events, boolean includeTimestampForMessages,
+            boolean includeMillis) throws IOException {
+        while (next()) {
+            switch (type) {
+            case RECORD_INCOMING:
+            case RECORD_OUTGOING:
+            case RECORD_OUTGOING_NOT_STORED:
+                writeLine(messages, includeTimestampForMessages, includeMillis);
+                break;
+            case RECORD_EVENT:
+                writeLine(events, true, includeMillis);
+                break;
+            default:
+                break;
+            }
+        }
+    }
+
+    private void writeLine(OutputStream out, boolean includeTimestamp, boolean includeMillis) throws IOException {
+        if (includeTimestamp) {
+            out.write(UtcTimestampConverter.convert(new Date(time), includeMillis)
+                    .getBytes(CharsetSupport.getCharsetInstance()));
+            out.write(TIME_STAMP_DELIMITER);
+        }
+        out.write(data, 0, dataLength);
+        out.write('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Converts a journal into <code>messages.log</code> and <code>event.log</code>
+     * files named like the files of {@link FileLog}.
+     */
+    public static void main(String[] args) throws IOException {
+        File journal = null;
+        File directory = null;
+        boolean includeTimestampForMessages = false;
+        boolean includeMillis = false;
+        for (String arg : args) {
+            if (arg.equals("-timestamps")) {
+                includeTimestampForMessages = true;
+            } else if (arg.equals("-millis")) {
+                includeMillis = true;
+            } else if (journal == null) {
+                journal = new File(arg);
+            } else {
+                directory = new File(arg);
+            }
+        }
+        if (journal == null) {
+            System.err.println("usage: " + FileJournalReader.class.getName()
+                    + " <journal file> [output directory] [-timestamps] [-millis]");
+            System.exit(1);
+        }
+        if (directory == null) {
+            directory = journal.getAbsoluteFile().getParentFile();
+        }
+        String prefix = journal.getName();
+        if (prefix.endsWith(FileJournal.FILE_SUFFIX)) {
+            prefix = prefix.substring(0, prefix.length() - FileJournal.FILE_SUFFIX.length());
+        }
+        try (FileJournalReader reader = new FileJournalReader(journal);
+                OutputStream messages = new BufferedOutputStream(
+                        new FileOutputStream(new File(directory, prefix + ".messages.log")));
+                OutputStream events = new BufferedOutputStream(
+                        new FileOutputStream(new File(directory, prefix + ".event.log")))) {
+            reader.writeTextLogs(messages, events, includeTimestampForMessages, includeMillis);
+        }
+    }
+}
@@ -25,6 +25,10 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import org.quickfixj.CharsetSupport;
 
@@ -33,6 +37,11 @@ import quickfix.field.converter.UtcTimestampConverter;
 /**
  * File log implementation. THIS CLASS IS PUBLIC ONLY TO MAINTAIN COMPATIBILITY
  * WITH THE QUICKFIX JNI. IT SHOULD ONLY BE CREATED USING A FACTORY.
+ * <p>
+ * In asynchronous mode, log entries are put into a bounded ring buffer queue and
+ * a background thread appends them to the files in batches, so the logging thread
+ * does not wait for the file system. The entries are recycled once written, and
+ * the background thread encodes them into reused buffers.
  *
  * @see quickfix.FileLogFactory
  */
@@ -59,7 +68,29 @@ public class FileLog extends AbstractLog {
     private final boolean includeMillis;
     private final boolean includeTimestampForMessages;
 
+    // null if entries are written by the logging thread
+    private final AsyncLogQueue<LogEntry> asyncQueue;
+    // written entries which are reused for the next ones
+    private final BlockingQueue<LogEntry> freeEntries;
+    // only used by the writer thread
+    private final EncodeBuffer messagesBuffer = new EncodeBuffer();
+    private final EncodeBuffer eventsBuffer = new EncodeBuffer();
+    private long timestampSecond = Long.MIN_VALUE;
+    private byte[] timestampPrefix;
+
     FileLog(String path, SessionID sessionID, boolean includeMillis, boolean includeTimestampForMessages, boolean logHeartbeats) throws FileNotFoundException {
+        this(path, sessionID, includeMillis, includeTimestampForMessages, logHeartbeats, 0, 0, 0);
+    }
+
+    /**
+     * @param asyncQueueSize the maximum number of entries waiting to be written by
+     *            the background thread, or 0 to write entries in the logging thread
+     * @param asyncBatchSize the maximum number of entries written at once
+     * @param asyncFlushInterval the interval in milliseconds after which queued entries are written
+     */
+    FileLog(String path, SessionID sessionID, boolean includeMillis, boolean includeTimestampForMessages,
+            boolean logHeartbeats, int asyncQueueSize, int asyncBatchSize, long asyncFlushInterval)
+            throws FileNotFoundException {
         String sessionName = FileUtil.sessionIdFileName(sessionID);
 
         setLogHeartbeats(logHeartbeats);
@@ -77,6 +108,16 @@ public class FileLog extends AbstractLog {
         this.includeTimestampForMessages = includeTimestampForMessages;
 
         openLogStreams(true);
+
+        if (asyncQueueSize > 0) {
+            // the queued entries and the batch being written
+            freeEntries = new ArrayBlockingQueue<>(asyncQueueSize + asyncBatchSize);
+            asyncQueue = new AsyncLogQueue<>("QFJ FileLog Writer " + sessionID, asyncQueueSize,
+                    asyncBatchSize, asyncFlushInterval, AsyncLogQueue.OverflowPolicy.BLOCK, this::writeBatch);
+        } else {
+            freeEntries = null;
+            asyncQueue = null;
+        }
     }
 
     private void openLogStreams(boolean append) throws FileNotFoundException {
@@ -93,6 +134,17 @@ public class FileLog extends AbstractLog {
     }
 
     private void writeMessage(FileOutputStream stream, Object lock, String message, boolean forceTimestamp) {
+        if (asyncQueue != null) {
+            LogEntry entry = freeEntries.poll();
+            if (entry == null) {
+                entry = new LogEntry();
+            }
+            entry.event = forceTimestamp;
+            entry.time = SystemTime.currentTimeMillis();
+            entry.text = message;
+            asyncQueue.add(entry);
+            return;
+        }
         try {
             synchronized(lock) {
                 if (forceTimestamp || includeTimestampForMessages) {
@@ -113,6 +165,79 @@ public class FileLog extends AbstractLog {
         }
     }
 
+    /**
+     * Appends a batch of queued entries with one write per file.
+     */
+    private void writeBatch(List<LogEntry> entries) throws IOException {
+        messagesBuffer.reset();
+        eventsBuffer.reset();
+        for (LogEntry entry : entries) {
+            final EncodeBuffer buffer = entry.event ? eventsBuffer : messagesBuffer;
+            if (entry.event || includeTimestampForMessages) {
+                writeTimeStamp(buffer, entry.time);
+            }
+            buffer.write(entry.text);
+            buffer.write('\n');
+            entry.text = null;
+            freeEntries.offer(entry);
+        }
+        try {
+            if (messagesBuffer.size() > 0) {
+                synchronized (messagesLock) {
+                    writeBuffer(messagesBuffer, messages);
+                }
+            }
+            if (eventsBuffer.size() > 0) {
+                synchronized (eventsLock) {
+                    writeBuffer(eventsBuffer, events);
+                }
+            }
+        } catch (IOException e) {
+            // QFJ-459: the error cannot be logged to the file
+            System.err.println("error writing " + entries.size() + " entries to log");
+            e.printStackTrace(System.err);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the timestamp of a queued entry. The date and time up to the seconds
+     * is only formatted once per second.
+     */
+    private void writeTimeStamp(EncodeBuffer buffer, long millis) {
+        final long second = Math.floorDiv(millis, 1000L);
+        if (second != timestampSecond) {
+            timestampPrefix = UtcTimestampConverter.convert(second * 1000000000L, UtcTimestampPrecision.SECONDS)
+                    .getBytes(CharsetSupport.getCharsetInstance());
+            timestampSecond = second;
+        }
+        buffer.write(timestampPrefix);
+        if (includeMillis) {
+            final int fraction = (int) Math.floorMod(millis, 1000L);
+            buffer.write('.');
+            buffer.write('0' + fraction / 100);
+            buffer.write('0' + fraction / 10 % 10);
+            buffer.write('0' + fraction % 10);
+        }
+        buffer.write(TIME_STAMP_DELIMITER);
+    }
+
+    private void writeBuffer(EncodeBuffer buffer, FileOutputStream stream) throws IOException {
+        buffer.writeTo(stream);
+        if (syncAfterWrite) {
+            stream.getFD().sync();
+        }
+    }
+
+    /**
+     * Waits until the queued entries are written if asynchronous mode is enabled.
+     */
+    void flush() {
+        if (asyncQueue != null) {
+            asyncQueue.flush();
+        }
+    }
+
     public void onEvent(String message) {
         writeMessage(events, eventsLock, message, true);
     }
@@ -140,12 +265,20 @@ public class FileLog extends AbstractLog {
     }
 
     /**
-     * Closed the messages and events files.
+     * Writes the queued entries if asynchronous mode is enabled and closes the
+     * messages and events files.
      *
      * @throws IOException
      */
     @Override
     public void close() throws IOException {
+        if (asyncQueue != null) {
+            asyncQueue.close();
+        }
+        closeLogStreams();
+    }
+
+    private void closeLogStreams() throws IOException {
         messages.close();
         events.close();
     }
@@ -156,10 +289,71 @@ public class FileLog extends AbstractLog {
      */
     public void clear() {
         try {
-            close();
-            openLogStreams(false);
+            flush();
+            synchronized (messagesLock) {
+                synchronized (eventsLock) {
+                    closeLogStreams();
+                    openLogStreams(false);
+                }
+            }
         } catch (IOException e) {
             System.err.println("Could not clear log: " + getClass().getName());
         }
     }
+
+    private static final class LogEntry {
+        private boolean event;
+        private long time;
+        private String text;
+    }
+
+    /**
+     * A growable byte buffer which is reused for every batch. Characters are copied
+     * without creating a byte array if the charset allows it.
+     */
+    private static final class EncodeBuffer {
+        private byte[] bytes = new byte[8192];
+        private int size;
+
+        void reset() {
+            size = 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void write(int b) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) b;
+        }
+
+        void write(byte[] b) {
+            ensureCapacity(b.length);
+            System.arraycopy(b, 0, bytes, size, b.length);
+            size += b.length;
+        }
+
+        void write(String text) {
+            if (!CharsetSupport.isStringEquivalent()) {
+                write(text.getBytes(CharsetSupport.getCharsetInstance()));
+                return;
+            }
+            final int length = text.length();
+            ensureCapacity(length);
+            for (int i = 0; i < length; i++) {
+                bytes[size++] = (byte) text.charAt(i);
+            }
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            out.write(bytes, 0, size);
+        }
+
+        private void ensureCapacity(int length) {
+            if (size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+            }
+        }
+    }
 }
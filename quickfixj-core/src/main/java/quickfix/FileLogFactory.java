@@ -50,6 +50,30 @@ public class FileLogFactory implements LogFactory {
      */
     public static final String SETTING_LOG_HEARTBEATS = "FileLogHeartbeats";
 
+    /**
+     * Specify whether log entries are written by a background thread in batches
+     * instead of by the logging thread. Off, by default.
+     */
+    public static final String SETTING_ASYNC = "FileLogAsync";
+
+    /**
+     * Maximum number of log entries waiting to be written in asynchronous mode.
+     * The logging thread waits while the queue is full. 10000, by default.
+     */
+    public static final String SETTING_ASYNC_QUEUE_SIZE = "FileLogAsyncQueueSize";
+
+    /**
+     * Maximum number of log entries written at once in asynchronous mode. 1000,
+     * by default.
+     */
+    public static final String SETTING_ASYNC_BATCH_SIZE = "FileLogAsyncBatchSize";
+
+    /**
+     * Interval in milliseconds after which queued log entries are written in
+     * asynchronous mode. 100, by default.
+     */
+    public static final String SETTING_ASYNC_FLUSH_INTERVAL = "FileLogAsyncFlushInterval";
+
     private final SessionSettings settings;
 
     /**
@@ -83,8 +107,27 @@ public class FileLogFactory implements LogFactory {
                 logHeartbeats = settings.getBool(sessionID, SETTING_LOG_HEARTBEATS);
             }
 
+            int asyncQueueSize = 0;
+            if (settings.isSetting(sessionID, SETTING_ASYNC) && settings.getBool(sessionID, SETTING_ASYNC)) {
+                asyncQueueSize = 10000;
+                if (settings.isSetting(sessionID, SETTING_ASYNC_QUEUE_SIZE)) {
+                    asyncQueueSize = settings.getInt(sessionID, SETTING_ASYNC_QUEUE_SIZE);
+                }
+            }
+
+            int asyncBatchSize = 1000;
+            if (settings.isSetting(sessionID, SETTING_ASYNC_BATCH_SIZE)) {
+                asyncBatchSize = settings.getInt(sessionID, SETTING_ASYNC_BATCH_SIZE);
+            }
+
+            long asyncFlushInterval = 100;
+            if (settings.isSetting(sessionID, SETTING_ASYNC_FLUSH_INTERVAL)) {
+                asyncFlushInterval = settings.getLong(sessionID, SETTING_ASYNC_FLUSH_INTERVAL);
+            }
+
             return new FileLog(settings.getString(sessionID, FileLogFactory.SETTING_FILE_LOG_PATH),
-                    sessionID, includeMillis, includeTimestampInMessages, logHeartbeats);
+                    sessionID, includeMillis, includeTimestampInMessages, logHeartbeats,
+                    asyncQueueSize, asyncBatchSize, asyncFlushInterval);
         } catch (Exception e) {
             throw new RuntimeError(e);
         }
@@ -29,14 +29,19 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.EOFException;
 import java.io.File;
+import java.io.FileDescriptor;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 
@@ -52,28 +57,58 @@ public class FileStore implements MessageStore, Closeable {
     private static final String WRITE_OPTION = "w";
     private static final String SYNC_OPTION = "d";
     private static final String NOSYNC_OPTION = "";
+    private static final int INDEX_MAGIC = 0x51464958;
+    // magic, first indexed sequence number
+    private static final int INDEX_HEADER_SIZE = 8;
+    // offset + 1 (0 if there is no message), size
+    private static final int INDEX_ENTRY_SIZE = 12;
+    private static final int INDEX_READ_ENTRIES = 4096;
+    private static final int VISIT_CHUNK_SIZE = 1000;
 
     private final TreeMap<Long, long[]> messageIndex;
     private final MemoryStore cache = new MemoryStore();
 
     private final String msgFileName;
     private final String headerFileName;
+    private final String indexFileName;
     private final String senderSeqNumFileName;
     private final String targetSeqNumFileName;
     private final String sessionFileName;
     private final boolean syncWrites;
     private final int maxCachedMsgs;
+    private final GroupCommitter groupCommitter;
+    private final GroupCommitter.Committable committable = this::syncFiles;
+    private final boolean waitForCommit;
     private RandomAccessFile messageFileReader;
     private RandomAccessFile messageFileWriter;
     private DataOutputStream headerDataOutputStream;
     private FileOutputStream headerFileOutputStream;
+    private RandomAccessFile indexFile;
+    private final ByteBuffer indexEntry = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+    private boolean indexed;
+    private int indexBase;
     private RandomAccessFile senderSequenceNumberFile;
     private RandomAccessFile targetSequenceNumberFile;
 
     FileStore(String path, SessionID sessionID, boolean syncWrites, int maxCachedMsgs)
             throws IOException {
+        this(path, sessionID, syncWrites, maxCachedMsgs, null, false);
+    }
+
+    /**
+     * @param groupCommitter if not null, the files are synced in batches by the
+     *                       group committer instead of on every write
+     * @param waitForCommit  whether updates of the next sender sequence number wait until
+     *                       the batch is synced. The session updates the sequence number
+     *                       after storing an outgoing message and before sending it, so the
+     *                       message is only sent once it is durable.
+     */
+    FileStore(String path, SessionID sessionID, boolean syncWrites, int maxCachedMsgs,
+            GroupCommitter groupCommitter, boolean waitForCommit) throws IOException {
         this.syncWrites = syncWrites;
         this.maxCachedMsgs = maxCachedMsgs;
+        this.groupCommitter = groupCommitter;
+        this.waitForCommit = waitForCommit;
 
         messageIndex = maxCachedMsgs > 0 ? new TreeMap<>() : null;
 
@@ -83,6 +118,7 @@ public class FileStore implements MessageStore, Closeable {
 
         msgFileName = prefix + "body";
         headerFileName = prefix + "header";
+        indexFileName = prefix + "index";
         senderSeqNumFileName = prefix + "senderseqnums";
         targetSeqNumFileName = prefix + "targetseqnums";
         sessionFileName = prefix + "session";
@@ -102,11 +138,13 @@ public class FileStore implements MessageStore, Closeable {
             close();
         }
 
-        String mode = READ_OPTION + WRITE_OPTION + (syncWrites ? SYNC_OPTION : NOSYNC_OPTION);
+        final boolean syncEveryWrite = syncWrites && groupCommitter == null;
+        String mode = READ_OPTION + WRITE_OPTION + (syncEveryWrite ? SYNC_OPTION : NOSYNC_OPTION);
         messageFileWriter = new RandomAccessFile(msgFileName, mode); // also creates file
         messageFileReader = new RandomAccessFile(msgFileName, READ_OPTION);
         senderSequenceNumberFile = new RandomAccessFile(senderSeqNumFileName, mode);
         targetSequenceNumberFile = new RandomAccessFile(targetSeqNumFileName, mode);
+        indexFile = new RandomAccessFile(indexFileName, mode);
 
         initializeCache();
     }
@@ -175,9 +213,21 @@ public class FileStore implements MessageStore, Closeable {
     }
 
     private void initializeMessageIndex() throws IOException {
-        // this part is unnecessary if no offsets are being stored in memory
+        // the in-memory index only caches offsets of messages stored from now on,
+        // older messages are located with the index file
         if (messageIndex != null) {
             messageIndex.clear();
+        }
+        indexed = false;
+        if (indexFile.length() >= INDEX_HEADER_SIZE) {
+            indexFile.seek(0);
+            if (indexFile.readInt() != INDEX_MAGIC) {
+                throw new IOException("Invalid message index file: " + indexFileName);
+            }
+            indexBase = indexFile.readInt();
+            indexed = true;
+        } else {
+            // header files written by earlier versions are indexed once
             final File headerFile = new File(headerFileName);
             if (headerFile.exists()) {
                 try (DataInputStream headerDataInputStream = new DataInputStream(
@@ -186,7 +236,7 @@ public class FileStore implements MessageStore, Closeable {
                         final int sequenceNumber = headerDataInputStream.readInt();
                         final long offset = headerDataInputStream.readLong();
                         final int size = headerDataInputStream.readInt();
-                        updateMessageIndex(sequenceNumber, offset, size);
+                        writeIndexEntry(sequenceNumber, offset, size);
                     }
                 }
             }
@@ -207,19 +257,115 @@ public class FileStore implements MessageStore, Closeable {
     }
 
     /**
-     * Close the store's files.
+     * Writes the offset and size of a message to the index file. The entry of a
+     * sequence number is located at a fixed position relative to the first indexed
+     * sequence number. Messages with a lower sequence number are not indexed, they
+     * are found by reading the header file.
+     */
+    private void writeIndexEntry(int sequence, long offset, int size) throws IOException {
+        if (!indexed) {
+            indexBase = sequence;
+            indexFile.seek(0);
+            indexFile.writeInt(INDEX_MAGIC);
+            indexFile.writeInt(indexBase);
+            indexed = true;
+        }
+        if (sequence >= indexBase) {
+            indexEntry.clear();
+            indexEntry.putLong(offset + 1).putInt(size);
+            indexFile.seek(INDEX_HEADER_SIZE + (long) (sequence - indexBase) * INDEX_ENTRY_SIZE);
+            indexFile.write(indexEntry.array());
+        }
+    }
+
+    /**
+     * Reads the messages with the given sequence numbers which are covered by the
+     * index file. The sequence numbers of the messages found are removed from the set.
+     */
+    private void readIndexedMessages(Set<Integer> sequences, Map<Integer, String> messagesFound)
+            throws IOException {
+        if (!indexed) {
+            return;
+        }
+        int first = Integer.MAX_VALUE;
+        int last = Integer.MIN_VALUE;
+        for (int sequence : sequences) {
+            first = Math.min(first, sequence);
+            last = Math.max(last, sequence);
+        }
+        final long indexedEntries = (indexFile.length() - INDEX_HEADER_SIZE) / INDEX_ENTRY_SIZE;
+        first = Math.max(first, indexBase);
+        last = (int) Math.min(last, indexBase + indexedEntries - 1);
+        final byte[] entries = new byte[(int) Math.min(INDEX_READ_ENTRIES, Math.max(0L, (long) last - first + 1))
+                * INDEX_ENTRY_SIZE];
+        final ByteBuffer buffer = ByteBuffer.wrap(entries);
+        // read the entries of the whole range in chunks
+        for (long chunk = first; chunk <= last; chunk += INDEX_READ_ENTRIES) {
+            final int count = (int) Math.min(INDEX_READ_ENTRIES, last - chunk + 1);
+            indexFile.seek(INDEX_HEADER_SIZE + (chunk - indexBase) * INDEX_ENTRY_SIZE);
+            indexFile.readFully(entries, 0, count * INDEX_ENTRY_SIZE);
+            for (int i = 0; i < count; i++) {
+                final int sequence = (int) (chunk + i);
+                final long offset = buffer.getLong(i * INDEX_ENTRY_SIZE) - 1;
+                if (offset >= 0 && sequences.remove(sequence)) {
+                    final int size = buffer.getInt(i * INDEX_ENTRY_SIZE + 8);
+                    messagesFound.put(sequence, getMessage(offset, size, sequence));
+                }
+            }
+        }
+    }
+
+    /**
+     * Close the store's files. In group commit mode the pending writes are synced
+     * first and the group committer is released.
      *
      * @throws IOException
      */
     @Override
     public void close() throws IOException {
+        if (groupCommitter != null) {
+            // must not hold the store lock, the committer needs it to sync the files
+            groupCommitter.release(committable);
+        }
+        closeFiles();
+    }
+
+    private synchronized void closeFiles() throws IOException {
         close(headerDataOutputStream);
+        close(indexFile);
         close(messageFileWriter);
         close(messageFileReader);
         close(senderSequenceNumberFile);
         close(targetSequenceNumberFile);
     }
 
+    /**
+     * Syncs the files on behalf of the group committer. Files which have been
+     * closed in the meantime are skipped.
+     */
+    private synchronized void syncFiles() throws IOException {
+        sync(headerFileOutputStream.getFD());
+        sync(indexFile.getFD());
+        sync(messageFileWriter.getFD());
+        sync(senderSequenceNumberFile.getFD());
+        sync(targetSequenceNumberFile.getFD());
+    }
+
+    private static void sync(FileDescriptor fd) throws IOException {
+        if (fd.valid()) {
+            fd.sync();
+        }
+    }
+
+    private void commit(boolean wait) throws IOException {
+        if (groupCommitter != null) {
+            final GroupCommitter.Batch batch = groupCommitter.written(committable);
+            if (wait && waitForCommit) {
+                groupCommitter.awaitCommit(batch);
+            }
+        }
+    }
+
     private static void close(Closeable closeable) throws IOException {
         if (closeable != null) {
             closeable.close();
@@ -229,6 +375,7 @@ public class FileStore implements MessageStore, Closeable {
     public void closeAndDeleteFiles() throws IOException {
         close();
         deleteFile(headerFileName);
+        deleteFile(indexFileName);
         deleteFile(msgFileName);
         deleteFile(senderSeqNumFileName);
         deleteFile(targetSeqNumFileName);
@@ -313,7 +460,11 @@ public class FileStore implements MessageStore, Closeable {
         }
 
         if (!uncachedOffsetMsgIds.isEmpty()) {
-            // parse the header file to find missing messages
+            readIndexedMessages(uncachedOffsetMsgIds, messagesFound);
+        }
+
+        if (hasUnindexedSequence(uncachedOffsetMsgIds)) {
+            // parse the header file to find messages stored below the first indexed sequence number
             final File headerFile = new File(headerFileName);
             try (DataInputStream headerDataInputStream = new DataInputStream(
                     new BufferedInputStream(new FileInputStream(headerFile)))) {
@@ -332,6 +483,35 @@ public class FileStore implements MessageStore, Closeable {
         messages.addAll(messagesFound.values());
     }
 
+    /**
+     * Reads the range in chunks of {@link #VISIT_CHUNK_SIZE} sequence numbers, so
+     * that a large range is not held in memory at once.
+     */
+    @Override
+    public void get(int startSequence, int endSequence, StoredMessageVisitor visitor)
+            throws IOException {
+        final List<String> messages = new ArrayList<>();
+        for (long first = startSequence; first <= endSequence; first += VISIT_CHUNK_SIZE) {
+            messages.clear();
+            get((int) first, (int) Math.min(endSequence, first + VISIT_CHUNK_SIZE - 1), messages);
+            for (String message : messages) {
+                final byte[] data = message.getBytes(CharsetSupport.getCharsetInstance());
+                if (!visitor.visit(data, 0, data.length)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean hasUnindexedSequence(Set<Integer> sequences) {
+        for (int sequence : sequences) {
+            if (!indexed || sequence < indexBase) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * This method is here for JNI API consistency but it's not
      * implemented. Use get(int, int, Collection) with the same
@@ -379,21 +559,25 @@ public class FileStore implements MessageStore, Closeable {
         headerDataOutputStream.writeLong(offset);
         headerDataOutputStream.writeInt(size);
         headerDataOutputStream.flush();
-        if (syncWrites) {
+        writeIndexEntry(sequence, offset, size);
+        if (groupCommitter == null && syncWrites) {
             headerFileOutputStream.getFD().sync();
         }
         messageFileWriter.write(messageBytes);
+        commit(false);
         return true;
     }
 
     private void storeSenderSequenceNumber() throws IOException {
         senderSequenceNumberFile.seek(0);
         senderSequenceNumberFile.writeUTF("" + cache.getNextSenderMsgSeqNum());
+        commit(true);
     }
 
     private void storeTargetSequenceNumber() throws IOException {
         targetSequenceNumberFile.seek(0);
         targetSequenceNumberFile.writeUTF("" + cache.getNextTargetMsgSeqNum());
+        commit(false);
     }
 
     /*
@@ -19,6 +19,9 @@
 
 package quickfix;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Creates a message store that stores messages in a file.
  *
@@ -43,12 +46,43 @@ public class FileStoreFactory implements MessageStoreFactory {
     /**
      * Numeric option limiting the number of messages stored in the in-memory
      * message index. If, during recovery, one or more messages are requested
-     * whose offset/size is not cached in memory, the on-disk header file will
-     * be searched. Values can be from 0 to Integer.MAX_VALUE (default), inclusive.
+     * whose offset/size is not cached in memory, they are looked up in the
+     * on-disk index file. Values can be from 0 to Integer.MAX_VALUE (default), inclusive.
      */
     public static final String SETTING_FILE_STORE_MAX_CACHED_MSGS = "FileStoreMaxCachedMsgs";
 
+    /**
+     * Boolean option for syncing the FileStore in batches instead of on every
+     * write. Writes of all stores created by this factory are collected and a
+     * background thread syncs them together, so a single sync covers many
+     * messages. Takes precedence over {@link #SETTING_FILE_STORE_SYNC}.
+     */
+    public static final String SETTING_FILE_STORE_GROUP_COMMIT = "FileStoreGroupCommit";
+
+    /**
+     * Time in milliseconds writes are collected before they are synced in group
+     * commit mode. The default of 0 syncs as soon as the previous sync is complete,
+     * writes arriving in the meantime form the next batch.
+     */
+    public static final String SETTING_FILE_STORE_GROUP_COMMIT_INTERVAL = "FileStoreGroupCommitInterval";
+
+    /**
+     * Number of pending writes which are synced in group commit mode without
+     * waiting for the end of the interval. The default is 1000.
+     */
+    public static final String SETTING_FILE_STORE_GROUP_COMMIT_MAX_BATCH_SIZE = "FileStoreGroupCommitMaxBatchSize";
+
+    /**
+     * Boolean option controlling whether outgoing messages are held in group commit
+     * mode until they have been synced. The default is Y. If set to N messages are
+     * sent right away and are synced shortly after.
+     */
+    public static final String SETTING_FILE_STORE_GROUP_COMMIT_WAIT = "FileStoreGroupCommitWait";
+
+    private static final int DEFAULT_GROUP_COMMIT_MAX_BATCH_SIZE = 1000;
+
     protected final SessionSettings settings;
+    private final Map<String, GroupCommitter> groupCommitters = new ConcurrentHashMap<>();
 
     /**
      * Create the factory with configuration in session settings.
@@ -77,7 +111,26 @@ public class FileStoreFactory implements MessageStoreFactory {
                     maxCachedMsgs = (int) maxCachedMsgsSetting;
                 }
             }
-            return new FileStore(settings.getString(sessionID, FileStoreFactory.SETTING_FILE_STORE_PATH), sessionID, syncWrites, maxCachedMsgs);
+            GroupCommitter groupCommitter = null;
+            boolean waitForCommit = true;
+            if (settings.isSetting(sessionID, SETTING_FILE_STORE_GROUP_COMMIT)
+                    && settings.getBool(sessionID, SETTING_FILE_STORE_GROUP_COMMIT)) {
+                final long interval = settings.isSetting(sessionID, SETTING_FILE_STORE_GROUP_COMMIT_INTERVAL)
+                        ? settings.getLong(sessionID, SETTING_FILE_STORE_GROUP_COMMIT_INTERVAL)
+                        : 0;
+                final int maxBatchSize = settings.isSetting(sessionID, SETTING_FILE_STORE_GROUP_COMMIT_MAX_BATCH_SIZE)
+                        ? settings.getInt(sessionID, SETTING_FILE_STORE_GROUP_COMMIT_MAX_BATCH_SIZE)
+                        : DEFAULT_GROUP_COMMIT_MAX_BATCH_SIZE;
+                // sessions with the same configuration share a committer, its thread
+                // is stopped once all stores using it are closed
+                groupCommitter = groupCommitters.computeIfAbsent(interval + "/" + maxBatchSize,
+                        k -> new GroupCommitter(interval, maxBatchSize));
+                if (settings.isSetting(sessionID, SETTING_FILE_STORE_GROUP_COMMIT_WAIT)) {
+                    waitForCommit = settings.getBool(sessionID, SETTING_FILE_STORE_GROUP_COMMIT_WAIT);
+                }
+            }
+            return new FileStore(settings.getString(sessionID, FileStoreFactory.SETTING_FILE_STORE_PATH), sessionID,
+                    syncWrites, maxCachedMsgs, groupCommitter, waitForCommit);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
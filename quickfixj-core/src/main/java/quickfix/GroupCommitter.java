@@ -0,0 +1,270 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+
+package quickfix;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Syncs the files of file stores in batches. Stores report their writes and a
+ * background thread syncs all stores with pending writes once the commit interval
+ * has elapsed or enough writes are pending, so a single sync per store covers a
+ * whole batch of writes of one or more sessions.
+ */
+final class GroupCommitter {
+
+    /**
+     * A store whose writes are committed by the group committer.
+     */
+    interface Committable {
+
+        /**
+         * Syncs all writes of the store to the storage device.
+         *
+         * @throws IOException if the sync failed
+         */
+        void sync() throws IOException;
+    }
+
+    /**
+     * The writes which are committed by one sync of the pending stores.
+     */
+    static final class Batch {
+        private boolean committed;
+        private IOException failure;
+    }
+
+    private final long intervalNanos;
+    private final int maxBatchSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pendingCondition = lock.newCondition();
+    private final Condition committedCondition = lock.newCondition();
+    private final Set<Committable> pendingStores = new LinkedHashSet<>();
+    private final Set<Committable> activeStores = new HashSet<>();
+    private int pendingWrites;
+    private Batch pendingBatch;
+    private boolean flushing;
+    private boolean stopping;
+    private Thread thread;
+
+    /**
+     * @param intervalMillis the time a write may wait for further writes before it is
+     *                       committed, zero commits as soon as the previous commit is complete
+     * @param maxBatchSize   the number of pending writes which are committed without
+     *                       waiting for the end of the interval
+     */
+    GroupCommitter(long intervalMillis, int maxBatchSize) {
+        if (intervalMillis < 0 || maxBatchSize < 1) {
+            throw new IllegalArgumentException("Invalid group commit interval " + intervalMillis
+                    + " or batch size " + maxBatchSize);
+        }
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Registers a write of the given store. The commit thread is started by the
+     * first write after the committer has been created or stopped.
+     *
+     * @param store the store which was written
+     * @return the batch to wait for with {@link #awaitCommit(Batch)}
+     */
+    Batch written(Committable store) {
+        lock.lock();
+        try {
+            if (thread == null) {
+                thread = new Thread(this::run, "QFJ Group Commit");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            activeStores.add(store);
+            pendingStores.add(store);
+            if (pendingBatch == null) {
+                pendingBatch = new Batch();
+            }
+            if (++pendingWrites == 1 || pendingWrites >= maxBatchSize) {
+                pendingCondition.signal();
+            }
+            return pendingBatch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the given batch has been synced.
+     *
+     * @param batch the batch returned by {@link #written(Committable)}
+     * @throws IOException if the sync of the batch failed or the thread was interrupted
+     */
+    void awaitCommit(Batch batch) throws IOException {
+        lock.lock();
+        try {
+            while (!batch.committed) {
+                committedCondition.await();
+            }
+            if (batch.failure != null) {
+                throw new IOException("Group commit failed", batch.failure);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for group commit");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the pending writes of the given store have been synced and
+     * stops the commit thread once no store which has written is left. Called
+     * when the store is closed.
+     *
+     * @param store the store which is closed
+     * @throws IOException if the sync of the pending writes failed
+     */
+    void release(Committable store) throws IOException {
+        final Batch batch;
+        lock.lock();
+        try {
+            batch = pendingStores.contains(store) ? pendingBatch : null;
+            if (batch != null) {
+                // commit without waiting for the end of the interval
+                flushing = true;
+                pendingCondition.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        try {
+            if (batch != null) {
+                awaitCommit(batch);
+            }
+        } finally {
+            final boolean stop;
+            lock.lock();
+            try {
+                stop = activeStores.remove(store) && activeStores.isEmpty();
+            } finally {
+                lock.unlock();
+            }
+            if (stop) {
+                stop();
+            }
+        }
+    }
+
+    /**
+     * Syncs the pending writes and stops the commit thread. The thread is started
+     * again by the next write.
+     */
+    void stop() {
+        final Thread stopped;
+        lock.lock();
+        try {
+            stopped = thread;
+            if (stopped == null) {
+                return;
+            }
+            stopping = true;
+            pendingCondition.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            stopped.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    boolean isRunning() {
+        lock.lock();
+        try {
+            return thread != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        lock.lock();
+        try {
+            while (true) {
+                while (pendingWrites == 0 && !stopping) {
+                    pendingCondition.await();
+                }
+                if (pendingWrites == 0) {
+                    return;
+                }
+                long remaining = intervalNanos;
+                while (remaining > 0 && pendingWrites < maxBatchSize && !flushing && !stopping) {
+                    remaining = pendingCondition.awaitNanos(remaining);
+                }
+                final Batch batch = pendingBatch;
+                final List<Committable> stores = new ArrayList<>(pendingStores);
+                pendingStores.clear();
+                pendingWrites = 0;
+                pendingBatch = null;
+                flushing = false;
+                IOException failure = null;
+                lock.unlock();
+                try {
+                    for (Committable store : stores) {
+                        try {
+                            store.sync();
+                        } catch (IOException e) {
+                            failure = e;
+                        }
+                    }
+                } finally {
+                    lock.lock();
+                }
+                batch.failure = failure;
+                batch.committed = true;
+                committedCondition.signalAll();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (pendingBatch != null) {
+                // release the writers waiting for writes which are not synced anymore
+                pendingBatch.failure = new InterruptedIOException("Group commit thread interrupted");
+                pendingBatch.committed = true;
+                pendingStores.clear();
+                pendingWrites = 0;
+                pendingBatch = null;
+                committedCondition.signalAll();
+            }
+        } finally {
+            flushing = false;
+            stopping = false;
+            thread = null;
+            lock.unlock();
+        }
+    }
+}
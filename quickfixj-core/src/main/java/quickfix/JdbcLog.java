@@ -20,13 +20,21 @@
 package quickfix;
 
 import javax.sql.DataSource;
+import java.io.Closeable;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
+import static quickfix.JdbcSetting.SETTING_JDBC_LOG_ASYNC;
+import static quickfix.JdbcSetting.SETTING_JDBC_LOG_ASYNC_BATCH_SIZE;
+import static quickfix.JdbcSetting.SETTING_JDBC_LOG_ASYNC_FLUSH_INTERVAL;
+import static quickfix.JdbcSetting.SETTING_JDBC_LOG_ASYNC_OVERFLOW_POLICY;
+import static quickfix.JdbcSetting.SETTING_JDBC_LOG_ASYNC_QUEUE_SIZE;
 import static quickfix.JdbcSetting.SETTING_JDBC_LOG_HEARTBEATS;
 import static quickfix.JdbcSetting.SETTING_JDBC_SESSION_ID_DEFAULT_PROPERTY_VALUE;
 import static quickfix.JdbcSetting.SETTING_LOG_EVENT_TABLE;
@@ -37,9 +45,19 @@ import static quickfix.JdbcUtil.getIDColumns;
 import static quickfix.JdbcUtil.getIDPlaceholders;
 import static quickfix.JdbcUtil.getIDWhereClause;
 
-class JdbcLog extends AbstractLog {
+/**
+ * Logs messages and events to database tables.
+ * <p>
+ * With asynchronous logging enabled, entries are queued and inserted in batches
+ * by a background thread. If the queue is full, the logging thread either waits
+ * or the entry is dropped, depending on the overflow policy.
+ */
+class JdbcLog extends AbstractLog implements Closeable {
     private static final String DEFAULT_MESSAGES_LOG_TABLE = "messages_log";
     private static final String DEFAULT_EVENT_LOG_TABLE = "event_log";
+    private static final int DEFAULT_ASYNC_QUEUE_SIZE = 10000;
+    private static final int DEFAULT_ASYNC_BATCH_SIZE = 100;
+    private static final long DEFAULT_ASYNC_FLUSH_INTERVAL = 100;
     private final String outgoingMessagesTableName;
     private final String incomingMessagesTableName;
     private final String eventTableName;
@@ -51,6 +69,9 @@ class JdbcLog extends AbstractLog {
 
     private Throwable recursiveException = null;
 
+    // null if entries are inserted by the logging thread
+    private final AsyncLogQueue<LogEntry> asyncQueue;
+
     private final Map<String, String> insertItemSqlCache = new HashMap<>();
     private final Map<String, String> deleteItemsSqlCache = new HashMap<>();
 
@@ -96,6 +117,36 @@ class JdbcLog extends AbstractLog {
                 outgoingMessagesTableName);
 
         createCachedSql();
+
+        if (settings.isSetting(sessionID, SETTING_JDBC_LOG_ASYNC)
+                && settings.getBool(sessionID, SETTING_JDBC_LOG_ASYNC)) {
+            asyncQueue = new AsyncLogQueue<>("QFJ JdbcLog Writer " + sessionID,
+                    settings.isSetting(sessionID, SETTING_JDBC_LOG_ASYNC_QUEUE_SIZE)
+                            ? settings.getInt(sessionID, SETTING_JDBC_LOG_ASYNC_QUEUE_SIZE)
+                            : DEFAULT_ASYNC_QUEUE_SIZE,
+                    settings.isSetting(sessionID, SETTING_JDBC_LOG_ASYNC_BATCH_SIZE)
+                            ? settings.getInt(sessionID, SETTING_JDBC_LOG_ASYNC_BATCH_SIZE)
+                            : DEFAULT_ASYNC_BATCH_SIZE,
+                    settings.isSetting(sessionID, SETTING_JDBC_LOG_ASYNC_FLUSH_INTERVAL)
+                            ? settings.getLong(sessionID, SETTING_JDBC_LOG_ASYNC_FLUSH_INTERVAL)
+                            : DEFAULT_ASYNC_FLUSH_INTERVAL,
+                    getOverflowPolicy(settings, sessionID), this::insertBatch);
+        } else {
+            asyncQueue = null;
+        }
+    }
+
+    private static AsyncLogQueue.OverflowPolicy getOverflowPolicy(SessionSettings settings,
+            SessionID sessionID) throws ConfigError, FieldConvertError {
+        if (!settings.isSetting(sessionID, SETTING_JDBC_LOG_ASYNC_OVERFLOW_POLICY)) {
+            return AsyncLogQueue.OverflowPolicy.BLOCK;
+        }
+        final String policy = settings.getString(sessionID, SETTING_JDBC_LOG_ASYNC_OVERFLOW_POLICY);
+        try {
+            return AsyncLogQueue.OverflowPolicy.valueOf(policy.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ConfigError("Invalid " + SETTING_JDBC_LOG_ASYNC_OVERFLOW_POLICY + ": " + policy);
+        }
     }
 
     private void createCachedSql() {
@@ -148,6 +199,10 @@ class JdbcLog extends AbstractLog {
      * @param value
      */
     private void insert(String tableName, String value) {
+        if (asyncQueue != null) {
+            asyncQueue.add(new LogEntry(tableName, SystemTime.currentTimeMillis(), value));
+            return;
+        }
         Connection connection = null;
         PreparedStatement insert = null;
         if (recursiveException != null) {
@@ -173,10 +228,83 @@ class JdbcLog extends AbstractLog {
         }
     }
 
+    /**
+     * Inserts a batch of queued entries, one JDBC batch per table.
+     */
+    private void insertBatch(List<LogEntry> entries) throws SQLException {
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            for (String tableName : insertItemSqlCache.keySet()) {
+                PreparedStatement insert = null;
+                try {
+                    for (LogEntry entry : entries) {
+                        if (entry.tableName.equals(tableName)) {
+                            if (insert == null) {
+                                insert = connection.prepareStatement(getInsertItemSql(tableName));
+                            }
+                            insert.setTimestamp(1, new Timestamp(entry.time));
+                            int offset = setSessionIdParameters(insert, 2);
+                            insert.setString(offset, entry.text);
+                            insert.addBatch();
+                        }
+                    }
+                    if (insert != null) {
+                        insert.executeBatch();
+                    }
+                } finally {
+                    JdbcUtil.close(sessionID, insert);
+                }
+            }
+        } catch (SQLException e) {
+            // not logged to this log, which would queue another entry for the failing database
+            System.err.println("JdbcLog failed to insert " + entries.size() + " log entries: " + e.getMessage());
+            throw e;
+        } finally {
+            JdbcUtil.close(sessionID, connection);
+        }
+    }
+
+    /**
+     * Waits until the queued entries are written if asynchronous logging is enabled.
+     */
+    void flush() {
+        if (asyncQueue != null) {
+            asyncQueue.flush();
+        }
+    }
+
+    /**
+     * Writes the queued entries and stops the writer thread if asynchronous
+     * logging is enabled.
+     */
+    @Override
+    public void close() {
+        if (asyncQueue != null) {
+            asyncQueue.close();
+        }
+    }
+
+    /**
+     * @return the number of entries discarded because the queue was full or the
+     *         insert failed, always 0 unless asynchronous logging is enabled
+     */
+    public long getDroppedCount() {
+        return asyncQueue != null ? asyncQueue.getDroppedCount() : 0;
+    }
+
+    /**
+     * @return the number of entries waiting to be inserted
+     */
+    public int getQueuedCount() {
+        return asyncQueue != null ? asyncQueue.getQueuedCount() : 0;
+    }
+
     /**
      * Deletes all rows from the log tables.
      */
     public void clear() {
+        flush();
         clearTable(eventTableName);
         clearTable(incomingMessagesTableName);
         if (!incomingMessagesTableName.equals(outgoingMessagesTableName)) {
@@ -220,4 +348,16 @@ class JdbcLog extends AbstractLog {
     public void onErrorEvent(String text) {
         onEvent(text);
     }
+
+    private static final class LogEntry {
+        private final String tableName;
+        private final long time;
+        private final String text;
+
+        LogEntry(String tableName, long time, String text) {
+            this.tableName = tableName;
+            this.time = time;
+            this.text = text;
+        }
+    }
 }
@@ -63,6 +63,31 @@ public class JdbcSetting {
      */
     public static final String SETTING_JDBC_STORE_SESSIONS_TABLE_NAME = "JdbcStoreSessionsTableName";
 
+    /**
+     * Write messages and sequence numbers to the database on a background thread
+     * instead of in the calling thread. The pending writes are completed before
+     * messages are read for a resend, on logon and on logout. Default is "N".
+     */
+    public static final String SETTING_JDBC_STORE_WRITE_BEHIND = "JdbcStoreWriteBehind";
+
+    /**
+     * Maximum number of messages waiting to be written by the write-behind thread.
+     * Storing a message blocks while the queue is full. Default is 10000.
+     */
+    public static final String SETTING_JDBC_STORE_WRITE_BEHIND_QUEUE_SIZE = "JdbcStoreWriteBehindQueueSize";
+
+    /**
+     * Maximum number of messages inserted with one batch by the write-behind
+     * thread. Default is 100.
+     */
+    public static final String SETTING_JDBC_STORE_WRITE_BEHIND_BATCH_SIZE = "JdbcStoreWriteBehindBatchSize";
+
+    /**
+     * Interval in milliseconds after which the write-behind thread writes pending
+     * changes even if the batch is not full. Default is 100.
+     */
+    public static final String SETTING_JDBC_STORE_WRITE_BEHIND_FLUSH_INTERVAL = "JdbcStoreWriteBehindFlushInterval";
+
     /**
      * The JNDI name used to lookup a DataSource for the JDBC plugins.
      */
@@ -98,6 +123,36 @@ public class JdbcSetting {
      */
     public static final String SETTING_LOG_EVENT_TABLE = "JdbcLogEventTable";
 
+    /**
+     * Write log entries on a background thread using batch inserts instead of
+     * inserting every entry in the logging thread. Default is "N".
+     */
+    public static final String SETTING_JDBC_LOG_ASYNC = "JdbcLogAsync";
+
+    /**
+     * Maximum number of log entries waiting to be written when asynchronous
+     * logging is enabled. Default is 10000.
+     */
+    public static final String SETTING_JDBC_LOG_ASYNC_QUEUE_SIZE = "JdbcLogAsyncQueueSize";
+
+    /**
+     * Maximum number of log entries inserted with one batch when asynchronous
+     * logging is enabled. Default is 100.
+     */
+    public static final String SETTING_JDBC_LOG_ASYNC_BATCH_SIZE = "JdbcLogAsyncBatchSize";
+
+    /**
+     * Interval in milliseconds after which queued log entries are written even if
+     * the batch is not full. Default is 100.
+     */
+    public static final String SETTING_JDBC_LOG_ASYNC_FLUSH_INTERVAL = "JdbcLogAsyncFlushInterval";
+
+    /**
+     * What happens to a log entry when the queue is full: "Block" waits until the
+     * entry can be queued, "Drop" discards it. Default is "Block".
+     */
+    public static final String SETTING_JDBC_LOG_ASYNC_OVERFLOW_POLICY = "JdbcLogAsyncOverflowPolicy";
+
     /**
      * Specified the default value for session ID properties that have not been set. This
      * is primarily for Oracle which treats empty strings as SQL NULLs.
@@ -21,18 +21,35 @@ package quickfix;
 
 import static quickfix.JdbcSetting.*;
 
+import java.io.Closeable;
+import java.io.Flushable;
 import java.io.IOException;
 import java.sql.*;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import javax.sql.DataSource;
 
-class JdbcStore implements MessageStore {
+/**
+ * A message store which keeps messages and sequence numbers in database tables.
+ * <p>
+ * With write-behind enabled, messages are put into a bounded queue and written
+ * by a background thread with batch inserts, and sequence number changes are
+ * coalesced into one update per batch. {@link #flush()} waits until all changes
+ * made before the call are committed; it is called before messages are read.
+ */
+class JdbcStore implements MessageStore, Flushable, Closeable {
     private final static String DEFAULT_SESSION_TABLE_NAME = "sessions";
     private final static String DEFAULT_MESSAGE_TABLE_NAME = "messages";
+    private final static int DEFAULT_WRITE_BEHIND_QUEUE_SIZE = 10000;
+    private final static int DEFAULT_WRITE_BEHIND_BATCH_SIZE = 100;
+    private final static long DEFAULT_WRITE_BEHIND_FLUSH_INTERVAL = 100;
 
     private final MemoryStore cache = new MemoryStore();
     private final boolean extendedSessionIdSupported;
@@ -43,6 +60,19 @@ class JdbcStore implements MessageStore {
     private final String defaultSessionIdPropertyValue;
     private final boolean persistMessages;
 
+    // write-behind, pendingMessages is null if changes are written by the calling thread
+    private final BlockingQueue<PendingMessage> pendingMessages;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final Object writeBehindLock = new Object();
+    // @GuardedBy(writeBehindLock)
+    private long submittedWrites;
+    private long completedWrites;
+    private int[] pendingSequenceNumbers;
+    private boolean flushRequested;
+    private boolean closed;
+    private Exception writeFailure;
+
     private String SQL_UPDATE_SEQNUMS;
     private String SQL_INSERT_SESSION;
     private String SQL_GET_SEQNUMS;
@@ -78,6 +108,21 @@ class JdbcStore implements MessageStore {
         persistMessages = !settings.isSetting(sessionID, Session.SETTING_PERSIST_MESSAGES) ||
             settings.getBool(sessionID, Session.SETTING_PERSIST_MESSAGES);
 
+        if (settings.isSetting(sessionID, SETTING_JDBC_STORE_WRITE_BEHIND)
+                && settings.getBool(sessionID, SETTING_JDBC_STORE_WRITE_BEHIND)) {
+            pendingMessages = new ArrayBlockingQueue<>(getInt(settings, sessionID,
+                    SETTING_JDBC_STORE_WRITE_BEHIND_QUEUE_SIZE, DEFAULT_WRITE_BEHIND_QUEUE_SIZE));
+            batchSize = getInt(settings, sessionID, SETTING_JDBC_STORE_WRITE_BEHIND_BATCH_SIZE,
+                    DEFAULT_WRITE_BEHIND_BATCH_SIZE);
+            flushIntervalMillis = settings.isSetting(sessionID, SETTING_JDBC_STORE_WRITE_BEHIND_FLUSH_INTERVAL)
+                    ? settings.getLong(sessionID, SETTING_JDBC_STORE_WRITE_BEHIND_FLUSH_INTERVAL)
+                    : DEFAULT_WRITE_BEHIND_FLUSH_INTERVAL;
+        } else {
+            pendingMessages = null;
+            batchSize = 0;
+            flushIntervalMillis = 0;
+        }
+
         dataSource = ds == null ? JdbcUtil.getDataSource(settings, sessionID) : ds;
 
         // One table is sampled for the extended session ID columns. Be sure
@@ -88,6 +133,17 @@ class JdbcStore implements MessageStore {
         setSqlStrings();
 
         loadCache();
+
+        if (pendingMessages != null) {
+            final Thread writer = new Thread(this::writeBehind, "QFJ JdbcStore Writer " + sessionID);
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    private static int getInt(SessionSettings settings, SessionID sessionID, String key, int defaultValue)
+            throws ConfigError, FieldConvertError {
+        return settings.isSetting(sessionID, key) ? settings.getInt(sessionID, key) : defaultValue;
     }
 
     private void setSqlStrings() {
@@ -182,6 +238,7 @@ class JdbcStore implements MessageStore {
     }
 
     public void reset() throws IOException {
+        flush();
         cache.reset();
         Connection connection = null;
         PreparedStatement deleteMessages = null;
@@ -212,6 +269,7 @@ class JdbcStore implements MessageStore {
 
     public void get(int startSequence, int endSequence, Collection<String> messages)
             throws IOException {
+        flush();
         Connection connection = null;
         PreparedStatement query = null;
         ResultSet rs = null;
@@ -236,6 +294,20 @@ class JdbcStore implements MessageStore {
     }
 
     public boolean set(int sequence, String message) throws IOException {
+        if (pendingMessages != null) {
+            try {
+                pendingMessages.put(new PendingMessage(sequence, message));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while queueing message " + sequence, e);
+            }
+            submitWrite(null);
+            return true;
+        }
+        return storeMessage(sequence, message);
+    }
+
+    private boolean storeMessage(int sequence, String message) throws IOException {
         Connection connection = null;
         PreparedStatement insert = null;
         ResultSet rs = null;
@@ -281,6 +353,10 @@ class JdbcStore implements MessageStore {
     }
 
     private void storeSequenceNumbers() throws IOException {
+        if (pendingMessages != null) {
+            submitWrite(new int[] { cache.getNextTargetMsgSeqNum(), cache.getNextSenderMsgSeqNum() });
+            return;
+        }
         Connection connection = null;
         PreparedStatement update = null;
         try {
@@ -298,7 +374,190 @@ class JdbcStore implements MessageStore {
         }
     }
 
+    /**
+     * Counts a queued message or, if sequenceNumbers is not null, a sequence number
+     * change for the write-behind thread.
+     */
+    private void submitWrite(int[] sequenceNumbers) {
+        synchronized (writeBehindLock) {
+            if (sequenceNumbers != null) {
+                pendingSequenceNumbers = sequenceNumbers;
+            }
+            submittedWrites++;
+            if (pendingMessages.size() >= batchSize) {
+                writeBehindLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits until the changes made before this call are written to the database.
+     * Returns immediately if write-behind is disabled.
+     *
+     * @throws IOException if the write-behind thread failed to write the changes
+     */
+    @Override
+    public void flush() throws IOException {
+        if (pendingMessages == null) {
+            return;
+        }
+        synchronized (writeBehindLock) {
+            final long target = submittedWrites;
+            if (completedWrites >= target) {
+                return;
+            }
+            // a failure from before this call is only reported if the retry fails as well
+            final Exception previousFailure = writeFailure;
+            flushRequested = true;
+            writeBehindLock.notifyAll();
+            while (completedWrites < target) {
+                if (writeFailure != null && writeFailure != previousFailure) {
+                    throw new IOException("Writing to the message store failed: " + writeFailure.getMessage(),
+                            writeFailure);
+                }
+                if (closed) {
+                    throw new IOException("Message store is closed");
+                }
+                try {
+                    writeBehindLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while flushing the message store", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the pending changes and stops the write-behind thread.
+     */
+    @Override
+    public void close() throws IOException {
+        if (pendingMessages == null) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            synchronized (writeBehindLock) {
+                closed = true;
+                writeBehindLock.notifyAll();
+            }
+        }
+    }
+
+    private void writeBehind() {
+        final List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (true) {
+            final long target;
+            int[] sequenceNumbers;
+            synchronized (writeBehindLock) {
+                if (!flushRequested && !closed && pendingMessages.size() < batchSize) {
+                    try {
+                        writeBehindLock.wait(flushIntervalMillis);
+                    } catch (InterruptedException e) {
+                        closed = true;
+                    }
+                }
+                if (closed && (completedWrites == submittedWrites || writeFailure != null)) {
+                    if (writeFailure != null) {
+                        LogUtil.logThrowable(sessionID, "Discarding unwritten message store changes",
+                                writeFailure);
+                    }
+                    writeBehindLock.notifyAll();
+                    return;
+                }
+                flushRequested = false;
+                target = submittedWrites;
+                sequenceNumbers = pendingSequenceNumbers;
+                pendingSequenceNumbers = null;
+            }
+            try {
+                do {
+                    pendingMessages.drainTo(batch, batchSize - batch.size());
+                    final boolean last = pendingMessages.isEmpty();
+                    writeBatch(batch, last ? sequenceNumbers : null);
+                    batch.clear();
+                    if (last) {
+                        sequenceNumbers = null;
+                    }
+                } while (sequenceNumbers != null || !pendingMessages.isEmpty());
+                synchronized (writeBehindLock) {
+                    completedWrites = Math.max(completedWrites, target);
+                    writeFailure = null;
+                    writeBehindLock.notifyAll();
+                }
+            } catch (Exception e) {
+                // the batch is kept and written again after the flush interval
+                synchronized (writeBehindLock) {
+                    if (pendingSequenceNumbers == null) {
+                        pendingSequenceNumbers = sequenceNumbers;
+                    }
+                    writeFailure = e;
+                    writeBehindLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserts the messages and updates the sequence numbers in one transaction.
+     */
+    private void writeBatch(List<PendingMessage> messages, int[] sequenceNumbers)
+            throws SQLException, IOException {
+        Connection connection = null;
+        PreparedStatement insert = null;
+        PreparedStatement update = null;
+        boolean inserted = true;
+        try {
+            connection = dataSource.getConnection();
+            final boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                if (!messages.isEmpty()) {
+                    insert = connection.prepareStatement(SQL_INSERT_MESSAGE);
+                    for (PendingMessage message : messages) {
+                        int offset = setSessionIdParameters(insert, 1);
+                        insert.setInt(offset++, message.sequence);
+                        insert.setString(offset, message.message);
+                        insert.addBatch();
+                    }
+                    try {
+                        insert.executeBatch();
+                    } catch (BatchUpdateException e) {
+                        // a sequence number is already stored, the messages are stored one by one
+                        connection.rollback();
+                        inserted = false;
+                    }
+                }
+                if (sequenceNumbers != null) {
+                    update = connection.prepareStatement(SQL_UPDATE_SEQNUMS);
+                    update.setInt(1, sequenceNumbers[0]);
+                    update.setInt(2, sequenceNumbers[1]);
+                    setSessionIdParameters(update, 3);
+                    update.execute();
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } finally {
+            JdbcUtil.close(sessionID, insert);
+            JdbcUtil.close(sessionID, update);
+            JdbcUtil.close(sessionID, connection);
+        }
+        if (!inserted) {
+            for (PendingMessage message : messages) {
+                storeMessage(message.sequence, message.message);
+            }
+        }
+    }
+
     public void refresh() throws IOException {
+        flush();
         try {
             loadCache();
         } catch (SQLException e) {
@@ -309,4 +568,14 @@ class JdbcStore implements MessageStore {
     DataSource getDataSource() {
         return dataSource;
     }
+
+    private static final class PendingMessage {
+        private final int sequence;
+        private final String message;
+
+        PendingMessage(int sequence, String message) {
+            this.sequence = sequence;
+            this.message = message;
+        }
+    }
 }
@@ -36,6 +36,16 @@ public interface Log {
      */
     void onIncoming(String message);
 
+    /**
+     * Whether incoming messages are logged. Allows the caller to skip creating the
+     * message string if the log discards it.
+     *
+     * @return true if {@link #onIncoming(String)} logs messages, true by default
+     */
+    default boolean isIncomingEnabled() {
+        return true;
+    }
+
     /**
      * Logs an outgoing message
      *
@@ -43,6 +53,16 @@ public interface Log {
      */
     void onOutgoing(String message);
 
+    /**
+     * Whether outgoing messages are logged. Allows the caller to skip creating the
+     * message string if the log discards it.
+     *
+     * @return true if {@link #onOutgoing(String)} logs messages, true by default
+     */
+    default boolean isOutgoingEnabled() {
+        return true;
+    }
+
     /**
      * Logs a session event.
      *
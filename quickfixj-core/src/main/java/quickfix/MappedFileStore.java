@@ -0,0 +1,936 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+package quickfix;
+
+import org.quickfixj.CharsetSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import quickfix.field.converter.UtcTimestampConverter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Memory-mapped file store implementation. Messages are appended to pre-sized,
+ * memory-mapped segment files, so storing a message copies its bytes into the
+ * mapping without a system call, and a range of messages is read by walking the
+ * mapped segments.
+ * <p>
+ * Every record in a segment starts with a fixed-width header holding the record
+ * length and the sequence number, followed by the message bytes. The sequence
+ * number and offset of each record of a segment are written to an index file when
+ * the segment is full and, for the current segment, when the store is closed. On
+ * startup the in-memory sequence number index is loaded from these files and only
+ * the records written after the last index file are scanned. Sequence numbers are
+ * kept in a separate mapped file.
+ * <p>
+ * A new segment is started when a message does not fit into the current segment
+ * or, if a roll interval is configured, when the current segment has reached that
+ * age. If the number of retained messages is limited, segments which only contain
+ * older messages are removed from the store when a new segment is started and are
+ * deleted or moved to an archive directory in the background. This keeps the disk
+ * usage and the startup time of sessions which are not reset bounded.
+ * <p>
+ * The segments and the sequence number index are only accessed while holding the
+ * store's lock, so messages can be read while another thread stores messages.
+ * When messages are visited, each message is copied while holding the lock and the
+ * visitor is called without it.
+ * <p>
+ * The store should only be created using a factory.
+ *
+ * @see quickfix.MappedFileStoreFactory
+ */
+public class MappedFileStore implements MessageStore, Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(MappedFileStore.class);
+
+    private static final int SEGMENT_MAGIC = 0x51464A4D;
+    private static final int SEGMENT_VERSION = 1;
+    // magic, version, creation time
+    private static final int SEGMENT_HEADER_SIZE = 16;
+    // record length, sequence number
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int SEQUENCE_NUMBERS_SIZE = 8;
+    private static final int INDEX_MAGIC = 0x51464A49;
+    private static final int INDEX_VERSION = 1;
+    // magic, version, segment creation time, end of the indexed records, highest sequence
+    // number, record count
+    private static final int INDEX_HEADER_SIZE = 28;
+    // sequence number, offset
+    private static final int INDEX_ENTRY_SIZE = 8;
+
+    private static final Unmapper UNMAPPER = createUnmapper();
+
+    private final MemoryStore cache = new MemoryStore();
+    private final SequenceIndex messageIndex = new SequenceIndex();
+    // ordered by segment number, null for missing segment files
+    private final List<Segment> segments = new ArrayList<>();
+
+    private final File directory;
+    private final String segmentFilePrefix;
+    private final String indexFilePrefix;
+    private final String seqNumsFileName;
+    private final String sessionFileName;
+    private final int segmentSize;
+    private final boolean syncWrites;
+    private final long rollIntervalMillis;
+    private final int retainedMessages;
+    private final File archiveDirectory;
+    private final Executor cleanupExecutor;
+    private MappedByteBuffer sequenceNumbers;
+    private Segment currentSegment;
+    // not reused after a reset, the cleanup of a removed segment may still be pending
+    private int nextSegmentNumber;
+
+    MappedFileStore(String path, SessionID sessionID, int segmentSize, boolean syncWrites)
+            throws IOException {
+        this(path, sessionID, segmentSize, syncWrites, 0, 0, null, Runnable::run);
+    }
+
+    /**
+     * @param rollIntervalMillis the maximum age of the current segment, 0 to only
+     *                           start a new segment when the current one is full
+     * @param retainedMessages   the number of most recent sequence numbers which are
+     *                           kept, 0 to keep all messages
+     * @param archiveDirectory   the directory removed segments are moved to, null to
+     *                           delete them
+     * @param cleanupExecutor    runs the deletion or archiving of removed segments
+     */
+    MappedFileStore(String path, SessionID sessionID, int segmentSize, boolean syncWrites,
+            long rollIntervalMillis, int retainedMessages, File archiveDirectory,
+            Executor cleanupExecutor) throws IOException {
+        if (segmentSize <= SEGMENT_HEADER_SIZE + RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+        }
+        this.segmentSize = segmentSize;
+        this.syncWrites = syncWrites;
+        this.rollIntervalMillis = rollIntervalMillis;
+        this.retainedMessages = retainedMessages;
+        this.archiveDirectory = archiveDirectory;
+        this.cleanupExecutor = cleanupExecutor;
+
+        final String fullPath = new File(path == null ? "." : path).getAbsolutePath();
+        final String sessionName = FileUtil.sessionIdFileName(sessionID);
+        final String prefix = FileUtil.fileAppendPath(fullPath, sessionName + ".");
+
+        segmentFilePrefix = prefix + "segment.";
+        indexFilePrefix = prefix + "segindex.";
+        seqNumsFileName = prefix + "seqnums";
+        sessionFileName = prefix + "session";
+
+        directory = new File(seqNumsFileName).getParentFile();
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+
+        initialize(false);
+    }
+
+    synchronized void initialize(boolean deleteFiles) throws IOException {
+        if (deleteFiles) {
+            closeAndDeleteFiles();
+        } else {
+            close();
+        }
+        cache.reset();
+        messageIndex.clear();
+
+        sequenceNumbers = map(new File(seqNumsFileName), SEQUENCE_NUMBERS_SIZE);
+        final int nextSenderMsgSeqNum = sequenceNumbers.getInt(0);
+        final int nextTargetMsgSeqNum = sequenceNumbers.getInt(4);
+        if (nextSenderMsgSeqNum > 0) {
+            cache.setNextSenderMsgSeqNum(nextSenderMsgSeqNum);
+        }
+        if (nextTargetMsgSeqNum > 0) {
+            cache.setNextTargetMsgSeqNum(nextTargetMsgSeqNum);
+        }
+
+        final int[] numbers = getSegmentNumbers();
+        final int firstRetained = getFirstRetainedSegment(numbers);
+        for (int number : numbers) {
+            nextSegmentNumber = Math.max(nextSegmentNumber, number + 1);
+            if (number < firstRetained) {
+                // not loaded, the segment only contains messages outside the retention window
+                removeSegmentFiles(number);
+                continue;
+            }
+            final File file = getSegmentFile(number);
+            final MappedByteBuffer buffer = map(file, 0);
+            if (buffer.capacity() < SEGMENT_HEADER_SIZE || buffer.getInt(0) != SEGMENT_MAGIC
+                    || buffer.getInt(4) != SEGMENT_VERSION) {
+                throw new IOException("Invalid message store segment: " + file);
+            }
+            final Segment segment = new Segment(number, file, buffer);
+            while (!segments.isEmpty() && getLastSegmentNumber() < number - 1) {
+                segments.add(null);
+            }
+            segments.add(segment);
+            currentSegment = segment;
+            buffer.position(scanSegment(segment, loadIndex(segment)));
+        }
+        // index the full segments which had no or an incomplete index file
+        for (Segment segment : segments) {
+            if (segment != null && segment != currentSegment) {
+                writeIndex(segment);
+                segment.records = null;
+            }
+        }
+        removeExpiredSegments();
+
+        initializeSessionCreateTime();
+    }
+
+    /**
+     * Adds the records of the index file of a segment to the message index. The
+     * index file is ignored if it does not match the segment.
+     *
+     * @return the offset behind the indexed records
+     */
+    private int loadIndex(Segment segment) throws IOException {
+        final File file = getIndexFile(segment.number);
+        if (!file.exists()) {
+            return SEGMENT_HEADER_SIZE;
+        }
+        final int end;
+        final int[] records;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (input.readInt() != INDEX_MAGIC || input.readInt() != INDEX_VERSION
+                    || input.readLong() != segment.getCreationTime()) {
+                return SEGMENT_HEADER_SIZE;
+            }
+            end = input.readInt();
+            // highest sequence number, only read before the segment is loaded
+            input.readInt();
+            final int count = input.readInt();
+            if (count < 0 || file.length() != INDEX_HEADER_SIZE + (long) count * INDEX_ENTRY_SIZE) {
+                return SEGMENT_HEADER_SIZE;
+            }
+            records = new int[count * 2];
+            for (int i = 0; i < records.length; i++) {
+                records[i] = input.readInt();
+            }
+        } catch (IOException e) {
+            LOG.warn("Ignoring unreadable message store index {}: {}", file, e.getMessage());
+            return SEGMENT_HEADER_SIZE;
+        }
+        if (!isIndexValid(segment.buffer, end, records)) {
+            LOG.warn("Ignoring message store index {} which does not match its segment", file);
+            return SEGMENT_HEADER_SIZE;
+        }
+        for (int i = 0; i < records.length; i += 2) {
+            indexRecord(segment, records[i], records[i + 1]);
+        }
+        segment.indexedEnd = end;
+        return end;
+    }
+
+    /**
+     * Determines the segments which only contain messages outside the retention
+     * window from the highest sequence numbers in their index files, so only the
+     * retained segments are loaded on startup. The current segment is always
+     * loaded, the segments of which the highest sequence number is not known and
+     * the segments after them as well.
+     *
+     * @return the number of the first segment to load
+     */
+    private int getFirstRetainedSegment(int[] numbers) {
+        if (retainedMessages <= 0 || numbers.length < 2) {
+            return Integer.MIN_VALUE;
+        }
+        final long[] highestSequences = new long[numbers.length - 1];
+        long highest = Integer.MIN_VALUE;
+        for (int i = 0; i < highestSequences.length; i++) {
+            highestSequences[i] = readIndexedHighestSequence(numbers[i]);
+            if (highestSequences[i] != Long.MAX_VALUE) {
+                highest = Math.max(highest, highestSequences[i]);
+            }
+        }
+        // the current segment is not read, its messages can only make more segments expire
+        final long lowestRetained = highest - retainedMessages + 1;
+        for (int i = 0; i < highestSequences.length; i++) {
+            if (highestSequences[i] >= lowestRetained) {
+                return numbers[i];
+            }
+        }
+        return numbers[numbers.length - 1];
+    }
+
+    /**
+     * @return the highest sequence number in the index file of a segment, or
+     * Long.MAX_VALUE if the index file is missing or does not match the segment
+     */
+    private long readIndexedHighestSequence(int number) {
+        final File file = getIndexFile(number);
+        if (!file.exists()) {
+            return Long.MAX_VALUE;
+        }
+        try (DataInputStream segmentInput = new DataInputStream(new FileInputStream(getSegmentFile(number)));
+                DataInputStream input = new DataInputStream(new FileInputStream(file))) {
+            segmentInput.readLong();
+            final long creationTime = segmentInput.readLong();
+            if (input.readInt() != INDEX_MAGIC || input.readInt() != INDEX_VERSION
+                    || input.readLong() != creationTime) {
+                return Long.MAX_VALUE;
+            }
+            input.readInt();
+            return input.readInt();
+        } catch (IOException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Checks that the last indexed record ends where the index ends. The index
+     * is written after its records, so the records before are complete too.
+     */
+    private static boolean isIndexValid(ByteBuffer buffer, int end, int[] records) {
+        if (end < SEGMENT_HEADER_SIZE || end > buffer.capacity()) {
+            return false;
+        }
+        if (records.length == 0) {
+            return end == SEGMENT_HEADER_SIZE;
+        }
+        final int offset = records[records.length - 1];
+        return offset >= SEGMENT_HEADER_SIZE && offset <= end - RECORD_HEADER_SIZE
+                && buffer.getInt(offset) == end - offset
+                && buffer.getInt(offset + 4) == records[records.length - 2];
+    }
+
+    /**
+     * Writes the sequence numbers and offsets of the records of a segment to its
+     * index file, unless the file is up to date.
+     */
+    private void writeIndex(Segment segment) throws IOException {
+        final int end = segment.buffer.position();
+        if (end == segment.indexedEnd) {
+            return;
+        }
+        final File file = getIndexFile(segment.number);
+        final File temporaryFile = new File(file.getPath() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(temporaryFile, false)))) {
+            output.writeInt(INDEX_MAGIC);
+            output.writeInt(INDEX_VERSION);
+            output.writeLong(segment.getCreationTime());
+            output.writeInt(end);
+            output.writeInt(segment.highestSequence);
+            output.writeInt(segment.recordCount);
+            for (int i = 0; i < segment.recordCount * 2; i++) {
+                output.writeInt(segment.records[i]);
+            }
+        }
+        // a partially written index is never read
+        Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        segment.indexedEnd = end;
+    }
+
+    /**
+     * Adds the records of a segment behind the given offset to the message index.
+     *
+     * @return the position behind the last complete record
+     */
+    private int scanSegment(Segment segment, int offset) throws IOException {
+        final ByteBuffer buffer = segment.buffer;
+        while (offset <= buffer.capacity() - RECORD_HEADER_SIZE) {
+            final int recordLength = buffer.getInt(offset);
+            if (recordLength < RECORD_HEADER_SIZE || recordLength > buffer.capacity() - offset) {
+                // end of data or a record which was not completely written
+                break;
+            }
+            indexRecord(segment, buffer.getInt(offset + 4), offset);
+            offset += recordLength;
+        }
+        return offset;
+    }
+
+    private void indexRecord(Segment segment, int sequence, int offset) throws IOException {
+        messageIndex.put(sequence, position(segment.number, offset));
+        segment.lowestSequence = Math.min(segment.lowestSequence, sequence);
+        segment.highestSequence = Math.max(segment.highestSequence, sequence);
+        segment.addRecord(sequence, offset);
+    }
+
+    private int[] getSegmentNumbers() {
+        return getFileNumbers(segmentFilePrefix);
+    }
+
+    private int[] getFileNumbers(String filePrefix) {
+        final String prefix = new File(filePrefix).getName();
+        final String[] names = directory.list((dir, name) -> name.startsWith(prefix));
+        if (names == null) {
+            return new int[0];
+        }
+        final List<Integer> numbers = new ArrayList<>();
+        for (String name : names) {
+            try {
+                numbers.add(Integer.parseInt(name.substring(prefix.length())));
+            } catch (NumberFormatException e) {
+                // not a segment
+            }
+        }
+        return numbers.stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    private int getLastSegmentNumber() {
+        return getFirstSegmentNumber() + segments.size() - 1;
+    }
+
+    private int getFirstSegmentNumber() {
+        return segments.get(0).number;
+    }
+
+    private static MappedByteBuffer map(File file, int minimumSize) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            if (randomAccessFile.length() < minimumSize) {
+                randomAccessFile.setLength(minimumSize);
+            }
+            // the mapping stays valid after the channel is closed
+            return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0,
+                    randomAccessFile.length());
+        }
+    }
+
+    private File getSegmentFile(int segment) {
+        return new File(segmentFilePrefix + String.format("%06d", segment));
+    }
+
+    private File getIndexFile(int segment) {
+        return new File(indexFilePrefix + String.format("%06d", segment));
+    }
+
+    private void initializeSessionCreateTime() throws IOException {
+        final File sessionTimeFile = new File(sessionFileName);
+        if (sessionTimeFile.exists() && sessionTimeFile.length() > 0) {
+            try (DataInputStream sessionTimeInput = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(sessionTimeFile)))) {
+                final Calendar c = SystemTime.getUtcCalendar(UtcTimestampConverter
+                        .convert(sessionTimeInput.readUTF()));
+                cache.setCreationTime(c);
+            } catch (final Exception e) {
+                throw new IOException(e.getMessage());
+            }
+        } else {
+            storeSessionTimeStamp();
+        }
+    }
+
+    private void storeSessionTimeStamp() throws IOException {
+        try (DataOutputStream sessionTimeOutput = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(sessionFileName, false)))) {
+            final Date date = SystemTime.getDate();
+            cache.setCreationTime(SystemTime.getUtcCalendar(date));
+            sessionTimeOutput.writeUTF(UtcTimestampConverter.convert(date, true));
+        }
+    }
+
+    /**
+     * Writes the index file of the current segment and unmaps the store's files.
+     * Changes which were not synced are written back to the files by the operating
+     * system. The store must not be used by another thread while it is closed.
+     *
+     * @throws IOException if the index file could not be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (currentSegment != null) {
+                writeIndex(currentSegment);
+            }
+        } finally {
+            for (Segment segment : segments) {
+                if (segment != null) {
+                    unmap(segment.buffer);
+                }
+            }
+            if (sequenceNumbers != null) {
+                unmap(sequenceNumbers);
+            }
+            segments.clear();
+            currentSegment = null;
+            sequenceNumbers = null;
+        }
+    }
+
+    public synchronized void closeAndDeleteFiles() throws IOException {
+        close();
+        for (int number : getSegmentNumbers()) {
+            deleteFile(getSegmentFile(number));
+        }
+        for (int number : getFileNumbers(indexFilePrefix)) {
+            deleteFile(getIndexFile(number));
+        }
+        deleteFile(new File(seqNumsFileName));
+        deleteFile(new File(sessionFileName));
+    }
+
+    private static void deleteFile(File file) {
+        if (file.exists() && !file.delete()) {
+            LOG.warn("File delete failed: {}", file);
+        }
+    }
+
+    @Override
+    public synchronized Date getCreationTime() throws IOException {
+        return cache.getCreationTime();
+    }
+
+    @Override
+    public synchronized Calendar getCreationTimeCalendar() throws IOException {
+        return cache.getCreationTimeCalendar();
+    }
+
+    @Override
+    public synchronized int getNextSenderMsgSeqNum() throws IOException {
+        return cache.getNextSenderMsgSeqNum();
+    }
+
+    @Override
+    public synchronized int getNextTargetMsgSeqNum() throws IOException {
+        return cache.getNextTargetMsgSeqNum();
+    }
+
+    @Override
+    public synchronized void setNextSenderMsgSeqNum(int next) throws IOException {
+        cache.setNextSenderMsgSeqNum(next);
+        storeSequenceNumbers();
+    }
+
+    @Override
+    public synchronized void setNextTargetMsgSeqNum(int next) throws IOException {
+        cache.setNextTargetMsgSeqNum(next);
+        storeSequenceNumbers();
+    }
+
+    @Override
+    public synchronized void incrNextSenderMsgSeqNum() throws IOException {
+        cache.incrNextSenderMsgSeqNum();
+        storeSequenceNumbers();
+    }
+
+    @Override
+    public synchronized void incrNextTargetMsgSeqNum() throws IOException {
+        cache.incrNextTargetMsgSeqNum();
+        storeSequenceNumbers();
+    }
+
+    private void storeSequenceNumbers() throws IOException {
+        sequenceNumbers.putInt(0, cache.getNextSenderMsgSeqNum());
+        sequenceNumbers.putInt(4, cache.getNextTargetMsgSeqNum());
+        if (syncWrites) {
+            sequenceNumbers.force();
+        }
+    }
+
+    @Override
+    public synchronized void get(int startSequence, int endSequence, Collection<String> messages)
+            throws IOException {
+        final int first = Math.max(startSequence, messageIndex.getLowest());
+        final int last = Math.min(endSequence, messageIndex.getHighest());
+        for (int sequence = first; sequence <= last && sequence >= first; sequence++) {
+            final long position = messageIndex.get(sequence);
+            if (position != 0) {
+                messages.add(getMessage(position));
+            }
+        }
+    }
+
+    /**
+     * Copies each message into a buffer which is reused for the whole range. The
+     * lock is only held while a message is copied, the visitor may store messages.
+     */
+    @Override
+    public void get(int startSequence, int endSequence, StoredMessageVisitor visitor)
+            throws IOException {
+        final int first;
+        final int last;
+        synchronized (this) {
+            first = Math.max(startSequence, messageIndex.getLowest());
+            last = Math.min(endSequence, messageIndex.getHighest());
+        }
+        byte[] data = new byte[1024];
+        for (int sequence = first; sequence <= last && sequence >= first; sequence++) {
+            final int length;
+            synchronized (this) {
+                final long position = messageIndex.get(sequence);
+                if (position == 0) {
+                    // not stored or removed meanwhile
+                    continue;
+                }
+                final ByteBuffer segment = getSegmentBuffer(position);
+                length = segment.getInt(offset(position)) - RECORD_HEADER_SIZE;
+                if (length > data.length) {
+                    data = new byte[Math.max(length, data.length * 2)];
+                }
+                segment.get(data, 0, length);
+            }
+            if (!visitor.visit(data, 0, length)) {
+                return;
+            }
+        }
+    }
+
+    private String getMessage(long position) {
+        final ByteBuffer segment = getSegmentBuffer(position);
+        final byte[] data = new byte[segment.getInt(offset(position)) - RECORD_HEADER_SIZE];
+        segment.get(data);
+        return new String(data, CharsetSupport.getCharsetInstance());
+    }
+
+    /**
+     * @return a view of the segment positioned at the message data of the record
+     */
+    private ByteBuffer getSegmentBuffer(long position) {
+        final ByteBuffer segment = segments.get(segment(position) - getFirstSegmentNumber()).buffer.duplicate();
+        segment.position(offset(position) + RECORD_HEADER_SIZE);
+        return segment;
+    }
+
+    @Override
+    public synchronized boolean set(int sequence, String message) throws IOException {
+        final byte[] data = CharsetSupport.isStringEquivalent()
+                ? null
+                : message.getBytes(CharsetSupport.getCharsetInstance());
+        final int length = data == null ? message.length() : data.length;
+        final int recordLength = RECORD_HEADER_SIZE + length;
+        final boolean newSegment = currentSegment == null || currentSegment.buffer.remaining() < recordLength
+                || rollIntervalMillis > 0
+                && SystemTime.currentTimeMillis() - currentSegment.getCreationTime() >= rollIntervalMillis;
+        if (newSegment) {
+            addSegment(recordLength);
+        }
+        final MappedByteBuffer segment = currentSegment.buffer;
+        final int offset = segment.position();
+        segment.position(offset + RECORD_HEADER_SIZE);
+        if (data == null) {
+            for (int i = 0; i < length; i++) {
+                segment.put((byte) message.charAt(i));
+            }
+        } else {
+            segment.put(data);
+        }
+        segment.putInt(offset + 4, sequence);
+        // the length is written last, it marks the record as complete
+        segment.putInt(offset, recordLength);
+        indexRecord(currentSegment, sequence, offset);
+        if (syncWrites) {
+            segment.force();
+        }
+        if (newSegment) {
+            removeExpiredSegments();
+        }
+        return true;
+    }
+
+    private void addSegment(int recordLength) throws IOException {
+        if (currentSegment != null) {
+            // the segment is complete, its records are only read from the index file from now on
+            writeIndex(currentSegment);
+            currentSegment.records = null;
+        }
+        final int number = nextSegmentNumber++;
+        final File file = getSegmentFile(number);
+        final MappedByteBuffer buffer = map(file, Math.max(segmentSize, SEGMENT_HEADER_SIZE + recordLength));
+        buffer.putInt(0, SEGMENT_MAGIC);
+        buffer.putInt(4, SEGMENT_VERSION);
+        buffer.putLong(8, SystemTime.currentTimeMillis());
+        buffer.position(SEGMENT_HEADER_SIZE);
+        currentSegment = new Segment(number, file, buffer);
+        segments.add(currentSegment);
+    }
+
+    /**
+     * Removes the oldest segments if all their messages are outside the retention
+     * window. The files are deleted or archived by the cleanup executor. Called
+     * while holding the store lock, so no reader copies from a buffer being unmapped.
+     */
+    private void removeExpiredSegments() {
+        if (retainedMessages <= 0 || segments.isEmpty()) {
+            return;
+        }
+        final long lowestRetained = (long) messageIndex.getHighest() - retainedMessages + 1;
+        while (segments.size() > 1) {
+            final Segment segment = segments.get(0);
+            if (segment != null) {
+                if (segment.highestSequence >= lowestRetained) {
+                    break;
+                }
+                removeFromIndex(segment);
+                // released before the cleanup, a mapped file cannot be deleted on Windows
+                unmap(segment.buffer);
+                removeSegmentFiles(segment.number);
+            }
+            segments.remove(0);
+        }
+        messageIndex.trim();
+    }
+
+    /**
+     * Removes the records of a segment from the message index without reading the
+     * segment, its records are the indexed positions in the segment.
+     */
+    private void removeFromIndex(Segment segment) {
+        final long first = Math.max(segment.lowestSequence, messageIndex.getLowest());
+        final long last = Math.min(segment.highestSequence, messageIndex.getHighest());
+        for (long sequence = first; sequence <= last; sequence++) {
+            // the sequence number may have been stored again in a later segment
+            if (segment(messageIndex.get((int) sequence)) == segment.number) {
+                messageIndex.remove((int) sequence);
+            }
+        }
+    }
+
+    private void removeSegmentFiles(int number) {
+        final File file = getSegmentFile(number);
+        final File indexFile = getIndexFile(number);
+        cleanupExecutor.execute(() -> {
+            removeSegmentFile(file);
+            removeSegmentFile(indexFile);
+        });
+    }
+
+    private void removeSegmentFile(File file) {
+        if (archiveDirectory == null) {
+            deleteFile(file);
+            return;
+        }
+        try {
+            if (file.exists()) {
+                Files.createDirectories(archiveDirectory.toPath());
+                Files.move(file.toPath(), new File(archiveDirectory, file.getName()).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LOG.error("Archiving message store segment file {} failed", file, e);
+        }
+    }
+
+    private static long position(int segment, int offset) {
+        return (long) segment << 32 | offset;
+    }
+
+    private static int segment(long position) {
+        return (int) (position >>> 32);
+    }
+
+    private static int offset(long position) {
+        return (int) position;
+    }
+
+    @Override
+    public void refresh() throws IOException {
+        initialize(false);
+    }
+
+    @Override
+    public void reset() throws IOException {
+        initialize(true);
+    }
+
+    private static final class Segment {
+        private final int number;
+        private final File file;
+        private final MappedByteBuffer buffer;
+        private int lowestSequence = Integer.MAX_VALUE;
+        private int highestSequence = Integer.MIN_VALUE;
+        // sequence number and offset of each record until the segment is complete
+        private int[] records;
+        private int recordCount;
+        // end of the records in the index file
+        private int indexedEnd;
+
+        Segment(int number, File file, MappedByteBuffer buffer) {
+            this.number = number;
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        long getCreationTime() {
+            return buffer.getLong(8);
+        }
+
+        void addRecord(int sequence, int offset) {
+            if (records == null) {
+                records = new int[128];
+            } else if (recordCount * 2 == records.length) {
+                records = Arrays.copyOf(records, records.length * 2);
+            }
+            records[recordCount * 2] = sequence;
+            records[recordCount * 2 + 1] = offset;
+            recordCount++;
+        }
+    }
+
+    /**
+     * Maps sequence numbers to record positions. Outgoing sequence numbers are
+     * contiguous, so the positions are kept in an array indexed by the distance
+     * from the lowest stored sequence number. A position of zero marks a missing
+     * message, records never start at offset zero because of the segment header.
+     */
+    private static final class SequenceIndex {
+        private static final int INITIAL_CAPACITY = 1024;
+        private static final int MAX_CAPACITY = 1 << 26;
+
+        private long[] positions = new long[0];
+        private int base;
+        private int lowest = Integer.MAX_VALUE;
+        private int highest = Integer.MIN_VALUE;
+
+        void put(int sequence, long position) throws IOException {
+            if (positions.length == 0) {
+                positions = new long[INITIAL_CAPACITY];
+                base = sequence;
+            } else if (sequence < base || (long) sequence - base >= positions.length) {
+                grow(sequence);
+            }
+            positions[sequence - base] = position;
+            lowest = Math.min(lowest, sequence);
+            highest = Math.max(highest, sequence);
+        }
+
+        private void grow(int sequence) throws IOException {
+            final long newBase = Math.min(base, sequence);
+            final long span = Math.max((long) base + positions.length - 1, sequence) - newBase + 1;
+            if (span > MAX_CAPACITY) {
+                throw new IOException("Sequence number " + sequence
+                        + " is too far from the stored sequence numbers " + lowest + ".." + highest);
+            }
+            final long[] grown = new long[(int) Math.min(MAX_CAPACITY,
+                    Math.max(span, positions.length * 2L))];
+            System.arraycopy(positions, 0, grown, (int) (base - newBase), positions.length);
+            positions = grown;
+            base = (int) newBase;
+        }
+
+        long get(int sequence) {
+            final long index = (long) sequence - base;
+            return index >= 0 && index < positions.length ? positions[(int) index] : 0;
+        }
+
+        void remove(int sequence) {
+            final long index = (long) sequence - base;
+            if (index >= 0 && index < positions.length) {
+                positions[(int) index] = 0;
+            }
+        }
+
+        /**
+         * Moves the lowest sequence number up to the lowest stored message and
+         * shrinks the array if most of it is unused.
+         */
+        void trim() {
+            while (lowest <= highest && get(lowest) == 0) {
+                lowest++;
+            }
+            if (lowest > highest) {
+                clear();
+            } else if (lowest - base > positions.length / 2) {
+                final int span = highest - lowest + 1;
+                final long[] trimmed = new long[Math.max(INITIAL_CAPACITY, span * 2)];
+                System.arraycopy(positions, lowest - base, trimmed, 0, span);
+                positions = trimmed;
+                base = lowest;
+            }
+        }
+
+        int getLowest() {
+            return lowest;
+        }
+
+        int getHighest() {
+            return highest;
+        }
+
+        void clear() {
+            positions = new long[0];
+            lowest = Integer.MAX_VALUE;
+            highest = Integer.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Unmaps a buffer instead of waiting for it to be garbage collected, so its
+     * file is released right away and can be deleted, which Windows does not allow
+     * for mapped files. The buffer must not be accessed afterwards. If the JVM does
+     * not allow unmapping buffers, the mapping is released by the garbage collector.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        if (UNMAPPER == null) {
+            return;
+        }
+        try {
+            UNMAPPER.unmap(buffer);
+        } catch (Exception e) {
+            LOG.debug("Could not unmap message store buffer", e);
+        }
+    }
+
+    private interface Unmapper {
+        void unmap(ByteBuffer buffer) throws Exception;
+    }
+
+    private static Unmapper createUnmapper() {
+        try {
+            // Java 9 and later
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            final Object unsafe = theUnsafe.get(null);
+            return buffer -> invokeCleaner.invoke(unsafe, buffer);
+        } catch (Exception e) {
+            // Java 8
+        }
+        try {
+            final Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            final Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+            return buffer -> {
+                final Object bufferCleaner = cleaner.invoke(buffer);
+                if (bufferCleaner != null) {
+                    clean.invoke(bufferCleaner);
+                }
+            };
+        } catch (Exception e) {
+            LOG.debug("Unmapping message store buffers is not supported", e);
+            return null;
+        }
+    }
+}
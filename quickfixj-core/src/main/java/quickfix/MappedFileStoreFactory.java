@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+
+package quickfix;
+
+import java.io.File;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates a message store that appends messages to memory-mapped files. The
+ * directory is configured with the {@link #SETTING_FILE_STORE_PATH} setting.
+ *
+ * @see quickfix.MappedFileStore
+ */
+public class MappedFileStoreFactory extends FileStoreFactory {
+
+    /**
+     * Size in bytes of the memory-mapped segment files. A new segment is
+     * allocated when a message no longer fits into the current segment.
+     */
+    public static final String SETTING_MAPPED_FILE_STORE_SEGMENT_SIZE = "MappedFileStoreSegmentSize";
+
+    /**
+     * The default segment size of 64 MiB.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Maximum age in seconds of the current segment. A new segment is started
+     * for the next message once it is reached. Zero (the default) only starts a
+     * new segment when the current one is full.
+     */
+    public static final String SETTING_MAPPED_FILE_STORE_ROLL_INTERVAL = "MappedFileStoreRollInterval";
+
+    /**
+     * Number of most recent sequence numbers which are kept for resending. Older
+     * segments are removed from the store when a new segment is started. Zero
+     * (the default) keeps all messages.
+     */
+    public static final String SETTING_MAPPED_FILE_STORE_RETAINED_MESSAGES = "MappedFileStoreRetainedMessages";
+
+    /**
+     * Directory removed segments are moved to. If not set, removed segments are
+     * deleted.
+     */
+    public static final String SETTING_MAPPED_FILE_STORE_ARCHIVE_PATH = "MappedFileStoreArchivePath";
+
+    // deletes or archives removed segments of the factory's stores
+    private final Executor cleanupExecutor = createCleanupExecutor();
+
+    /**
+     * Create the factory with configuration in session settings.
+     *
+     * @param settings
+     */
+    public MappedFileStoreFactory(SessionSettings settings) {
+        super(settings);
+    }
+
+    /**
+     * Creates a memory-mapped file message store.
+     *
+     * @param sessionID session ID for the message store.
+     */
+    public MessageStore create(SessionID sessionID) {
+        try {
+            boolean syncWrites = false;
+            if (settings.isSetting(sessionID, SETTING_FILE_STORE_SYNC)) {
+                syncWrites = settings.getBool(sessionID, SETTING_FILE_STORE_SYNC);
+            }
+            int segmentSize = DEFAULT_SEGMENT_SIZE;
+            if (settings.isSetting(sessionID, SETTING_MAPPED_FILE_STORE_SEGMENT_SIZE)) {
+                segmentSize = settings.getInt(sessionID, SETTING_MAPPED_FILE_STORE_SEGMENT_SIZE);
+            }
+            long rollInterval = 0;
+            if (settings.isSetting(sessionID, SETTING_MAPPED_FILE_STORE_ROLL_INTERVAL)) {
+                rollInterval = settings.getLong(sessionID, SETTING_MAPPED_FILE_STORE_ROLL_INTERVAL);
+            }
+            int retainedMessages = 0;
+            if (settings.isSetting(sessionID, SETTING_MAPPED_FILE_STORE_RETAINED_MESSAGES)) {
+                retainedMessages = settings.getInt(sessionID, SETTING_MAPPED_FILE_STORE_RETAINED_MESSAGES);
+            }
+            File archiveDirectory = null;
+            if (settings.isSetting(sessionID, SETTING_MAPPED_FILE_STORE_ARCHIVE_PATH)) {
+                archiveDirectory = new File(settings.getString(sessionID, SETTING_MAPPED_FILE_STORE_ARCHIVE_PATH));
+            }
+            return new MappedFileStore(settings.getString(sessionID, SETTING_FILE_STORE_PATH), sessionID,
+                    segmentSize, syncWrites, TimeUnit.SECONDS.toMillis(rollInterval), retainedMessages,
+                    archiveDirectory, cleanupExecutor);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Executor createCleanupExecutor() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 10, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    final Thread thread = new Thread(r, "QFJ Store Cleanup");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // the thread ends when there is nothing to clean up, so the executor needs no shutdown
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -19,6 +19,7 @@
 
 package quickfix;
 
+import org.quickfixj.CharsetSupport;
 import quickfix.field.ApplVerID;
 import quickfix.field.BeginString;
 import quickfix.field.DefaultApplVerID;
@@ -36,6 +37,54 @@ public class MessageSessionUtils {
     public static Message parse(Session session, String messageString) throws InvalidMessage {
         final String beginString = MessageUtils.getStringField(messageString, BeginString.FIELD);
         final String msgType = MessageUtils.getMessageType(messageString);
+        return parse(session, beginString, msgType, new FieldLookup() {
+            @Override
+            public String getStringField(int tag) {
+                return MessageUtils.getStringField(messageString, tag);
+            }
+
+            @Override
+            public String getMessageString() {
+                return messageString;
+            }
+        }, (message, sessionDataDictionary, payloadDictionary, validationSettings, doValidation, validateChecksum) ->
+                message.parse(messageString, sessionDataDictionary, payloadDictionary, validationSettings,
+                        doValidation, validateChecksum));
+    }
+
+    /**
+     * NOTE: This method is intended for internal use.
+     *
+     * Parses a message straight from the bytes of a received frame, see
+     * {@link Message#fromBytes(byte[], int, int, DataDictionary, DataDictionary, ValidationSettings, boolean, boolean)}.
+     *
+     * @param session the Session that will process the message
+     * @param data the buffer containing the message
+     * @param offset the offset of the message within the buffer
+     * @param length the length of the message in bytes
+     * @return the parsed message
+     * @throws InvalidMessage
+     */
+    public static Message parse(Session session, byte[] data, int offset, int length) throws InvalidMessage {
+        final String beginString = MessageUtils.getStringField(data, offset, length, BeginString.FIELD);
+        final String msgType = MessageUtils.getMessageType(data, offset, length);
+        return parse(session, beginString, msgType, new FieldLookup() {
+            @Override
+            public String getStringField(int tag) {
+                return MessageUtils.getStringField(data, offset, length, tag);
+            }
+
+            @Override
+            public String getMessageString() {
+                return new String(data, offset, length, CharsetSupport.getCharsetInstance());
+            }
+        }, (message, sessionDataDictionary, payloadDictionary, validationSettings, doValidation, validateChecksum) ->
+                message.parse(data, offset, length, sessionDataDictionary, payloadDictionary, validationSettings,
+                        doValidation, validateChecksum));
+    }
+
+    private static Message parse(Session session, String beginString, String msgType, FieldLookup fieldLookup,
+            MessageParser parser) throws InvalidMessage {
         final boolean isLogon = MessageUtils.isLogonMsgType(msgType);
         final MessageFactory messageFactory = session.getMessageFactory();
         final DataDictionaryProvider ddProvider = session.getDataDictionaryProvider();
@@ -48,7 +97,7 @@ public class MessageSessionUtils {
 
         if (!MessageUtils.isAdminMessage(msgType) || isLogon) {
             if (FixVersions.BEGINSTRING_FIXT11.equals(beginString)) {
-                applVerID = getApplVerID(session, messageString, isLogon);
+                applVerID = getApplVerID(session, fieldLookup, isLogon);
             } else {
                 applVerID = MessageUtils.toApplVerID(beginString);
             }
@@ -69,17 +118,17 @@ public class MessageSessionUtils {
         final boolean validateChecksum = session.isValidateChecksum();
 
         message = messageFactory.create(beginString, applVerID, msgType);
-        message.parse(messageString, sessionDataDictionary, payloadDictionary, validationSettings, doValidation,
+        parser.parse(message, sessionDataDictionary, payloadDictionary, validationSettings, doValidation,
                 validateChecksum);
 
         return message;
     }
 
-    private static ApplVerID getApplVerID(Session session, String messageString, boolean isLogon)
+    private static ApplVerID getApplVerID(Session session, FieldLookup fieldLookup, boolean isLogon)
             throws InvalidMessage {
         ApplVerID applVerID = null;
 
-        final String applVerIdString = MessageUtils.getStringField(messageString, ApplVerID.FIELD);
+        final String applVerIdString = fieldLookup.getStringField(ApplVerID.FIELD);
         if (applVerIdString != null) {
             applVerID = new ApplVerID(applVerIdString);
         }
@@ -89,17 +138,30 @@ public class MessageSessionUtils {
         }
 
         if (applVerID == null && isLogon) {
-            final String defaultApplVerIdString = MessageUtils.getStringField(messageString,
-                    DefaultApplVerID.FIELD);
+            final String defaultApplVerIdString = fieldLookup.getStringField(DefaultApplVerID.FIELD);
             if (defaultApplVerIdString != null) {
                 applVerID = new ApplVerID(defaultApplVerIdString);
             }
         }
 
         if (applVerID == null) {
+            final String messageString = fieldLookup.getMessageString();
             throw MessageUtils.newInvalidMessageException("Can't determine ApplVerID from message " + messageString, MessageUtils.getMinimalMessage(messageString));
         }
 
         return applVerID;
     }
+
+    private interface FieldLookup {
+        String getStringField(int tag);
+
+        String getMessageString();
+    }
+
+    @FunctionalInterface
+    private interface MessageParser {
+        void parse(Message message, DataDictionary sessionDataDictionary, DataDictionary payloadDictionary,
+                ValidationSettings validationSettings, boolean doValidation, boolean validateChecksum)
+                throws InvalidMessage;
+    }
 }
@@ -19,6 +19,9 @@
 
 package quickfix;
 
+import org.quickfixj.CharsetSupport;
+
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
@@ -54,6 +57,30 @@ public interface MessageStore {
      */
     void get(int startSequence, int endSequence, Collection<String> messages) throws IOException;
 
+    /**
+     * Get messages within sequence number range (inclusive) one at a time, without
+     * retrieving the whole range first. Used for message resend requests.
+     * <p>
+     * The default implementation retrieves the range with
+     * {@link #get(int, int, Collection)}. Stores which can read their messages
+     * incrementally should override it.
+     *
+     * @param startSequence the starting message sequence number.
+     * @param endSequence the ending message sequence number.
+     * @param visitor receives the retrieved messages
+     * @throws IOException IO error
+     */
+    default void get(int startSequence, int endSequence, StoredMessageVisitor visitor) throws IOException {
+        final ArrayList<String> messages = new ArrayList<>();
+        get(startSequence, endSequence, messages);
+        for (String message : messages) {
+            final byte[] data = message.getBytes(CharsetSupport.getCharsetInstance());
+            if (!visitor.visit(data, 0, data.length)) {
+                return;
+            }
+        }
+    }
+
     int getNextSenderMsgSeqNum() throws IOException;
 
     int getNextTargetMsgSeqNum() throws IOException;
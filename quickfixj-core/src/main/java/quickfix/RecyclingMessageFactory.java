@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+package quickfix;
+
+import quickfix.field.ApplVerID;
+import quickfix.field.BeginString;
+import quickfix.field.MsgType;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A message factory which reuses received messages instead of allocating a new
+ * message for every message received by a session.
+ * <p>
+ * Message creation is delegated to another factory. Messages handed back by the
+ * session via {@link #release(Message)} are cleared and kept in a bounded pool per
+ * message class, from which later calls to {@link #create(String, ApplVerID, String)}
+ * are served.
+ * <p>
+ * A session releases a received message as soon as <code>fromAdmin</code> or
+ * <code>fromApp</code> has returned. Applications which keep a reference to a
+ * received message beyond the callback must either call {@link Message#retain()}
+ * on it or work on a copy created with {@link Message#clone()}.
+ */
+public class RecyclingMessageFactory implements MessageFactory {
+
+    /**
+     * The default number of messages pooled per message class.
+     */
+    public static final int DEFAULT_POOL_SIZE = 64;
+
+    private static final String NO_APPL_VER_ID = "";
+
+    private final MessageFactory delegate;
+    private final int poolSize;
+    // beginString -> ApplVerID -> MsgType -> template
+    private final Map<String, Map<String, Map<String, Template>>> templates = new ConcurrentHashMap<>();
+    private final Map<Class<?>, BlockingQueue<Message>> pools = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a recycling factory which delegates to a {@link DefaultMessageFactory}.
+     */
+    public RecyclingMessageFactory() {
+        this(new DefaultMessageFactory());
+    }
+
+    /**
+     * Creates a recycling factory which delegates to the given factory.
+     *
+     * @param delegate the factory creating new messages
+     */
+    public RecyclingMessageFactory(MessageFactory delegate) {
+        this(delegate, DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * Creates a recycling factory which delegates to the given factory.
+     *
+     * @param delegate the factory creating new messages
+     * @param poolSize the maximum number of messages pooled per message class
+     */
+    public RecyclingMessageFactory(MessageFactory delegate, int poolSize) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("poolSize must be positive: " + poolSize);
+        }
+        this.poolSize = poolSize;
+    }
+
+    @Override
+    public Message create(String beginString, String msgType) {
+        return create(beginString, null, msgType);
+    }
+
+    @Override
+    public Message create(String beginString, ApplVerID applVerID, String msgType) {
+        final Map<String, Template> templatesByMsgType = getOrCreate(getOrCreate(templates, beginString),
+                applVerID != null ? applVerID.getValue() : NO_APPL_VER_ID);
+        final Template template = templatesByMsgType.get(msgType);
+        if (template != null) {
+            final Message message = template.pool.poll();
+            if (message != null) {
+                if (template.beginString != null) {
+                    message.getHeader().setString(BeginString.FIELD, template.beginString);
+                }
+                message.getHeader().setString(MsgType.FIELD, msgType);
+                return message;
+            }
+            return newMessage(beginString, applVerID, msgType);
+        }
+        final Message message = newMessage(beginString, applVerID, msgType);
+        templatesByMsgType.put(msgType, new Template(message, pools.computeIfAbsent(message.getClass(),
+                k -> new ArrayBlockingQueue<>(poolSize))));
+        return message;
+    }
+
+    private static <V> Map<String, V> getOrCreate(Map<String, Map<String, V>> map, String key) {
+        // avoid locking in computeIfAbsent when the entry exists
+        final Map<String, V> value = map.get(key);
+        return value != null ? value : map.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+    }
+
+    private Message newMessage(String beginString, ApplVerID applVerID, String msgType) {
+        return applVerID != null
+                ? delegate.create(beginString, applVerID, msgType)
+                : delegate.create(beginString, msgType);
+    }
+
+    @Override
+    public Group create(String beginString, String msgType, int correspondingFieldID) {
+        return delegate.create(beginString, msgType, correspondingFieldID);
+    }
+
+    /**
+     * Clears the message and pools it for reuse. Retained messages and messages
+     * of a class not created by this factory are ignored, as are messages which
+     * exceed the pool size.
+     *
+     * @param message the processed message
+     */
+    @Override
+    public void release(Message message) {
+        if (message.isRetained()) {
+            return;
+        }
+        final BlockingQueue<Message> pool = pools.get(message.getClass());
+        if (pool != null && pool.remainingCapacity() > 0) {
+            message.clear();
+            pool.offer(message);
+        }
+    }
+
+    /**
+     * Returns the number of pooled messages of the given class.
+     *
+     * @param messageClass the message class
+     * @return the number of messages available for reuse
+     */
+    public int getPooledCount(Class<? extends Message> messageClass) {
+        final BlockingQueue<Message> pool = pools.get(messageClass);
+        return pool != null ? pool.size() : 0;
+    }
+
+    private static final class Template {
+        private final String beginString;
+        private final BlockingQueue<Message> pool;
+
+        Template(Message message, BlockingQueue<Message> pool) {
+            String beginString = null;
+            try {
+                beginString = message.getHeader().getString(BeginString.FIELD);
+            } catch (FieldNotFound e) {
+                // not set by the delegate factory
+            }
+            this.beginString = beginString;
+            this.pool = pool;
+        }
+    }
+}
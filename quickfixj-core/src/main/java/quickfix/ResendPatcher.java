@@ -0,0 +1,265 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+
+package quickfix;
+
+import org.quickfixj.CharsetSupport;
+import quickfix.field.BeginString;
+import quickfix.field.BodyLength;
+import quickfix.field.MsgSeqNum;
+import quickfix.field.MsgType;
+import quickfix.field.OrigSendingTime;
+import quickfix.field.PossDupFlag;
+import quickfix.field.SendingTime;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Prepares a stored message for a resend without parsing it into a {@link Message}.
+ * <p>
+ * The header of the raw message is scanned once to find the MsgType, MsgSeqNum and
+ * SendingTime fields. The resent message is then built from the stored bytes with
+ * PossDupFlag set, OrigSendingTime set to the original SendingTime and a new
+ * SendingTime, and with BodyLength and CheckSum recomputed.
+ * <p>
+ * Messages whose header cannot be handled this way, e.g. because it contains a
+ * data field, are rejected by {@link #scan(byte[], int, int)} and have to be parsed.
+ */
+final class ResendPatcher {
+
+    private static final byte SOH = '\001';
+    private static final byte[] POSS_DUP_FLAG = ("" + PossDupFlag.FIELD + "=Y\001").getBytes(StandardCharsets.US_ASCII);
+
+    private final DataDictionary sessionDataDictionary;
+    private byte[] buffer = new byte[1024];
+
+    // layout of the scanned message
+    private byte[] data;
+    private int beginStringStart;
+    private int beginStringEnd;
+    private int bodyStart;
+    private int checksumStart;
+    private int sendingTimeStart;
+    private int sendingTimeValueStart;
+    private int sendingTimeEnd;
+    private int possDupFlagStart;
+    private int possDupFlagEnd;
+    private int origSendingTimeStart;
+    private int origSendingTimeEnd;
+    private String msgType;
+    private int msgSeqNum;
+
+    /**
+     * @param sessionDataDictionary the dictionary defining the header fields
+     */
+    ResendPatcher(DataDictionary sessionDataDictionary) {
+        this.sessionDataDictionary = sessionDataDictionary;
+    }
+
+    /**
+     * Locates the header fields of a stored message.
+     *
+     * @return true if the message can be patched, false if it has to be parsed
+     */
+    boolean scan(byte[] data, int offset, int length) {
+        this.data = data;
+        beginStringStart = offset;
+        final int end = offset + length;
+        // the message has to end with 10=nnn<SOH>
+        checksumStart = end - 7;
+        if (checksumStart <= offset || data[checksumStart - 1] != SOH || data[checksumStart] != '1'
+                || data[checksumStart + 1] != '0' || data[checksumStart + 2] != '=' || data[end - 1] != SOH) {
+            return false;
+        }
+        sendingTimeStart = -1;
+        possDupFlagStart = -1;
+        origSendingTimeStart = -1;
+        msgType = null;
+        msgSeqNum = 0;
+
+        int fieldStart = offset;
+        for (int index = 0; fieldStart < checksumStart; index++) {
+            int position = fieldStart;
+            int tag = 0;
+            while (position < checksumStart && data[position] >= '0' && data[position] <= '9') {
+                tag = tag * 10 + data[position++] - '0';
+            }
+            if (position == fieldStart || position >= checksumStart || data[position] != '=') {
+                return false;
+            }
+            final int valueStart = position + 1;
+            int valueEnd = valueStart;
+            while (valueEnd < checksumStart && data[valueEnd] != SOH) {
+                valueEnd++;
+            }
+            if (valueEnd == checksumStart) {
+                return false;
+            }
+            final int fieldEnd = valueEnd + 1;
+
+            if (index == 0 ? tag != BeginString.FIELD : index == 1 ? tag != BodyLength.FIELD
+                    : index == 2 && tag != MsgType.FIELD) {
+                return false;
+            }
+            if (index == 2) {
+                msgType = new String(data, valueStart, valueEnd - valueStart, StandardCharsets.US_ASCII);
+            } else if (index > 2) {
+                if (!sessionDataDictionary.isHeaderField(tag)) {
+                    break;
+                }
+                if (sessionDataDictionary.getFieldType(tag) == FieldType.LENGTH) {
+                    // the following data field may contain field delimiters
+                    return false;
+                }
+                switch (tag) {
+                case MsgSeqNum.FIELD:
+                    msgSeqNum = parseInt(data, valueStart, valueEnd);
+                    break;
+                case SendingTime.FIELD:
+                    sendingTimeStart = fieldStart;
+                    sendingTimeValueStart = valueStart;
+                    sendingTimeEnd = fieldEnd;
+                    break;
+                case PossDupFlag.FIELD:
+                    possDupFlagStart = fieldStart;
+                    possDupFlagEnd = fieldEnd;
+                    break;
+                case OrigSendingTime.FIELD:
+                    origSendingTimeStart = fieldStart;
+                    origSendingTimeEnd = fieldEnd;
+                    break;
+                default:
+                    break;
+                }
+            } else if (index == 1) {
+                bodyStart = fieldEnd;
+            } else {
+                beginStringEnd = fieldEnd;
+            }
+            fieldStart = fieldEnd;
+        }
+        return msgType != null && msgSeqNum > 0 && sendingTimeStart >= 0;
+    }
+
+    String getMsgType() {
+        return msgType;
+    }
+
+    int getMsgSeqNum() {
+        return msgSeqNum;
+    }
+
+    /**
+     * Builds the resent version of the last scanned message.
+     *
+     * @param sendingTime the new SendingTime value
+     * @return the message to send
+     */
+    String patch(String sendingTime) {
+        final byte[] newSendingTime = (SendingTime.FIELD + "=" + sendingTime + "\001")
+                .getBytes(StandardCharsets.US_ASCII);
+        final byte[] origSendingTimeTag = (OrigSendingTime.FIELD + "=").getBytes(StandardCharsets.US_ASCII);
+        final int origSendingTimeLength = origSendingTimeTag.length + sendingTimeEnd - sendingTimeValueStart;
+
+        int bodyLength = checksumStart - bodyStart - (sendingTimeEnd - sendingTimeStart)
+                + POSS_DUP_FLAG.length + newSendingTime.length + origSendingTimeLength;
+        if (possDupFlagStart >= 0) {
+            bodyLength -= possDupFlagEnd - possDupFlagStart;
+        }
+        if (origSendingTimeStart >= 0) {
+            bodyLength -= origSendingTimeEnd - origSendingTimeStart;
+        }
+        final byte[] bodyLengthField = (BodyLength.FIELD + "=" + bodyLength + "\001")
+                .getBytes(StandardCharsets.US_ASCII);
+        final int beginStringLength = beginStringEnd - beginStringStart;
+        ensureCapacity(beginStringLength + bodyLengthField.length + bodyLength + 7);
+
+        int position = append(data, beginStringStart, beginStringLength, 0);
+        position = append(bodyLengthField, 0, bodyLengthField.length, position);
+        int source = bodyStart;
+        while (source < checksumStart) {
+            if (source == sendingTimeStart) {
+                position = append(POSS_DUP_FLAG, 0, POSS_DUP_FLAG.length, position);
+                position = append(newSendingTime, 0, newSendingTime.length, position);
+                position = append(origSendingTimeTag, 0, origSendingTimeTag.length, position);
+                position = append(data, sendingTimeValueStart, sendingTimeEnd - sendingTimeValueStart, position);
+                source = sendingTimeEnd;
+            } else if (source == possDupFlagStart) {
+                source = possDupFlagEnd;
+            } else if (source == origSendingTimeStart) {
+                source = origSendingTimeEnd;
+            } else {
+                final int next = nextSkippedField(source);
+                position = append(data, source, next - source, position);
+                source = next;
+            }
+        }
+
+        int checksum = 0;
+        for (int i = 0; i < position; i++) {
+            checksum += buffer[i] & 0xFF;
+        }
+        checksum &= 0xFF;
+        buffer[position++] = '1';
+        buffer[position++] = '0';
+        buffer[position++] = '=';
+        buffer[position++] = (byte) ('0' + checksum / 100);
+        buffer[position++] = (byte) ('0' + checksum / 10 % 10);
+        buffer[position++] = (byte) ('0' + checksum % 10);
+        buffer[position++] = SOH;
+        return new String(buffer, 0, position, CharsetSupport.getCharsetInstance());
+    }
+
+    /**
+     * @return the start of the next field which is replaced or removed, or the
+     *         start of the CheckSum field
+     */
+    private int nextSkippedField(int source) {
+        return nextField(source, nextField(source, nextField(source, checksumStart, sendingTimeStart),
+                possDupFlagStart), origSendingTimeStart);
+    }
+
+    private static int nextField(int source, int next, int start) {
+        return start > source && start < next ? start : next;
+    }
+
+    private int append(byte[] source, int offset, int length, int position) {
+        System.arraycopy(source, offset, buffer, position, length);
+        return position + length;
+    }
+
+    private void ensureCapacity(int length) {
+        if (buffer.length < length) {
+            buffer = Arrays.copyOf(buffer, Math.max(length, buffer.length * 2));
+        }
+    }
+
+    private static int parseInt(byte[] data, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            if (data[i] < '0' || data[i] > '9' || value > (Integer.MAX_VALUE - 9) / 10) {
+                return 0;
+            }
+            value = value * 10 + data[i] - '0';
+        }
+        return value;
+    }
+}
@@ -19,6 +19,8 @@
 
 package quickfix;
 
+import org.quickfixj.CharsetSupport;
+
 /**
  * Used by a Session to send raw FIX message data and to disconnect a
  * connection. This interface is used by Acceptor or Initiator implementations.
@@ -37,6 +39,21 @@ public interface Responder {
      */
     boolean send(String data);
 
+    /**
+     * Send a raw FIX message encoded with the {@link CharsetSupport#setCharset global charset}.
+     * The data is only valid during the call, an implementation which sends it
+     * asynchronously must copy it. The default implementation converts the data to
+     * a String and calls {@link #send(String)}.
+     *
+     * @param data the buffer holding the raw FIX message data
+     * @param offset the offset of the message in the buffer
+     * @param length the length of the message
+     * @return true is successful, false if send operation failed
+     */
+    default boolean send(byte[] data, int offset, int length) {
+        return send(new String(data, offset, length, CharsetSupport.getCharsetInstance()));
+    }
+
     /**
      * Disconnect the underlying connection.
      */
@@ -48,4 +65,13 @@ public interface Responder {
      * @return remote address (host:port) if connected, null if not.
      */
     String getRemoteAddress();
+
+    /**
+     * Waits until previously sent data has been written if too much data is still
+     * pending on the connection. Called between messages when many messages are
+     * sent in a row, e.g. for a resend request. The default implementation
+     * returns immediately.
+     */
+    default void awaitWritable() {
+    }
 }
@@ -129,6 +129,16 @@ public class SLF4JLog extends AbstractLog {
         log(outgoingMsgLog, message);
     }
 
+    @Override
+    public boolean isIncomingEnabled() {
+        return incomingMsgLog.isInfoEnabled();
+    }
+
+    @Override
+    public boolean isOutgoingEnabled() {
+        return outgoingMsgLog.isInfoEnabled();
+    }
+
     /**
      * Made protected to enable unit testing of callerFQCN coming through correctly
      */
@@ -19,6 +19,7 @@
 
 package quickfix;
 
+import org.quickfixj.CharsetSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import quickfix.Message.Header;
@@ -54,14 +55,19 @@ import quickfix.field.TargetLocationID;
 import quickfix.field.TargetSubID;
 import quickfix.field.TestReqID;
 import quickfix.field.Text;
+import quickfix.field.converter.UtcTimestampConverter;
 import quickfix.mina.EventHandlingStrategy;
 
 import java.io.Closeable;
+import java.io.Flushable;
 import java.io.IOException;
 import java.net.InetAddress;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -70,6 +76,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static quickfix.LogUtil.logThrowable;
 
@@ -196,6 +204,15 @@ public class Session implements Closeable {
      */
     public static final String SETTING_APP_DATA_DICTIONARY = "AppDataDictionary";
 
+    /**
+     * Session setting specifying a directory for binary snapshots of the data dictionaries.
+     * A snapshot is written when a dictionary is loaded for the first time and is used
+     * instead of the XML dictionary on later loads, as long as the XML has not changed.
+     *
+     * @see DataDictionarySnapshot
+     */
+    public static final String SETTING_DATA_DICTIONARY_SNAPSHOT_DIRECTORY = "DataDictionarySnapshotDirectory";
+
     /**
      * Default is "Y".
      * If set to N, fields that are out of order (i.e. body fields in the header, or header fields in the body) will not be rejected.
@@ -362,6 +379,13 @@ public class Session implements Closeable {
 
     public static final String SETTING_FORCE_RESEND_WHEN_CORRUPTED_STORE = "ForceResendWhenCorruptedStore";
 
+    /**
+     * Resend stored application messages by patching the header of the stored
+     * message instead of parsing it. toApp is not called for these messages.
+     * Requires a data dictionary. Valid values are "Y" or "N". Default is "N".
+     */
+    public static final String SETTING_RESEND_WITHOUT_PARSING = "ResendWithoutParsing";
+
     public static final String SETTING_ALLOWED_REMOTE_ADDRESSES = "AllowedRemoteAddresses";
 
     /**
@@ -389,6 +413,10 @@ public class Session implements Closeable {
     private static final ConcurrentMap<SessionID, Session> sessions = new ConcurrentHashMap<>();
 
     private final Application application;
+    // not null if application messages are delivered in batches
+    private final List<Message> applicationBatchBuffer;
+    // used by the thread processing received messages, not null while a batch is collected
+    private List<Message> applicationBatch;
     private final SessionID sessionID;
     private final SessionSchedule sessionSchedule;
     private final MessageFactory messageFactory;
@@ -402,10 +430,14 @@ public class Session implements Closeable {
      */
     private volatile boolean enabled;
 
-    private final Object responderLock = new Object(); // unique instance
+    // not an intrinsic lock, the responder is used while the lock is held
+    private final Lock responderLock = new ReentrantLock();
     // @GuardedBy(responderLock)
     private Responder responder;
 
+    // outgoing messages are serialized into this buffer, @GuardedBy(sender sequence number lock)
+    private ByteBuffer sendBuffer = ByteBuffer.allocate(1024);
+
     // The session time checks were causing performance problems
     // so we are checking only once per second.
     private long lastSessionTimeCheck = 0;
@@ -434,6 +466,7 @@ public class Session implements Closeable {
     private boolean rejectMessageOnUnhandledException = false;
     private boolean requiresOrigSendingTime = false;
     private boolean forceResendWhenCorruptedStore = false;
+    private boolean resendWithoutParsing = false;
     private boolean enableNextExpectedMsgSeqNum = false;
     private boolean enableLastMsgSeqNumProcessed = false;
     private boolean validateChecksum = true;
@@ -527,6 +560,7 @@ public class Session implements Closeable {
             boolean validateChecksum, List<StringField> logonTags, double heartBeatTimeoutMultiplier,
             boolean allowPossDup) {
         this.application = application;
+        this.applicationBatchBuffer = application instanceof BatchApplication ? new ArrayList<>() : null;
         this.sessionID = sessionID;
         this.sessionSchedule = sessionSchedule;
         this.checkLatency = checkLatency;
@@ -578,7 +612,7 @@ public class Session implements Closeable {
             addStateListener((SessionStateListener) messageQueue);
         }
 
-        state = new SessionState(this, engineLog, heartbeatInterval, heartbeatInterval != 0,
+        state = new SessionState(engineLog, heartbeatInterval, heartbeatInterval != 0,
             messageStore, messageQueue, testRequestDelayMultiplier, heartBeatTimeoutMultiplier);
 
         registerSession(this);
@@ -611,19 +645,25 @@ public class Session implements Closeable {
      * @param responder a responder implementation
      */
     public void setResponder(Responder responder) {
-        synchronized (responderLock) {
+        responderLock.lock();
+        try {
             this.responder = responder;
             if (responder != null) {
                 stateListener.onConnect(sessionID);
             } else {
                 stateListener.onDisconnect(sessionID);
             }
+        } finally {
+            responderLock.unlock();
         }
     }
 
     public Responder getResponder() {
-        synchronized (responderLock) {
+        responderLock.lock();
+        try {
             return responder;
+        } finally {
+            responderLock.unlock();
         }
     }
 
@@ -821,7 +861,7 @@ public class Session implements Closeable {
     }
 
     private void insertSendingTime(Message.Header header) {
-        header.setUtcTimeStamp(SendingTime.FIELD, SystemTime.getLocalDateTime(), getTimestampPrecision());
+        header.setUtcTimeStampNanos(SendingTime.FIELD, SystemTime.currentEpochNanos(), getTimestampPrecision());
     }
 
     private UtcTimestampPrecision getTimestampPrecision() {
@@ -1271,11 +1311,86 @@ public class Session implements Closeable {
     public void next(Message message) throws FieldNotFound, RejectLogon, IncorrectDataFormat,
             IncorrectTagValue, UnsupportedMessageType, IOException, InvalidMessage {
 
-        if (rejectGarbledMessage && message.isGarbled()) {
-            generateReject(message, "Message failed basic validity check");
+        final List<Message> batch = applicationBatch;
+        if (batch != null && !batch.isEmpty()
+                && (message == EventHandlingStrategy.END_OF_STREAM || message.isAdmin())) {
+            // the batch must not be overtaken by messages changing the session state
+            deliverApplicationBatch();
+        }
+        final int batchSize = batch != null ? batch.size() : 0;
+        try {
+            if (rejectGarbledMessage && message.isGarbled()) {
+                generateReject(message, "Message failed basic validity check");
+                return;
+            }
+            next(message, false);
+        } finally {
+            // a batched message is released once the batch is delivered
+            final boolean batched = batch != null && batch.size() > batchSize && batch.get(batchSize) == message;
+            if (!batched) {
+                if (batch != null && !batch.isEmpty()) {
+                    deliverApplicationBatch();
+                }
+                if (message != EventHandlingStrategy.END_OF_STREAM && !message.isRetained()) {
+                    messageFactory.release(message);
+                }
+            }
+        }
+    }
+
+    /**
+     * (Internal use only)
+     * <p>
+     * Collects the application messages passed to {@link #next(Message)} until
+     * {@link #endApplicationBatch()} is called, if the application is a
+     * {@link BatchApplication}. Called by the event handling strategies around the
+     * messages of this session taken from the queue at once.
+     */
+    public void beginApplicationBatch() {
+        if (applicationBatchBuffer != null) {
+            applicationBatch = applicationBatchBuffer;
+        }
+    }
+
+    /**
+     * (Internal use only)
+     * <p>
+     * Delivers the collected application messages to the {@link BatchApplication}.
+     *
+     * @see #beginApplicationBatch()
+     */
+    public void endApplicationBatch() {
+        if (applicationBatch != null) {
+            deliverApplicationBatch();
+            applicationBatch = null;
+        }
+    }
+
+    private void deliverApplicationBatch() {
+        final List<Message> batch = applicationBatch;
+        if (batch.isEmpty()) {
             return;
         }
-        next(message, false);
+        try {
+            ((BatchApplication) application).fromAppBatch(Collections.unmodifiableList(batch), sessionID);
+        } catch (Throwable t) {
+            int firstSeqNum = -1;
+            try {
+                firstSeqNum = batch.get(0).getHeader().getInt(MsgSeqNum.FIELD);
+                // request the messages again with the next resend request
+                state.setNextTargetMsgSeqNum(firstSeqNum);
+            } catch (FieldNotFound | IOException e) {
+                LogUtil.logThrowable(sessionID, "Error resetting target sequence number", e);
+            }
+            logApplicationException("fromAppBatch() of messages from MsgSeqNum " + firstSeqNum, t);
+        } finally {
+            for (Message message : batch) {
+                if (!message.isRetained()) {
+                    messageFactory.release(message);
+                }
+            }
+            batch.clear();
+        }
     }
 
     private boolean resetOrDisconnectIfRequired(Message msg) {
@@ -1384,8 +1499,8 @@ public class Session implements Closeable {
         return (seqNo == 0 ? "infinity" : Integer.toString(seqNo));
     }
 
-    private Message parseMessage(String messageData) throws InvalidMessage {
-        return MessageSessionUtils.parse(this, messageData);
+    private Message parseMessage(byte[] data, int offset, int length) throws InvalidMessage {
+        return MessageSessionUtils.parse(this, data, offset, length);
     }
 
     private boolean isTargetTooLow(int msgSeqNum) throws IOException {
@@ -1840,15 +1955,24 @@ public class Session implements Closeable {
 
             if (checkTooHigh && state.isResendRequested()) {
                 final ResendRange range;
-                synchronized (state.getLock()) {
+                int satisfiedBeginSeqNo = 0;
+                int satisfiedEndSeqNo = 0;
+                state.getLock().lock();
+                try {
                     range = state.getResendRange();
                     if (msgSeqNum >= range.getEndSeqNo()) {
-                        getLog().onEvent(
-                                "ResendRequest for messages FROM " + range.getBeginSeqNo() + " TO " + range.getEndSeqNo()
-                                        + " has been satisfied.");
-                        stateListener.onResendRequestSatisfied(sessionID, range.getBeginSeqNo(), range.getEndSeqNo());
+                        satisfiedBeginSeqNo = range.getBeginSeqNo();
+                        satisfiedEndSeqNo = range.getEndSeqNo();
                         state.setResendRange(0, 0, 0);
                     }
+                } finally {
+                    state.getLock().unlock();
+                }
+                // logged outside of the lock, the log may block
+                if (satisfiedEndSeqNo != 0) {
+                    getLog().onEvent("ResendRequest for messages FROM " + satisfiedBeginSeqNo + " TO "
+                            + satisfiedEndSeqNo + " has been satisfied.");
+                    stateListener.onResendRequestSatisfied(sessionID, satisfiedBeginSeqNo, satisfiedEndSeqNo);
                 }
                 if (msgSeqNum < range.getEndSeqNo() && range.isChunkedResendRequest() && msgSeqNum >= range.getCurrentEndSeqNo()) {
                     final String beginString = header.getString(BeginString.FIELD);
@@ -1905,8 +2029,27 @@ public class Session implements Closeable {
         if (!checkLatency) {
             return true;
         }
-        final LocalDateTime sendingTime = message.getHeader().getUtcTimeStamp(SendingTime.FIELD);
-        return Math.abs(SystemTime.currentTimeMillis() - sendingTime.toInstant(ZoneOffset.UTC).toEpochMilli()) / 1000 <= maxLatency;
+        final long sendingTime = getUtcTimeStampMillis(message.getHeader(), SendingTime.FIELD);
+        return Math.abs(SystemTime.currentTimeMillis() - sendingTime) / 1000 <= maxLatency;
+    }
+
+    private static long getUtcTimeStampMillis(Message.Header header, int field) throws FieldNotFound {
+        try {
+            return Math.floorDiv(header.getUtcTimeStampNanos(field), 1000000L);
+        } catch (final FieldException e) {
+            // outside the range of epoch nanoseconds (after the year 2262), or invalid
+            return header.getUtcTimeStamp(field).toInstant(ZoneOffset.UTC).toEpochMilli();
+        }
+    }
+
+    private static boolean isTimeStampAfter(Message.Header header, int field, int otherField)
+            throws FieldNotFound {
+        try {
+            return header.getUtcTimeStampNanos(field) > header.getUtcTimeStampNanos(otherField);
+        } catch (final FieldException e) {
+            // outside the range of epoch nanoseconds (after the year 2262), or invalid
+            return header.getUtcTimeStamp(field).compareTo(header.getUtcTimeStamp(otherField)) > 0;
+        }
     }
 
     private void fromCallback(String msgType, Message msg, SessionID sessionID2)
@@ -1918,18 +2061,27 @@ public class Session implements Closeable {
         // QFJ-572: Behaviour depends on the setting of flag rejectMessageOnUnhandledException.
         if (MessageUtils.isAdminMessage(msgType)) {
             application.fromAdmin(msg, sessionID);
+        } else if (applicationBatch != null) {
+            applicationBatch.add(msg);
+        } else if (applicationBatchBuffer != null) {
+            ((BatchApplication) application).fromAppBatch(Collections.singletonList(msg), sessionID);
         } else {
             application.fromApp(msg, sessionID);
         }
     }
 
-    private synchronized boolean validLogonState(String msgType) {
-        return MsgType.LOGON.equals(msgType) && state.isResetSent() || state.isResetReceived() ||
-                MsgType.LOGON.equals(msgType) && !state.isLogonReceived() ||
-                !MsgType.LOGON.equals(msgType) && state.isLogonReceived() ||
-                MsgType.LOGOUT.equals(msgType) && state.isLogonSent() ||
-                !MsgType.LOGOUT.equals(msgType) && state.isLogoutSent() ||
-                MsgType.SEQUENCE_RESET.equals(msgType) || MsgType.REJECT.equals(msgType);
+    private boolean validLogonState(String msgType) {
+        state.getLock().lock();
+        try {
+            return MsgType.LOGON.equals(msgType) && state.isResetSent() || state.isResetReceived() ||
+                    MsgType.LOGON.equals(msgType) && !state.isLogonReceived() ||
+                    !MsgType.LOGON.equals(msgType) && state.isLogonReceived() ||
+                    MsgType.LOGOUT.equals(msgType) && state.isLogonSent() ||
+                    !MsgType.LOGOUT.equals(msgType) && state.isLogoutSent() ||
+                    MsgType.SEQUENCE_RESET.equals(msgType) || MsgType.REJECT.equals(msgType);
+        } finally {
+            state.getLock().unlock();
+        }
     }
 
     private boolean verify(Message message) throws RejectLogon, FieldNotFound, IncorrectDataFormat,
@@ -2112,7 +2264,8 @@ public class Session implements Closeable {
             final boolean logonReceived = state.isLogonReceived();
             final boolean logonSent = state.isLogonSent();
 
-            synchronized (responderLock) {
+            responderLock.lock();
+            try {
                 if (!hasResponder()) {
                     if (!ENCOUNTERED_END_OF_STREAM.equals(reason)) {
                         getLog().onEvent("Already disconnected: " + reason);
@@ -2127,9 +2280,12 @@ public class Session implements Closeable {
                 }
                 responder.disconnect();
                 setResponder(null);
+            } finally {
+                responderLock.unlock();
             }
 
             if (logonReceived || logonSent) {
+                flushStore();
                 try {
                     application.onLogout(sessionID);
                 } catch (final Throwable t) {
@@ -2221,6 +2377,7 @@ public class Session implements Closeable {
         state.setLogoutReceived(false);
         state.setLogoutSent(false);
         state.setLogonReceived(true);
+        flushStore();
 
         // remember the expected sender sequence number of any logon response for future use
         final int nextSenderMsgNumAtLogonReceived = state.getMessageStore().getNextSenderMsgSeqNum();
@@ -2340,75 +2497,34 @@ public class Session implements Closeable {
     private void resendMessages(Message receivedMessage, int beginSeqNo, int endSeqNo)
             throws IOException, InvalidMessage, FieldNotFound {
 
-        final ArrayList<String> messages = new ArrayList<>();
+        flushStore();
+        // the stored messages are visited one at a time, so a large range is not held in memory
+        final Resender resender = new Resender(receivedMessage, beginSeqNo, createResendPatcher());
         try {
-            state.get(beginSeqNo, endSeqNo, messages);
+            state.get(beginSeqNo, endSeqNo, resender);
         } catch (final IOException e) {
             if (forceResendWhenCorruptedStore) {
                 LOG.error("Cannot read messages from stores, resend HeartBeats", e);
-                for (int i = beginSeqNo; i < endSeqNo; i++) {
+                for (int i = resender.current; i < endSeqNo; i++) {
                     final Message heartbeat = messageFactory.create(sessionID.getBeginString(),
                             MsgType.HEARTBEAT);
                     initializeHeader(heartbeat.getHeader());
                     heartbeat.getHeader().setInt(MsgSeqNum.FIELD, i);
-                    messages.add(heartbeat.toString());
+                    final byte[] data = heartbeat.toString().getBytes(CharsetSupport.getCharsetInstance());
+                    resender.visit(data, 0, data.length);
                 }
             } else {
                 throw e;
             }
         }
-
-        int msgSeqNum = 0;
-        int begin = 0;
-        int current = beginSeqNo;
-        boolean appMessageJustSent = false;
-
-        for (final String message : messages) {
-            appMessageJustSent = false;
-            final Message msg;
-            try {
-                // QFJ-626
-                msg = parseMessage(message);
-                msgSeqNum = msg.getHeader().getInt(MsgSeqNum.FIELD);
-            } catch (final Exception e) {
-                getLog().onErrorEvent(
-                        "Error handling ResendRequest: failed to parse message (" + e.getMessage()
-                        + "): " + message);
-                // Note: a SequenceReset message will be generated to fill the gap
-                continue;
-            }
-
-            if ((current != msgSeqNum) && begin == 0) {
-                begin = current;
-            }
-
-            final String msgType = msg.getHeader().getString(MsgType.FIELD);
-
-            if (MessageUtils.isAdminMessage(msgType) && !forceResendWhenCorruptedStore) {
-                if (begin == 0) {
-                    begin = msgSeqNum;
-                }
-            } else {
-                initializeResendFields(msg);
-                if (resendApproved(msg)) {
-                    if (begin != 0) {
-                        generateSequenceReset(receivedMessage, begin, msgSeqNum);
-                    }
-                    getLog().onEvent("Resending message: " + msgSeqNum);
-                    send(msg.toString());
-                    begin = 0;
-                    appMessageJustSent = true;
-                } else {
-                    if (begin == 0) {
-                        begin = msgSeqNum;
-                    }
-                }
-            }
-            current = msgSeqNum + 1;
+        if (resender.fieldNotFound != null) {
+            throw resender.fieldNotFound;
         }
 
+        final int msgSeqNum = resender.msgSeqNum;
+        final int begin = resender.begin;
         int newBegin = beginSeqNo;
-        if (appMessageJustSent) {
+        if (resender.appMessageJustSent) {
             newBegin = msgSeqNum + 1;
         }
         if (enableNextExpectedMsgSeqNum) {
@@ -2430,6 +2546,115 @@ public class Session implements Closeable {
         }
     }
 
+    /**
+     * Waits until a store which writes in the background has written all changes.
+     */
+    private void flushStore() {
+        final MessageStore store = state.getMessageStore();
+        if (store instanceof Flushable) {
+            try {
+                ((Flushable) store).flush();
+            } catch (final IOException e) {
+                getLog().onErrorEvent("Error flushing message store: " + e.getMessage());
+            }
+        }
+    }
+
+    private ResendPatcher createResendPatcher() {
+        if (!resendWithoutParsing || dataDictionaryProvider == null) {
+            return null;
+        }
+        final DataDictionary sessionDataDictionary = dataDictionaryProvider
+                .getSessionDataDictionary(sessionID.getBeginString());
+        return sessionDataDictionary != null ? new ResendPatcher(sessionDataDictionary) : null;
+    }
+
+    /**
+     * Resends the stored messages of a resend request as they are read from the
+     * store and keeps track of the gaps which are filled with sequence resets.
+     */
+    private final class Resender implements StoredMessageVisitor {
+        private final Message receivedMessage;
+        // null if the stored messages are parsed
+        private final ResendPatcher patcher;
+        private int msgSeqNum;
+        private int begin;
+        private int current;
+        private boolean appMessageJustSent;
+        private FieldNotFound fieldNotFound;
+
+        Resender(Message receivedMessage, int beginSeqNo, ResendPatcher patcher) {
+            this.receivedMessage = receivedMessage;
+            this.current = beginSeqNo;
+            this.patcher = patcher;
+        }
+
+        @Override
+        public boolean visit(byte[] data, int offset, int length) throws IOException {
+            appMessageJustSent = false;
+            final Message msg;
+            final String msgType;
+            if (patcher != null && patcher.scan(data, offset, length)) {
+                msg = null;
+                msgSeqNum = patcher.getMsgSeqNum();
+                msgType = patcher.getMsgType();
+            } else {
+                try {
+                    // QFJ-626
+                    msg = parseMessage(data, offset, length);
+                    msgSeqNum = msg.getHeader().getInt(MsgSeqNum.FIELD);
+                    msgType = msg.getHeader().getString(MsgType.FIELD);
+                } catch (final Exception e) {
+                    getLog().onErrorEvent(
+                            "Error handling ResendRequest: failed to parse message (" + e.getMessage()
+                            + "): " + new String(data, offset, length, CharsetSupport.getCharsetInstance()));
+                    // Note: a SequenceReset message will be generated to fill the gap
+                    return true;
+                }
+            }
+
+            if ((current != msgSeqNum) && begin == 0) {
+                begin = current;
+            }
+
+            try {
+                if (MessageUtils.isAdminMessage(msgType) && !forceResendWhenCorruptedStore) {
+                    if (begin == 0) {
+                        begin = msgSeqNum;
+                    }
+                } else {
+                    final String messageString;
+                    if (msg == null) {
+                        messageString = patcher.patch(UtcTimestampConverter.convert(
+                                SystemTime.currentEpochNanos(), getTimestampPrecision()));
+                    } else {
+                        initializeResendFields(msg);
+                        messageString = resendApproved(msg) ? msg.toString() : null;
+                    }
+                    if (messageString != null) {
+                        if (begin != 0) {
+                            generateSequenceReset(receivedMessage, begin, msgSeqNum);
+                        }
+                        getLog().onEvent("Resending message: " + msgSeqNum);
+                        send(messageString);
+                        awaitWritable();
+                        begin = 0;
+                        appMessageJustSent = true;
+                    } else {
+                        if (begin == 0) {
+                            begin = msgSeqNum;
+                        }
+                    }
+                }
+            } catch (final FieldNotFound e) {
+                fieldNotFound = e;
+                return false;
+            }
+            current = msgSeqNum + 1;
+            return true;
+        }
+    }
+
     private void generateSequenceResetIfNeeded(Message receivedMessage, int beginSeqNo, int endSeqNo, int msgSeqNum)
             throws IOException, FieldNotFound {
         if (endSeqNo > msgSeqNum) {
@@ -2563,9 +2788,7 @@ public class Session implements Closeable {
 
         if (!MsgType.SEQUENCE_RESET.equals(msgType)) {
             if (header.isSetField(OrigSendingTime.FIELD)) {
-                final LocalDateTime origSendingTime = header.getUtcTimeStamp(OrigSendingTime.FIELD);
-                final LocalDateTime sendingTime = header.getUtcTimeStamp(SendingTime.FIELD);
-                if (origSendingTime.compareTo(sendingTime) > 0) {
+                if (isTimeStampAfter(header, OrigSendingTime.FIELD, SendingTime.FIELD)) {
                     generateReject(msg, BAD_TIME_REJ_REASON, OrigSendingTime.FIELD);
                     generateLogout(BAD_ORIG_TIME_TEXT);
                     return false;
@@ -2623,14 +2846,42 @@ public class Session implements Closeable {
         state.setLogonSent(true);
     }
 
-    private void persist(Header header, String messageString, int num) throws IOException, FieldNotFound {
+    /**
+     * @return the message string if one was created to store the message, otherwise null
+     */
+    private String persist(Header header, ByteBuffer data, int num) throws IOException, FieldNotFound {
+      String messageString = null;
       if (num == 0) {
           if (persistMessages) {
               final int msgSeqNum = header.getInt(MsgSeqNum.FIELD);
+              messageString = toMessageString(data);
               state.set(msgSeqNum, messageString);
           }
           state.incrNextSenderMsgSeqNum();
       }
+      return messageString;
+    }
+
+    /**
+     * Serializes the message into the send buffer, which is reused for the next message.
+     * Must be called while the sender sequence number is locked.
+     */
+    private ByteBuffer encode(Message message) {
+        while (true) {
+            sendBuffer.clear();
+            try {
+                message.writeTo(sendBuffer);
+                sendBuffer.flip();
+                return sendBuffer;
+            } catch (final BufferOverflowException e) {
+                sendBuffer = ByteBuffer.allocate(sendBuffer.capacity() * 2);
+            }
+        }
+    }
+
+    private static String toMessageString(ByteBuffer data) {
+        return new String(data.array(), data.arrayOffset() + data.position(), data.remaining(),
+                CharsetSupport.getCharsetInstance());
     }
 
     /**
@@ -2662,7 +2913,8 @@ public class Session implements Closeable {
                 }
             }
 
-            String messageString;
+            final ByteBuffer data;
+            final String messageString;
 
             if (message.isAdmin()) {
                 try {
@@ -2685,12 +2937,12 @@ public class Session implements Closeable {
                     }
                 }
 
-                messageString = message.toString();
-                persist(message.getHeader(), messageString, num);
+                data = encode(message);
+                messageString = persist(message.getHeader(), data, num);
                 if (MsgType.LOGON.equals(msgType) || MsgType.LOGOUT.equals(msgType)
                         || MsgType.RESEND_REQUEST.equals(msgType)
                         || MsgType.SEQUENCE_RESET.equals(msgType) || isLoggedOn()) {
-                    result = send(messageString);
+                    result = send(data, messageString);
                 }
             } else {
                 try {
@@ -2700,10 +2952,10 @@ public class Session implements Closeable {
                 } catch (final Throwable t) {
                     logApplicationException("toApp()", t);
                 }
-                messageString = message.toString();
-                persist(message.getHeader(), messageString, num);
+                data = encode(message);
+                messageString = persist(message.getHeader(), data, num);
                 if (isLoggedOn()) {
-                    result = send(messageString);
+                    result = send(data, messageString);
                 }
             }
 
@@ -2720,6 +2972,8 @@ public class Session implements Closeable {
     }
 
     private void enqueueMessage(final Message msg, final int msgSeqNum) {
+        // queued messages outlive the call to next(Message) and must not be released
+        msg.retain();
         state.getMessageQueue().enqueue(msgSeqNum, msg);
         getLog().onEvent("Enqueued at pos " + msgSeqNum + ": " + msg);
     }
@@ -2784,8 +3038,11 @@ public class Session implements Closeable {
     private boolean send(String messageString) {
         getLog().onOutgoing(messageString);
         Responder responder;
-        synchronized (responderLock) {
+        responderLock.lock();
+        try {
             responder = this.responder;
+        } finally {
+            responderLock.unlock();
         }
         if (responder == null) {
             getLog().onEvent("No responder, not sending message: " + messageString);
@@ -2794,6 +3051,47 @@ public class Session implements Closeable {
         return responder.send(messageString);
     }
 
+    /**
+     * Sends a serialized message as bytes. The message string is only created if the
+     * outgoing message is logged and it has not been created to store the message.
+     */
+    private boolean send(ByteBuffer data, String messageString) {
+        final Log log = getLog();
+        if (log.isOutgoingEnabled()) {
+            log.onOutgoing(messageString != null ? messageString : toMessageString(data));
+        }
+        Responder responder;
+        responderLock.lock();
+        try {
+            responder = this.responder;
+        } finally {
+            responderLock.unlock();
+        }
+        if (responder == null) {
+            log.onEvent("No responder, not sending message: "
+                    + (messageString != null ? messageString : toMessageString(data)));
+            return false;
+        }
+        return responder.send(data.array(), data.arrayOffset() + data.position(), data.remaining());
+    }
+
+    /**
+     * Waits until the responder can take more data, used between the messages of
+     * a resend so that they are not all queued for writing at once.
+     */
+    private void awaitWritable() {
+        final Responder responder;
+        responderLock.lock();
+        try {
+            responder = this.responder;
+        } finally {
+            responderLock.unlock();
+        }
+        if (responder != null) {
+            responder.awaitWritable();
+        }
+    }
+
     private boolean isCorrectCompID(Message message) throws FieldNotFound {
         if (!checkCompID) {
             return true;
@@ -3088,6 +3386,10 @@ public class Session implements Closeable {
         this.forceResendWhenCorruptedStore = forceResendWhenCorruptedStore;
     }
 
+    public void setResendWithoutParsing(boolean resendWithoutParsing) {
+        this.resendWithoutParsing = resendWithoutParsing;
+    }
+
     public boolean isAllowedForSession(InetAddress remoteInetAddress) {
         return allowedRemoteAddresses == null || allowedRemoteAddresses.isEmpty()
                 || allowedRemoteAddresses.contains(remoteInetAddress);
@@ -30,10 +30,13 @@ import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Used by the session communications code. Not intended to be used by applications. All dynamic data is protected by
- * the session's intrinsic lock. The log and message store implementation must be thread safe.
+ * a lock of the session state. The log and message store implementation must be thread safe.
+ * <p>
+ * The state is guarded by a {@link ReentrantLock} instead of an intrinsic lock so that a session processed on a
+ * virtual thread does not pin its carrier thread while it waits for the lock.
  */
 public final class SessionState {
-    private final Object lock;
+    private final ReentrantLock lock = new ReentrantLock();
     private final Log log;
 
     // MessageStore implementation must be thread safe
@@ -81,9 +84,8 @@ public final class SessionState {
      */
     private final AtomicInteger nextExpectedMsgSeqNum = new AtomicInteger(0);
 
-    public SessionState(Object lock, Log log, int heartBeatInterval, boolean initiator, MessageStore messageStore,
+    public SessionState(Log log, int heartBeatInterval, boolean initiator, MessageStore messageStore,
                         MessageQueue messageQueue, double testRequestDelayMultiplier, double heartBeatTimeoutMultiplier) {
-        this.lock = lock;
         this.initiator = initiator;
         this.messageStore = messageStore;
         this.messageQueue = messageQueue;
@@ -93,22 +95,42 @@ public final class SessionState {
         this.heartBeatTimeoutMultiplier = heartBeatTimeoutMultiplier;
     }
 
+    /**
+     * @deprecated the state is no longer guarded by the given lock, use
+     *             {@link #SessionState(Log, int, boolean, MessageStore, MessageQueue, double, double)}
+     */
+    @Deprecated
+    public SessionState(Object lock, Log log, int heartBeatInterval, boolean initiator, MessageStore messageStore,
+                        MessageQueue messageQueue, double testRequestDelayMultiplier, double heartBeatTimeoutMultiplier) {
+        this(log, heartBeatInterval, initiator, messageStore, messageQueue, testRequestDelayMultiplier,
+                heartBeatTimeoutMultiplier);
+    }
+
     public int getHeartBeatInterval() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             return heartBeatInterval;
+        } finally {
+            lock.unlock();
         }
     }
 
     public void setHeartBeatInterval(int heartBeatInterval) {
-        synchronized (lock) {
+        lock.lock();
+        try {
             this.heartBeatInterval = heartBeatInterval;
             this.heartBeatMillis = TimeUnit.SECONDS.toMillis(heartBeatInterval);
+        } finally {
+            lock.unlock();
         }
     }
 
     long getHeartBeatMillis() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             return heartBeatMillis;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -123,26 +145,38 @@ public final class SessionState {
     }
 
     public long getLastReceivedTime() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             return lastReceivedTime;
+        } finally {
+            lock.unlock();
         }
     }
 
     public void setLastReceivedTime(long lastReceivedTime) {
-        synchronized (lock) {
+        lock.lock();
+        try {
             this.lastReceivedTime = lastReceivedTime;
+        } finally {
+            lock.unlock();
         }
     }
 
     public long getLastSentTime() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             return lastSentTime;
+        } finally {
+            lock.unlock();
         }
     }
 
     public void setLastSentTime(long lastSentTime) {
-        synchronized (lock) {
+        lock.lock();
+        try {
             this.lastSentTime = lastSentTime;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -155,14 +189,20 @@ public final class SessionState {
     }
 
     public boolean isLogonReceived() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             return logonReceived;
+        } finally {
+            lock.unlock();
         }
     }
 
     public void setLogonReceived(boolean logonReceived) {
-        synchronized (lock) {
+        lock.lock();
+        try {
             this.logonReceived = logonReceived;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -171,20 +211,29 @@ public final class SessionState {
     }
 
     public boolean isLogonSent() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             return logonSent;
+        } finally {
+            lock.unlock();
         }
     }
 
     public void setLogonSent(boolean logonSent) {
-        synchronized (lock) {
+        lock.lock();
+        try {
             this.logonSent = logonSent;
+        } finally {
+            lock.unlock();
         }
     }
 
     public boolean isLogonTimedOut() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             return isLogonSent() && SystemTime.currentTimeMillis() - getLastReceivedTime() >= getLogonTimeoutMs();
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -205,50 +254,74 @@ public final class SessionState {
     }
 
     private void setLogoutTimeoutMs(long logoutTimeoutMs) {
-        synchronized (lock) {
+        lock.lock();
+        try {
             this.logoutTimeoutMs = logoutTimeoutMs;
+        } finally {
+            lock.unlock();
         }
     }
 
     private long getLogoutTimeoutMs() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             return logoutTimeoutMs;
+        } finally {
+            lock.unlock();
         }
     }
 
     private void setLogonTimeoutMs(long logonTimeoutMs) {
-        synchronized (lock) {
+        lock.lock();
+        try {
             this.logonTimeoutMs = logonTimeoutMs;
+        } finally {
+            lock.unlock();
         }
     }
 
     private long getLogonTimeoutMs() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             return logonTimeoutMs;
+        } finally {
+            lock.unlock();
         }
     }
 
     public boolean isLogoutSent() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             return logoutSent;
+        } finally {
+            lock.unlock();
         }
     }
 
     public void setLogoutSent(boolean logoutSent) {
-        synchronized (lock) {
+        lock.lock();
+        try {
             this.logoutSent = logoutSent;
+        } finally {
+            lock.unlock();
         }
     }
 
     public boolean isLogoutReceived() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             return logoutReceived;
+        } finally {
+            lock.unlock();
         }
     }
 
     public void setLogoutReceived(boolean logoutReceived) {
-        synchronized (lock) {
+        lock.lock();
+        try {
             this.logoutReceived = logoutReceived;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -265,8 +338,11 @@ public final class SessionState {
     }
 
     private int getTestRequestCounter() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             return testRequestCounter;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -275,14 +351,20 @@ public final class SessionState {
     }
 
     public void clearTestRequestCounter() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             testRequestCounter = 0;
+        } finally {
+            lock.unlock();
         }
     }
 
     public void incrementTestRequestCounter() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             testRequestCounter++;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -309,6 +391,10 @@ public final class SessionState {
         messageStore.get(first, last, messages);
     }
 
+    public void get(int first, int last, StoredMessageVisitor visitor) throws IOException {
+        messageStore.get(first, last, visitor);
+    }
+
     public void lockSenderMsgSeqNum() {
         senderMsgSeqNumLock.lock();
     }
@@ -362,65 +448,95 @@ public final class SessionState {
     }
 
     public void setResendRange(int low, int high) {
-        synchronized (lock) {
+        lock.lock();
+        try {
             resendRange.setBeginSeqNo(low);
             resendRange.setEndSeqNo(high);
+        } finally {
+            lock.unlock();
         }
     }
 
     public void setResendRange(int low, int high, int currentResend) {
-        synchronized (lock) {
+        lock.lock();
+        try {
             resendRange.setBeginSeqNo(low);
             resendRange.setEndSeqNo(high);
             resendRange.setCurrentEndSeqNo(currentResend);
+        } finally {
+            lock.unlock();
         }
     }
 
     public boolean isResendRequested() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             return !(resendRange.getBeginSeqNo() == 0 && resendRange.getEndSeqNo() == 0);
+        } finally {
+            lock.unlock();
         }
     }
 
     public ResendRange getResendRange() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             return resendRange;
+        } finally {
+            lock.unlock();
         }
     }
 
     public boolean isResetReceived() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             return resetReceived;
+        } finally {
+            lock.unlock();
         }
     }
 
     public void setResetReceived(boolean resetReceived) {
-        synchronized (lock) {
+        lock.lock();
+        try {
             this.resetReceived = resetReceived;
+        } finally {
+            lock.unlock();
         }
     }
 
     public boolean isResetSent() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             return resetSent;
+        } finally {
+            lock.unlock();
         }
     }
 
     public void setResetSent(boolean resetSent) {
-        synchronized (lock) {
+        lock.lock();
+        try {
             this.resetSent = resetSent;
+        } finally {
+            lock.unlock();
         }
     }
     
     public boolean isResetStatePending() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             return resetStatePending;
+        } finally {
+            lock.unlock();
         }
     }
 
     public void setResetStatePending(boolean resetStatePending) {
-        synchronized (lock) {
+        lock.lock();
+        try {
             this.resetStatePending = resetStatePending;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -433,11 +549,14 @@ public final class SessionState {
      * This is expected to be called only in the scenario where target is too high on logon and tag 789 is supported.
      */
     public void setResetRangeFromLastExpectedLogonNextSeqNumLogon() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             // we have already requested all msgs from nextExpectedMsgSeqNum to infinity
             setResendRange(getLastExpectedLogonNextSeqNum(), 0);
             // clean up the variable (not really needed)
             setLastExpectedLogonNextSeqNum(0);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -470,24 +589,33 @@ public final class SessionState {
     }
 
     public void setLogoutReason(String reason) {
-        synchronized (lock) {
+        lock.lock();
+        try {
             logoutReason = reason;
+        } finally {
+            lock.unlock();
         }
     }
 
     public String getLogoutReason() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             return logoutReason;
+        } finally {
+            lock.unlock();
         }
     }
 
     public void clearLogoutReason() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             logoutReason = "";
+        } finally {
+            lock.unlock();
         }
     }
 
-    public Object getLock() {
+    public Lock getLock() {
         return lock;
     }
 
@@ -502,6 +630,14 @@ public final class SessionState {
         public void onIncoming(String message) {
         }
 
+        public boolean isOutgoingEnabled() {
+            return false;
+        }
+
+        public boolean isIncomingEnabled() {
+            return false;
+        }
+
         public void onEvent(String text) {
         }
 
@@ -21,28 +21,24 @@ package quickfix;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 import quickfix.mina.EventHandlingStrategy;
-import quickfix.mina.SingleThreadedEventHandlingStrategy;
+import quickfix.mina.SharedEventHandlingStrategy;
 import quickfix.mina.acceptor.AbstractSocketAcceptor;
 
 /**
- * Accepts connections and uses a single thread to process messages for all
+ * Accepts connections and uses a single thread, or a fixed number of worker
+ * threads if EventHandlingWorkers is set, to process messages for all
  * sessions.
  */
 public class SocketAcceptor extends AbstractSocketAcceptor {
     private final AtomicBoolean isStarted = new AtomicBoolean(false);
-    private final SingleThreadedEventHandlingStrategy eventHandlingStrategy;
+    private final SharedEventHandlingStrategy eventHandlingStrategy;
 
     private SocketAcceptor(Builder builder) throws ConfigError {
         super(builder.application, builder.messageStoreFactory, builder.settings,
                 builder.logFactory, builder.messageFactory);
 
-        if (builder.queueCapacity >= 0) {
-            eventHandlingStrategy
-                    = new SingleThreadedEventHandlingStrategy(this, builder.queueCapacity);
-        } else {
-            eventHandlingStrategy
-                    = new SingleThreadedEventHandlingStrategy(this, builder.queueLowerWatermark, builder.queueUpperWatermark);
-        }
+        eventHandlingStrategy = createSharedEventHandlingStrategy(builder.queueCapacity,
+                builder.queueLowerWatermark, builder.queueUpperWatermark, builder.queueWaitStrategy);
     }
 
     public static Builder newBuilder() {
@@ -65,37 +61,37 @@ public class SocketAcceptor extends AbstractSocketAcceptor {
             int queueCapacity)
             throws ConfigError {
         super(application, messageStoreFactory, settings, logFactory, messageFactory);
-        eventHandlingStrategy = new SingleThreadedEventHandlingStrategy(this, queueCapacity);
+        eventHandlingStrategy = createSharedEventHandlingStrategy(queueCapacity);
     }
 
     public SocketAcceptor(Application application, MessageStoreFactory messageStoreFactory,
             SessionSettings settings, LogFactory logFactory, MessageFactory messageFactory)
             throws ConfigError {
         super(application, messageStoreFactory, settings, logFactory, messageFactory);
-        eventHandlingStrategy = new SingleThreadedEventHandlingStrategy(this, DEFAULT_QUEUE_CAPACITY);
+        eventHandlingStrategy = createSharedEventHandlingStrategy(DEFAULT_QUEUE_CAPACITY);
     }
 
     public SocketAcceptor(Application application, MessageStoreFactory messageStoreFactory,
             SessionSettings settings, MessageFactory messageFactory, int queueCapacity) throws ConfigError {
         super(application, messageStoreFactory, settings, messageFactory);
-        eventHandlingStrategy = new SingleThreadedEventHandlingStrategy(this, queueCapacity);
+        eventHandlingStrategy = createSharedEventHandlingStrategy(queueCapacity);
     }
 
     public SocketAcceptor(Application application, MessageStoreFactory messageStoreFactory,
             SessionSettings settings, MessageFactory messageFactory) throws ConfigError {
         super(application, messageStoreFactory, settings, messageFactory);
-        eventHandlingStrategy = new SingleThreadedEventHandlingStrategy(this, DEFAULT_QUEUE_CAPACITY);
+        eventHandlingStrategy = createSharedEventHandlingStrategy(DEFAULT_QUEUE_CAPACITY);
     }
 
     public SocketAcceptor(SessionFactory sessionFactory, SessionSettings settings,
             int queueCapacity) throws ConfigError {
         super(settings, sessionFactory);
-        eventHandlingStrategy = new SingleThreadedEventHandlingStrategy(this, queueCapacity);
+        eventHandlingStrategy = createSharedEventHandlingStrategy(queueCapacity);
     }
 
     public SocketAcceptor(SessionFactory sessionFactory, SessionSettings settings) throws ConfigError {
         super(settings, sessionFactory);
-        eventHandlingStrategy = new SingleThreadedEventHandlingStrategy(this, DEFAULT_QUEUE_CAPACITY);
+        eventHandlingStrategy = createSharedEventHandlingStrategy(DEFAULT_QUEUE_CAPACITY);
     }
 
     @Override
@@ -21,28 +21,24 @@ package quickfix;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 import quickfix.mina.EventHandlingStrategy;
-import quickfix.mina.SingleThreadedEventHandlingStrategy;
+import quickfix.mina.SharedEventHandlingStrategy;
 import quickfix.mina.initiator.AbstractSocketInitiator;
 
 /**
- * Initiates connections and uses a single thread to process messages for all
+ * Initiates connections and uses a single thread, or a fixed number of worker
+ * threads if EventHandlingWorkers is set, to process messages for all
  * sessions.
  */
 public class SocketInitiator extends AbstractSocketInitiator {
     private final AtomicBoolean isStarted = new AtomicBoolean(false);
-    private final SingleThreadedEventHandlingStrategy eventHandlingStrategy;
+    private final SharedEventHandlingStrategy eventHandlingStrategy;
 
     private SocketInitiator(Builder builder) throws ConfigError {
         super(builder.application, builder.messageStoreFactory, builder.settings,
                 builder.logFactory, builder.messageFactory, builder.numReconnectThreads);
 
-        if (builder.queueCapacity >= 0) {
-            eventHandlingStrategy
-                    = new SingleThreadedEventHandlingStrategy(this, builder.queueCapacity);
-        } else {
-            eventHandlingStrategy
-                    = new SingleThreadedEventHandlingStrategy(this, builder.queueLowerWatermark, builder.queueUpperWatermark);
-        }
+        eventHandlingStrategy = createSharedEventHandlingStrategy(builder.queueCapacity,
+                builder.queueLowerWatermark, builder.queueUpperWatermark, builder.queueWaitStrategy);
     }
 
     public static Builder newBuilder() {
@@ -75,7 +71,7 @@ public class SocketInitiator extends AbstractSocketInitiator {
         if (settings == null) {
             throw new ConfigError("no settings");
         }
-        eventHandlingStrategy = new SingleThreadedEventHandlingStrategy(this, queueCapacity);
+        eventHandlingStrategy = createSharedEventHandlingStrategy(queueCapacity);
     }
 
     public SocketInitiator(Application application, MessageStoreFactory messageStoreFactory,
@@ -85,7 +81,7 @@ public class SocketInitiator extends AbstractSocketInitiator {
         if (settings == null) {
             throw new ConfigError("no settings");
         }
-        eventHandlingStrategy = new SingleThreadedEventHandlingStrategy(this, DEFAULT_QUEUE_CAPACITY);
+        eventHandlingStrategy = createSharedEventHandlingStrategy(DEFAULT_QUEUE_CAPACITY);
     }
 
     public SocketInitiator(Application application, MessageStoreFactory messageStoreFactory,
@@ -95,7 +91,7 @@ public class SocketInitiator extends AbstractSocketInitiator {
         if (settings == null) {
             throw new ConfigError("no settings");
         }
-        eventHandlingStrategy = new SingleThreadedEventHandlingStrategy(this, DEFAULT_QUEUE_CAPACITY);
+        eventHandlingStrategy = createSharedEventHandlingStrategy(DEFAULT_QUEUE_CAPACITY);
     }
 
     public SocketInitiator(Application application, MessageStoreFactory messageStoreFactory,
@@ -106,13 +102,13 @@ public class SocketInitiator extends AbstractSocketInitiator {
         if (settings == null) {
             throw new ConfigError("no settings");
         }
-        eventHandlingStrategy = new SingleThreadedEventHandlingStrategy(this, queueCapacity);
+        eventHandlingStrategy = createSharedEventHandlingStrategy(queueCapacity);
     }
 
     public SocketInitiator(SessionFactory sessionFactory, SessionSettings settings,
            int queueCapacity) throws ConfigError {
         super(settings, sessionFactory);
-        eventHandlingStrategy = new SingleThreadedEventHandlingStrategy(this, queueCapacity);
+        eventHandlingStrategy = createSharedEventHandlingStrategy(queueCapacity);
     }
 
     @Override
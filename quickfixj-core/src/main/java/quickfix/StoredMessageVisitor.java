@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+
+package quickfix;
+
+import java.io.IOException;
+
+/**
+ * Receives the messages of a sequence number range from a {@link MessageStore}
+ * one at a time.
+ *
+ * @see MessageStore#get(int, int, StoredMessageVisitor)
+ */
+@FunctionalInterface
+public interface StoredMessageVisitor {
+
+    /**
+     * Called for each stored message in ascending sequence number order. The
+     * buffer may be reused by the store once this method returns.
+     *
+     * @param data the buffer containing the raw FIX message
+     * @param offset the offset of the message within the buffer
+     * @param length the length of the message in bytes
+     * @return true to continue with the next message, false to stop
+     * @throws IOException IO error
+     */
+    boolean visit(byte[] data, int offset, int length) throws IOException;
+}
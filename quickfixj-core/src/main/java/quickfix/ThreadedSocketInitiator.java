@@ -25,6 +25,8 @@ import quickfix.mina.initiator.AbstractSocketInitiator;
 
 /**
  * Initiates connections and uses a separate thread per session to process messages.
+ * The threads are virtual threads if UseVirtualThreads is set and the Java runtime
+ * supports them.
  */
 public class ThreadedSocketInitiator extends AbstractSocketInitiator {
     private final ThreadPerSessionEventHandlingStrategy eventHandlingStrategy;
@@ -35,10 +37,15 @@ public class ThreadedSocketInitiator extends AbstractSocketInitiator {
 
         if (builder.queueCapacity >= 0) {
             eventHandlingStrategy
-                    = new ThreadPerSessionEventHandlingStrategy(this, builder.queueCapacity);
+                    = new ThreadPerSessionEventHandlingStrategy(this, builder.queueCapacity,
+                    builder.queueWaitStrategy);
         } else {
             eventHandlingStrategy
-                    = new ThreadPerSessionEventHandlingStrategy(this, builder.queueLowerWatermark, builder.queueUpperWatermark);
+                    = new ThreadPerSessionEventHandlingStrategy(this, builder.queueLowerWatermark, builder.queueUpperWatermark,
+                    builder.queueWaitStrategy);
+        }
+        if (builder.virtualThreads) {
+            eventHandlingStrategy.setVirtualThreads(true);
         }
     }
 
@@ -24,6 +24,7 @@ import org.apache.mina.core.service.IoHandlerAdapter;
 import org.apache.mina.core.session.IoSession;
 import org.apache.mina.filter.codec.ProtocolCodecException;
 import org.apache.mina.filter.codec.ProtocolDecoderException;
+import org.quickfixj.CharsetSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import quickfix.ConfigError;
@@ -47,12 +48,14 @@ public abstract class AbstractIoHandler extends IoHandlerAdapter {
     private final NetworkingOptions networkingOptions;
     private final EventHandlingStrategy eventHandlingStrategy;
     private final SessionSettings sessionSettings;
+    private final boolean deferMessageParsing;
     private boolean logMessageWhenSessionNotFound;
 
     public AbstractIoHandler(SessionSettings settings, NetworkingOptions options, EventHandlingStrategy eventHandlingStrategy) {
         sessionSettings = settings;
         networkingOptions = options;
         this.eventHandlingStrategy = eventHandlingStrategy;
+        deferMessageParsing = Boolean.TRUE.equals(options.getDeferMessageParsing());
         logMessageWhenSessionNotFound = true;
         try {
             if (sessionSettings.isSetting(Session.SETTING_LOG_MESSAGE_WHEN_SESSION_NOT_FOUND)) {
@@ -133,35 +136,27 @@ public abstract class AbstractIoHandler extends IoHandlerAdapter {
 
     @Override
     public void messageReceived(IoSession ioSession, Object message) throws Exception {
-        String messageString = (String) message;
-        SessionID remoteSessionID = MessageUtils.getReverseSessionID(messageString);
+        if (deferMessageParsing) {
+            final Session quickFixSession = findQFSession(ioSession);
+            if (quickFixSession != null) {
+                // logged, parsed and validated by the thread processing the messages of the session
+                eventHandlingStrategy.onUnparsedMessage(quickFixSession,
+                        new UnparsedMessage(this, ioSession, quickFixSession, message));
+                return;
+            }
+        }
+        final SessionID remoteSessionID = message instanceof byte[]
+                ? MessageUtils.getReverseSessionID((byte[]) message, 0, ((byte[]) message).length)
+                : MessageUtils.getReverseSessionID((String) message);
         Session quickFixSession = findQFSession(ioSession, remoteSessionID);
         if (quickFixSession != null) {
-            final boolean rejectGarbledMessage = quickFixSession.isRejectGarbledMessage();
-            final Log sessionLog = quickFixSession.getLog();
-            sessionLog.onIncoming(messageString);
-            try {
-                Message fixMessage = parse(quickFixSession, messageString);
+            final Message fixMessage = parseMessage(ioSession, quickFixSession, message);
+            if (fixMessage != null) {
                 processMessage(ioSession, fixMessage);
-            } catch (InvalidMessage e) {
-                if (rejectGarbledMessage) {
-                    final Message fixMessage = e.getFixMessage();
-                    if ( fixMessage != null ) {
-                        sessionLog.onErrorEvent("Processing garbled message: " + e.getMessage());
-                        processMessage(ioSession, fixMessage);
-                        return;
-                    }
-                }
-                if (MessageUtils.isLogon(messageString)) {
-                    sessionLog.onErrorEvent("Invalid LOGON message, disconnecting: " + e.getMessage());
-                    ioSession.closeNow();
-                } else {
-                    sessionLog.onErrorEvent("Invalid message: " + e.getMessage());
-                }
             }
         } else {
             if (logMessageWhenSessionNotFound) {
-                log.error("Disconnecting; received message for unknown session: {}", messageString);
+                log.error("Disconnecting; received message for unknown session: {}", toMessageString(message));
             } else {
                 log.error("Disconnecting; received message for unknown session. Remote SessionID: {}", remoteSessionID);
             }
@@ -169,6 +164,57 @@ public abstract class AbstractIoHandler extends IoHandlerAdapter {
         }
     }
 
+    /**
+     * Logs and parses a frame which was enqueued unparsed.
+     *
+     * @return the message to pass to the session or null if the frame was dropped
+     */
+    Message parseDeferredMessage(IoSession ioSession, Session quickFixSession, Object message) throws Exception {
+        final Message fixMessage = parseMessage(ioSession, quickFixSession, message);
+        if (fixMessage != null) {
+            processDeferredMessage(ioSession, fixMessage);
+        }
+        return fixMessage;
+    }
+
+    private static String toMessageString(Object message) {
+        // the String is only needed for the message log and error handling,
+        // a message received as bytes is parsed from the bytes
+        return message instanceof byte[]
+                ? new String((byte[]) message, CharsetSupport.getCharsetInstance())
+                : (String) message;
+    }
+
+    private Message parseMessage(IoSession ioSession, Session quickFixSession, Object message) {
+        final boolean rejectGarbledMessage = quickFixSession.isRejectGarbledMessage();
+        final Log sessionLog = quickFixSession.getLog();
+        if (sessionLog.isIncomingEnabled()) {
+            sessionLog.onIncoming(toMessageString(message));
+        }
+        try {
+            if (message instanceof byte[]) {
+                final byte[] messageBytes = (byte[]) message;
+                return parse(quickFixSession, messageBytes, 0, messageBytes.length);
+            }
+            return parse(quickFixSession, (String) message);
+        } catch (InvalidMessage e) {
+            if (rejectGarbledMessage) {
+                final Message fixMessage = e.getFixMessage();
+                if ( fixMessage != null ) {
+                    sessionLog.onErrorEvent("Processing garbled message: " + e.getMessage());
+                    return fixMessage;
+                }
+            }
+            if (MessageUtils.isLogon(toMessageString(message))) {
+                sessionLog.onErrorEvent("Invalid LOGON message, disconnecting: " + e.getMessage());
+                ioSession.closeNow();
+            } else {
+                sessionLog.onErrorEvent("Invalid message: " + e.getMessage());
+            }
+            return null;
+        }
+    }
+
     protected Session findQFSession(IoSession ioSession, SessionID sessionID) {
         Session quickfixSession = findQFSession(ioSession);
         if (quickfixSession == null) {
@@ -187,4 +233,12 @@ public abstract class AbstractIoHandler extends IoHandlerAdapter {
 
     protected abstract void processMessage(IoSession ioSession, Message message) throws Exception;
 
+    /**
+     * Called for a message received with {@link NetworkingOptions#SETTING_SOCKET_DEFER_MESSAGE_PARSING}
+     * after it has been parsed on the thread processing the messages of the session and before it is
+     * passed to the session. The session is already bound to the connection at this point.
+     */
+    protected void processDeferredMessage(IoSession ioSession, Message message) throws Exception {
+    }
+
 }
@@ -19,6 +19,7 @@
 
 package quickfix.mina;
 
+import quickfix.LogUtil;
 import quickfix.Message;
 import quickfix.Session;
 import quickfix.SessionID;
@@ -39,6 +40,23 @@ public interface EventHandlingStrategy {
 
     void onMessage(Session quickfixSession, Message message);
 
+    /**
+     * Handles a message received with {@link NetworkingOptions#SETTING_SOCKET_DEFER_MESSAGE_PARSING}.
+     * It is logged, parsed and validated by the thread processing the messages of the session.
+     * The default implementation does so on the calling thread and passes the message to
+     * {@link #onMessage(Session, Message)}.
+     */
+    default void onUnparsedMessage(Session quickfixSession, UnparsedMessage message) {
+        try {
+            final Message parsedMessage = message.parse();
+            if (parsedMessage != null) {
+                onMessage(quickfixSession, parsedMessage);
+            }
+        } catch (Exception e) {
+            LogUtil.logThrowable(quickfixSession.getSessionID(), e.getMessage(), e);
+        }
+    }
+
     /**
      * @return the SessionConnector associated with this strategy
      */
@@ -27,16 +27,21 @@ import quickfix.Session;
 
 import java.io.IOException;
 import java.net.SocketAddress;
+import java.util.Arrays;
 
 /**
  * The class that partially integrates the QuickFIX/J Session to
  * the MINA networking code.
  */
 public class IoSessionResponder implements Responder {
+    // pending writes after which awaitWritable() waits if no slow consumer limit is set
+    private static final int DEFAULT_WRITE_BACKLOG = 1024;
+
     private final IoSession ioSession;
     private final boolean synchronousWrites;
     private final long synchronousWriteTimeout;
     private final int maxScheduledWriteRequests;
+    private volatile WriteFuture lastWriteFuture;
 
     public IoSessionResponder(IoSession session, boolean synchronousWrites, long synchronousWriteTimeout, int maxScheduledWriteRequests) {
         ioSession = session;
@@ -47,6 +52,16 @@ public class IoSessionResponder implements Responder {
 
     @Override
     public boolean send(String data) {
+        return write(data);
+    }
+
+    @Override
+    public boolean send(byte[] data, int offset, int length) {
+        // the caller reuses its buffer, the data is written asynchronously
+        return write(Arrays.copyOfRange(data, offset, offset + length));
+    }
+
+    private boolean write(Object data) {
         // Check for and disconnect slow consumers.
         if (maxScheduledWriteRequests > 0 && ioSession.getScheduledWriteMessages() >= maxScheduledWriteRequests) {
             try {
@@ -58,6 +73,7 @@ public class IoSessionResponder implements Responder {
 
         // The data is written asynchronously in a MINA thread
         WriteFuture future = ioSession.write(data);
+        lastWriteFuture = future;
         if (synchronousWrites) {
             try {
                 if (!future.awaitUninterruptibly(synchronousWriteTimeout)) {
@@ -72,6 +88,28 @@ public class IoSessionResponder implements Responder {
         return true;
     }
 
+    /**
+     * Waits for the last write to complete once the number of scheduled writes
+     * reaches half of the slow consumer limit, so that a resend does not cause a
+     * slow consumer disconnect.
+     */
+    @Override
+    public void awaitWritable() {
+        final WriteFuture future = lastWriteFuture;
+        final int backlog = maxScheduledWriteRequests > 0
+                ? Math.max(1, maxScheduledWriteRequests / 2)
+                : DEFAULT_WRITE_BACKLOG;
+        if (future == null || ioSession.getScheduledWriteMessages() < backlog) {
+            return;
+        }
+        try {
+            future.awaitUninterruptibly(synchronousWriteTimeout);
+        } catch (RuntimeException e) {
+            // MINA does not allow waiting in an I/O processor thread
+            LogUtil.logThrowable(getQFJSession().getSessionID(), "Waiting for pending writes failed.", e);
+        }
+    }
+
     @Override
     public void disconnect() {
         // We cannot call join() on the CloseFuture returned
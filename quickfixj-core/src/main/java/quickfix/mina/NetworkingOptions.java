@@ -47,6 +47,8 @@ public class NetworkingOptions {
     private final Integer trafficClass;
     private final Boolean synchronousWrites;
     private final Integer synchronousWriteTimeout;
+    private final Boolean decodeMessageBytes;
+    private final Boolean deferMessageParsing;
 
     public static final String SETTING_SOCKET_KEEPALIVE = "SocketKeepAlive";
     public static final String SETTING_SOCKET_OOBINLINE = "SocketOobInline";
@@ -58,6 +60,8 @@ public class NetworkingOptions {
     public static final String SETTING_SOCKET_TRAFFIC_CLASS = "SocketTrafficClass";
     public static final String SETTING_SOCKET_SYNCHRONOUS_WRITES = "SocketSynchronousWrites";
     public static final String SETTING_SOCKET_SYNCHRONOUS_WRITE_TIMEOUT = "SocketSynchronousWriteTimeout";
+    public static final String SETTING_SOCKET_DECODE_MESSAGE_BYTES = "SocketDecodeMessageBytes";
+    public static final String SETTING_SOCKET_DEFER_MESSAGE_PARSING = "SocketDeferMessageParsing";
 
     public static final String IPTOC_LOWCOST = "IPTOS_LOWCOST";
     public static final String IPTOC_RELIABILITY = "IPTOS_RELIABILITY";
@@ -82,6 +86,8 @@ public class NetworkingOptions {
         tcpNoDelay = getBoolean(properties, SETTING_SOCKET_TCP_NODELAY, Boolean.TRUE);
         synchronousWrites = getBoolean(properties, SETTING_SOCKET_SYNCHRONOUS_WRITES, Boolean.FALSE);
         synchronousWriteTimeout = getInteger(properties, SETTING_SOCKET_SYNCHRONOUS_WRITE_TIMEOUT, 30000);
+        decodeMessageBytes = getBoolean(properties, SETTING_SOCKET_DECODE_MESSAGE_BYTES, Boolean.FALSE);
+        deferMessageParsing = getBoolean(properties, SETTING_SOCKET_DEFER_MESSAGE_PARSING, Boolean.FALSE);
 
         Integer trafficClassSetting;
         try {
@@ -164,4 +170,12 @@ public class NetworkingOptions {
     public Integer getSynchronousWriteTimeout() {
         return synchronousWriteTimeout;
     }
+
+    public Boolean getDecodeMessageBytes() {
+        return decodeMessageBytes;
+    }
+
+    public Boolean getDeferMessageParsing() {
+        return deferMessageParsing;
+    }
 }
@@ -0,0 +1,618 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+
+package quickfix.mina;
+
+import quickfix.ConfigError;
+import quickfix.FieldConvertError;
+import quickfix.LogUtil;
+import quickfix.Message;
+import quickfix.Session;
+import quickfix.SessionID;
+import quickfix.SessionSettings;
+import quickfix.SystemTime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static quickfix.mina.QueueTrackers.newDefaultQueueTracker;
+import static quickfix.mina.QueueTrackers.newMultiSessionWatermarkTracker;
+
+/**
+ * Processes the messages of all sessions with a fixed number of worker threads.
+ * <p>
+ * Every session is assigned to one worker, which processes all messages of the
+ * session in the order they were received. Sessions are assigned by the hash of
+ * their session ID, unless a worker is configured for the session with
+ * {@link #SETTING_EVENT_HANDLING_WORKER} or assigned with
+ * {@link #assignSession(SessionID, int)}.
+ * <p>
+ * Sessions which are not explicitly assigned are moved from the busiest to the
+ * least busy worker by {@link #rebalance()}, which is called periodically if
+ * {@link #SETTING_EVENT_HANDLING_REBALANCE_INTERVAL} is set. While a session is
+ * moved, its new messages are held back until the previous worker has processed
+ * the messages queued before the move, so the order is kept.
+ */
+public class PartitionedEventHandlingStrategy implements SharedEventHandlingStrategy {
+
+    /**
+     * Number of worker threads processing the messages of the sessions of a
+     * socket acceptor or initiator. If set, the messages are processed with this
+     * strategy instead of a single thread.
+     */
+    public static final String SETTING_EVENT_HANDLING_WORKERS = "EventHandlingWorkers";
+
+    /**
+     * Worker, from 0 to the number of workers - 1, processing the messages of a
+     * session. Sessions with an explicit worker are not rebalanced.
+     */
+    public static final String SETTING_EVENT_HANDLING_WORKER = "EventHandlingWorker";
+
+    /**
+     * Interval in seconds in which sessions are rebalanced between the workers.
+     * 0, the default, disables rebalancing.
+     */
+    public static final String SETTING_EVENT_HANDLING_REBALANCE_INTERVAL = "EventHandlingRebalanceInterval";
+
+    public static final String MESSAGE_PROCESSOR_THREAD_NAME = "QFJ Message Processor";
+
+    private final SessionConnector sessionConnector;
+    private final Worker[] workers;
+    private final ConcurrentMap<SessionID, Route> routes = new ConcurrentHashMap<>();
+    private volatile boolean isStopped;
+    private volatile Executor executor;
+    private long rebalanceIntervalMillis;
+    private ScheduledExecutorService rebalancer;
+    private int runningWorkers;
+    private long stopTime = 0L;
+
+    public PartitionedEventHandlingStrategy(SessionConnector connector, int workerCount, int queueCapacity) {
+        this(connector, workerCount, queueCapacity, null);
+    }
+
+    /**
+     * @param workerCount the number of worker threads
+     * @param queueCapacity the capacity of the queue of each worker
+     * @param waitStrategy if not null, messages are queued in a {@link RingBufferQueue}
+     *            using this wait strategy instead of a linked queue
+     */
+    public PartitionedEventHandlingStrategy(SessionConnector connector, int workerCount, int queueCapacity,
+            RingBufferQueue.WaitStrategy waitStrategy) {
+        this(connector, workerCount, queueCapacity, -1, -1, waitStrategy);
+    }
+
+    /**
+     * @param workerCount the number of worker threads
+     * @param queueLowerWatermark the lower watermark of the queue of each worker
+     * @param queueUpperWatermark the upper watermark of the queue of each worker
+     * @param waitStrategy if not null, messages are queued in a {@link RingBufferQueue}
+     *            using this wait strategy instead of an unbounded linked queue
+     */
+    public PartitionedEventHandlingStrategy(SessionConnector connector, int workerCount, int queueLowerWatermark,
+            int queueUpperWatermark, RingBufferQueue.WaitStrategy waitStrategy) {
+        this(connector, workerCount, -1, queueLowerWatermark, queueUpperWatermark, waitStrategy);
+    }
+
+    private PartitionedEventHandlingStrategy(SessionConnector connector, int workerCount, int queueCapacity,
+            int queueLowerWatermark, int queueUpperWatermark, RingBufferQueue.WaitStrategy waitStrategy) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("Invalid number of workers: " + workerCount);
+        }
+        sessionConnector = connector;
+        workers = new Worker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Worker(i, queueCapacity, queueLowerWatermark, queueUpperWatermark, waitStrategy);
+        }
+    }
+
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @param rebalanceIntervalMillis the interval in which {@link #rebalance()} is
+     *            called while messages are processed, 0 to disable rebalancing
+     */
+    public void setRebalanceInterval(long rebalanceIntervalMillis) {
+        this.rebalanceIntervalMillis = rebalanceIntervalMillis;
+    }
+
+    public int getWorkerCount() {
+        return workers.length;
+    }
+
+    @Override
+    public void onMessage(Session quickfixSession, Message message) {
+        if (message == END_OF_STREAM && isStopped) {
+            return;
+        }
+        enqueue(quickfixSession, message);
+    }
+
+    @Override
+    public void onUnparsedMessage(Session quickfixSession, UnparsedMessage message) {
+        enqueue(quickfixSession, message);
+    }
+
+    private void enqueue(Session quickfixSession, Object message) {
+        final Route route = getRoute(quickfixSession.getSessionID());
+        final Event event = new Event(quickfixSession, route, message, null);
+        try {
+            synchronized (route) {
+                route.session = quickfixSession;
+                if (route.moving) {
+                    route.deferred.add(event);
+                } else {
+                    route.worker.queueTracker.put(event);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Route getRoute(SessionID sessionID) {
+        final Route route = routes.get(sessionID);
+        return route != null ? route : routes.computeIfAbsent(sessionID, this::createRoute);
+    }
+
+    private Route createRoute(SessionID sessionID) {
+        final int configuredWorker = getConfiguredWorker(sessionID);
+        if (configuredWorker >= 0) {
+            return new Route(workers[configuredWorker], true);
+        }
+        return new Route(workers[Math.floorMod(sessionID.hashCode(), workers.length)], false);
+    }
+
+    private int getConfiguredWorker(SessionID sessionID) {
+        final SessionSettings settings = sessionConnector != null ? sessionConnector.getSettings() : null;
+        if (settings == null || !settings.isSetting(sessionID, SETTING_EVENT_HANDLING_WORKER)) {
+            return -1;
+        }
+        try {
+            final int worker = settings.getInt(sessionID, SETTING_EVENT_HANDLING_WORKER);
+            if (worker >= 0 && worker < workers.length) {
+                return worker;
+            }
+            LogUtil.logThrowable(sessionID, "Ignoring " + SETTING_EVENT_HANDLING_WORKER + " " + worker
+                    + ", only " + workers.length + " workers", null);
+        } catch (ConfigError | FieldConvertError e) {
+            LogUtil.logThrowable(sessionID, "Ignoring invalid " + SETTING_EVENT_HANDLING_WORKER, e);
+        }
+        return -1;
+    }
+
+    /**
+     * Assigns a session to a worker. The session keeps the worker until it is
+     * assigned to another one, it is not moved by {@link #rebalance()}.
+     * <p>
+     * Must not be called by a worker thread.
+     *
+     * @param sessionID the session
+     * @param worker the worker, from 0 to the number of workers - 1
+     */
+    public void assignSession(SessionID sessionID, int worker) {
+        if (worker < 0 || worker >= workers.length) {
+            throw new IllegalArgumentException("Invalid worker " + worker + ", only " + workers.length + " workers");
+        }
+        final Route route = getRoute(sessionID);
+        synchronized (route) {
+            route.pinned = true;
+        }
+        move(route, workers[worker]);
+    }
+
+    /**
+     * @param sessionID the session
+     * @return the worker processing the messages of the session, -1 if the session
+     *         has not received a message yet
+     */
+    public int getAssignedWorker(SessionID sessionID) {
+        final Route route = routes.get(sessionID);
+        if (route == null) {
+            return -1;
+        }
+        synchronized (route) {
+            return route.worker.index;
+        }
+    }
+
+    private boolean move(Route route, Worker target) {
+        try {
+            synchronized (route) {
+                if (route.moving || route.worker == target) {
+                    return false;
+                }
+                if (route.session == null) {
+                    // nothing has been queued for the session yet
+                    route.worker = target;
+                    return true;
+                }
+                route.moving = true;
+                // the marker is tracked as an event of the session, the watermark tracker needs its key
+                route.worker.queueTracker.put(new Event(route.session, route, null, target));
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            synchronized (route) {
+                route.moving = false;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Called by the previous worker of a session once it has processed the
+     * messages queued before the move.
+     */
+    private static void completeMove(Route route, Worker target) {
+        while (true) {
+            final List<Event> deferred;
+            synchronized (route) {
+                if (route.deferred.isEmpty()) {
+                    route.worker = target;
+                    route.moving = false;
+                    return;
+                }
+                deferred = new ArrayList<>(route.deferred);
+                route.deferred.clear();
+            }
+            // the deferred events are of one session, they are delivered as one batch
+            final Session session = deferred.get(0).session;
+            session.beginApplicationBatch();
+            for (Event event : deferred) {
+                event.process();
+            }
+            SingleThreadedEventHandlingStrategy.endApplicationBatch(session);
+        }
+    }
+
+    /**
+     * Moves one session from the busiest to the least busy worker, measured by the
+     * number of messages processed since the previous call, if that reduces the
+     * imbalance between the two workers by a relevant amount.
+     *
+     * @return true if a session is moved
+     */
+    public synchronized boolean rebalance() {
+        final long[] load = new long[workers.length];
+        final List<Route> candidates = new ArrayList<>();
+        for (Route route : routes.values()) {
+            final long processed = route.processed;
+            route.recentlyProcessed = processed - route.processedAtRebalance;
+            route.processedAtRebalance = processed;
+            synchronized (route) {
+                load[route.worker.index] += route.recentlyProcessed;
+                if (!route.pinned && !route.moving) {
+                    candidates.add(route);
+                }
+            }
+        }
+        int busiest = 0;
+        int idlest = 0;
+        for (int i = 1; i < load.length; i++) {
+            if (load[i] > load[busiest]) {
+                busiest = i;
+            }
+            if (load[i] < load[idlest]) {
+                idlest = i;
+            }
+        }
+        final long imbalance = load[busiest] - load[idlest];
+        if (imbalance * 4 <= load[busiest]) {
+            return false;
+        }
+        // the session whose move evens out the two workers best
+        Route selected = null;
+        long remainingImbalance = imbalance;
+        for (Route route : candidates) {
+            if (route.worker == workers[busiest] && route.recentlyProcessed > 0) {
+                final long remaining = Math.abs(imbalance - 2 * route.recentlyProcessed);
+                if (remaining < remainingImbalance) {
+                    selected = route;
+                    remainingImbalance = remaining;
+                }
+            }
+        }
+        return selected != null && move(selected, workers[idlest]);
+    }
+
+    @Override
+    public SessionConnector getSessionConnector() {
+        return sessionConnector;
+    }
+
+    /**
+     * Starts the worker threads. If workers of a previous start are still alive,
+     * an attempt is made to stop them. An IllegalStateException is thrown if they
+     * could not be stopped.
+     */
+    @Override
+    public void blockInThread() {
+        if (isAnyWorkerAlive()) {
+            sessionConnector.log.warn("Trying to stop still running {} threads", MESSAGE_PROCESSOR_THREAD_NAME);
+            stopHandlingMessages(true);
+            if (isAnyWorkerAlive()) {
+                throw new IllegalStateException("Still running " + MESSAGE_PROCESSOR_THREAD_NAME
+                        + " threads could not be stopped!");
+            }
+        }
+        synchronized (this) {
+            isStopped = false;
+            runningWorkers = workers.length;
+        }
+        for (Worker worker : workers) {
+            final String name = MESSAGE_PROCESSOR_THREAD_NAME + " " + worker.index;
+            worker.thread = new SingleThreadedEventHandlingStrategy.ThreadAdapter(() -> worker.run(), name, executor);
+            worker.thread.start();
+        }
+        if (rebalanceIntervalMillis > 0) {
+            rebalancer = Executors.newSingleThreadScheduledExecutor(r -> {
+                final Thread thread = new Thread(r, "QFJ Message Processor Rebalancer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            rebalancer.scheduleWithFixedDelay(this::rebalance, rebalanceIntervalMillis, rebalanceIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private boolean isAnyWorkerAlive() {
+        for (Worker worker : workers) {
+            if (worker.thread != null && worker.thread.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stops processing of messages without waiting for the worker threads to finish.
+     */
+    public synchronized void stopHandlingMessages() {
+        if (sessionConnector != null) {
+            for (Session session : sessionConnector.getSessionMap().values()) {
+                onMessage(session, END_OF_STREAM);
+            }
+        }
+        isStopped = true;
+        if (rebalancer != null) {
+            rebalancer.shutdownNow();
+            rebalancer = null;
+        }
+    }
+
+    @Override
+    public void stopHandlingMessages(boolean join) {
+        stopHandlingMessages();
+        if (join) {
+            try {
+                for (Worker worker : workers) {
+                    if (worker.thread != null) {
+                        worker.thread.join();
+                    }
+                }
+            } catch (InterruptedException e) {
+                sessionConnector.log.warn("{} interrupted.", MESSAGE_PROCESSOR_THREAD_NAME);
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private synchronized void onWorkerStopped() {
+        if (--runningWorkers > 0 || sessionConnector == null) {
+            return;
+        }
+        if (stopTime == 0) {
+            stopTime = SystemTime.currentTimeMillis();
+        }
+        if (!sessionConnector.isLoggedOn() || SystemTime.currentTimeMillis() - stopTime > 5000L) {
+            sessionConnector.stopSessionTimer();
+            // reset the stoptime
+            stopTime = 0;
+        }
+    }
+
+    @Override
+    public int getQueueSize() {
+        int size = 0;
+        for (Worker worker : workers) {
+            size += worker.queue.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return the number of queued messages of the worker processing the session
+     */
+    @Override
+    public int getQueueSize(SessionID sessionID) {
+        final Route route = routes.get(sessionID);
+        if (route == null) {
+            return 0;
+        }
+        synchronized (route) {
+            return route.worker.queue.size() + route.deferred.size();
+        }
+    }
+
+    /**
+     * Creates the strategy configured in the default section of the settings.
+     *
+     * @return the strategy, or null if {@link #SETTING_EVENT_HANDLING_WORKERS} is not set
+     */
+    static PartitionedEventHandlingStrategy create(SessionConnector connector, SessionSettings settings,
+            int queueCapacity, int queueLowerWatermark, int queueUpperWatermark,
+            RingBufferQueue.WaitStrategy waitStrategy) throws ConfigError {
+        if (settings == null || !settings.isSetting(SETTING_EVENT_HANDLING_WORKERS)) {
+            return null;
+        }
+        try {
+            final int workerCount = (int) settings.getLong(SETTING_EVENT_HANDLING_WORKERS);
+            if (workerCount < 1) {
+                throw new ConfigError(SETTING_EVENT_HANDLING_WORKERS + " must be positive: " + workerCount);
+            }
+            final PartitionedEventHandlingStrategy strategy = queueCapacity >= 0
+                    ? new PartitionedEventHandlingStrategy(connector, workerCount, queueCapacity, waitStrategy)
+                    : new PartitionedEventHandlingStrategy(connector, workerCount, queueLowerWatermark,
+                            queueUpperWatermark, waitStrategy);
+            if (settings.isSetting(SETTING_EVENT_HANDLING_REBALANCE_INTERVAL)) {
+                strategy.setRebalanceInterval(
+                        TimeUnit.SECONDS.toMillis(settings.getLong(SETTING_EVENT_HANDLING_REBALANCE_INTERVAL)));
+            }
+            return strategy;
+        } catch (FieldConvertError e) {
+            throw new ConfigError(e);
+        }
+    }
+
+    private final class Worker {
+        private final int index;
+        private final BlockingQueue<Event> queue;
+        private final QueueTracker<Event> queueTracker;
+        private volatile SingleThreadedEventHandlingStrategy.ThreadAdapter thread;
+
+        Worker(int index, int queueCapacity, int queueLowerWatermark, int queueUpperWatermark,
+                RingBufferQueue.WaitStrategy waitStrategy) {
+            this.index = index;
+            if (queueCapacity >= 0) {
+                queue = waitStrategy != null
+                        ? new RingBufferQueue<>(queueCapacity, waitStrategy)
+                        : new LinkedBlockingQueue<>(queueCapacity);
+                queueTracker = newDefaultQueueTracker(queue);
+            } else {
+                queue = waitStrategy != null
+                        ? new RingBufferQueue<>(Math.max(RingBufferQueue.DEFAULT_CAPACITY, queueUpperWatermark * 2),
+                                waitStrategy)
+                        : new LinkedBlockingQueue<>();
+                if (queueLowerWatermark > 0 && queueUpperWatermark > 0) {
+                    queueTracker = newMultiSessionWatermarkTracker(queue, queueLowerWatermark,
+                            queueUpperWatermark, event -> event.session);
+                } else {
+                    queueTracker = newDefaultQueueTracker(queue);
+                }
+            }
+        }
+
+        void run() {
+            final List<Event> events = new ArrayList<>();
+            try {
+                while (!isStopped) {
+                    final Event event = queueTracker.poll(THREAD_WAIT_FOR_MESSAGE_MS, TimeUnit.MILLISECONDS);
+                    if (event != null) {
+                        // process all queued events at once
+                        events.add(event);
+                        queueTracker.drainTo(events);
+                        processEvents(events);
+                        events.clear();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            final List<Event> remaining = new ArrayList<>(queue.size());
+            queueTracker.drainTo(remaining);
+            processEvents(remaining);
+            onWorkerStopped();
+        }
+
+        /**
+         * Processes the events in order. The application messages of consecutive events
+         * of the same session are delivered as one batch to a {@link quickfix.BatchApplication}.
+         */
+        private void processEvents(List<Event> events) {
+            Session batchSession = null;
+            for (Event event : events) {
+                if (event.moveTarget != null) {
+                    // a move marker ends the batch before the session is handed over
+                    SingleThreadedEventHandlingStrategy.endApplicationBatch(batchSession);
+                    batchSession = null;
+                } else if (event.session != batchSession) {
+                    SingleThreadedEventHandlingStrategy.endApplicationBatch(batchSession);
+                    batchSession = event.session;
+                    batchSession.beginApplicationBatch();
+                }
+                event.process();
+            }
+            SingleThreadedEventHandlingStrategy.endApplicationBatch(batchSession);
+        }
+    }
+
+    private static final class Route {
+        // @GuardedBy(this)
+        private Worker worker;
+        // the session of the queued events, null until the first message is received
+        private Session session;
+        private boolean pinned;
+        private boolean moving;
+        private final List<Event> deferred = new ArrayList<>();
+        // written by the processing worker
+        private volatile long processed;
+        // used by rebalance()
+        private long processedAtRebalance;
+        private long recentlyProcessed;
+
+        Route(Worker worker, boolean pinned) {
+            this.worker = worker;
+            this.pinned = pinned;
+        }
+    }
+
+    private static final class Event {
+        private final Session session;
+        private final Route route;
+        // a Message or an UnparsedMessage
+        private final Object message;
+        // not null for the marker completing a move
+        private final Worker moveTarget;
+
+        Event(Session session, Route route, Object message, Worker moveTarget) {
+            this.session = session;
+            this.route = route;
+            this.message = message;
+            this.moveTarget = moveTarget;
+        }
+
+        void process() {
+            if (moveTarget != null) {
+                completeMove(route, moveTarget);
+                return;
+            }
+            route.processed++;
+            try {
+                final Message parsedMessage = UnparsedMessage.parse(message);
+                if (parsedMessage != null) {
+                    session.next(parsedMessage);
+                }
+            } catch (Throwable e) {
+                LogUtil.logThrowable(session.getSessionID(), e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+
+package quickfix.mina;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded multi-producer, single-consumer queue backed by a preallocated ring
+ * buffer. Producers claim a slot with a compare-and-set on the tail counter, so
+ * no node is allocated per element and no lock is taken. How the consumer waits
+ * for elements is selected by the {@link WaitStrategy}.
+ * <p>
+ * Only one thread at a time may take elements from the queue, i.e. call
+ * {@link #poll()}, {@link #poll(long, TimeUnit)}, {@link #take()},
+ * {@link #drainTo(Collection)} or {@link #clear()}. Removing arbitrary elements
+ * is not supported.
+ *
+ * @param <E> element type
+ */
+public class RingBufferQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    /**
+     * The capacity used when no capacity is configured.
+     */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    /**
+     * How the consumer waits for elements.
+     */
+    public enum WaitStrategy {
+        /**
+         * The consumer is parked and woken up by the producer. Lowest CPU usage,
+         * highest latency.
+         */
+        BLOCKING,
+        /**
+         * The consumer spins for a short while and then yields the CPU between
+         * checks.
+         */
+        YIELDING,
+        /**
+         * The consumer spins without giving up the CPU. Lowest latency, but
+         * occupies a core per consumer thread, which should be pinned to an
+         * isolated CPU by the operating system.
+         */
+        BUSY_SPIN
+    }
+
+    private static final int SPIN_TRIES = 100;
+    private static final long PRODUCER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final int capacity;
+    private final WaitStrategy waitStrategy;
+    // next slot to be claimed by a producer
+    private final AtomicLong tail = new AtomicLong();
+    // next slot to be taken, only written by the consumer
+    private volatile long head;
+    private volatile Thread waitingConsumer;
+
+    /**
+     * @param capacity the maximum number of elements
+     * @param waitStrategy how the consumer waits for elements
+     */
+    public RingBufferQueue(int capacity, WaitStrategy waitStrategy) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        this.capacity = capacity;
+        this.waitStrategy = Objects.requireNonNull(waitStrategy, "waitStrategy");
+        final int size = Integer.highestOneBit(capacity - 1) << 1;
+        slots = new AtomicReferenceArray<>(Math.max(size, 1));
+        mask = slots.length() - 1;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        Objects.requireNonNull(e);
+        long t;
+        do {
+            t = tail.get();
+            if (t - head >= capacity) {
+                return false;
+            }
+        } while (!tail.compareAndSet(t, t + 1));
+        // the slot is free, the consumer cleared it before moving the head past it
+        slots.set((int) t & mask, e);
+        final Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        int tries = 0;
+        while (!offer(e)) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            waitForSpace(++tries);
+        }
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int tries = 0;
+        while (!offer(e)) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (deadline - System.nanoTime() <= 0) {
+                return false;
+            }
+            waitForSpace(++tries);
+        }
+        return true;
+    }
+
+    private static void waitForSpace(int tries) {
+        if (tries < SPIN_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PRODUCER_PARK_NANOS);
+        }
+    }
+
+    @Override
+    public E poll() {
+        final long h = head;
+        final int index = (int) h & mask;
+        final E e = slots.get(index);
+        if (e == null) {
+            // empty, or the producer which claimed the slot has not published yet
+            return null;
+        }
+        slots.lazySet(index, null);
+        head = h + 1;
+        return e;
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        E e = poll();
+        if (e != null) {
+            return e;
+        }
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int tries = 0;
+        while (true) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            e = poll();
+            if (e != null) {
+                return e;
+            }
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return null;
+            }
+            switch (waitStrategy) {
+            case BLOCKING:
+                waitingConsumer = Thread.currentThread();
+                // checked again after announcing the wait, a producer publishing meanwhile unparks us
+                if (peek() == null) {
+                    LockSupport.parkNanos(this, remaining);
+                }
+                waitingConsumer = null;
+                break;
+            case YIELDING:
+                if (++tries > SPIN_TRIES) {
+                    Thread.yield();
+                }
+                break;
+            default:
+                break;
+            }
+        }
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        E e;
+        do {
+            e = poll(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } while (e == null);
+        return e;
+    }
+
+    @Override
+    public E peek() {
+        return slots.get((int) head & mask);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        if (c == this) {
+            throw new IllegalArgumentException();
+        }
+        int n = 0;
+        E e;
+        while (n < maxElements && (e = poll()) != null) {
+            c.add(e);
+            n++;
+        }
+        return n;
+    }
+
+    @Override
+    public int size() {
+        // claimed but unpublished slots are counted
+        return (int) Math.max(0, Math.min(capacity, tail.get() - head));
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    /**
+     * Returns an iterator over a snapshot of the queued elements, which does not
+     * support removal.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        final List<E> elements = new ArrayList<>();
+        final long t = tail.get();
+        for (long i = head; i < t; i++) {
+            final E e = slots.get((int) i & mask);
+            if (e != null) {
+                elements.add(e);
+            }
+        }
+        return Collections.unmodifiableList(elements).iterator();
+    }
+}
@@ -182,6 +182,35 @@ public abstract class SessionConnector implements Connector {
         return sessionFactory.create(sessionID, settings);
     }
 
+    /**
+     * Creates the strategy processing the messages of all sessions of this connector:
+     * a {@link PartitionedEventHandlingStrategy} if
+     * {@link PartitionedEventHandlingStrategy#SETTING_EVENT_HANDLING_WORKERS} is set,
+     * otherwise a {@link SingleThreadedEventHandlingStrategy}.
+     *
+     * @param queueCapacity the queue capacity, or a negative value to use the watermarks
+     * @param queueLowerWatermark the lower watermark, used if queueCapacity is negative
+     * @param queueUpperWatermark the upper watermark, used if queueCapacity is negative
+     * @param waitStrategy the wait strategy of a ring buffer queue, or null for a linked queue
+     */
+    protected SharedEventHandlingStrategy createSharedEventHandlingStrategy(int queueCapacity,
+            int queueLowerWatermark, int queueUpperWatermark, RingBufferQueue.WaitStrategy waitStrategy)
+            throws ConfigError {
+        final SharedEventHandlingStrategy partitioned = PartitionedEventHandlingStrategy.create(this, settings,
+                queueCapacity, queueLowerWatermark, queueUpperWatermark, waitStrategy);
+        if (partitioned != null) {
+            return partitioned;
+        }
+        return queueCapacity >= 0
+                ? new SingleThreadedEventHandlingStrategy(this, queueCapacity, waitStrategy)
+                : new SingleThreadedEventHandlingStrategy(this, queueLowerWatermark, queueUpperWatermark,
+                        waitStrategy);
+    }
+
+    protected SharedEventHandlingStrategy createSharedEventHandlingStrategy(int queueCapacity) throws ConfigError {
+        return createSharedEventHandlingStrategy(queueCapacity, -1, -1, null);
+    }
+
     protected int getIntSetting(String key) throws ConfigError {
         try {
             return IntConverter.convert(settings.getString(key));
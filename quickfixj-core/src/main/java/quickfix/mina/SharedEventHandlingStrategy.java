@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+
+package quickfix.mina;
+
+import java.util.concurrent.Executor;
+
+/**
+ * An event handling strategy with a fixed set of threads processing the messages
+ * of all sessions of a connector. The threads are started and stopped by the
+ * connector.
+ */
+public interface SharedEventHandlingStrategy extends EventHandlingStrategy {
+
+    /**
+     * @param executor the executor running the message processing threads, or
+     *            null to use dedicated threads
+     */
+    void setExecutor(Executor executor);
+
+    /**
+     * Starts the message processing threads.
+     */
+    void blockInThread();
+
+    /**
+     * Stops processing of messages and optionally waits for the message
+     * processing threads to finish.
+     *
+     * @param join true to wait for the threads to finish
+     */
+    void stopHandlingMessages(boolean join);
+}
@@ -36,10 +36,12 @@ import static quickfix.mina.QueueTrackers.newMultiSessionWatermarkTracker;
 /**
  * Processes messages for all sessions in a single thread.
  */
-public class SingleThreadedEventHandlingStrategy implements EventHandlingStrategy {
+public class SingleThreadedEventHandlingStrategy implements SharedEventHandlingStrategy {
     public static final String MESSAGE_PROCESSOR_THREAD_NAME = "QFJ Message Processor";
     private final BlockingQueue<SessionMessageEvent> eventQueue;
     private final QueueTracker<SessionMessageEvent> queueTracker;
+    // used by the message processing thread only
+    private final List<SessionMessageEvent> events = new ArrayList<>();
     private final SessionConnector sessionConnector;
     private volatile ThreadAdapter messageProcessingThread;
     private volatile boolean isStopped;
@@ -47,14 +49,36 @@ public class SingleThreadedEventHandlingStrategy implements EventHandlingStrateg
     private long stopTime = 0L;
 
     public SingleThreadedEventHandlingStrategy(SessionConnector connector, int queueCapacity) {
+        this(connector, queueCapacity, null);
+    }
+
+    /**
+     * @param waitStrategy if not null, messages are queued in a {@link RingBufferQueue}
+     *            using this wait strategy instead of a linked queue
+     */
+    public SingleThreadedEventHandlingStrategy(SessionConnector connector, int queueCapacity,
+            RingBufferQueue.WaitStrategy waitStrategy) {
         sessionConnector = connector;
-        eventQueue = new LinkedBlockingQueue<>(queueCapacity);
+        eventQueue = waitStrategy != null
+                ? new RingBufferQueue<>(queueCapacity, waitStrategy)
+                : new LinkedBlockingQueue<>(queueCapacity);
         queueTracker = newDefaultQueueTracker(eventQueue);
     }
 
     public SingleThreadedEventHandlingStrategy(SessionConnector connector, int queueLowerWatermark, int queueUpperWatermark) {
+        this(connector, queueLowerWatermark, queueUpperWatermark, null);
+    }
+
+    /**
+     * @param waitStrategy if not null, messages are queued in a {@link RingBufferQueue}
+     *            using this wait strategy instead of an unbounded linked queue
+     */
+    public SingleThreadedEventHandlingStrategy(SessionConnector connector, int queueLowerWatermark,
+            int queueUpperWatermark, RingBufferQueue.WaitStrategy waitStrategy) {
         sessionConnector = connector;
-        eventQueue = new LinkedBlockingQueue<>();
+        eventQueue = waitStrategy != null
+                ? new RingBufferQueue<>(Math.max(RingBufferQueue.DEFAULT_CAPACITY, queueUpperWatermark * 2), waitStrategy)
+                : new LinkedBlockingQueue<>();
         if (queueLowerWatermark > 0 && queueUpperWatermark > 0) {
             queueTracker = newMultiSessionWatermarkTracker(eventQueue, queueLowerWatermark, queueUpperWatermark,
                     evt -> evt.quickfixSession);
@@ -72,6 +96,15 @@ public class SingleThreadedEventHandlingStrategy implements EventHandlingStrateg
         if (message == END_OF_STREAM && isStopped) {
             return;
         }
+        enqueue(quickfixSession, message);
+    }
+
+    @Override
+    public void onUnparsedMessage(Session quickfixSession, UnparsedMessage message) {
+        enqueue(quickfixSession, message);
+    }
+
+    private void enqueue(Session quickfixSession, Object message) {
         try {
             queueTracker.put(new SessionMessageEvent(quickfixSession, message));
         } catch (InterruptedException e) {
@@ -92,9 +125,7 @@ public class SingleThreadedEventHandlingStrategy implements EventHandlingStrateg
                     if (!eventQueue.isEmpty()) {
                         final List<SessionMessageEvent> tempList = new ArrayList<>(eventQueue.size());
                         queueTracker.drainTo(tempList);
-                        for (SessionMessageEvent event : tempList) {
-                            event.processMessage();
-                        }
+                        processMessages(tempList);
                     }
                     if (stopTime == 0) {
                         stopTime = SystemTime.currentTimeMillis();
@@ -110,7 +141,11 @@ public class SingleThreadedEventHandlingStrategy implements EventHandlingStrateg
             try {
                 SessionMessageEvent event = getMessage();
                 if (event != null) {
-                    event.processMessage();
+                    // process all queued events at once
+                    events.add(event);
+                    queueTracker.drainTo(events);
+                    processMessages(events);
+                    events.clear();
                 }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -118,6 +153,33 @@ public class SingleThreadedEventHandlingStrategy implements EventHandlingStrateg
         }
     }
 
+    /**
+     * Processes the events in order. The application messages of consecutive events
+     * of the same session are delivered as one batch to a {@link BatchApplication}.
+     */
+    private static void processMessages(List<SessionMessageEvent> events) {
+        Session batchSession = null;
+        for (SessionMessageEvent event : events) {
+            if (event.quickfixSession != batchSession) {
+                endApplicationBatch(batchSession);
+                batchSession = event.quickfixSession;
+                batchSession.beginApplicationBatch();
+            }
+            event.processMessage();
+        }
+        endApplicationBatch(batchSession);
+    }
+
+    static void endApplicationBatch(Session session) {
+        if (session != null) {
+            try {
+                session.endApplicationBatch();
+            } catch (Throwable e) {
+                LogUtil.logThrowable(session.getSessionID(), e.getMessage(), e);
+            }
+        }
+    }
+
     private SessionMessageEvent getMessage() throws InterruptedException {
         return queueTracker.poll(THREAD_WAIT_FOR_MESSAGE_MS, TimeUnit.MILLISECONDS);
     }
@@ -151,16 +213,20 @@ public class SingleThreadedEventHandlingStrategy implements EventHandlingStrateg
 
     private static class SessionMessageEvent {
         private final Session quickfixSession;
-        private final Message message;
+        // a Message or an UnparsedMessage
+        private final Object message;
 
-        public SessionMessageEvent(Session session, Message message) {
+        public SessionMessageEvent(Session session, Object message) {
             this.message = message;
             quickfixSession = session;
         }
 
         public void processMessage() {
             try {
-                quickfixSession.next(message);
+                final Message parsedMessage = UnparsedMessage.parse(message);
+                if (parsedMessage != null) {
+                    quickfixSession.next(parsedMessage);
+                }
             } catch (Throwable e) {
                 LogUtil.logThrowable(quickfixSession.getSessionID(), e.getMessage(), e);
             }
@@ -20,6 +20,8 @@
 
 package quickfix.mina;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import quickfix.*;
 
 import java.util.ArrayList;
@@ -37,52 +39,137 @@ import static quickfix.mina.QueueTrackers.newSingleSessionWatermarkTracker;
 
 /**
  * Processes messages in a session-specific thread.
+ * <p>
+ * The threads are platform threads unless an executor is set. On Java runtimes
+ * supporting virtual threads, the messages of each session can be processed by a
+ * virtual thread instead, see {@link #setVirtualThreads(boolean)}.
  */
 public class ThreadPerSessionEventHandlingStrategy implements EventHandlingStrategy {
+
+    /**
+     * Process the messages of each session of a threaded acceptor or initiator on a
+     * virtual thread. Ignored with a warning if the Java runtime does not support
+     * virtual threads.
+     */
+    public static final String SETTING_USE_VIRTUAL_THREADS = "UseVirtualThreads";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ThreadPerSessionEventHandlingStrategy.class);
+
     private final ConcurrentMap<SessionID, MessageDispatchingThread> dispatchers = new ConcurrentHashMap<>();
     private final SessionConnector sessionConnector;
     private final int queueCapacity;
     private final int queueLowerWatermark;
     private final int queueUpperWatermark;
+    private final RingBufferQueue.WaitStrategy waitStrategy;
     private volatile Executor executor;
+    private volatile boolean virtualThreads;
 
     public ThreadPerSessionEventHandlingStrategy(SessionConnector connector, int queueCapacity) {
+        this(connector, queueCapacity, null);
+    }
+
+    /**
+     * @param waitStrategy if not null, messages are queued in a {@link RingBufferQueue}
+     *            using this wait strategy instead of a linked queue
+     */
+    public ThreadPerSessionEventHandlingStrategy(SessionConnector connector, int queueCapacity,
+            RingBufferQueue.WaitStrategy waitStrategy) {
         sessionConnector = connector;
         this.queueCapacity = queueCapacity;
         this.queueLowerWatermark = -1;
         this.queueUpperWatermark = -1;
+        this.waitStrategy = waitStrategy;
+        setVirtualThreads(isVirtualThreadsConfigured(connector));
     }
 
     public ThreadPerSessionEventHandlingStrategy(SessionConnector connector, int queueLowerWatermark, int queueUpperWatermark) {
+        this(connector, queueLowerWatermark, queueUpperWatermark, null);
+    }
+
+    /**
+     * @param waitStrategy if not null, messages are queued in a {@link RingBufferQueue}
+     *            using this wait strategy instead of an unbounded linked queue
+     */
+    public ThreadPerSessionEventHandlingStrategy(SessionConnector connector, int queueLowerWatermark,
+            int queueUpperWatermark, RingBufferQueue.WaitStrategy waitStrategy) {
         sessionConnector = connector;
         this.queueCapacity = -1;
         this.queueLowerWatermark = queueLowerWatermark;
         this.queueUpperWatermark = queueUpperWatermark;
+        this.waitStrategy = waitStrategy;
+        setVirtualThreads(isVirtualThreadsConfigured(connector));
+    }
+
+    private static boolean isVirtualThreadsConfigured(SessionConnector connector) {
+        final SessionSettings settings = connector != null ? connector.getSettings() : null;
+        if (settings == null || !settings.isSetting(SETTING_USE_VIRTUAL_THREADS)) {
+            return false;
+        }
+        try {
+            return settings.getBool(SETTING_USE_VIRTUAL_THREADS);
+        } catch (ConfigError | FieldConvertError e) {
+            LOG.warn("Ignoring invalid {} setting: {}", SETTING_USE_VIRTUAL_THREADS, e.getMessage());
+            return false;
+        }
     }
 
     public void setExecutor(Executor executor) {
 		this.executor = executor;
 	}
 
+    /**
+     * Selects virtual threads instead of platform threads for the dispatchers of
+     * sessions connected afterwards. Has no effect on sessions whose dispatchers
+     * are run by an executor set with {@link #setExecutor(Executor)}.
+     *
+     * @param virtualThreads true to use virtual threads, ignored with a warning if the
+     *            Java runtime does not support them
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        if (virtualThreads && !VirtualThreads.isSupported()) {
+            LOG.warn("Virtual threads are not supported by this Java runtime, using platform threads");
+            this.virtualThreads = false;
+        } else {
+            this.virtualThreads = virtualThreads;
+        }
+    }
+
+    /**
+     * @return true if the session dispatchers run on virtual threads
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
     MessageDispatchingThread createDispatcherThread(Session quickfixSession) {
-        return new MessageDispatchingThread(quickfixSession, executor);
+        return new MessageDispatchingThread(quickfixSession, executor, virtualThreads);
     }
 
     @Override
     public void onMessage(Session quickfixSession, Message message) {
-        MessageDispatchingThread dispatcher = dispatchers.get(quickfixSession.getSessionID());
-        if (dispatcher == null) {
-            dispatcher = dispatchers.computeIfAbsent(quickfixSession.getSessionID(), sessionID -> {
-                final MessageDispatchingThread newDispatcher = createDispatcherThread(quickfixSession);
-                startDispatcherThread(newDispatcher);
-                return newDispatcher;
-            });
-        }
+        final MessageDispatchingThread dispatcher = getOrCreateDispatcher(quickfixSession);
         if (message != null) {
             dispatcher.enqueue(message);
         }
     }
 
+    @Override
+    public void onUnparsedMessage(Session quickfixSession, UnparsedMessage message) {
+        getOrCreateDispatcher(quickfixSession).enqueueUnparsed(message);
+    }
+
+    private MessageDispatchingThread getOrCreateDispatcher(Session quickfixSession) {
+        final MessageDispatchingThread dispatcher = dispatchers.get(quickfixSession.getSessionID());
+        if (dispatcher != null) {
+            return dispatcher;
+        }
+        return dispatchers.computeIfAbsent(quickfixSession.getSessionID(), sessionID -> {
+            final MessageDispatchingThread newDispatcher = createDispatcherThread(quickfixSession);
+            startDispatcherThread(newDispatcher);
+            return newDispatcher;
+        });
+    }
+
     /**
      * The SessionConnector is not directly required for thread-per-session handler - we don't multiplex
      * between multiple sessions here.
@@ -127,8 +214,16 @@ public class ThreadPerSessionEventHandlingStrategy implements EventHandlingStrat
         private final String name;
 
         public ThreadAdapter(String name, Executor executor) {
+            this(name, executor, false);
+        }
+
+        ThreadAdapter(String name, Executor executor, boolean virtualThread) {
             this.name = name;
-            this.executor = executor != null ? executor : new DedicatedThreadExecutor(name);
+            if (executor != null) {
+                this.executor = executor;
+            } else {
+                this.executor = virtualThread ? new VirtualThreadExecutor(name) : new DedicatedThreadExecutor(name);
+            }
         }
 
         public void start() {
@@ -168,24 +263,48 @@ public class ThreadPerSessionEventHandlingStrategy implements EventHandlingStrat
                 new Thread(command, name).start();
             }
 
+        }
+
+        /**
+         * An Executor that runs the command on its own virtual thread.
+         */
+        static final class VirtualThreadExecutor implements Executor {
+
+            private final String name;
+
+            VirtualThreadExecutor(String name) {
+                this.name = name;
+            }
+
+            @Override
+            public void execute(Runnable command) {
+                VirtualThreads.newThread(command, name).start();
+            }
+
         }
 	}
 
 	protected class MessageDispatchingThread extends ThreadAdapter {
         private final Session quickfixSession;
-        private final BlockingQueue<Message> messages;
-        private final QueueTracker<Message> queueTracker;
+        // holds a Message or an UnparsedMessage
+        private final BlockingQueue<Object> messages;
+        private final QueueTracker<Object> queueTracker;
         private volatile boolean stopped;
         private volatile boolean stopping;
 
-        private MessageDispatchingThread(Session session, Executor executor) {
-            super("QF/J Session dispatcher: " + session.getSessionID(), executor);
+        private MessageDispatchingThread(Session session, Executor executor, boolean virtualThread) {
+            super("QF/J Session dispatcher: " + session.getSessionID(), executor, virtualThread);
             quickfixSession = session;
             if (queueCapacity >= 0) {
-                messages = new LinkedBlockingQueue<>(queueCapacity);
+                messages = waitStrategy != null
+                        ? new RingBufferQueue<>(queueCapacity, waitStrategy)
+                        : new LinkedBlockingQueue<>(queueCapacity);
                 queueTracker = newDefaultQueueTracker(messages);
             } else {
-                messages = new LinkedBlockingQueue<>();
+                messages = waitStrategy != null
+                        ? new RingBufferQueue<>(Math.max(RingBufferQueue.DEFAULT_CAPACITY, queueUpperWatermark * 2),
+                                waitStrategy)
+                        : new LinkedBlockingQueue<>();
                 if (queueLowerWatermark > 0 && queueUpperWatermark > 0) {
                     queueTracker = newSingleSessionWatermarkTracker(messages, queueLowerWatermark, queueUpperWatermark,
                             quickfixSession);
@@ -199,6 +318,14 @@ public class ThreadPerSessionEventHandlingStrategy implements EventHandlingStrat
             if (message == END_OF_STREAM && stopping) {
                 return;
             }
+            put(message);
+        }
+
+        void enqueueUnparsed(UnparsedMessage message) {
+            put(message);
+        }
+
+        private void put(Object message) {
             try {
                 queueTracker.put(message);
             } catch (final InterruptedException e) {
@@ -213,17 +340,19 @@ public class ThreadPerSessionEventHandlingStrategy implements EventHandlingStrat
 
         @Override
         void doRun() {
+            final List<Object> batch = new ArrayList<>();
             while (!stopping) {
                 try {
-                    final Message message = getNextMessage(queueTracker);
+                    final Object message = getNextMessage(queueTracker);
                     if (message == null) {
                         // no message available in polling interval
                         continue;
                     }
-                    quickfixSession.next(message);
-                    if (message == END_OF_STREAM) {
-                        stopping = true;
-                    }
+                    // process all queued messages at once
+                    batch.add(message);
+                    queueTracker.drainTo(batch);
+                    processMessages(batch);
+                    batch.clear();
                 } catch (final InterruptedException e) {
                     LogUtil.logThrowable(quickfixSession.getSessionID(),
                             "Message dispatcher interrupted", e);
@@ -235,20 +364,39 @@ public class ThreadPerSessionEventHandlingStrategy implements EventHandlingStrat
                 }
             }
             if (!messages.isEmpty()) {
-                final List<Message> tempList = new ArrayList<>(messages.size());
+                final List<Object> tempList = new ArrayList<>(messages.size());
                 queueTracker.drainTo(tempList);
-                for (Message message : tempList) {
+                processMessages(tempList);
+            }
+
+            dispatchers.remove(quickfixSession.getSessionID());
+            stopped = true;
+        }
+
+        /**
+         * Processes the messages in order, the application messages are delivered as
+         * one batch to a {@link BatchApplication}.
+         */
+        private void processMessages(List<Object> batch) {
+            quickfixSession.beginApplicationBatch();
+            try {
+                for (Object message : batch) {
                     try {
-                        quickfixSession.next(message);
+                        final Message parsedMessage = UnparsedMessage.parse(message);
+                        if (parsedMessage != null) {
+                            quickfixSession.next(parsedMessage);
+                        }
+                        if (message == END_OF_STREAM) {
+                            stopping = true;
+                        }
                     } catch (final Throwable e) {
                         LogUtil.logThrowable(quickfixSession.getSessionID(),
                                 "Error during message processing", e);
                     }
                 }
+            } finally {
+                SingleThreadedEventHandlingStrategy.endApplicationBatch(quickfixSession);
             }
-
-            dispatchers.remove(quickfixSession.getSessionID());
-            stopped = true;
         }
 
         public void stopDispatcher() {
@@ -273,10 +421,10 @@ public class ThreadPerSessionEventHandlingStrategy implements EventHandlingStrat
      *
      * @see #THREAD_WAIT_FOR_MESSAGE_MS
      * @param queueTracker
-     * @return next message or null if nothing arrived within the timeout period
+     * @return next {@link Message} or {@link UnparsedMessage}, or null if nothing arrived within the timeout period
      * @throws InterruptedException
      */
-    protected Message getNextMessage(QueueTracker<Message> queueTracker) throws InterruptedException {
+    protected Object getNextMessage(QueueTracker<Object> queueTracker) throws InterruptedException {
         return queueTracker.poll(THREAD_WAIT_FOR_MESSAGE_MS, TimeUnit.MILLISECONDS);
     }
 
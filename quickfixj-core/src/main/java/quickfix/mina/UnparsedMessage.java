@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+
+package quickfix.mina;
+
+import org.apache.mina.core.session.IoSession;
+import quickfix.Message;
+import quickfix.Session;
+
+/**
+ * A received frame which is queued as it was framed by the protocol decoder, so
+ * that logging, parsing and validation happen on the thread processing the messages
+ * of the session instead of the I/O processor thread. It is queued in place of a
+ * message by {@link EventHandlingStrategy#onUnparsedMessage(Session, UnparsedMessage)}.
+ *
+ * @see NetworkingOptions#SETTING_SOCKET_DEFER_MESSAGE_PARSING
+ */
+public final class UnparsedMessage {
+
+    private final AbstractIoHandler ioHandler;
+    private final IoSession ioSession;
+    private final Session quickFixSession;
+    private final Object frame;
+
+    UnparsedMessage(AbstractIoHandler ioHandler, IoSession ioSession, Session quickFixSession, Object frame) {
+        this.ioHandler = ioHandler;
+        this.ioSession = ioSession;
+        this.quickFixSession = quickFixSession;
+        this.frame = frame;
+    }
+
+    /**
+     * Logs and parses the frame.
+     *
+     * @return the message to pass to the session, null if the frame was dropped
+     */
+    public Message parse() throws Exception {
+        return ioHandler.parseDeferredMessage(ioSession, quickFixSession, frame);
+    }
+
+    /**
+     * Returns the message to pass to the session.
+     *
+     * @param queued a {@link Message} or an {@link UnparsedMessage} taken from an event queue
+     * @return the parsed message for an unparsed frame, which is null if the frame
+     * was dropped, or the message itself otherwise
+     */
+    static Message parse(Object queued) throws Exception {
+        return queued instanceof UnparsedMessage ? ((UnparsedMessage) queued).parse() : (Message) queued;
+    }
+}
@@ -103,7 +103,8 @@ public abstract class AbstractSocketAcceptor extends SessionConnector implements
         for (AcceptorSocketDescriptor socketDescriptor : socketDescriptorForAddress.values()) {
             try {
                 address = socketDescriptor.getAddress();
-                IoAcceptor ioAcceptor = getIoAcceptor(socketDescriptor);
+                NetworkingOptions networkingOptions = getNetworkingOptions();
+                IoAcceptor ioAcceptor = getIoAcceptor(socketDescriptor, networkingOptions);
                 CompositeIoFilterChainBuilder ioFilterChainBuilder = new CompositeIoFilterChainBuilder(getIoFilterChainBuilder());
 
                 if (socketDescriptor.isUseSSL()) {
@@ -111,7 +112,7 @@ public abstract class AbstractSocketAcceptor extends SessionConnector implements
                 }
 
                 ioFilterChainBuilder.addLast(FIXProtocolCodecFactory.FILTER_NAME,
-                        new ProtocolCodecFilter(new FIXProtocolCodecFactory()));
+                        new ProtocolCodecFilter(new FIXProtocolCodecFactory(networkingOptions.getDecodeMessageBytes())));
 
                 ioAcceptor.setFilterChainBuilder(ioFilterChainBuilder);
                 ioAcceptor.setCloseOnDeactivation(false);
@@ -143,7 +144,15 @@ public abstract class AbstractSocketAcceptor extends SessionConnector implements
         ioFilterChainBuilder.addLast(SSLSupport.FILTER_NAME, sslFilter);
     }
 
-    private IoAcceptor getIoAcceptor(AcceptorSocketDescriptor socketDescriptor) throws ConfigError {
+    private NetworkingOptions getNetworkingOptions() throws ConfigError {
+        try {
+            return new NetworkingOptions(getSettings().getDefaultProperties());
+        } catch (FieldConvertError e) {
+            throw new ConfigError(e);
+        }
+    }
+
+    private IoAcceptor getIoAcceptor(AcceptorSocketDescriptor socketDescriptor, NetworkingOptions networkingOptions) {
         int transportType = ProtocolFactory.getAddressTransportType(socketDescriptor.getAddress());
         AcceptorSessionProvider sessionProvider = sessionProviders.
                 computeIfAbsent(socketDescriptor.getAddress(),
@@ -152,14 +161,8 @@ public abstract class AbstractSocketAcceptor extends SessionConnector implements
         IoAcceptor ioAcceptor = ioAcceptors.get(socketDescriptor);
         if (ioAcceptor == null) {
             ioAcceptor = ProtocolFactory.createIoAcceptor(transportType);
-            try {
-                SessionSettings settings = getSettings();
-                NetworkingOptions networkingOptions = new NetworkingOptions(settings.getDefaultProperties());
-                networkingOptions.apply(ioAcceptor);
-                ioAcceptor.setHandler(new AcceptorIoHandler(sessionProvider, settings, networkingOptions, getEventHandlingStrategy()));
-            } catch (FieldConvertError e) {
-                throw new ConfigError(e);
-            }
+            networkingOptions.apply(ioAcceptor);
+            ioAcceptor.setHandler(new AcceptorIoHandler(sessionProvider, getSettings(), networkingOptions, getEventHandlingStrategy()));
             ioAcceptors.put(socketDescriptor, ioAcceptor);
         }
         return ioAcceptor;
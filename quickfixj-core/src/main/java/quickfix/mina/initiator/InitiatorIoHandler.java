@@ -21,6 +21,7 @@ package quickfix.mina.initiator;
 
 import org.apache.mina.core.session.IoSession;
 
+import quickfix.FieldNotFound;
 import quickfix.Message;
 import quickfix.MessageUtils;
 import quickfix.Session;
@@ -64,6 +65,16 @@ class InitiatorIoHandler extends AbstractIoHandler {
 
     @Override
     protected void processMessage(IoSession protocolSession, Message message) throws Exception {
+        updateDefaultApplVerID(message);
+        eventHandlingStrategy.onMessage(quickfixSession, message);
+    }
+
+    @Override
+    protected void processDeferredMessage(IoSession protocolSession, Message message) throws Exception {
+        updateDefaultApplVerID(message);
+    }
+
+    private void updateDefaultApplVerID(Message message) throws FieldNotFound {
         final Optional<String> msgTypeField = message.getHeader().getOptionalString(MsgType.FIELD);
         if (msgTypeField.isPresent() && msgTypeField.get().equals(MsgType.LOGON)) {
             final SessionID sessionID = MessageUtils.getReverseSessionID(message);
@@ -76,7 +87,6 @@ class InitiatorIoHandler extends AbstractIoHandler {
                 }
             }
         }
-        eventHandlingStrategy.onMessage(quickfixSession, message);
     }
 
 }
@@ -36,6 +36,7 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.io.UnsupportedEncodingException;
 import java.nio.MappedByteBuffer;
+import java.nio.charset.Charset;
 import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.List;
@@ -43,6 +44,10 @@ import java.util.List;
 /**
  * Detects and decodes FIX message strings in an incoming data stream. The
  * message string is then passed to MINA IO handlers for further processing.
+ * <p>
+ * If the decoder is created with {@code decodeMessageBytes} enabled, the
+ * message frame is passed on as a {@code byte[]} instead, leaving the
+ * character decoding to the parser.
  */
 public class FIXMessageDecoder implements MessageDecoder {
 
@@ -68,6 +73,7 @@ public class FIXMessageDecoder implements MessageDecoder {
     private int bodyLength;
     private int position;
     private final String charsetEncoding;
+    private final boolean decodeMessageBytes;
 
     private void resetState() {
         state = SEEKING_HEADER;
@@ -84,7 +90,19 @@ public class FIXMessageDecoder implements MessageDecoder {
     }
 
     public FIXMessageDecoder(String charset, String delimiter) throws UnsupportedEncodingException {
+        this(charset, delimiter, false);
+    }
+
+    /**
+     * @param charset the charset of the message strings
+     * @param delimiter the field delimiter
+     * @param decodeMessageBytes if true, each decoded message is written as a {@code byte[]}
+     *        frame instead of a String
+     * @throws UnsupportedEncodingException if the charset is not supported
+     */
+    public FIXMessageDecoder(String charset, String delimiter, boolean decodeMessageBytes) throws UnsupportedEncodingException {
         charsetEncoding = CharsetSupport.validate(charset);
+        this.decodeMessageBytes = decodeMessageBytes;
         HEADER_PATTERN = new PatternMatcher("8=FIXt.?.?" + delimiter + "9=");
         CHECKSUM_PATTERN = new PatternMatcher("10=???" + delimiter);
         LOGON_PATTERN = new PatternMatcher(delimiter + "35=A" + delimiter);
@@ -218,11 +236,19 @@ public class FIXMessageDecoder implements MessageDecoder {
                             break;
                         }
                     }
-                    String messageString = getMessageString(in);
-                    if (log.isDebugEnabled()) {
-                        log.debug("parsed message: {} {}", getBufferDebugInfo(in), messageString);
+                    if (decodeMessageBytes) {
+                        byte[] messageBytes = getMessageBytes(in);
+                        if (log.isDebugEnabled()) {
+                            log.debug("parsed message: {} {}", getBufferDebugInfo(in), new String(messageBytes, charsetEncoding));
+                        }
+                        out.write(messageBytes); // eventually invokes AbstractIoHandler.messageReceived
+                    } else {
+                        String messageString = getMessageString(in);
+                        if (log.isDebugEnabled()) {
+                            log.debug("parsed message: {} {}", getBufferDebugInfo(in), messageString);
+                        }
+                        out.write(messageString); // eventually invokes AbstractIoHandler.messageReceived
                     }
-                    out.write(messageString); // eventually invokes AbstractIoHandler.messageReceived
                     state = SEEKING_HEADER;
                     bodyLength = 0;
                     messageFound = true;
@@ -245,9 +271,14 @@ public class FIXMessageDecoder implements MessageDecoder {
     }
 
     private String getMessageString(IoBuffer buffer) throws UnsupportedEncodingException {
+        return new String(getMessageBytes(buffer), charsetEncoding);
+    }
+
+    private byte[] getMessageBytes(IoBuffer buffer) {
+        // the frame has to be copied since MINA compacts and reuses the buffer after decoding
         byte[] data = new byte[position - buffer.position()];
         buffer.get(data);
-        return new String(data, charsetEncoding);
+        return data;
     }
 
     private String getMessageStringForError(IoBuffer buffer) throws UnsupportedEncodingException {
@@ -327,7 +358,9 @@ public class FIXMessageDecoder implements MessageDecoder {
             decode(null, IoBuffer.wrap(memoryMappedBuffer), new ProtocolDecoderOutput() {
                 @Override
                 public void write(Object message) {
-                    listener.onMessage((String) message);
+                    listener.onMessage(message instanceof byte[]
+                            ? new String((byte[]) message, Charset.forName(charsetEncoding))
+                            : (String) message);
                 }
 
                 @Override
@@ -19,7 +19,7 @@
 
 package quickfix.mina.message;
 
-import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
@@ -34,48 +34,43 @@ import org.quickfixj.CharsetSupport;
 import quickfix.Message;
 
 /**
- * Encodes a Message object or message string as a byte array to be
- * transmitted on MINA connection.
+ * Encodes a Message object, message string or already encoded message bytes
+ * as a byte array to be transmitted on MINA connection.
+ * <p>
+ * Message objects are serialized directly into bytes via {@link Message#toBytes()},
+ * which calculates body length and checksum while writing, instead of being
+ * converted to a String first. The resulting bytes are wrapped without copying.
  */
 public class FIXMessageEncoder implements MessageEncoder<Object> {
 
     private static final Set<Class<?>> TYPES =
-            new HashSet<>(Arrays.<Class<?>>asList(Message.class, String.class));
-    private final String charsetEncoding;
+            new HashSet<>(Arrays.<Class<?>>asList(Message.class, String.class, byte[].class));
+    private final Charset charset;
 
     public FIXMessageEncoder() {
-        charsetEncoding = CharsetSupport.getCharset();
+        charset = CharsetSupport.getCharsetInstance();
     }
 
     public static Set<Class<?>> getMessageTypes() {
         return TYPES;
     }
 
-    private byte[] toBytes(String str) throws ProtocolCodecException {
-        try {
-            return str.getBytes(charsetEncoding);
-        } catch (UnsupportedEncodingException e) {
-            throw new ProtocolCodecException(e);
-        }
-    }
-
     @Override
     public void encode(IoSession session, Object message, ProtocolEncoderOutput out)
             throws ProtocolCodecException {
         // get message bytes
         byte[] bytes;
         if (message instanceof String) {
-            bytes = toBytes((String) message);
+            bytes = ((String) message).getBytes(charset);
         } else if (message instanceof Message) {
-            bytes = toBytes(message.toString());
+            bytes = ((Message) message).toBytes();
+        } else if (message instanceof byte[]) {
+            bytes = (byte[]) message;
         } else {
             throw new ProtocolCodecException("Invalid FIX message object type: "
                     + message.getClass());
         }
-        // write bytes to buffer and output it
-        IoBuffer buffer = IoBuffer.allocate(bytes.length);
-        buffer.put(bytes);
-        buffer.flip();
-        out.write(buffer);
+        // wrap bytes in a buffer and output it
+        out.write(IoBuffer.wrap(bytes));
     }
 }
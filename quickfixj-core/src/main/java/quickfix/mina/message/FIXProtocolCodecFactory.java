@@ -20,6 +20,7 @@
 package quickfix.mina.message;
 
 import org.apache.mina.filter.codec.demux.DemuxingProtocolCodecFactory;
+import org.quickfixj.CharsetSupport;
 
 /**
  * Provides the FIX codecs to MINA.
@@ -28,7 +29,19 @@ public class FIXProtocolCodecFactory extends DemuxingProtocolCodecFactory {
     public static final String FILTER_NAME = "FIXCodec";
 
     public FIXProtocolCodecFactory() {
-        addMessageDecoder(FIXMessageDecoder.class);
+        this(false);
+    }
+
+    /**
+     * @param decodeMessageBytes if true, the decoder passes received messages on as
+     *        {@code byte[]} frames which are parsed without decoding them into a String first
+     */
+    public FIXProtocolCodecFactory(boolean decodeMessageBytes) {
+        if (decodeMessageBytes) {
+            addMessageDecoder(() -> new FIXMessageDecoder(CharsetSupport.getCharset(), "\001", true));
+        } else {
+            addMessageDecoder(FIXMessageDecoder.class);
+        }
         addMessageEncoder(FIXMessageEncoder.getMessageTypes(), FIXMessageEncoder.class);
     }
 }
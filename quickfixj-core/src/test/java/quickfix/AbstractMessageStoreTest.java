@@ -208,6 +208,36 @@ public abstract class AbstractMessageStoreTest extends TestCase {
         }
     }
 
+    public void testVisitMessages() throws IOException {
+        MessageStore underTest = getStore();
+
+        if (underTest instanceof SleepycatStore) {
+            return;
+        }
+
+        for (int sequence = 1; sequence <= 10; sequence++) {
+            if (sequence != 5) {
+                underTest.set(sequence, "message" + sequence);
+            }
+        }
+
+        List<String> messages = new ArrayList<>();
+        underTest.get(3, 8, (data, offset, length) ->
+                messages.add(new String(data, offset, length, CharsetSupport.getCharsetInstance())));
+        assertEquals(5, messages.size());
+        assertEquals("message3", messages.get(0));
+        assertEquals("message6", messages.get(2));
+        assertEquals("message8", messages.get(4));
+
+        // stop after the second message
+        messages.clear();
+        underTest.get(1, 10, (data, offset, length) -> {
+            messages.add(new String(data, offset, length, CharsetSupport.getCharsetInstance()));
+            return messages.size() < 2;
+        });
+        assertEquals(2, messages.size());
+    }
+
     protected void closeMessageStore(MessageStore store) throws IOException {
         // does nothing, by default
     }
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+package quickfix;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class AsyncLogQueueTest {
+
+    @Test
+    public void testFlushWaitsForEntriesOfConcurrentProducers() throws Exception {
+        final Set<Integer> written = ConcurrentHashMap.newKeySet();
+        final AtomicInteger missing = new AtomicInteger();
+        try (AsyncLogQueue<Integer> queue = new AsyncLogQueue<>("AsyncLogQueueTest", 64, 8, 60000,
+                AsyncLogQueue.OverflowPolicy.BLOCK, written::addAll)) {
+            final List<Thread> producers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                final int producer = i;
+                producers.add(new Thread(() -> {
+                    for (int j = 0; j < 500; j++) {
+                        final int entry = producer * 500 + j;
+                        queue.add(entry);
+                        queue.flush();
+                        if (!written.contains(entry)) {
+                            missing.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            producers.forEach(Thread::start);
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            assertEquals(0, missing.get());
+            assertEquals(2000, written.size());
+            assertEquals(0, queue.getDroppedCount());
+        }
+    }
+
+    @Test
+    public void testCloseWritesQueuedEntries() {
+        final List<String> written = Collections.synchronizedList(new ArrayList<>());
+        final AsyncLogQueue<String> queue = new AsyncLogQueue<>("AsyncLogQueueTest", 16, 4, 60000,
+                AsyncLogQueue.OverflowPolicy.DROP, written::addAll);
+        queue.add("a");
+        queue.add("b");
+        queue.close();
+        assertEquals(2, written.size());
+        queue.add("c");
+        assertTrue(queue.getDroppedCount() > 0);
+    }
+}
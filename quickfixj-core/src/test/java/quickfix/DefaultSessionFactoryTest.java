@@ -21,11 +21,17 @@ package quickfix;
 
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import quickfix.field.ApplVerID;
 import quickfix.test.acceptance.ATApplication;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -45,6 +51,9 @@ public class DefaultSessionFactoryTest {
     private SessionSettings settings;
     private SessionFactory factory;
 
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
     @Before
     public void setUp() throws Exception {
         sessionID = new SessionID(FixVersions.BEGINSTRING_FIX42, "SENDER", "TARGET");
@@ -159,6 +168,41 @@ public class DefaultSessionFactoryTest {
         }
     }
 
+    @Test
+    public void testDataDictionarySnapshots() throws Exception {
+        File xml = tempFolder.newFile("FIX42.xml");
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("FIX42.xml")) {
+            Files.copy(in, xml.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        File snapshotDirectory = tempFolder.newFolder("snapshots");
+        settings.setBool(sessionID, Session.SETTING_USE_DATA_DICTIONARY, true);
+        settings.setString(sessionID, Session.SETTING_DATA_DICTIONARY, xml.getPath());
+        settings.setString(sessionID, Session.SETTING_DATA_DICTIONARY_SNAPSHOT_DIRECTORY,
+                snapshotDirectory.getPath());
+
+        File[] snapshots;
+        try (Session session = factory.create(sessionID, settings)) {
+            DataDictionary dataDictionary = session.getDataDictionaryProvider()
+                    .getSessionDataDictionary(sessionID.getBeginString());
+            assertTrue(dataDictionary.isMsgType("D"));
+            snapshots = snapshotDirectory.listFiles();
+            assertEquals(1, snapshots.length);
+        }
+        Session.unregisterSession(sessionID, true);
+
+        // a snapshot can be configured as the data dictionary
+        settings.removeSetting(sessionID, Session.SETTING_DATA_DICTIONARY_SNAPSHOT_DIRECTORY);
+        File snapshot = new File(tempFolder.getRoot(), "FIX42" + DataDictionarySnapshot.FILE_EXTENSION);
+        Files.copy(snapshots[0].toPath(), snapshot.toPath());
+        settings.setString(sessionID, Session.SETTING_DATA_DICTIONARY, snapshot.getPath());
+        try (Session session = factory.create(sessionID, settings)) {
+            DataDictionary dataDictionary = session.getDataDictionaryProvider()
+                    .getSessionDataDictionary(sessionID.getBeginString());
+            assertEquals(FixVersions.BEGINSTRING_FIX42, dataDictionary.getVersion());
+            assertTrue(dataDictionary.isGroup("D", 78));
+        }
+    }
+
     @Test
     public void testNoConnectionType() throws Exception {
         settings.removeSetting(sessionID, SessionFactory.SETTING_CONNECTION_TYPE);
@@ -0,0 +1,155 @@
+package quickfix;
+
+import org.quickfixj.CharsetSupport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class FileJournalTest extends AbstractMessageStoreTest {
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        CharsetSupport.setDefaultCharset();
+        ((FileJournal) getStore()).closeAndDeleteFiles();
+    }
+
+    @Override
+    protected MessageStoreFactory getMessageStoreFactory() throws ConfigError, FieldConvertError {
+        SessionSettings settings = new SessionSettings(getConfigurationFileName());
+        settings.setString(FileJournalFactory.SETTING_FILE_JOURNAL_PATH,
+                settings.getString(FileStoreFactory.SETTING_FILE_STORE_PATH));
+        return new FileJournalFactory(settings);
+    }
+
+    @Override
+    protected Class<?> getMessageStoreClass() {
+        return FileJournal.class;
+    }
+
+    protected void closeMessageStore(MessageStore store) throws IOException {
+        ((FileJournal) store).close();
+    }
+
+    public void testLogAndStoreShareJournal() throws Exception {
+        FileJournalFactory factory = (FileJournalFactory) getMessageStoreFactory();
+        FileJournal log = factory.create(getSessionID());
+        try {
+            assertSame(log, factory.create(getSessionID()));
+            assertSame(log, factory.create(getSessionID()));
+        } finally {
+            log.close();
+        }
+        FileJournal next = factory.create(getSessionID());
+        assertNotSame(log, next);
+        next.close();
+    }
+
+    public void testJournalIsKeyedBySession() throws Exception {
+        FileJournalFactory factory = (FileJournalFactory) getMessageStoreFactory();
+        SessionID other = new SessionID(getSessionID().getBeginString(), "OTHER", "TARGET");
+        FileJournal log = factory.create(getSessionID());
+        FileJournal otherLog = factory.create(other);
+        try {
+            assertNotSame(log, otherLog);
+            assertSame(otherLog, factory.create(other));
+            assertSame(log, factory.create(getSessionID()));
+        } finally {
+            log.close();
+            otherLog.closeAndDeleteFiles();
+        }
+    }
+
+    public void testStoredMessageIsJournaledOnce() throws Exception {
+        FileJournal journal = (FileJournal) getStore();
+        String outgoing = "8=FIX.4.2\0019=5\00135=0\00134=1\00110=000\001";
+        journal.set(1, outgoing);
+        journal.onOutgoing(outgoing);
+        journal.onIncoming("8=FIX.4.2\0019=5\00135=0\00134=7\00110=000\001");
+        journal.onEvent("EVENT");
+        journal.onOutgoing("RESENT");
+
+        List<String> records = new ArrayList<>();
+        try (FileJournalReader reader = new FileJournalReader(new File(journal.getFileName()))) {
+            while (reader.next()) {
+                records.add(reader.getType() + ":" + reader.getSequence());
+            }
+        }
+        // type:sequence of reset, sequence numbers, stored message, incoming message, event, resent message
+        assertEquals(Arrays.asList("6:0", "5:1", "2:1", "1:7", "4:0", "3:0"), records);
+    }
+
+    public void testWriteTextLogs() throws Exception {
+        FileJournal journal = (FileJournal) getStore();
+        journal.onIncoming("INCOMING");
+        journal.set(1, "OUTGOING");
+        journal.onOutgoing("OUTGOING");
+        journal.onEvent("EVENT");
+
+        ByteArrayOutputStream messages = new ByteArrayOutputStream();
+        ByteArrayOutputStream events = new ByteArrayOutputStream();
+        try (FileJournalReader reader = new FileJournalReader(new File(journal.getFileName()))) {
+            reader.writeTextLogs(messages, events, false, false);
+        }
+        assertEquals("INCOMING\nOUTGOING\n", messages.toString(CharsetSupport.getCharset()));
+        assertTrue(events.toString(CharsetSupport.getCharset()).endsWith(": EVENT\n"));
+    }
+
+    public void testClearKeepsMessageStore() throws Exception {
+        FileJournal journal = (FileJournal) getStore();
+        journal.set(1, "MESSAGE1");
+        journal.set(2, "MESSAGE2");
+        journal.setNextSenderMsgSeqNum(3);
+        journal.setNextTargetMsgSeqNum(5);
+        for (int i = 0; i < 100; i++) {
+            journal.onIncoming("INCOMING" + i);
+        }
+        long length = new File(journal.getFileName()).length();
+
+        journal.clear();
+        assertTrue(new File(journal.getFileName()).length() < length);
+
+        List<String> messages = new ArrayList<>();
+        journal.get(1, 2, messages);
+        assertEquals(Arrays.asList("MESSAGE1", "MESSAGE2"), messages);
+        assertEquals(3, journal.getNextSenderMsgSeqNum());
+        assertEquals(5, journal.getNextTargetMsgSeqNum());
+    }
+
+    public void testIncompleteRecordIsDiscarded() throws Exception {
+        FileJournal journal = (FileJournal) getStore();
+        journal.set(1, "MESSAGE1");
+        journal.setNextSenderMsgSeqNum(2);
+        journal.close();
+        try (RandomAccessFile file = new RandomAccessFile(journal.getFileName(), "rw")) {
+            file.seek(file.length());
+            file.writeInt(1000);
+            file.write(2);
+        }
+
+        journal.initialize(false);
+        journal.set(2, "MESSAGE2");
+        journal.refresh();
+
+        List<String> messages = new ArrayList<>();
+        journal.get(1, 2, messages);
+        assertEquals(Arrays.asList("MESSAGE1", "MESSAGE2"), messages);
+        assertEquals(2, journal.getNextSenderMsgSeqNum());
+    }
+
+    public void testResetRemovesMessages() throws Exception {
+        FileJournal journal = (FileJournal) getStore();
+        journal.set(1, "MESSAGE1");
+        journal.reset();
+        journal.refresh();
+
+        List<String> messages = new ArrayList<>();
+        journal.get(1, 1, messages);
+        assertEquals(0, messages.size());
+        assertEquals(1, journal.getNextSenderMsgSeqNum());
+    }
+}
@@ -189,6 +189,72 @@ public class FileLogTest {
                 .getEventFileName()));
     }
 
+    @Test
+    public void testAsyncLog() throws Exception {
+        long systemTime = System.currentTimeMillis();
+        SystemTime.setTimeSource(new MockSystemTimeSource(systemTime));
+        SessionID sessionID = new SessionID("FIX.4.2", "SENDER" + systemTime, "TARGET" + systemTime);
+
+        SessionSettings settings = new SessionSettings();
+        settings.setString(sessionID, FileLogFactory.SETTING_FILE_LOG_PATH, getTempDirectory());
+        settings.setBool(sessionID, FileLogFactory.SETTING_INCLUDE_TIMESTAMP_FOR_MESSAGES, true);
+        settings.setBool(sessionID, FileLogFactory.SETTING_ASYNC, true);
+        settings.setLong(sessionID, FileLogFactory.SETTING_ASYNC_BATCH_SIZE, 2);
+        settings.setLong(sessionID, FileLogFactory.SETTING_ASYNC_FLUSH_INTERVAL, 60000);
+
+        FileLogFactory factory = new FileLogFactory(settings);
+        FileLog log = (FileLog) factory.create(sessionID);
+        log.clear();
+
+        String formattedTime = UtcTimestampConverter.convert(new Date(systemTime), false);
+        log.onIncoming("INTEST");
+        log.onEvent("EVENTTEST");
+        log.onOutgoing("OUTTEST");
+        log.flush();
+        assertEquals("wrong message", formattedTime + ": INTEST\n" + formattedTime + ": OUTTEST\n",
+                readLog(log.getMessagesFileName()));
+        assertEquals("wrong message", formattedTime + ": EVENTTEST\n", readLog(log.getEventFileName()));
+
+        log.onIncoming("QUEUED");
+        log.clear();
+        assertEquals("wrong message", "", readLog(log.getMessagesFileName()));
+
+        log.onOutgoing("CLOSED");
+        log.close();
+        assertEquals("wrong message", formattedTime + ": CLOSED\n", readLog(log.getMessagesFileName()));
+    }
+
+    @Test
+    public void testAsyncLogReusesEntries() throws Exception {
+        long systemTime = 1234567890005L;
+        MockSystemTimeSource timeSource = new MockSystemTimeSource(systemTime);
+        SystemTime.setTimeSource(timeSource);
+        SessionID sessionID = new SessionID("FIX.4.2", "SENDER" + systemTime, "TARGET" + systemTime);
+
+        SessionSettings settings = new SessionSettings();
+        settings.setString(sessionID, FileLogFactory.SETTING_FILE_LOG_PATH, getTempDirectory());
+        settings.setBool(sessionID, FileLogFactory.SETTING_INCLUDE_TIMESTAMP_FOR_MESSAGES, true);
+        settings.setBool(sessionID, FileLogFactory.SETTING_INCLUDE_MILLIS_IN_TIMESTAMP, true);
+        settings.setBool(sessionID, FileLogFactory.SETTING_ASYNC, true);
+        settings.setLong(sessionID, FileLogFactory.SETTING_ASYNC_QUEUE_SIZE, 4);
+        settings.setLong(sessionID, FileLogFactory.SETTING_ASYNC_BATCH_SIZE, 2);
+
+        FileLogFactory factory = new FileLogFactory(settings);
+        FileLog log = (FileLog) factory.create(sessionID);
+        log.clear();
+
+        StringBuilder expected = new StringBuilder();
+        // more entries than the queue holds, over several seconds
+        for (int i = 0; i < 20; i++) {
+            expected.append(UtcTimestampConverter.convert(new Date(timeSource.getTime()), true))
+                    .append(": MESSAGE").append(i).append('\n');
+            log.onIncoming("MESSAGE" + i);
+            timeSource.increment(333);
+        }
+        log.close();
+        assertEquals("wrong message", expected.toString(), readLog(log.getMessagesFileName()));
+    }
+
     private String readLog(String path) throws IOException {
         File file = new File(path);
         FileInputStream in = new FileInputStream(file);
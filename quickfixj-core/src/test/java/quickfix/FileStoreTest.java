@@ -21,8 +21,10 @@ package quickfix;
 
 import org.quickfixj.CharsetSupport;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -81,6 +83,44 @@ public class FileStoreTest extends AbstractMessageStoreTest {
         ((FileStore) store).close();
     }
 
+    public void testMessagesAreLocatedWithIndexFile() throws Exception {
+        FileStore store = (FileStore) getStore();
+        for (int sequence = 10; sequence <= 100; sequence++) {
+            store.set(sequence, "MESSAGE" + sequence);
+        }
+        // below the first indexed sequence number
+        store.set(5, "MESSAGE5");
+        store.close();
+        store.initialize(false);
+
+        List<String> messages = new ArrayList<>();
+        store.get(1, 12, messages);
+        assertEquals(Arrays.asList("MESSAGE5", "MESSAGE10", "MESSAGE11", "MESSAGE12"), messages);
+        messages.clear();
+        store.get(99, 200, messages);
+        assertEquals(Arrays.asList("MESSAGE99", "MESSAGE100"), messages);
+    }
+
+    public void testIndexFileIsCreatedFromHeaderFile() throws Exception {
+        FileStore store = (FileStore) getStore();
+        store.set(1, "MESSAGE1");
+        store.set(2, "MESSAGE2");
+        store.close();
+        File indexFile = new File(FileUtil.fileAppendPath(new File(getStorePath()).getAbsolutePath(),
+                FileUtil.sessionIdFileName(getSessionID()) + ".index"));
+        assertTrue(indexFile.delete());
+        store.initialize(false);
+        assertTrue(indexFile.length() > 0);
+
+        List<String> messages = new ArrayList<>();
+        store.get(1, 2, messages);
+        assertEquals(Arrays.asList("MESSAGE1", "MESSAGE2"), messages);
+    }
+
+    private String getStorePath() throws ConfigError, FieldConvertError {
+        return new SessionSettings(getConfigurationFileName()).getString(FileStoreFactory.SETTING_FILE_STORE_PATH);
+    }
+
     public void testInitialSessionCreationTime() throws Exception {
         FileStore store = (FileStore) getStore();
         Date creationTime1 = store.getCreationTime();
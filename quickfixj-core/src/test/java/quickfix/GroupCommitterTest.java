@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+
+package quickfix;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link GroupCommitter} class.
+ */
+public class GroupCommitterTest {
+
+    @Test
+    public void testWritesAreCommittedInBatches() throws Exception {
+        AtomicInteger syncs = new AtomicInteger();
+        GroupCommitter committer = new GroupCommitter(TimeUnit.MINUTES.toMillis(1), 3);
+        GroupCommitter.Committable store = syncs::incrementAndGet;
+
+        committer.written(store);
+        committer.written(store);
+        // the batch is full, it is committed without waiting for the interval
+        committer.awaitCommit(committer.written(store));
+        assertEquals(1, syncs.get());
+    }
+
+    @Test
+    public void testStoresOfABatchAreSyncedOnce() throws Exception {
+        CountDownLatch syncing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger firstSyncs = new AtomicInteger();
+        AtomicInteger secondSyncs = new AtomicInteger();
+        GroupCommitter committer = new GroupCommitter(0, 1000);
+        GroupCommitter.Committable first = () -> {
+            if (firstSyncs.incrementAndGet() == 1) {
+                syncing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+        };
+        GroupCommitter.Committable second = secondSyncs::incrementAndGet;
+
+        committer.written(first);
+        assertTrue(syncing.await(5, TimeUnit.SECONDS));
+        // written while the first batch is synced
+        committer.written(first);
+        committer.written(second);
+        final GroupCommitter.Batch batch = committer.written(second);
+        release.countDown();
+        committer.awaitCommit(batch);
+        assertEquals(2, firstSyncs.get());
+        assertEquals(1, secondSyncs.get());
+    }
+
+    @Test
+    public void testFailedCommit() throws Exception {
+        GroupCommitter committer = new GroupCommitter(0, 1);
+        final GroupCommitter.Batch batch = committer.written(() -> {
+            throw new IOException("disk full");
+        });
+        IOException e = assertThrows(IOException.class, () -> committer.awaitCommit(batch));
+        assertEquals("disk full", e.getCause().getMessage());
+        committer.awaitCommit(committer.written(() -> {
+        }));
+    }
+
+    @Test
+    public void testFailureIsReportedForItsBatchOnly() throws Exception {
+        CountDownLatch synced = new CountDownLatch(1);
+        GroupCommitter committer = new GroupCommitter(0, 1);
+        final GroupCommitter.Batch committed = committer.written(synced::countDown);
+        assertTrue(synced.await(5, TimeUnit.SECONDS));
+        final GroupCommitter.Batch failed = committer.written(() -> {
+            throw new IOException("disk full");
+        });
+        assertThrows(IOException.class, () -> committer.awaitCommit(failed));
+        // the earlier batch was synced successfully before the failure
+        committer.awaitCommit(committed);
+    }
+
+    @Test
+    public void testThreadIsStoppedWhenLastStoreIsReleased() throws Exception {
+        AtomicInteger syncs = new AtomicInteger();
+        GroupCommitter committer = new GroupCommitter(TimeUnit.MINUTES.toMillis(1), 1000);
+        GroupCommitter.Committable first = syncs::incrementAndGet;
+        GroupCommitter.Committable second = syncs::incrementAndGet;
+
+        committer.written(first);
+        committer.written(second);
+        // the pending writes of a released store are synced without waiting for the interval
+        committer.release(first);
+        assertEquals(2, syncs.get());
+        assertTrue(committer.isRunning());
+
+        committer.release(second);
+        assertFalse(committer.isRunning());
+
+        // the next write starts the thread again
+        committer.written(first);
+        assertTrue(committer.isRunning());
+        committer.release(first);
+        assertEquals(3, syncs.get());
+        assertFalse(committer.isRunning());
+    }
+}
@@ -41,6 +41,9 @@ public class JdbcLogTest {
 
     @After
     public void tearDown() {
+        if (log != null) {
+            log.close();
+        }
         Session.unregisterSession(sessionID, true);
     }
 
@@ -120,12 +123,53 @@ public class JdbcLogTest {
         }
     }
 
+    @Test
+    public void testAsyncLog() throws Exception {
+        setUpJdbcLog(false, null, "Block");
+        log.onIncoming("INCOMING");
+        log.onOutgoing("OUTGOING");
+        log.onEvent("EVENT");
+        log.flush();
+        assertEquals(0, log.getQueuedCount());
+        assertEquals(2, getRowCount(connection, "messages_log"));
+        assertEquals(1, getRowCount(connection, "event_log"));
+        assertLogData(connection, 0, sessionID, "INCOMING", log.getIncomingMessagesTableName());
+        assertLogData(connection, 0, sessionID, "EVENT", "event_log");
+
+        for (int i = 0; i < 25; i++) {
+            log.onEvent("EVENT" + i);
+        }
+        log.clear();
+        assertEquals(0, getRowCount(connection, "messages_log"));
+        assertEquals(0, getRowCount(connection, "event_log"));
+        assertEquals(0, log.getDroppedCount());
+    }
+
+    @Test
+    public void testAsyncLogWritesQueuedEntriesOnClose() throws Exception {
+        setUpJdbcLog(false, null, "Drop");
+        for (int i = 0; i < 5; i++) {
+            log.onEvent("EVENT" + i);
+        }
+        log.close();
+        assertEquals(5, getRowCount(connection, "event_log"));
+        assertEquals(0, log.getDroppedCount());
+    }
+
     private void dropTable(String tableName) throws SQLException {
         connection.prepareStatement("DROP TABLE " + tableName + " IF EXISTS;")
                 .execute();
     }
 
     private void setUpJdbcLog(boolean filterHeartbeats, DataSource dataSource) throws ClassNotFoundException, SQLException, ConfigError {
+        setUpJdbcLog(filterHeartbeats, dataSource, null);
+    }
+
+    private void setUpJdbcLog(boolean filterHeartbeats, DataSource dataSource, String asyncOverflowPolicy)
+            throws ClassNotFoundException, SQLException, ConfigError {
+        if (log != null) {
+            log.close();
+        }
         connection = JdbcTestSupport.getConnection();
         long now = System.currentTimeMillis();
         sessionID = new SessionID("FIX.4.2", "SENDER-" + now, "TARGET-" + now);
@@ -133,6 +177,11 @@ public class JdbcLogTest {
         if (filterHeartbeats) {
             settings.setBool(JdbcSetting.SETTING_JDBC_LOG_HEARTBEATS, false);
         }
+        if (asyncOverflowPolicy != null) {
+            settings.setBool(JdbcSetting.SETTING_JDBC_LOG_ASYNC, true);
+            settings.setLong(JdbcSetting.SETTING_JDBC_LOG_ASYNC_FLUSH_INTERVAL, 60000);
+            settings.setString(JdbcSetting.SETTING_JDBC_LOG_ASYNC_OVERFLOW_POLICY, asyncOverflowPolicy);
+        }
         JdbcTestSupport.setHypersonicSettings(settings);
         initializeTableDefinitions(connection);
         logFactory = new JdbcLogFactory(settings);
@@ -83,11 +83,17 @@ public class JdbcStoreTest extends AbstractMessageStoreTest {
             settings.setString(SETTING_JDBC_STORE_MESSAGES_TABLE_NAME, messageTableName);
         }
 
+        configureSettings(settings);
+
         initializeTableDefinitions(null, null);
 
         return new JdbcStoreFactory(settings);
     }
 
+    protected void configureSettings(SessionSettings settings) {
+        // no additional settings by default
+    }
+
     public void testExplicitDataSource() throws Exception {
         // No JNDI data source name is set up here
         JdbcStoreFactory factory = new JdbcStoreFactory(new SessionSettings());
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+
+package quickfix;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static quickfix.JdbcSetting.SETTING_JDBC_STORE_WRITE_BEHIND;
+import static quickfix.JdbcSetting.SETTING_JDBC_STORE_WRITE_BEHIND_BATCH_SIZE;
+import static quickfix.JdbcSetting.SETTING_JDBC_STORE_WRITE_BEHIND_FLUSH_INTERVAL;
+
+public class JdbcStoreWriteBehindTest extends JdbcStoreTest {
+
+    @Override
+    protected void tearDown() throws Exception {
+        ((JdbcStore) getStore()).close();
+        super.tearDown();
+    }
+
+    @Override
+    protected void configureSettings(SessionSettings settings) {
+        settings.setBool(SETTING_JDBC_STORE_WRITE_BEHIND, true);
+        settings.setLong(SETTING_JDBC_STORE_WRITE_BEHIND_BATCH_SIZE, 10);
+        // long enough to only write on a full batch or a flush during the test
+        settings.setLong(SETTING_JDBC_STORE_WRITE_BEHIND_FLUSH_INTERVAL, 60000);
+    }
+
+    @Override
+    protected void closeMessageStore(MessageStore store) throws IOException {
+        ((JdbcStore) store).close();
+    }
+
+    public void testFlushWritesPendingChanges() throws Exception {
+        JdbcStore store = (JdbcStore) getStore();
+        for (int sequence = 1; sequence <= 25; sequence++) {
+            store.set(sequence, "message" + sequence);
+        }
+        store.setNextSenderMsgSeqNum(26);
+        store.flush();
+
+        assertEquals(25, countStoredMessages());
+        JdbcStore other = (JdbcStore) createStore();
+        try {
+            assertEquals(26, other.getNextSenderMsgSeqNum());
+            List<String> messages = new ArrayList<>();
+            other.get(1, 25, messages);
+            assertEquals(25, messages.size());
+            assertEquals("message25", messages.get(24));
+        } finally {
+            other.close();
+        }
+    }
+
+    public void testReadWaitsForPendingMessages() throws Exception {
+        JdbcStore store = (JdbcStore) getStore();
+        store.set(1, "message1");
+        store.set(2, "message2");
+
+        List<String> messages = new ArrayList<>();
+        store.get(1, 2, messages);
+        assertEquals(2, messages.size());
+    }
+
+    private int countStoredMessages() throws Exception {
+        try (Connection connection = getTestDataSource().getConnection();
+                PreparedStatement query = connection.prepareStatement(
+                        "SELECT COUNT(*) FROM messages WHERE targetcompid=?")) {
+            query.setString(1, getSessionID().getTargetCompID());
+            try (ResultSet rs = query.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+}
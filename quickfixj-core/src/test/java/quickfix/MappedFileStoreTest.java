@@ -0,0 +1,322 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+
+package quickfix;
+
+import org.quickfixj.CharsetSupport;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class MappedFileStoreTest extends AbstractMessageStoreTest {
+
+    private String storePath;
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        CharsetSupport.setDefaultCharset();
+        ((MappedFileStore) getStore()).closeAndDeleteFiles();
+    }
+
+    @Override
+    protected MessageStoreFactory getMessageStoreFactory() throws ConfigError, FieldConvertError {
+        SessionSettings settings = new SessionSettings(getConfigurationFileName());
+        storePath = settings.getString(FileStoreFactory.SETTING_FILE_STORE_PATH);
+        settings.setString(getSessionID(), FileStoreFactory.SETTING_FILE_STORE_PATH, storePath);
+        settings.setLong(getSessionID(), MappedFileStoreFactory.SETTING_MAPPED_FILE_STORE_SEGMENT_SIZE, 256);
+        return new MappedFileStoreFactory(settings);
+    }
+
+    @Override
+    protected Class<?> getMessageStoreClass() {
+        return MappedFileStore.class;
+    }
+
+    protected void closeMessageStore(MessageStore store) throws IOException {
+        ((MappedFileStore) store).close();
+    }
+
+    public void testMessagesSpanningSegments() throws Exception {
+        MappedFileStore store = (MappedFileStore) getStore();
+        List<String> expected = new ArrayList<>();
+        for (int sequence = 1; sequence <= 50; sequence++) {
+            String message = "8=FIX.4.2\0019=5\00135=0\00134=" + sequence + "\00110=000\001";
+            expected.add(message);
+            assertTrue(store.set(sequence, message));
+        }
+        // larger than a segment
+        String large = new String(new char[1000]).replace('\0', 'x');
+        store.set(51, large);
+        expected.add(large);
+        assertTrue(getSegmentFile(1).exists());
+
+        store.close();
+        store.initialize(false);
+        List<String> messages = new ArrayList<>();
+        store.get(1, Integer.MAX_VALUE, messages);
+        assertEquals(expected, messages);
+
+        messages.clear();
+        store.get(20, 22, messages);
+        assertEquals(expected.subList(19, 22), messages);
+    }
+
+    public void testMessageIndexIsLoadedFromIndexFiles() throws Exception {
+        MappedFileStore store = (MappedFileStore) getStore();
+        for (int sequence = 1; sequence <= 20; sequence++) {
+            store.set(sequence, "MESSAGE" + sequence);
+        }
+        assertTrue(getSegmentFile(1).exists());
+        // the full segment was indexed when the next one was started
+        assertTrue(getIndexFile(0).exists());
+        store.close();
+        // written on close for the current segment
+        assertTrue(getIndexFile(getSegmentCount() - 1).exists());
+
+        // a record header which is not read when the index file is used
+        try (RandomAccessFile file = new RandomAccessFile(getSegmentFile(0), "rw")) {
+            file.seek(16 + 4);
+            file.writeInt(1000);
+        }
+        store.initialize(false);
+        List<String> messages = new ArrayList<>();
+        store.get(1, 20, messages);
+        assertEquals(20, messages.size());
+        assertEquals("MESSAGE1", messages.get(0));
+        messages.clear();
+        store.get(1000, 1000, messages);
+        assertEquals(0, messages.size());
+
+        store.set(21, "MESSAGE21");
+        store.close();
+        store.initialize(false);
+        messages.clear();
+        store.get(1, 21, messages);
+        assertEquals(21, messages.size());
+        assertEquals("MESSAGE21", messages.get(20));
+    }
+
+    public void testCloseAndOpen() throws Exception {
+        MappedFileStore store = (MappedFileStore) getStore();
+        store.setNextSenderMsgSeqNum(123);
+        store.setNextTargetMsgSeqNum(321);
+        store.set(1, "MESSAGE");
+        store.close();
+        store.initialize(false);
+
+        assertEquals(123, store.getNextSenderMsgSeqNum());
+        assertEquals(321, store.getNextTargetMsgSeqNum());
+        List<String> messages = new ArrayList<>();
+        store.get(1, 1, messages);
+        assertEquals(1, messages.size());
+    }
+
+    public void testIncompleteRecordIsIgnored() throws Exception {
+        MappedFileStore store = (MappedFileStore) getStore();
+        store.set(1, "MESSAGE1");
+        store.set(2, "MESSAGE2");
+        store.close();
+        // a record length pointing behind the end of the segment
+        try (RandomAccessFile file = new RandomAccessFile(getSegmentFile(0), "rw")) {
+            file.seek(16 + 16);
+            file.writeInt(Integer.MAX_VALUE);
+        }
+        store.initialize(false);
+
+        List<String> messages = new ArrayList<>();
+        store.get(1, 2, messages);
+        assertEquals(1, messages.size());
+        store.set(2, "MESSAGE3");
+        messages.clear();
+        store.get(1, 2, messages);
+        assertEquals("MESSAGE3", messages.get(1));
+    }
+
+    public void testMessageIndexReset() throws Exception {
+        MappedFileStore store = (MappedFileStore) getStore();
+        store.set(1, "MESSAGE");
+        store.reset();
+        store.set(2, "MESSAGE");
+
+        List<String> messages = new ArrayList<>();
+        store.get(1, 1, messages);
+        assertEquals(0, messages.size());
+    }
+
+    public void testSegmentsOutsideRetentionAreDeleted() throws Exception {
+        MappedFileStore store = createStore(0, 20, null);
+        for (int sequence = 1; sequence <= 100; sequence++) {
+            store.set(sequence, "8=FIX.4.2\0019=5\00135=0\00134=" + sequence + "\00110=000\001");
+        }
+        assertFalse(getSegmentFile(0).exists());
+        // about six messages fit into a segment
+        int segments = getSegmentCount();
+        assertTrue(segments > 0);
+        assertTrue(segments < 10);
+
+        store.close();
+        store.initialize(false);
+        List<String> messages = new ArrayList<>();
+        store.get(1, 100, messages);
+        assertTrue(messages.size() >= 20);
+        assertTrue(messages.size() < 100);
+        assertTrue(messages.get(0).contains("\00134=" + (101 - messages.size()) + "\001"));
+        assertTrue(messages.get(messages.size() - 1).contains("\00134=100\001"));
+        store.closeAndDeleteFiles();
+    }
+
+    public void testSegmentsOutsideRetentionAreArchived() throws Exception {
+        File archive = new File(storePath, "archive");
+        MappedFileStore store = createStore(0, 5, archive);
+        for (int sequence = 1; sequence <= 50; sequence++) {
+            store.set(sequence, "8=FIX.4.2\0019=5\00135=0\00134=" + sequence + "\00110=000\001");
+        }
+        File archived = new File(archive, getSegmentFile(0).getName());
+        assertTrue(archived.exists());
+        assertFalse(getSegmentFile(0).exists());
+        store.closeAndDeleteFiles();
+        for (File file : archive.listFiles()) {
+            file.delete();
+        }
+        archive.delete();
+    }
+
+    public void testExpiredSegmentsAreNotLoadedOnStartup() throws Exception {
+        MappedFileStore store = createStore(0, 0, null);
+        for (int sequence = 1; sequence <= 50; sequence++) {
+            store.set(sequence, "MESSAGE" + sequence);
+        }
+        store.close();
+        // loading the first segment would fail
+        try (RandomAccessFile file = new RandomAccessFile(getSegmentFile(0), "rw")) {
+            file.writeInt(0);
+        }
+
+        List<Runnable> cleanups = new ArrayList<>();
+        store = new MappedFileStore(storePath, getSessionID(), 256, false, 0, 5, null, cleanups::add);
+        List<String> messages = new ArrayList<>();
+        store.get(1, 50, messages);
+        assertTrue(messages.size() >= 5);
+        assertTrue(messages.size() < 50);
+        assertEquals("MESSAGE50", messages.get(messages.size() - 1));
+
+        assertTrue(getSegmentFile(0).exists());
+        cleanups.forEach(Runnable::run);
+        assertFalse(getSegmentFile(0).exists());
+        assertFalse(getIndexFile(0).exists());
+        store.closeAndDeleteFiles();
+    }
+
+    public void testSegmentIsRolledAfterInterval() throws Exception {
+        MockSystemTimeSource timeSource = new MockSystemTimeSource(System.currentTimeMillis());
+        SystemTime.setTimeSource(timeSource);
+        try {
+            MappedFileStore store = createStore(60000, 1, null);
+            store.set(1, "MESSAGE1");
+            store.set(2, "MESSAGE2");
+            assertFalse(getSegmentFile(1).exists());
+
+            timeSource.increment(60000);
+            store.set(3, "MESSAGE3");
+            assertTrue(getSegmentFile(1).exists());
+            assertFalse(getSegmentFile(0).exists());
+
+            List<String> messages = new ArrayList<>();
+            store.get(1, 3, messages);
+            assertEquals(1, messages.size());
+            assertEquals("MESSAGE3", messages.get(0));
+            store.closeAndDeleteFiles();
+        } finally {
+            SystemTime.setTimeSource(null);
+        }
+    }
+
+    public void testMessagesAreReadWhileStoring() throws Exception {
+        assertMessagesAreReadWhileStoring(0);
+    }
+
+    public void testMessagesAreReadWhileSegmentsAreRemoved() throws Exception {
+        assertMessagesAreReadWhileStoring(10);
+    }
+
+    private void assertMessagesAreReadWhileStoring(int retainedMessages) throws Exception {
+        MappedFileStore store = createStore(0, retainedMessages, null);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            List<String> messages = new ArrayList<>();
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    messages.clear();
+                    store.get(1, Integer.MAX_VALUE, messages);
+                    for (String message : messages) {
+                        assertTrue(message, message.startsWith("8=FIX.4.2\001"));
+                    }
+                    store.get(1, Integer.MAX_VALUE,
+                            (data, offset, length) -> data[offset] == '8' && length > 0);
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        reader.start();
+        try {
+            for (int sequence = 1; sequence <= 5000 && failure.get() == null; sequence++) {
+                store.set(sequence, "8=FIX.4.2\0019=5\00135=0\00134=" + sequence + "\00110=000\001");
+            }
+        } finally {
+            reader.interrupt();
+            reader.join(10000);
+        }
+        if (failure.get() != null) {
+            throw new AssertionError("reading failed", failure.get());
+        }
+        List<String> messages = new ArrayList<>();
+        store.get(1, 5000, messages);
+        assertTrue(messages.size() >= Math.max(retainedMessages, 1));
+        assertTrue(messages.get(messages.size() - 1).contains("\00134=5000\001"));
+        store.closeAndDeleteFiles();
+    }
+
+    private int getSegmentCount() {
+        String prefix = FileUtil.sessionIdFileName(getSessionID()) + ".segment.";
+        return new File(storePath).list((dir, name) -> name.startsWith(prefix)).length;
+    }
+
+    private MappedFileStore createStore(long rollIntervalMillis, int retainedMessages, File archive)
+            throws IOException {
+        ((MappedFileStore) getStore()).closeAndDeleteFiles();
+        return new MappedFileStore(storePath, getSessionID(), 256, false, rollIntervalMillis,
+                retainedMessages, archive, Runnable::run);
+    }
+
+    private File getIndexFile(int segment) {
+        return new File(FileUtil.fileAppendPath(new File(storePath).getAbsolutePath(),
+                FileUtil.sessionIdFileName(getSessionID()) + ".segindex." + String.format("%06d", segment)));
+    }
+
+    private File getSegmentFile(int segment) {
+        return new File(FileUtil.fileAppendPath(new File(storePath).getAbsolutePath(),
+                FileUtil.sessionIdFileName(getSessionID()) + ".segment." + String.format("%06d", segment)));
+    }
+}
@@ -0,0 +1,135 @@
+package quickfix;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import quickfix.field.BeginString;
+import quickfix.field.EncryptMethod;
+import quickfix.field.HeartBtInt;
+import quickfix.field.Headline;
+import quickfix.field.MsgSeqNum;
+import quickfix.field.MsgType;
+import quickfix.field.SenderCompID;
+import quickfix.field.SendingTime;
+import quickfix.field.TargetCompID;
+
+/**
+ * Tests the {@link RecyclingMessageFactory} class.
+ */
+public class RecyclingMessageFactoryTest {
+
+    @Test
+    public void testReleasedMessageIsReused() throws Exception {
+        RecyclingMessageFactory factory = new RecyclingMessageFactory();
+        Message message = factory.create(FixVersions.BEGINSTRING_FIX44, MsgType.NEWS);
+        assertEquals(quickfix.fix44.News.class, message.getClass());
+        message.setString(Headline.FIELD, "headline");
+        message.getHeader().setInt(MsgSeqNum.FIELD, 5);
+
+        factory.release(message);
+        assertEquals(1, factory.getPooledCount(quickfix.fix44.News.class));
+
+        Message reused = factory.create(FixVersions.BEGINSTRING_FIX44, MsgType.NEWS);
+        assertSame(message, reused);
+        assertEquals(0, factory.getPooledCount(quickfix.fix44.News.class));
+        assertFalse(reused.isSetField(Headline.FIELD));
+        assertFalse(reused.getHeader().isSetField(MsgSeqNum.FIELD));
+        assertEquals(FixVersions.BEGINSTRING_FIX44, reused.getHeader().getString(BeginString.FIELD));
+        assertEquals(MsgType.NEWS, reused.getHeader().getString(MsgType.FIELD));
+        assertEquals(new DefaultMessageFactory().create(FixVersions.BEGINSTRING_FIX44, MsgType.NEWS).toString(),
+                reused.toString());
+    }
+
+    @Test
+    public void testRetainedMessageIsNotReused() {
+        RecyclingMessageFactory factory = new RecyclingMessageFactory();
+        Message message = factory.create(FixVersions.BEGINSTRING_FIX44, MsgType.NEWS);
+        message.retain();
+        factory.release(message);
+        assertEquals(0, factory.getPooledCount(quickfix.fix44.News.class));
+        assertNotSame(message, factory.create(FixVersions.BEGINSTRING_FIX44, MsgType.NEWS));
+    }
+
+    @Test
+    public void testPoolSizeIsBounded() {
+        RecyclingMessageFactory factory = new RecyclingMessageFactory(new DefaultMessageFactory(), 2);
+        List<Message> messages = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            messages.add(factory.create(FixVersions.BEGINSTRING_FIX44, MsgType.NEWS));
+        }
+        messages.forEach(factory::release);
+        assertEquals(2, factory.getPooledCount(quickfix.fix44.News.class));
+    }
+
+    @Test
+    public void testMessagesOfUnknownClassAreNotPooled() {
+        RecyclingMessageFactory factory = new RecyclingMessageFactory();
+        factory.release(new quickfix.fix44.News());
+        assertEquals(0, factory.getPooledCount(quickfix.fix44.News.class));
+    }
+
+    @Test
+    public void testSessionReleasesMessagesUnlessRetained() throws Exception {
+        RecyclingMessageFactory factory = new RecyclingMessageFactory();
+        List<Message> received = new ArrayList<>();
+        Application application = new ApplicationAdapter() {
+            @Override
+            public void fromApp(Message message, SessionID sessionId) throws FieldNotFound {
+                if (message.getString(Headline.FIELD).equals("retain")) {
+                    message.retain();
+                }
+                received.add(message);
+            }
+        };
+        SessionID sessionID = new SessionID(FixVersions.BEGINSTRING_FIX44, "SENDER", "TARGET");
+        try (Session session = new SessionFactoryTestSupport.Builder().setSessionId(sessionID)
+                .setApplication(application).setMessageFactory(factory).build()) {
+            Responder responder = mock(Responder.class);
+            when(responder.send(anyString())).thenReturn(true);
+            session.setResponder(responder);
+
+            Message logon = createMessage(factory, MsgType.LOGON, 1);
+            logon.setInt(EncryptMethod.FIELD, EncryptMethod.NONE_OTHER);
+            logon.setInt(HeartBtInt.FIELD, 30);
+            session.next(logon);
+            assertTrue(session.isLoggedOn());
+            assertEquals(1, factory.getPooledCount(quickfix.fix44.Logon.class));
+
+            Message news = createMessage(factory, MsgType.NEWS, 2);
+            news.setString(Headline.FIELD, "release");
+            session.next(news);
+            assertSame(news, received.get(0));
+            assertEquals(1, factory.getPooledCount(quickfix.fix44.News.class));
+
+            Message retained = createMessage(factory, MsgType.NEWS, 3);
+            assertSame(news, retained);
+            retained.setString(Headline.FIELD, "retain");
+            session.next(retained);
+            assertEquals(0, factory.getPooledCount(quickfix.fix44.News.class));
+            assertEquals("retain", received.get(1).getString(Headline.FIELD));
+        }
+    }
+
+    private static Message createMessage(MessageFactory factory, String msgType, int sequence) {
+        Message message = factory.create(FixVersions.BEGINSTRING_FIX44, msgType);
+        Message.Header header = message.getHeader();
+        header.setString(SenderCompID.FIELD, "TARGET");
+        header.setString(TargetCompID.FIELD, "SENDER");
+        header.setInt(MsgSeqNum.FIELD, sequence);
+        header.setUtcTimeStamp(SendingTime.FIELD, LocalDateTime.now(ZoneOffset.UTC));
+        return message;
+    }
+}
@@ -0,0 +1,99 @@
+package quickfix;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.quickfixj.CharsetSupport;
+
+import quickfix.field.Headline;
+import quickfix.field.MsgSeqNum;
+import quickfix.field.MsgType;
+import quickfix.field.OrigSendingTime;
+import quickfix.field.PossDupFlag;
+import quickfix.field.SenderCompID;
+import quickfix.field.SendingTime;
+import quickfix.field.TargetCompID;
+import quickfix.field.XmlData;
+import quickfix.field.XmlDataLen;
+import quickfix.fix44.News;
+
+/**
+ * Tests the {@link ResendPatcher} class.
+ */
+public class ResendPatcherTest {
+
+    private static final String ORIGINAL_SENDING_TIME = "20240102-10:11:12.123";
+    private static final String RESEND_SENDING_TIME = "20240102-11:00:00.000";
+
+    private static DataDictionary dataDictionary;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        dataDictionary = new DataDictionary("FIX44.xml");
+    }
+
+    @Test
+    public void testPatchedMessageIsValid() throws Exception {
+        byte[] data = createNews().toString().getBytes(CharsetSupport.getCharsetInstance());
+        ResendPatcher patcher = new ResendPatcher(dataDictionary);
+
+        assertTrue(patcher.scan(data, 0, data.length));
+        assertEquals(MsgType.NEWS, patcher.getMsgType());
+        assertEquals(7, patcher.getMsgSeqNum());
+
+        Message patched = new Message(patcher.patch(RESEND_SENDING_TIME), dataDictionary);
+        assertTrue(patched.getHeader().getBoolean(PossDupFlag.FIELD));
+        assertEquals(ORIGINAL_SENDING_TIME, patched.getHeader().getString(OrigSendingTime.FIELD));
+        assertEquals(RESEND_SENDING_TIME, patched.getHeader().getString(SendingTime.FIELD));
+        assertEquals(7, patched.getHeader().getInt(MsgSeqNum.FIELD));
+        assertEquals("Headline", patched.getString(Headline.FIELD));
+    }
+
+    @Test
+    public void testExistingPossDupFieldsAreReplaced() throws Exception {
+        News news = createNews();
+        news.getHeader().setBoolean(PossDupFlag.FIELD, false);
+        news.getHeader().setString(OrigSendingTime.FIELD, "20240101-00:00:00.000");
+        byte[] data = ("XX" + news).getBytes(CharsetSupport.getCharsetInstance());
+        ResendPatcher patcher = new ResendPatcher(dataDictionary);
+
+        assertTrue(patcher.scan(data, 2, data.length - 2));
+        String patched = patcher.patch(RESEND_SENDING_TIME);
+        Message message = new Message(patched, dataDictionary);
+        assertTrue(message.getHeader().getBoolean(PossDupFlag.FIELD));
+        assertEquals(ORIGINAL_SENDING_TIME, message.getHeader().getString(OrigSendingTime.FIELD));
+        assertEquals(patched.indexOf("\00143="), patched.lastIndexOf("\00143="));
+        assertEquals(patched.indexOf("\001122="), patched.lastIndexOf("\001122="));
+    }
+
+    @Test
+    public void testMessageWithHeaderDataFieldIsNotPatched() {
+        News news = createNews();
+        news.getHeader().setString(XmlData.FIELD, "<a>\001</a>");
+        news.getHeader().setInt(XmlDataLen.FIELD, 9);
+        byte[] data = news.toString().getBytes(CharsetSupport.getCharsetInstance());
+
+        assertFalse(new ResendPatcher(dataDictionary).scan(data, 0, data.length));
+    }
+
+    @Test
+    public void testMessageWithoutSendingTimeIsNotPatched() {
+        News news = createNews();
+        news.getHeader().removeField(SendingTime.FIELD);
+        byte[] data = news.toString().getBytes(CharsetSupport.getCharsetInstance());
+
+        assertFalse(new ResendPatcher(dataDictionary).scan(data, 0, data.length));
+    }
+
+    private static News createNews() {
+        News news = new News(new Headline("Headline"));
+        news.getHeader().setString(SenderCompID.FIELD, "SENDER");
+        news.getHeader().setString(TargetCompID.FIELD, "TARGET");
+        news.getHeader().setInt(MsgSeqNum.FIELD, 7);
+        news.getHeader().setString(SendingTime.FIELD, ORIGINAL_SENDING_TIME);
+        return news;
+    }
+}
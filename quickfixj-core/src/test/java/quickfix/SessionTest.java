@@ -19,8 +19,10 @@ import quickfix.field.NextExpectedMsgSeqNum;
 import quickfix.field.OrigSendingTime;
 import quickfix.field.PossDupFlag;
 import quickfix.field.RefSeqNum;
+import quickfix.field.RefTagID;
 import quickfix.field.SenderCompID;
 import quickfix.field.SendingTime;
+import quickfix.field.SessionRejectReason;
 import quickfix.field.SessionStatus;
 import quickfix.field.TargetCompID;
 import quickfix.field.TestReqID;
@@ -51,7 +53,10 @@ import java.time.LocalTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
@@ -62,6 +67,8 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
@@ -276,6 +283,45 @@ public class SessionTest {
         session.close();
     }
 
+    @Test
+    public void testSendingTimeAfterNanosecondRangeIsRejected() throws Exception {
+        final UnitTestApplication application = new UnitTestApplication();
+        try (Session session = setUpSession(application, false, new UnitTestResponder())) {
+            logonTo(session);
+
+            final News news = createAppMessage(2);
+            news.getHeader().setString(SendingTime.FIELD, "23000101-00:00:00.000");
+            session.next(news);
+
+            assertNull(application.lastFromAppMessage());
+            final Message reject = application.toAdminMessages.get(application.toAdminMessages.size() - 2);
+            assertEquals(Reject.MSGTYPE, reject.getHeader().getString(MsgType.FIELD));
+            assertEquals(SessionRejectReason.SENDINGTIME_ACCURACY_PROBLEM, reject.getInt(SessionRejectReason.FIELD));
+            assertEquals(SendingTime.FIELD, reject.getInt(RefTagID.FIELD));
+            assertEquals(Logout.MSGTYPE, application.lastToAdminMessage().getHeader().getString(MsgType.FIELD));
+        }
+    }
+
+    @Test
+    public void testOrigSendingTimeAfterNanosecondRangeIsRejected() throws Exception {
+        final UnitTestApplication application = new UnitTestApplication();
+        try (Session session = setUpSession(application, false, new UnitTestResponder())) {
+            logonTo(session);
+
+            final News news = createAppMessage(2);
+            news.getHeader().setBoolean(PossDupFlag.FIELD, true);
+            news.getHeader().setString(OrigSendingTime.FIELD, "23000101-00:00:00.000");
+            session.next(news);
+
+            assertNull(application.lastFromAppMessage());
+            final Message reject = application.toAdminMessages.get(application.toAdminMessages.size() - 2);
+            assertEquals(Reject.MSGTYPE, reject.getHeader().getString(MsgType.FIELD));
+            assertEquals(SessionRejectReason.SENDINGTIME_ACCURACY_PROBLEM, reject.getInt(SessionRejectReason.FIELD));
+            assertEquals(OrigSendingTime.FIELD, reject.getInt(RefTagID.FIELD));
+            assertEquals(Logout.MSGTYPE, application.lastToAdminMessage().getHeader().getString(MsgType.FIELD));
+        }
+    }
+
     @Test
     public void testInferResetSeqNumAcceptedWithNonInitialSequenceNumber()
             throws Exception {
@@ -1335,6 +1381,79 @@ public class SessionTest {
         }
     }
 
+    @Test
+    public void testBatchApplicationReceivesConsecutiveApplicationMessages() throws Exception {
+        final BatchTestApplication application = new BatchTestApplication();
+        try (Session session = setUpSession(application, false, new UnitTestResponder())) {
+            final SessionState state = getSessionState(session);
+            logonTo(session);
+
+            session.beginApplicationBatch();
+            processMessage(session, createAppMessage(2));
+            processMessage(session, createAppMessage(3));
+            processMessage(session, createAppMessage(4));
+            assertTrue(application.batches.isEmpty());
+            // admin messages are not overtaken by a batch
+            processMessage(session, createHeartbeatMessage(5));
+            assertEquals(1, application.batches.size());
+            processMessage(session, createAppMessage(6));
+            session.endApplicationBatch();
+
+            // outside of a batch every message is delivered on its own
+            processMessage(session, createAppMessage(7));
+
+            assertEquals(Arrays.asList(Arrays.asList(2, 3, 4), Collections.singletonList(6),
+                    Collections.singletonList(7)), application.batches);
+            assertTrue(application.fromAppMessages.isEmpty());
+            assertEquals(8, state.getNextTargetMsgSeqNum());
+        }
+    }
+
+    @Test
+    public void testBatchApplicationExceptionResetsTargetSeqNum() throws Exception {
+        final BatchTestApplication application = new BatchTestApplication();
+        application.failNextBatch = true;
+        try (Session session = setUpSession(application, false, new UnitTestResponder())) {
+            final SessionState state = getSessionState(session);
+            logonTo(session);
+
+            session.beginApplicationBatch();
+            processMessage(session, createAppMessage(2));
+            processMessage(session, createAppMessage(3));
+            session.endApplicationBatch();
+            assertEquals(2, state.getNextTargetMsgSeqNum());
+            assertFalse(state.isResendRequested());
+
+            // the failed messages are requested again
+            processMessage(session, createAppMessage(4));
+            assertTrue(state.isResendRequested());
+            assertEquals(2, state.getResendRange().getBeginSeqNo());
+            assertTrue(application.batches.isEmpty());
+        }
+    }
+
+    private static class BatchTestApplication extends UnitTestApplication implements BatchApplication {
+        private final List<List<Integer>> batches = new ArrayList<>();
+        private boolean failNextBatch;
+
+        @Override
+        public void fromAppBatch(List<Message> messages, SessionID sessionId) {
+            if (failNextBatch) {
+                failNextBatch = false;
+                throw new RuntimeException("TEST");
+            }
+            final List<Integer> batch = new ArrayList<>();
+            for (Message message : messages) {
+                try {
+                    batch.add(message.getHeader().getInt(MsgSeqNum.FIELD));
+                } catch (FieldNotFound e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            batches.add(batch);
+        }
+    }
+
     // QFJ-626
     @Test
     public void testResendMessagesWithIncorrectChecksum() throws Exception {
@@ -1381,6 +1500,40 @@ public class SessionTest {
         }
     }
 
+    @Test
+    public void testResendMessagesWithoutParsing() throws Exception {
+
+        final UnitTestApplication application = new UnitTestApplication();
+        final SessionID sessionID = new SessionID(FixVersions.BEGINSTRING_FIX44, "SENDER", "TARGET");
+        try (Session session = SessionFactoryTestSupport.createSession(sessionID, application, false, false, true, true, null)) {
+            UnitTestResponder responder = new UnitTestResponder();
+            session.setResponder(responder);
+            session.setResendWithoutParsing(true);
+
+            final Logon logonToSend = new Logon();
+            setUpHeader(session.getSessionID(), logonToSend, true, 1);
+            logonToSend.setInt(HeartBtInt.FIELD, 30);
+            logonToSend.setInt(EncryptMethod.FIELD, EncryptMethod.NONE_OTHER);
+            logonToSend.toString(); // calculate length/checksum
+            session.next(logonToSend);
+
+            session.send(createAppMessage(2));
+            session.send(createAppMessage(3));
+            application.toAppMessages.clear();
+
+            Message createResendRequest = createResendRequest(2, 2);
+            createResendRequest.toString(); // calculate length/checksum
+            processMessage(session, createResendRequest);
+
+            // the stored message is resent without calling toApp
+            assertTrue(application.toAppMessages.isEmpty());
+            final Message resent = new Message(responder.sentMessageData, session.getDataDictionary());
+            assertEquals(3, resent.getHeader().getInt(MsgSeqNum.FIELD));
+            assertTrue(resent.getHeader().getBoolean(PossDupFlag.FIELD));
+            assertTrue(resent.getHeader().isSetField(OrigSendingTime.FIELD));
+        }
+    }
+
     // QFJ-493
     @Test
     public void testGapFillSatisfiesResendRequest() throws Exception {
@@ -2179,6 +2332,7 @@ public class SessionTest {
 
 		Responder mockResponder = mock(Responder.class);
 		when(mockResponder.send(anyString())).thenReturn(true);
+		when(mockResponder.send(any(byte[].class), anyInt(), anyInt())).thenCallRealMethod();
 		session.setResponder(mockResponder);
 
 		session.logon();
@@ -2227,6 +2381,7 @@ public class SessionTest {
 
 		Responder mockResponder = mock(Responder.class);
 		when(mockResponder.send(anyString())).thenReturn(true);
+		when(mockResponder.send(any(byte[].class), anyInt(), anyInt())).thenCallRealMethod();
 		session.setResponder(mockResponder);
 
 		session.logon();
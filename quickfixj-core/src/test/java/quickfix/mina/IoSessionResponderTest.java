@@ -23,13 +23,17 @@ import java.net.InetSocketAddress;
 import org.apache.mina.core.future.WriteFuture;
 import org.apache.mina.core.session.IoSession;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -58,6 +62,23 @@ public class IoSessionResponderTest {
         verifyNoMoreInteractions(mockIoSession);
     }
 
+    @Test
+    public void testSendBytesCopiesData() throws Exception {
+        IoSession mockIoSession = mock(IoSession.class);
+        WriteFuture mockWriteFuture = mock(WriteFuture.class);
+        when(mockIoSession.write(any())).thenReturn(mockWriteFuture);
+        IoSessionResponder responder = new IoSessionResponder(mockIoSession, false, 0, 0);
+        byte[] buffer = { 'x', 'a', 'b', 'c', 'd', 'x' };
+
+        boolean result = responder.send(buffer, 1, 4);
+        buffer[1] = 'y';
+
+        assertTrue(result);
+        ArgumentCaptor<Object> written = ArgumentCaptor.forClass(Object.class);
+        verify(mockIoSession).write(written.capture());
+        assertArrayEquals(new byte[] { 'a', 'b', 'c', 'd' }, (byte[]) written.getValue());
+    }
+
     @Test
     public void testSynchronousSend() throws Exception {
         int timeout = 123;
@@ -124,6 +145,24 @@ public class IoSessionResponderTest {
         verifyNoMoreInteractions(mockIoSession);
     }
 
+    @Test
+    public void testAwaitWritable() throws Exception {
+        int timeout = 123;
+        IoSession mockIoSession = mock(IoSession.class);
+        WriteFuture mockWriteFuture = mock(WriteFuture.class);
+        when(mockIoSession.write("abcd")).thenReturn(mockWriteFuture);
+        IoSessionResponder responder = new IoSessionResponder(mockIoSession, false, timeout, 10);
+
+        responder.send("abcd");
+        when(mockIoSession.getScheduledWriteMessages()).thenReturn(4);
+        responder.awaitWritable();
+        verify(mockWriteFuture, never()).awaitUninterruptibly(timeout);
+
+        when(mockIoSession.getScheduledWriteMessages()).thenReturn(5);
+        responder.awaitWritable();
+        verify(mockWriteFuture).awaitUninterruptibly(timeout);
+    }
+
     @Test
     public void testDisconnect() throws Exception {
         IoSession mockProtocolSession = mock(IoSession.class);
@@ -0,0 +1,367 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+package quickfix.mina;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import quickfix.ConfigError;
+import quickfix.DefaultSessionFactory;
+import quickfix.FixVersions;
+import quickfix.MemoryStoreFactory;
+import quickfix.Message;
+import quickfix.RuntimeError;
+import quickfix.SLF4JLogFactory;
+import quickfix.Session;
+import quickfix.SessionFactory;
+import quickfix.SessionID;
+import quickfix.SessionSettings;
+import quickfix.UnitTestApplication;
+import quickfix.field.MsgSeqNum;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.when;
+
+public class PartitionedEventHandlingStrategyTest {
+
+    private final Map<SessionID, List<Integer>> processedMessages = new ConcurrentHashMap<>();
+    private final Map<SessionID, List<String>> processingThreads = new ConcurrentHashMap<>();
+    private SessionSettings settings;
+    private SessionConnector connector;
+    private PartitionedEventHandlingStrategy strategy;
+
+    @Before
+    public void setUp() throws Exception {
+        settings = new SessionSettings();
+        connector = new SessionConnectorUnderTest(settings, new DefaultSessionFactory(new UnitTestApplication(),
+                new MemoryStoreFactory(), new SLF4JLogFactory(new SessionSettings())));
+    }
+
+    @After
+    public void tearDown() {
+        if (strategy != null) {
+            strategy.stopHandlingMessages(true);
+        }
+    }
+
+    @Test
+    public void testMessagesOfSessionAreProcessedInOrderByOneWorker() throws Exception {
+        strategy = new PartitionedEventHandlingStrategy(connector, 4, 1000);
+        strategy.blockInThread();
+        List<Session> sessions = new ArrayList<>();
+        CountDownLatch processed = new CountDownLatch(8 * 100);
+        for (int i = 0; i < 8; i++) {
+            sessions.add(createSession("TARGET" + i, processed, null));
+        }
+        for (int seq = 1; seq <= 100; seq++) {
+            for (Session session : sessions) {
+                strategy.onMessage(session, createMessage(seq));
+            }
+        }
+        assertTrue(processed.await(10, TimeUnit.SECONDS));
+
+        Set<String> allThreads = new HashSet<>();
+        for (Session session : sessions) {
+            SessionID sessionID = session.getSessionID();
+            assertEquals(sequence(1, 100), processedMessages.get(sessionID));
+            Set<String> threads = new HashSet<>(processingThreads.get(sessionID));
+            assertEquals(1, threads.size());
+            int worker = Math.floorMod(sessionID.hashCode(), 4);
+            assertEquals(worker, strategy.getAssignedWorker(sessionID));
+            assertEquals(PartitionedEventHandlingStrategy.MESSAGE_PROCESSOR_THREAD_NAME + " " + worker,
+                    threads.iterator().next());
+            allThreads.addAll(threads);
+        }
+        assertTrue(allThreads.size() > 1);
+        assertEquals(0, strategy.getQueueSize());
+    }
+
+    @Test
+    public void testConfiguredWorker() throws Exception {
+        strategy = new PartitionedEventHandlingStrategy(connector, 3, 1000);
+        Session session = createSession("TARGET", new CountDownLatch(1), null);
+        SessionID sessionID = session.getSessionID();
+        int worker = (Math.floorMod(sessionID.hashCode(), 3) + 1) % 3;
+        settings.setLong(sessionID, PartitionedEventHandlingStrategy.SETTING_EVENT_HANDLING_WORKER, worker);
+        assertEquals(-1, strategy.getAssignedWorker(sessionID));
+
+        strategy.onMessage(session, createMessage(1));
+        assertEquals(worker, strategy.getAssignedWorker(sessionID));
+        assertEquals(1, strategy.getQueueSize(sessionID));
+        assertEquals(1, strategy.getQueueSize());
+    }
+
+    @Test
+    public void testMovedSessionKeepsOrder() throws Exception {
+        strategy = new PartitionedEventHandlingStrategy(connector, 2, 1000);
+        strategy.blockInThread();
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch processed = new CountDownLatch(20);
+        Session session = createSession("TARGET", processed, blocked);
+        SessionID sessionID = session.getSessionID();
+        int previousWorker = Math.floorMod(sessionID.hashCode(), 2);
+        for (int seq = 1; seq <= 10; seq++) {
+            strategy.onMessage(session, createMessage(seq));
+        }
+        // messages received while the previous worker still processes the session
+        strategy.assignSession(sessionID, 1 - previousWorker);
+        for (int seq = 11; seq <= 20; seq++) {
+            strategy.onMessage(session, createMessage(seq));
+        }
+        assertEquals(previousWorker, strategy.getAssignedWorker(sessionID));
+        blocked.countDown();
+        assertTrue(processed.await(10, TimeUnit.SECONDS));
+
+        assertEquals(sequence(1, 20), processedMessages.get(sessionID));
+        // the previous worker hands the session over after its deferred messages
+        waitFor(() -> strategy.getAssignedWorker(sessionID) == 1 - previousWorker);
+
+        strategy.onMessage(session, createMessage(21));
+        waitFor(() -> processingThreads.get(sessionID).size() == 21);
+        assertEquals(PartitionedEventHandlingStrategy.MESSAGE_PROCESSOR_THREAD_NAME + " " + (1 - previousWorker),
+                processingThreads.get(sessionID).get(20));
+    }
+
+    @Test
+    public void testMovedSessionWithWatermarks() throws Exception {
+        strategy = new PartitionedEventHandlingStrategy(connector, 2, 2, 5, null);
+        strategy.blockInThread();
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch processed = new CountDownLatch(20);
+        Session session = createSession("TARGET", processed, blocked);
+        SessionID sessionID = session.getSessionID();
+        int previousWorker = Math.floorMod(sessionID.hashCode(), 2);
+        strategy.onMessage(session, createMessage(1));
+        waitFor(() -> countInvocations(session, "next") == 1);
+        for (int seq = 2; seq <= 10; seq++) {
+            strategy.onMessage(session, createMessage(seq));
+        }
+        strategy.assignSession(sessionID, 1 - previousWorker);
+        for (int seq = 11; seq <= 20; seq++) {
+            strategy.onMessage(session, createMessage(seq));
+        }
+        blocked.countDown();
+        assertTrue(processed.await(10, TimeUnit.SECONDS));
+        waitFor(() -> strategy.getAssignedWorker(sessionID) == 1 - previousWorker);
+        assertEquals(sequence(1, 20), processedMessages.get(sessionID));
+
+        // the deferred messages are delivered as a batch of their own
+        InOrder inOrder = inOrder(session);
+        inOrder.verify(session).beginApplicationBatch();
+        inOrder.verify(session).next(any(Message.class));
+        inOrder.verify(session).endApplicationBatch();
+        inOrder.verify(session).beginApplicationBatch();
+        inOrder.verify(session, times(9)).next(any(Message.class));
+        inOrder.verify(session).endApplicationBatch();
+        inOrder.verify(session).beginApplicationBatch();
+        inOrder.verify(session, times(10)).next(any(Message.class));
+        inOrder.verify(session).endApplicationBatch();
+
+        strategy.onMessage(session, createMessage(21));
+        waitFor(() -> processingThreads.get(sessionID).size() == 21);
+        assertEquals(PartitionedEventHandlingStrategy.MESSAGE_PROCESSOR_THREAD_NAME + " " + (1 - previousWorker),
+                processingThreads.get(sessionID).get(20));
+        assertEquals(0, strategy.getQueueSize());
+    }
+
+    @Test
+    public void testRebalanceMovesSessionToIdleWorker() throws Exception {
+        strategy = new PartitionedEventHandlingStrategy(connector, 2, 1000);
+        strategy.blockInThread();
+        CountDownLatch processed = new CountDownLatch(2 * 50);
+        List<Session> sessions = new ArrayList<>();
+        for (int i = 0; sessions.size() < 2; i++) {
+            Session session = createSession("TARGET" + i, processed, null);
+            if (Math.floorMod(session.getSessionID().hashCode(), 2) == 0) {
+                sessions.add(session);
+            }
+        }
+        for (int seq = 1; seq <= 50; seq++) {
+            for (Session session : sessions) {
+                strategy.onMessage(session, createMessage(seq));
+            }
+        }
+        assertTrue(processed.await(10, TimeUnit.SECONDS));
+
+        assertTrue(strategy.rebalance());
+        waitFor(() -> strategy.getAssignedWorker(sessions.get(0).getSessionID()) == 1
+                || strategy.getAssignedWorker(sessions.get(1).getSessionID()) == 1);
+        assertNotEquals(strategy.getAssignedWorker(sessions.get(0).getSessionID()),
+                strategy.getAssignedWorker(sessions.get(1).getSessionID()));
+        // balanced, nothing processed since the last rebalance
+        assertFalse(strategy.rebalance());
+    }
+
+    @Test
+    public void testAssignedSessionIsNotRebalanced() throws Exception {
+        strategy = new PartitionedEventHandlingStrategy(connector, 2, 1000);
+        strategy.blockInThread();
+        CountDownLatch processed = new CountDownLatch(10);
+        Session session = createSession("TARGET", processed, null);
+        SessionID sessionID = session.getSessionID();
+        strategy.assignSession(sessionID, 0);
+        for (int seq = 1; seq <= 10; seq++) {
+            strategy.onMessage(session, createMessage(seq));
+        }
+        assertTrue(processed.await(10, TimeUnit.SECONDS));
+        assertFalse(strategy.rebalance());
+        assertEquals(0, strategy.getAssignedWorker(sessionID));
+    }
+
+    @Test
+    public void testQueuedMessagesOfSessionAreProcessedAsOneBatch() throws Exception {
+        strategy = new PartitionedEventHandlingStrategy(connector, 1, 1000);
+        strategy.blockInThread();
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch processed = new CountDownLatch(6);
+        Session session = createSession("TARGET", processed, blocked);
+        strategy.onMessage(session, createMessage(1));
+        waitFor(() -> countInvocations(session, "next") == 1);
+        // queued while the first message is processed
+        for (int seq = 2; seq <= 6; seq++) {
+            strategy.onMessage(session, createMessage(seq));
+        }
+        blocked.countDown();
+        assertTrue(processed.await(10, TimeUnit.SECONDS));
+        waitFor(() -> countInvocations(session, "endApplicationBatch") == 2);
+
+        InOrder inOrder = inOrder(session);
+        inOrder.verify(session).beginApplicationBatch();
+        inOrder.verify(session).next(any(Message.class));
+        inOrder.verify(session).endApplicationBatch();
+        inOrder.verify(session).beginApplicationBatch();
+        inOrder.verify(session, times(5)).next(any(Message.class));
+        inOrder.verify(session).endApplicationBatch();
+        assertEquals(sequence(1, 6), processedMessages.get(session.getSessionID()));
+    }
+
+    @Test
+    public void testConnectorCreatesStrategyFromSettings() throws Exception {
+        SharedEventHandlingStrategy singleThreaded = connector.createSharedEventHandlingStrategy(1000);
+        assertTrue(singleThreaded instanceof SingleThreadedEventHandlingStrategy);
+
+        settings.setLong(PartitionedEventHandlingStrategy.SETTING_EVENT_HANDLING_WORKERS, 3);
+        settings.setLong(PartitionedEventHandlingStrategy.SETTING_EVENT_HANDLING_REBALANCE_INTERVAL, 1);
+        SharedEventHandlingStrategy partitioned = connector.createSharedEventHandlingStrategy(1000);
+        assertTrue(partitioned instanceof PartitionedEventHandlingStrategy);
+        assertEquals(3, ((PartitionedEventHandlingStrategy) partitioned).getWorkerCount());
+
+        settings.setLong(PartitionedEventHandlingStrategy.SETTING_EVENT_HANDLING_WORKERS, 0);
+        try {
+            connector.createSharedEventHandlingStrategy(1000);
+            fail("Expected ConfigError");
+        } catch (ConfigError e) {
+            // expected
+        }
+    }
+
+    private Session createSession(String targetCompID, CountDownLatch processed, CountDownLatch blocked)
+            throws Exception {
+        SessionID sessionID = new SessionID(FixVersions.BEGINSTRING_FIX44, "SENDER", targetCompID);
+        processedMessages.put(sessionID, Collections.synchronizedList(new ArrayList<>()));
+        processingThreads.put(sessionID, Collections.synchronizedList(new ArrayList<>()));
+        Session session = mock(Session.class);
+        when(session.getSessionID()).thenReturn(sessionID);
+        doAnswer(invocation -> {
+            if (blocked != null) {
+                blocked.await(10, TimeUnit.SECONDS);
+            }
+            Message message = invocation.getArgument(0);
+            processingThreads.get(sessionID).add(Thread.currentThread().getName());
+            processedMessages.get(sessionID).add(message.getHeader().getInt(MsgSeqNum.FIELD));
+            processed.countDown();
+            return null;
+        }).when(session).next(any(Message.class));
+        return session;
+    }
+
+    private static long countInvocations(Session session, String methodName) {
+        return mockingDetails(session).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals(methodName)).count();
+    }
+
+    private static Message createMessage(int seq) {
+        Message message = new Message();
+        message.getHeader().setInt(MsgSeqNum.FIELD, seq);
+        return message;
+    }
+
+    private static List<Integer> sequence(int from, int to) {
+        List<Integer> sequence = new ArrayList<>();
+        for (int i = from; i <= to; i++) {
+            sequence.add(i);
+        }
+        return sequence;
+    }
+
+    private static void waitFor(Condition condition) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + 10000;
+        while (!condition.isMet()) {
+            if (System.currentTimeMillis() > timeout) {
+                fail("Timed out waiting for condition");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private interface Condition {
+        boolean isMet();
+    }
+
+    private static class SessionConnectorUnderTest extends SessionConnector {
+
+        SessionConnectorUnderTest(SessionSettings settings, SessionFactory sessionFactory) throws ConfigError {
+            super(settings, sessionFactory);
+        }
+
+        @Override
+        public void start() throws ConfigError, RuntimeError {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public void stop(boolean force) {
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) quickfixengine.org  All rights reserved.
+ *
+ * This file is part of the QuickFIX FIX Engine
+ *
+ * This file may be distributed under the terms of the quickfixengine.org
+ * license as defined by quickfixengine.org and appearing in the file
+ * LICENSE included in the packaging of this file.
+ *
+ * This file is provided AS IS with NO WARRANTY OF ANY KIND, INCLUDING
+ * THE WARRANTY OF DESIGN, MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE.
+ *
+ * See http://www.quickfixengine.org/LICENSE for licensing information.
+ *
+ * Contact ask@quickfixengine.org if any conditions of this licensing
+ * are not clear to you.
+ ******************************************************************************/
+
+
+package quickfix.mina;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RingBufferQueueTest {
+
+    @Test
+    public void testElementsAreTakenInOrder() throws Exception {
+        RingBufferQueue<Integer> queue = new RingBufferQueue<>(3, RingBufferQueue.WaitStrategy.BLOCKING);
+        assertTrue(queue.offer(1));
+        assertTrue(queue.offer(2));
+        assertTrue(queue.offer(3));
+        assertFalse(queue.offer(4));
+        assertEquals(3, queue.size());
+        assertEquals(0, queue.remainingCapacity());
+
+        assertEquals(Integer.valueOf(1), queue.peek());
+        assertEquals(Integer.valueOf(1), queue.poll());
+        assertTrue(queue.offer(4));
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(3, queue.drainTo(drained));
+        assertEquals(3, drained.size());
+        assertEquals(Integer.valueOf(4), drained.get(2));
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testPollTimesOut() throws Exception {
+        for (RingBufferQueue.WaitStrategy waitStrategy : RingBufferQueue.WaitStrategy.values()) {
+            RingBufferQueue<Integer> queue = new RingBufferQueue<>(4, waitStrategy);
+            long start = System.nanoTime();
+            assertNull(queue.poll(20, TimeUnit.MILLISECONDS));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+        }
+    }
+
+    @Test
+    public void testPutWaitsForSpace() throws Exception {
+        RingBufferQueue<Integer> queue = new RingBufferQueue<>(1, RingBufferQueue.WaitStrategy.BLOCKING);
+        queue.put(1);
+        assertFalse(queue.offer(2, 10, TimeUnit.MILLISECONDS));
+        Thread producer = new Thread(() -> {
+            try {
+                queue.put(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        assertEquals(Integer.valueOf(1), queue.take());
+        assertEquals(Integer.valueOf(2), queue.take());
+        producer.join(5000);
+        assertFalse(producer.isAlive());
+    }
+
+    @Test
+    public void testMultipleProducers() throws Exception {
+        for (RingBufferQueue.WaitStrategy waitStrategy : RingBufferQueue.WaitStrategy.values()) {
+            final int producers = 4;
+            final int count = 20000;
+            RingBufferQueue<int[]> queue = new RingBufferQueue<>(64, waitStrategy);
+            CountDownLatch start = new CountDownLatch(1);
+            for (int p = 0; p < producers; p++) {
+                final int producer = p;
+                Thread thread = new Thread(() -> {
+                    try {
+                        start.await();
+                        for (int i = 0; i < count; i++) {
+                            queue.put(new int[] { producer, i });
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                thread.setDaemon(true);
+                thread.start();
+            }
+            start.countDown();
+
+            int[] next = new int[producers];
+            for (int n = 0; n < producers * count; n++) {
+                int[] element = queue.poll(5, TimeUnit.SECONDS);
+                // elements of each producer arrive in order
+                assertEquals(waitStrategy.toString(), next[element[0]]++, element[1]);
+            }
+            assertTrue(queue.isEmpty());
+        }
+    }
+
+    @Test
+    public void testWatermarkTracker() throws Exception {
+        AtomicInteger suspended = new AtomicInteger();
+        RingBufferQueue<Integer> queue = new RingBufferQueue<>(8, RingBufferQueue.WaitStrategy.YIELDING);
+        WatermarkTracker<Integer, Void> tracker = WatermarkTracker.newMono(queue, 1, 3,
+                suspended::decrementAndGet, suspended::incrementAndGet);
+        for (int i = 0; i < 3; i++) {
+            tracker.put(i);
+        }
+        assertEquals(1, suspended.get());
+        assertEquals(3, queue.size());
+        assertEquals(Integer.valueOf(0), tracker.poll(1, TimeUnit.SECONDS));
+        assertEquals(2, tracker.drainTo(new ArrayList<>()));
+        assertEquals(0, suspended.get());
+        assertEquals(0, queue.size());
+    }
+}
@@ -19,6 +19,7 @@
  */
 package quickfix.mina;
 
+import org.apache.mina.core.session.IoSession;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
@@ -29,24 +30,40 @@ import quickfix.DefaultMessageFactory;
 import quickfix.DefaultSessionFactory;
 import quickfix.FixVersions;
 import quickfix.MemoryStoreFactory;
+import quickfix.Message;
 import quickfix.RuntimeError;
 import quickfix.SLF4JLogFactory;
+import quickfix.Session;
 import quickfix.SessionFactory;
+import quickfix.SessionFactoryTestSupport;
 import quickfix.SessionID;
 import quickfix.SessionSettings;
 import quickfix.SocketAcceptor;
 import quickfix.SocketInitiator;
 import quickfix.UnitTestApplication;
+import quickfix.field.BeginString;
+import quickfix.field.MsgSeqNum;
+import quickfix.field.MsgType;
+import quickfix.field.SenderCompID;
+import quickfix.field.SendingTime;
+import quickfix.field.TargetCompID;
 
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadInfo;
 import java.lang.management.ThreadMXBean;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import org.junit.AfterClass;
 import quickfix.test.util.ReflectionUtil;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static quickfix.test.util.ReflectionUtil.getField;
@@ -317,6 +334,67 @@ public class SingleThreadedEventHandlingStrategyTest {
                 QueueTracker.class) instanceof WatermarkTracker);
     }
 
+    @Test
+    public void shouldCreateRingBufferQueueForWaitStrategy() throws Exception {
+        assertTrue(getField(
+                new SingleThreadedEventHandlingStrategy(null, 42, RingBufferQueue.WaitStrategy.BLOCKING),
+                "eventQueue",
+                BlockingQueue.class) instanceof RingBufferQueue);
+
+        assertTrue(getField(
+                new SingleThreadedEventHandlingStrategy(null, 42, 43, RingBufferQueue.WaitStrategy.YIELDING),
+                "queueTracker",
+                QueueTracker.class) instanceof WatermarkTracker);
+
+        assertFalse(getField(
+                new SingleThreadedEventHandlingStrategy(null, 42),
+                "eventQueue",
+                BlockingQueue.class) instanceof RingBufferQueue);
+    }
+
+    @Test
+    public void shouldParseDeferredMessageOnMessageProcessorThread() throws Exception {
+        SessionSettings settings = new SessionSettings();
+        SessionConnector connector = new SessionConnectorUnderTest(settings, sessionFactory);
+        ehs = new SingleThreadedEventHandlingStrategy(connector, 1000);
+        Properties properties = new Properties();
+        properties.setProperty(NetworkingOptions.SETTING_SOCKET_DEFER_MESSAGE_PARSING, "Y");
+        final BlockingQueue<String> parsingThreads = new LinkedBlockingQueue<>();
+        final BlockingQueue<Message> parsedMessages = new LinkedBlockingQueue<>();
+        AbstractIoHandler handler = new AbstractIoHandler(settings, new NetworkingOptions(properties), ehs) {
+            @Override
+            protected void processMessage(IoSession ioSession, Message message) {
+                Assert.fail("message was not deferred");
+            }
+
+            @Override
+            protected void processDeferredMessage(IoSession ioSession, Message message) {
+                parsingThreads.add(Thread.currentThread().getName());
+                parsedMessages.add(message);
+            }
+        };
+        try (Session session = SessionFactoryTestSupport.createSession()) {
+            IoSession ioSession = Mockito.mock(IoSession.class);
+            Mockito.when(ioSession.getAttribute(SessionConnector.QF_SESSION)).thenReturn(session);
+            Message logout = new Message();
+            logout.getHeader().setString(BeginString.FIELD, FixVersions.BEGINSTRING_FIX42);
+            logout.getHeader().setString(MsgType.FIELD, MsgType.LOGOUT);
+            logout.getHeader().setString(SenderCompID.FIELD, session.getSessionID().getTargetCompID());
+            logout.getHeader().setString(TargetCompID.FIELD, session.getSessionID().getSenderCompID());
+            logout.getHeader().setInt(MsgSeqNum.FIELD, 1);
+            logout.getHeader().setUtcTimeStamp(SendingTime.FIELD, LocalDateTime.now(ZoneOffset.UTC));
+
+            handler.messageReceived(ioSession, logout.toString());
+            assertEquals(1, ehs.getQueueSize(session.getSessionID()));
+            assertTrue(parsedMessages.isEmpty());
+
+            ehs.blockInThread();
+            assertEquals(SingleThreadedEventHandlingStrategy.MESSAGE_PROCESSOR_THREAD_NAME,
+                    parsingThreads.poll(5, TimeUnit.SECONDS));
+            assertEquals(MsgType.LOGOUT, parsedMessages.take().getHeader().getString(MsgType.FIELD));
+        }
+    }
+
     private SocketAcceptor createAcceptor(int i) throws ConfigError {
         Map<Object, Object> acceptorProperties = new HashMap<>();
         acceptorProperties.put("ConnectionType", "acceptor");
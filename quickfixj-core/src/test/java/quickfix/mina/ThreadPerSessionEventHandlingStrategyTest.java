@@ -47,6 +47,7 @@ import quickfix.field.converter.UtcTimestampConverter;
 import quickfix.fix40.Logon;
 
 import java.util.Date;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -73,7 +74,7 @@ public class ThreadPerSessionEventHandlingStrategyTest {
         }
 
         @Override
-        protected Message getNextMessage(QueueTracker<Message> queueTracker) throws InterruptedException {
+        protected Object getNextMessage(QueueTracker<Object> queueTracker) throws InterruptedException {
             if (getMessageCount-- == 0) {
                 throw new InterruptedException("END COUNT");
             }
@@ -173,6 +174,84 @@ public class ThreadPerSessionEventHandlingStrategyTest {
         }
     }
 
+    @Test
+    public void testEventHandlingWithRingBufferQueue() throws Exception {
+        strategy.stopDispatcherThreads();
+        strategy = new ThreadPerSessionEventHandlingStrategy(null, 1000, RingBufferQueue.WaitStrategy.YIELDING);
+
+        final SessionID sessionID = new SessionID(FixVersions.BEGINSTRING_FIX40, "TW", "ISLD");
+        final CountDownLatch latch = new CountDownLatch(1);
+        final UnitTestApplication application = new UnitTestApplication() {
+            @Override
+            public void fromAdmin(Message message, SessionID sessionId) throws FieldNotFound,
+                    IncorrectDataFormat, IncorrectTagValue, RejectLogon {
+                super.fromAdmin(message, sessionId);
+                latch.countDown();
+            }
+        };
+
+        try (Session session = setUpSession(sessionID, application)) {
+            final Message message = new Logon();
+            message.getHeader().setString(SenderCompID.FIELD, "ISLD");
+            message.getHeader().setString(TargetCompID.FIELD, "TW");
+            message.getHeader().setString(SendingTime.FIELD,
+                    UtcTimestampConverter.convert(new Date(), false));
+            message.getHeader().setInt(MsgSeqNum.FIELD, 1);
+            message.setInt(HeartBtInt.FIELD, 30);
+
+            strategy.onMessage(session, message);
+
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                fail("Timeout");
+            }
+            assertEquals(1, application.fromAdminMessages.size());
+            assertEquals(0, strategy.getQueueSize(sessionID));
+            assertTrue(getField(strategy.getDispatcher(sessionID), "messages",
+                    BlockingQueue.class) instanceof RingBufferQueue);
+        }
+    }
+
+    @Test
+    public void testEventHandlingWithVirtualThreads() throws Exception {
+        strategy.setVirtualThreads(true);
+        // platform threads are used if the runtime has no virtual threads
+        assertEquals(VirtualThreads.isSupported(), strategy.isVirtualThreads());
+
+        final SessionID sessionID = new SessionID(FixVersions.BEGINSTRING_FIX40, "TW", "ISLD");
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Thread[] dispatcherThread = new Thread[1];
+        final UnitTestApplication application = new UnitTestApplication() {
+            @Override
+            public void fromAdmin(Message message, SessionID sessionId) throws FieldNotFound,
+                    IncorrectDataFormat, IncorrectTagValue, RejectLogon {
+                super.fromAdmin(message, sessionId);
+                dispatcherThread[0] = Thread.currentThread();
+                latch.countDown();
+            }
+        };
+
+        try (Session session = setUpSession(sessionID, application)) {
+            final Message message = new Logon();
+            message.getHeader().setString(SenderCompID.FIELD, "ISLD");
+            message.getHeader().setString(TargetCompID.FIELD, "TW");
+            message.getHeader().setString(SendingTime.FIELD,
+                    UtcTimestampConverter.convert(new Date(), false));
+            message.getHeader().setInt(MsgSeqNum.FIELD, 1);
+            message.setInt(HeartBtInt.FIELD, 30);
+
+            strategy.onMessage(session, message);
+
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                fail("Timeout");
+            }
+            assertEquals(1, application.fromAdminMessages.size());
+            assertEquals("QF/J Session dispatcher: " + sessionID, dispatcherThread[0].getName());
+            if (VirtualThreads.isSupported()) {
+                assertEquals(Boolean.TRUE, Thread.class.getMethod("isVirtual").invoke(dispatcherThread[0]));
+            }
+        }
+    }
+
     /**
      * See QFJ-686. Verify that thread is stopped if Session has no responder.
      */
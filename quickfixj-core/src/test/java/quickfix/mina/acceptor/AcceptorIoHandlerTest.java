@@ -21,6 +21,8 @@ package quickfix.mina.acceptor;
 
 import org.apache.mina.core.session.IoSession;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.quickfixj.CharsetSupport;
 import quickfix.FixVersions;
 import quickfix.Message;
 import quickfix.MessageUtils;
@@ -60,6 +62,7 @@ import java.util.Properties;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -141,6 +144,39 @@ public class AcceptorIoHandlerTest {
         }
     }
 
+    @Test
+    public void testLogonReceivedAsBytes() throws Exception {
+        EventHandlingStrategy mockEventHandlingStrategy = mock(EventHandlingStrategy.class);
+        IoSession mockIoSession = mock(IoSession.class);
+        SessionSettings settings = mock(SessionSettings.class);
+
+        final SessionID sessionID = new SessionID(FixVersions.BEGINSTRING_FIXT11, "SENDER",
+                "TARGET");
+        try (Session session = SessionFactoryTestSupport.createSession(sessionID,
+                new UnitTestApplication(), false)) {
+            when(mockIoSession.getAttribute("QF_SESSION")).thenReturn(null);    // to create a new Session
+
+            final HashMap<SessionID, Session> acceptorSessions = new HashMap<>();
+            acceptorSessions.put(sessionID, session);
+            final AcceptorIoHandler handler = new AcceptorIoHandler(createSessionProvider(acceptorSessions),
+                    settings, new NetworkingOptions(new Properties()), mockEventHandlingStrategy);
+
+            final Logon message = new Logon(new EncryptMethod(EncryptMethod.NONE_OTHER),
+                    new HeartBtInt(30), new DefaultApplVerID(ApplVerID.FIX50SP2));
+            message.getHeader().setString(TargetCompID.FIELD, sessionID.getSenderCompID());
+            message.getHeader().setString(SenderCompID.FIELD, sessionID.getTargetCompID());
+            message.getHeader().setField(new SendingTime(LocalDateTime.now()));
+            message.getHeader().setInt(MsgSeqNum.FIELD, 1);
+
+            // the session is looked up from the bytes, without decoding the message to a String
+            handler.messageReceived(mockIoSession, message.toString().getBytes(CharsetSupport.getCharsetInstance()));
+
+            ArgumentCaptor<Message> received = ArgumentCaptor.forClass(Message.class);
+            verify(mockEventHandlingStrategy).onMessage(eq(session), received.capture());
+            assertEquals(MsgType.LOGON, received.getValue().getHeader().getString(MsgType.FIELD));
+        }
+    }
+
     @Test
     public void testMessageBeforeLogon() throws Exception {
         IoSession mockIoSession = mock(IoSession.class);
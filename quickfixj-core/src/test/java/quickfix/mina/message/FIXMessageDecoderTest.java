@@ -236,6 +236,21 @@ public class FIXMessageDecoderTest {
         assertMessageFound(goodMessage, 3);
     }
 
+    @Test
+    public void testMessageBytesDecoding() throws Exception {
+        decoder = new FIXMessageDecoder(CharsetSupport.getCharset(), "\001", true);
+        String goodMessage = "8=FIX.4.2\0019=12\00135=X\001108=30\00110=036\001";
+        setUpBuffer("8=!@#$%" + goodMessage + goodMessage);
+        assertEquals("wrong decoder result", MessageDecoderResult.OK,
+                decoder.decode(null, buffer, decoderOutput));
+        assertEquals("wrong message count", 2, decoderOutput.getMessageCount());
+        for (Object message : decoderOutput.messages) {
+            assertTrue("expected byte[]", message instanceof byte[]);
+            assertEquals("wrong message", goodMessage,
+                    new String((byte[]) message, CharsetSupport.getCharsetInstance()));
+        }
+    }
+
     /**
      * QFJ-760
      */
@@ -125,6 +125,15 @@ public class FIXMessageEncoderTest {
         assertEquals(4, protocolEncoderOutputForTest.buffer.limit());
     }
 
+    @Test
+    public void testEncodingBytes() throws Exception {
+        FIXMessageEncoder encoder = new FIXMessageEncoder();
+        ProtocolEncoderOutputForTest protocolEncoderOutputForTest = new ProtocolEncoderOutputForTest();
+        encoder.encode(null, new byte[] { 'a', 'b', 'c', 'd' }, protocolEncoderOutputForTest);
+        assertEquals(4, protocolEncoderOutputForTest.buffer.limit());
+        assertEquals('a', protocolEncoderOutputForTest.buffer.get(0));
+    }
+
     @Test
     public void testEncodingStringChinese() throws Exception {
         CharsetSupport.setCharset("UTF-8");